@@ -0,0 +1,132 @@
+package br.com.bluesoft.erp.testecandidatos.admission;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limite de requisições simultâneas ajustado pela latência observada (AIMD).
+ * <p>
+ * Cada requisição concluída abaixo da latência alvo aumenta o limite em {@code 1/limite}, ou seja, cerca
+ * de uma vaga por rodada completa de requisições, desde que o limite esteja de fato em uso. Uma
+ * requisição acima da latência alvo multiplica o limite por {@code backoffRatio}. Só reduzem o limite as
+ * requisições admitidas depois da última redução, para que uma rajada de respostas lentas, todas
+ * admitidas com o limite antigo, conte como um único sinal de sobrecarga.
+ */
+public class AdaptiveConcurrencyLimiter implements MeterBinder {
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLatencyNanos;
+    private final double backoffRatio;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    private boolean decreased;
+    private long lastDecreaseNanos;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder decreases = new LongAdder();
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                                      Duration targetLatency, double backoffRatio) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limites inválidos: inicial " + initialLimit
+                    + ", mínimo " + minLimit + ", máximo " + maxLimit);
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Fator de redução deve estar entre 0 e 1");
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetLatencyNanos = targetLatency.toNanos();
+        this.backoffRatio = backoffRatio;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * Ocupa uma vaga, se houver. Toda vaga ocupada precisa ser liberada por um dos {@code release}.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                accepted.increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Libera a vaga e ajusta o limite pela latência da requisição.
+     */
+    public void release(long startNanos, long endNanos) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        long latency = endNanos - startNanos;
+        synchronized (this) {
+            if (latency > targetLatencyNanos) {
+                if (!decreased || startNanos - lastDecreaseNanos >= 0) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    decreased = true;
+                    lastDecreaseNanos = endNanos;
+                    decreases.increment();
+                }
+            } else if (inFlightBefore * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+        }
+    }
+
+    /**
+     * Libera a vaga sem ajustar o limite, para requisições cuja duração não reflete a carga.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Publica {@code admission.limit}, {@code admission.in.flight}, {@code admission.requests} por
+     * resultado e {@code admission.limit.decreases}, marcados com o nome do limite.
+     */
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        Gauge.builder("admission.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("limiter", name).register(meterRegistry);
+        Gauge.builder("admission.in.flight", this, AdaptiveConcurrencyLimiter::getInFlight)
+                .tag("limiter", name).register(meterRegistry);
+        FunctionCounter.builder("admission.requests", accepted, LongAdder::doubleValue)
+                .tag("limiter", name).tag("outcome", "accepted").register(meterRegistry);
+        FunctionCounter.builder("admission.requests", rejected, LongAdder::doubleValue)
+                .tag("limiter", name).tag("outcome", "rejected").register(meterRegistry);
+        FunctionCounter.builder("admission.limit.decreases", decreases, LongAdder::doubleValue)
+                .tag("limiter", name).register(meterRegistry);
+    }
+}
@@ -0,0 +1,73 @@
+package br.com.bluesoft.erp.testecandidatos.admission;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Filtro de controle de admissão: cada requisição ocupa uma vaga do limite de escrita ou do limite de
+ * leitura, conforme o método, e recebe 503 com {@code Retry-After} quando o limite está cheio, em vez de
+ * esperar na fila do banco. Leituras e escritas têm limites separados, para que um pico de escritas não
+ * derrube as consultas.
+ * <p>
+ * Requisições assíncronas, como os fluxos SSE, liberam a vaga assim que o processamento síncrono
+ * termina e não ajustam o limite.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private final AdaptiveConcurrencyLimiter writes;
+    private final AdaptiveConcurrencyLimiter reads;
+    private final List<String> pathPatterns;
+    private final String retryAfterSeconds;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public AdmissionControlFilter(AdaptiveConcurrencyLimiter writes, AdaptiveConcurrencyLimiter reads,
+                                  List<String> pathPatterns, Duration retryAfter) {
+        this.writes = writes;
+        this.reads = reads;
+        this.pathPatterns = pathPatterns;
+        this.retryAfterSeconds = String.valueOf(Math.max(1, retryAfter.getSeconds()));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return pathPatterns.stream().noneMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        AdaptiveConcurrencyLimiter limiter = isRead(request) ? reads : writes;
+        if (!limiter.tryAcquire()) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Servidor sobrecarregado");
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                limiter.release();
+            } else {
+                limiter.release(start, System.nanoTime());
+            }
+        }
+    }
+
+    private static boolean isRead(HttpServletRequest request) {
+        String method = request.getMethod();
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+}
@@ -0,0 +1,293 @@
+package br.com.bluesoft.erp.testecandidatos.catalog;
+
+import br.com.bluesoft.erp.testecandidatos.model.Product;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Fotografia imutável e colunar do catálogo de produtos, otimizada para leitura.
+ * Os campos numéricos ficam em arrays primitivos (preço em centavos), os textos em um
+ * {@link StringPool} e os índices por id e por SKU usam endereçamento aberto,
+ * evitando um objeto por produto no heap.
+ */
+public final class CatalogSnapshot {
+
+    /** Marcador de estoque nulo. */
+    public static final int NULL_STOCK = Integer.MIN_VALUE;
+    /** Marcador de limite de reposição nulo (limite padrão). */
+    public static final int NULL_THRESHOLD = Integer.MIN_VALUE;
+    /** Marcador de preço nulo. */
+    public static final long NULL_PRICE = Long.MIN_VALUE;
+
+    private static final int NOT_FOUND = -1;
+
+    private final long[] ids;
+    private final int[] stocks;
+    private final int[] reorderThresholds;
+    private final long[] priceCents;
+    private final int[] nameRefs;
+    private final int[] descriptionRefs;
+    private final int[] skuRefs;
+    private final StringPool strings;
+    private final LongIntHashMap idIndex;
+    private final int[] skuIndex;
+    private final long version;
+    private final Instant builtAt;
+
+    CatalogSnapshot(long[] ids, int[] stocks, int[] reorderThresholds, long[] priceCents, int[] nameRefs,
+                    int[] descriptionRefs, int[] skuRefs, StringPool strings, long version, Instant builtAt) {
+        this.ids = ids;
+        this.stocks = stocks;
+        this.reorderThresholds = reorderThresholds;
+        this.priceCents = priceCents;
+        this.nameRefs = nameRefs;
+        this.descriptionRefs = descriptionRefs;
+        this.skuRefs = skuRefs;
+        this.strings = strings;
+        this.version = version;
+        this.builtAt = builtAt;
+
+        this.idIndex = new LongIntHashMap(ids.length, NOT_FOUND);
+        for (int row = 0; row < ids.length; row++) {
+            idIndex.put(ids[row], row);
+        }
+        this.skuIndex = buildSkuIndex();
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Instant getBuiltAt() {
+        return builtAt;
+    }
+
+    /**
+     * @return a linha do produto ou -1 se não existir
+     */
+    public int rowOf(long id) {
+        return idIndex.get(id);
+    }
+
+    /**
+     * @return a linha do produto ou -1 se não existir
+     */
+    public int rowOfSku(String sku) {
+        if (sku == null) {
+            return NOT_FOUND;
+        }
+        byte[] utf8 = sku.getBytes(StandardCharsets.UTF_8);
+        int mask = skuIndex.length - 1;
+        int slot = sku.hashCode() & mask;
+        int entry;
+        while ((entry = skuIndex[slot]) != 0) {
+            int row = entry - 1;
+            if (strings.equalsUtf8(skuRefs[row], utf8)) {
+                return row;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NOT_FOUND;
+    }
+
+    public long getId(int row) {
+        return ids[row];
+    }
+
+    public int getStock(int row) {
+        return stocks[row];
+    }
+
+    public int getReorderThreshold(int row) {
+        return reorderThresholds[row];
+    }
+
+    public long getPriceCents(int row) {
+        return priceCents[row];
+    }
+
+    public String getName(int row) {
+        return strings.get(nameRefs[row]);
+    }
+
+    public String getDescription(int row) {
+        return strings.get(descriptionRefs[row]);
+    }
+
+    public String getSku(int row) {
+        return strings.get(skuRefs[row]);
+    }
+
+    public Optional<Product> findById(long id) {
+        int row = rowOf(id);
+        return row == NOT_FOUND ? Optional.empty() : Optional.of(toProduct(row));
+    }
+
+    public Optional<Product> findBySku(String sku) {
+        int row = rowOfSku(sku);
+        return row == NOT_FOUND ? Optional.empty() : Optional.of(toProduct(row));
+    }
+
+    public List<Product> findAll() {
+        List<Product> products = new ArrayList<>(ids.length);
+        for (int row = 0; row < ids.length; row++) {
+            products.add(toProduct(row));
+        }
+        return products;
+    }
+
+    /**
+     * Materializa a linha como um {@link Product} desanexado, apenas para resposta.
+     */
+    public Product toProduct(int row) {
+        Product product = new Product();
+        product.setId(ids[row]);
+        product.setName(getName(row));
+        product.setDescription(getDescription(row));
+        product.setSku(getSku(row));
+        product.setStock(stocks[row] == NULL_STOCK ? null : stocks[row]);
+        product.setReorderThreshold(reorderThresholds[row] == NULL_THRESHOLD ? null : reorderThresholds[row]);
+        product.setPrice(priceCents[row] == NULL_PRICE ? null : BigDecimal.valueOf(priceCents[row], 2));
+        return product;
+    }
+
+    // Acesso às colunas para serialização em arquivo
+    long[] ids() {
+        return ids;
+    }
+
+    int[] stocks() {
+        return stocks;
+    }
+
+    int[] reorderThresholds() {
+        return reorderThresholds;
+    }
+
+    long[] priceCents() {
+        return priceCents;
+    }
+
+    int[] nameRefs() {
+        return nameRefs;
+    }
+
+    int[] descriptionRefs() {
+        return descriptionRefs;
+    }
+
+    int[] skuRefs() {
+        return skuRefs;
+    }
+
+    StringPool strings() {
+        return strings;
+    }
+
+    private int[] buildSkuIndex() {
+        int capacity = Integer.highestOneBit(Math.max(2, ids.length * 2 - 1)) << 1;
+        int[] table = new int[capacity];
+        int mask = capacity - 1;
+        for (int row = 0; row < ids.length; row++) {
+            String sku = strings.get(skuRefs[row]);
+            if (sku == null) {
+                continue;
+            }
+            int slot = sku.hashCode() & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            // Guarda linha + 1 para que zero signifique posição vazia
+            table[slot] = row + 1;
+        }
+        return table;
+    }
+
+    public static long toCents(BigDecimal price) {
+        return price == null ? NULL_PRICE : price.setScale(2, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    public static Builder builder(int expectedSize) {
+        return new Builder(expectedSize);
+    }
+
+    public static final class Builder {
+
+        private long[] ids;
+        private int[] stocks;
+        private int[] reorderThresholds;
+        private long[] priceCents;
+        private int[] nameRefs;
+        private int[] descriptionRefs;
+        private int[] skuRefs;
+        private final StringPool.Builder strings = new StringPool.Builder();
+        private int size;
+
+        private Builder(int expectedSize) {
+            int capacity = Math.max(16, expectedSize);
+            ids = new long[capacity];
+            stocks = new int[capacity];
+            reorderThresholds = new int[capacity];
+            priceCents = new long[capacity];
+            nameRefs = new int[capacity];
+            descriptionRefs = new int[capacity];
+            skuRefs = new int[capacity];
+        }
+
+        public Builder add(long id, String name, String description, BigDecimal price, Integer stock, String sku) {
+            return add(id, name, description, price, stock, sku, null);
+        }
+
+        public Builder add(long id, String name, String description, BigDecimal price, Integer stock, String sku,
+                           Integer reorderThreshold) {
+            if (size == ids.length) {
+                grow();
+            }
+            ids[size] = id;
+            stocks[size] = stock == null ? NULL_STOCK : stock;
+            reorderThresholds[size] = reorderThreshold == null ? NULL_THRESHOLD : reorderThreshold;
+            priceCents[size] = toCents(price);
+            nameRefs[size] = strings.add(name);
+            descriptionRefs[size] = strings.add(description);
+            skuRefs[size] = strings.add(sku);
+            size++;
+            return this;
+        }
+
+        public CatalogSnapshot build(long version) {
+            return new CatalogSnapshot(
+                    Arrays.copyOf(ids, size),
+                    Arrays.copyOf(stocks, size),
+                    Arrays.copyOf(reorderThresholds, size),
+                    Arrays.copyOf(priceCents, size),
+                    Arrays.copyOf(nameRefs, size),
+                    Arrays.copyOf(descriptionRefs, size),
+                    Arrays.copyOf(skuRefs, size),
+                    strings.build(),
+                    version,
+                    Instant.now());
+        }
+
+        private void grow() {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            stocks = Arrays.copyOf(stocks, capacity);
+            reorderThresholds = Arrays.copyOf(reorderThresholds, capacity);
+            priceCents = Arrays.copyOf(priceCents, capacity);
+            nameRefs = Arrays.copyOf(nameRefs, capacity);
+            descriptionRefs = Arrays.copyOf(descriptionRefs, capacity);
+            skuRefs = Arrays.copyOf(skuRefs, capacity);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package br.com.bluesoft.erp.testecandidatos.catalog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.zip.CRC32;
+
+/**
+ * Persistência binária da {@link CatalogSnapshot} em arquivo mapeado em memória.
+ * <p>
+ * Formato (big-endian): cabeçalho de {@value #HEADER_SIZE} bytes com assinatura, versão do formato,
+ * versão e instante da fotografia, quantidade de linhas, quantidade e tamanho das strings e o CRC32
+ * do conteúdo; em seguida as colunas na ordem ids, preços, estoques, limites de reposição, referências
+ * de nome, descrição e SKU, os deslocamentos do pool de strings e os bytes UTF-8 do pool.
+ */
+public final class CatalogSnapshotFile {
+
+    /** Assinatura "BSCT" no início do arquivo. */
+    static final int MAGIC = 0x42534354;
+    /** Versão atual do formato; arquivos de outras versões são recusados. */
+    static final int FORMAT_VERSION = 2;
+    static final int HEADER_SIZE = 40;
+
+    private CatalogSnapshotFile() {
+    }
+
+    /**
+     * Grava a fotografia em um arquivo temporário e o move atomicamente para o destino,
+     * de forma que leitores nunca vejam um arquivo parcialmente escrito.
+     */
+    public static void write(CatalogSnapshot snapshot, Path target) throws IOException {
+        int rows = snapshot.size();
+        StringPool strings = snapshot.strings();
+        int stringCount = strings.size();
+        int stringBytes = strings.byteSize();
+        long size = HEADER_SIZE
+                + (long) rows * (Long.BYTES * 2 + Integer.BYTES * 5)
+                + (long) (stringCount + 1) * Integer.BYTES
+                + stringBytes;
+
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+            buffer.position(HEADER_SIZE);
+            buffer.asLongBuffer().put(snapshot.ids());
+            buffer.position(buffer.position() + rows * Long.BYTES);
+            buffer.asLongBuffer().put(snapshot.priceCents());
+            buffer.position(buffer.position() + rows * Long.BYTES);
+            putInts(buffer, snapshot.stocks(), rows);
+            putInts(buffer, snapshot.reorderThresholds(), rows);
+            putInts(buffer, snapshot.nameRefs(), rows);
+            putInts(buffer, snapshot.descriptionRefs(), rows);
+            putInts(buffer, snapshot.skuRefs(), rows);
+            putInts(buffer, strings.rawOffsets(), stringCount + 1);
+            buffer.put(strings.rawBytes(), 0, stringBytes);
+
+            buffer.position(0);
+            buffer.putInt(MAGIC);
+            buffer.putInt(FORMAT_VERSION);
+            buffer.putLong(snapshot.getVersion());
+            buffer.putLong(snapshot.getBuiltAt().toEpochMilli());
+            buffer.putInt(rows);
+            buffer.putInt(stringCount);
+            buffer.putInt(stringBytes);
+            buffer.putInt((int) checksum(buffer, size));
+            buffer.force();
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Mapeia o arquivo em memória, valida assinatura, versão do formato, tamanhos e CRC32,
+     * e copia as colunas em bloco para uma nova fotografia.
+     *
+     * @throws IOException se o arquivo não puder ser lido ou estiver corrompido
+     */
+    public static CatalogSnapshot read(Path source) throws IOException {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("Arquivo de fotografia truncado: " + source);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Arquivo não é uma fotografia do catálogo: " + source);
+            }
+            int formatVersion = buffer.getInt();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException("Versão de formato não suportada: " + formatVersion);
+            }
+            long version = buffer.getLong();
+            Instant builtAt = Instant.ofEpochMilli(buffer.getLong());
+            int rows = buffer.getInt();
+            int stringCount = buffer.getInt();
+            int stringBytes = buffer.getInt();
+            int expectedCrc = buffer.getInt();
+
+            long expectedSize = HEADER_SIZE
+                    + (long) rows * (Long.BYTES * 2 + Integer.BYTES * 5)
+                    + (long) (stringCount + 1) * Integer.BYTES
+                    + stringBytes;
+            if (rows < 0 || stringCount < 0 || stringBytes < 0 || expectedSize != size) {
+                throw new IOException("Tamanho inconsistente na fotografia: " + source);
+            }
+            if ((int) checksum(buffer, size) != expectedCrc) {
+                throw new IOException("Checksum inválido na fotografia: " + source);
+            }
+
+            buffer.position(HEADER_SIZE);
+            long[] ids = new long[rows];
+            buffer.asLongBuffer().get(ids);
+            buffer.position(buffer.position() + rows * Long.BYTES);
+            long[] priceCents = new long[rows];
+            buffer.asLongBuffer().get(priceCents);
+            buffer.position(buffer.position() + rows * Long.BYTES);
+            int[] stocks = getInts(buffer, rows);
+            int[] reorderThresholds = getInts(buffer, rows);
+            int[] nameRefs = getInts(buffer, rows);
+            int[] descriptionRefs = getInts(buffer, rows);
+            int[] skuRefs = getInts(buffer, rows);
+            int[] offsets = getInts(buffer, stringCount + 1);
+            byte[] bytes = new byte[stringBytes];
+            buffer.get(bytes);
+
+            StringPool strings = StringPool.wrap(bytes, offsets, stringCount);
+            return new CatalogSnapshot(ids, stocks, reorderThresholds, priceCents, nameRefs, descriptionRefs, skuRefs,
+                    strings, version, builtAt);
+        }
+    }
+
+    private static long checksum(ByteBuffer buffer, long size) {
+        CRC32 crc = new CRC32();
+        ByteBuffer payload = buffer.duplicate();
+        payload.limit((int) size).position(HEADER_SIZE);
+        crc.update(payload);
+        return crc.getValue();
+    }
+
+    private static void putInts(ByteBuffer buffer, int[] values, int length) {
+        buffer.asIntBuffer().put(values, 0, length);
+        buffer.position(buffer.position() + length * Integer.BYTES);
+    }
+
+    private static int[] getInts(ByteBuffer buffer, int length) {
+        int[] values = new int[length];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + length * Integer.BYTES);
+        return values;
+    }
+}
@@ -0,0 +1,77 @@
+package br.com.bluesoft.erp.testecandidatos.catalog;
+
+import java.util.Arrays;
+
+/**
+ * Mapa de chaves {@code long} para valores {@code int} com endereçamento aberto
+ * e sondagem linear, sem objetos por entrada.
+ * Não é thread-safe para escrita; depois de preenchido pode ser lido por várias threads.
+ */
+public final class LongIntHashMap {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final long[] keys;
+    private final int[] values;
+    private final int mask;
+    private final int missingValue;
+    private int size;
+
+    /**
+     * @param expectedSize quantidade esperada de chaves; a tabela é dimensionada para ocupação máxima de 50%
+     * @param missingValue valor devolvido por {@link #get(long)} para chaves ausentes
+     */
+    public LongIntHashMap(int expectedSize, int missingValue) {
+        int capacity = Integer.highestOneBit(Math.max(2, expectedSize * 2 - 1)) << 1;
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        this.mask = capacity - 1;
+        this.missingValue = missingValue;
+        Arrays.fill(keys, EMPTY);
+    }
+
+    public void put(long key, int value) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Chave reservada: " + key);
+        }
+        int slot = slot(key);
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == EMPTY) {
+            if (size + 1 > keys.length / 2) {
+                throw new IllegalStateException("Capacidade do mapa excedida");
+            }
+            size++;
+            keys[slot] = key;
+        }
+        values[slot] = value;
+    }
+
+    public int get(long key) {
+        int slot = slot(key);
+        long current;
+        while ((current = keys[slot]) != EMPTY) {
+            if (current == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return missingValue;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int slot(long key) {
+        // Espalhamento de 64 bits (finalizador do MurmurHash3)
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+}
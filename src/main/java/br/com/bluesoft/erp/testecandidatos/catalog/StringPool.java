@@ -0,0 +1,97 @@
+package br.com.bluesoft.erp.testecandidatos.catalog;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Armazena muitas strings em um único array de bytes UTF-8.
+ * Cada string é referenciada por um índice inteiro; {@code -1} representa {@code null}.
+ */
+public final class StringPool {
+
+    public static final int NULL_REF = -1;
+
+    private final byte[] bytes;
+    private final int[] offsets;
+    private final int count;
+
+    private StringPool(byte[] bytes, int[] offsets, int count) {
+        this.bytes = bytes;
+        this.offsets = offsets;
+        this.count = count;
+    }
+
+    public String get(int ref) {
+        if (ref == NULL_REF) {
+            return null;
+        }
+        int start = offsets[ref];
+        return new String(bytes, start, offsets[ref + 1] - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compara a string referenciada com o valor já codificado em UTF-8, sem criar objetos.
+     */
+    public boolean equalsUtf8(int ref, byte[] utf8) {
+        if (ref == NULL_REF) {
+            return false;
+        }
+        int start = offsets[ref];
+        int length = offsets[ref + 1] - start;
+        return length == utf8.length && Arrays.equals(bytes, start, start + length, utf8, 0, length);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Quantidade de bytes ocupados pelo conteúdo das strings.
+     */
+    public int byteSize() {
+        return offsets[count];
+    }
+
+    byte[] rawBytes() {
+        return bytes;
+    }
+
+    int[] rawOffsets() {
+        return offsets;
+    }
+
+    static StringPool wrap(byte[] bytes, int[] offsets, int count) {
+        return new StringPool(bytes, offsets, count);
+    }
+
+    public static final class Builder {
+
+        private byte[] bytes = new byte[1024];
+        private int[] offsets = new int[64];
+        private int count;
+
+        public int add(String value) {
+            if (value == null) {
+                return NULL_REF;
+            }
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            int start = offsets[count];
+            if (start + encoded.length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, start + encoded.length));
+            }
+            if (count + 2 > offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            System.arraycopy(encoded, 0, bytes, start, encoded.length);
+            offsets[count + 1] = start + encoded.length;
+            return count++;
+        }
+
+        public StringPool build() {
+            return new StringPool(
+                    Arrays.copyOf(bytes, offsets[count]),
+                    Arrays.copyOf(offsets, count + 1),
+                    count);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package br.com.bluesoft.erp.testecandidatos.concurrent;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa chamadas concorrentes idênticas em uma única execução ("single-flight").
+ * Enquanto a primeira chamada para uma chave está em andamento, as demais aguardam
+ * e recebem o mesmo resultado (ou a mesma exceção). Nada é guardado depois que a execução termina.
+ * @param <K> Tipo da chave
+ * @param <V> Tipo do resultado
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder collapsed = new LongAdder();
+
+    public SingleFlight() {
+    }
+
+    /**
+     * Cria o agrupador publicando os contadores {@code lookups.executed} e {@code lookups.coalesced}.
+     */
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        FunctionCounter.builder("lookups.executed", executions, LongAdder::doubleValue)
+                .tag("lookup", name)
+                .register(meterRegistry);
+        FunctionCounter.builder("lookups.coalesced", collapsed, LongAdder::doubleValue)
+                .tag("lookup", name)
+                .register(meterRegistry);
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            collapsed.increment();
+            return await(existing);
+        }
+
+        executions.increment();
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    public long getCollapsed() {
+        return collapsed.sum();
+    }
+
+    private static <V> V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package br.com.bluesoft.erp.testecandidatos.concurrent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Conjunto fixo de travas indexadas pelo hash de uma chave numérica ("lock striping").
+ * Chaves diferentes podem compartilhar a mesma trava, mas a memória fica limitada
+ * ao número de faixas, independentemente da quantidade de chaves.
+ * Quando várias chaves precisam ser travadas juntas, as faixas são adquiridas em ordem
+ * crescente para evitar deadlock.
+ */
+public class StripedLock {
+
+    private final ReentrantLock[] locks;
+    private final int mask;
+
+    private final Timer waitTimer;
+    private final Counter contended;
+
+    /**
+     * @param stripes quantidade de faixas; arredondada para a próxima potência de dois
+     */
+    public StripedLock(int stripes) {
+        this(stripes, null, null);
+    }
+
+    /**
+     * Cria as travas publicando o timer {@code locks.wait} e o contador {@code locks.contended}.
+     */
+    public StripedLock(int stripes, String name, MeterRegistry meterRegistry) {
+        int size = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+
+        if (meterRegistry != null) {
+            this.waitTimer = Timer.builder("locks.wait")
+                    .tag("lock", name)
+                    .register(meterRegistry);
+            this.contended = Counter.builder("locks.contended")
+                    .tag("lock", name)
+                    .register(meterRegistry);
+        } else {
+            this.waitTimer = null;
+            this.contended = null;
+        }
+    }
+
+    public int stripes() {
+        return locks.length;
+    }
+
+    public int stripeOf(long key) {
+        // Espalha os bits para que ids sequenciais não caiam em faixas vizinhas previsíveis
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    /**
+     * Adquire a trava da chave, registrando o tempo de espera quando há disputa.
+     * Deve ser liberada com {@link #unlock(long)} pela mesma thread.
+     */
+    public void lock(long key) {
+        acquire(locks[stripeOf(key)]);
+    }
+
+    public void unlock(long key) {
+        locks[stripeOf(key)].unlock();
+    }
+
+    /**
+     * Adquire as travas de todas as chaves em ordem crescente de faixa, sem repetições.
+     *
+     * @return as faixas adquiridas, a serem passadas para {@link #unlockStripes(int[])}
+     */
+    public int[] lockAll(long... keys) {
+        int[] stripes = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            stripes[i] = stripeOf(keys[i]);
+        }
+        Arrays.sort(stripes);
+        int count = 0;
+        for (int i = 0; i < stripes.length; i++) {
+            if (i == 0 || stripes[i] != stripes[i - 1]) {
+                stripes[count++] = stripes[i];
+            }
+        }
+        int[] acquired = Arrays.copyOf(stripes, count);
+        for (int i = 0; i < acquired.length; i++) {
+            try {
+                acquire(locks[acquired[i]]);
+            } catch (RuntimeException | Error e) {
+                unlockStripes(Arrays.copyOf(acquired, i));
+                throw e;
+            }
+        }
+        return acquired;
+    }
+
+    public void unlockStripes(int[] stripes) {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            locks[stripes[i]].unlock();
+        }
+    }
+
+    private void acquire(ReentrantLock lock) {
+        if (lock.tryLock()) {
+            return;
+        }
+        long start = System.nanoTime();
+        lock.lock();
+        if (waitTimer != null) {
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            contended.increment();
+        }
+    }
+}
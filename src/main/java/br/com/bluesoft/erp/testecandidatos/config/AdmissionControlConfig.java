@@ -0,0 +1,74 @@
+package br.com.bluesoft.erp.testecandidatos.config;
+
+import br.com.bluesoft.erp.testecandidatos.admission.AdaptiveConcurrencyLimiter;
+import br.com.bluesoft.erp.testecandidatos.admission.AdmissionControlFilter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Configuração do controle de admissão dos endpoints de pedidos e produtos, com limites separados
+ * para escrita e leitura.
+ */
+@Configuration
+@ConditionalOnProperty(name = "admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionControlConfig {
+
+    @Bean
+    public AdaptiveConcurrencyLimiter writeConcurrencyLimiter(
+            @Value("${admission.writes.initial-limit:20}") int initialLimit,
+            @Value("${admission.writes.min-limit:2}") int minLimit,
+            @Value("${admission.writes.max-limit:200}") int maxLimit,
+            @Value("${admission.writes.target-latency-ms:250}") long targetLatencyMillis,
+            @Value("${admission.backoff-ratio:0.9}") double backoffRatio) {
+        return new AdaptiveConcurrencyLimiter("writes", initialLimit, minLimit, maxLimit,
+                Duration.ofMillis(targetLatencyMillis), backoffRatio);
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimiter readConcurrencyLimiter(
+            @Value("${admission.reads.initial-limit:100}") int initialLimit,
+            @Value("${admission.reads.min-limit:10}") int minLimit,
+            @Value("${admission.reads.max-limit:1000}") int maxLimit,
+            @Value("${admission.reads.target-latency-ms:250}") long targetLatencyMillis,
+            @Value("${admission.backoff-ratio:0.9}") double backoffRatio) {
+        return new AdaptiveConcurrencyLimiter("reads", initialLimit, minLimit, maxLimit,
+                Duration.ofMillis(targetLatencyMillis), backoffRatio);
+    }
+
+    @Bean
+    public MeterBinder admissionControlMetrics(
+            @Qualifier("writeConcurrencyLimiter") AdaptiveConcurrencyLimiter writes,
+            @Qualifier("readConcurrencyLimiter") AdaptiveConcurrencyLimiter reads) {
+        return meterRegistry -> {
+            writes.bindTo(meterRegistry);
+            reads.bindTo(meterRegistry);
+        };
+    }
+
+    /**
+     * Roda antes do filtro de idempotência, para que uma requisição recusada não reserve a chave.
+     */
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(
+            @Qualifier("writeConcurrencyLimiter") AdaptiveConcurrencyLimiter writes,
+            @Qualifier("readConcurrencyLimiter") AdaptiveConcurrencyLimiter reads,
+            @Value("${admission.retry-after-seconds:1}") long retryAfterSeconds) {
+        AdmissionControlFilter filter = new AdmissionControlFilter(writes, reads,
+                Arrays.asList("/api/orders", "/api/orders/**", "/api/products", "/api/products/**"),
+                Duration.ofSeconds(retryAfterSeconds));
+
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/orders", "/api/orders/*", "/api/products", "/api/products/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
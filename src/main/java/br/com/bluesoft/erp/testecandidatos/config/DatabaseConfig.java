@@ -1,6 +1,11 @@
 package br.com.bluesoft.erp.testecandidatos.config;
 
+import br.com.bluesoft.erp.testecandidatos.datasource.ReadWriteRoutingDataSource;
+import br.com.bluesoft.erp.testecandidatos.datasource.ReplicaLagMonitor;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.hibernate.jpa.HibernatePersistenceProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.jdbc.DataSourceBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
@@ -18,18 +23,48 @@ import java.util.Properties;
 @Configuration
 public class DatabaseConfig {
 
+    /**
+     * Banco primário; com a réplica habilitada, transações somente leitura são roteadas para ela.
+     */
     @Bean
-    public DataSource dataSource() {
-        return new EmbeddedDatabaseBuilder()
+    public DataSource dataSource(@Value("${datasource.replica.enabled:false}") boolean replicaEnabled,
+                                 @Value("${datasource.replica.url:}") String replicaUrl,
+                                 @Value("${datasource.replica.username:sa}") String replicaUsername,
+                                 @Value("${datasource.replica.password:}") String replicaPassword,
+                                 @Value("${datasource.replica.max-lag-ms:1000}") long maxLagMillis,
+                                 @Value("${datasource.replica.check-interval-ms:500}") long checkIntervalMillis) {
+        DataSource primary = new EmbeddedDatabaseBuilder()
                 .setType(EmbeddedDatabaseType.H2)
                 .setName("testdb")
                 .build();
+        if (!replicaEnabled) {
+            return primary;
+        }
+
+        DataSource replica = DataSourceBuilder.create()
+                .url(replicaUrl)
+                .driverClassName("org.h2.Driver")
+                .username(replicaUsername)
+                .password(replicaPassword)
+                .build();
+        ReplicaLagMonitor lagMonitor = new ReplicaLagMonitor(primary, replica, maxLagMillis);
+        lagMonitor.start(checkIntervalMillis);
+        return new ReadWriteRoutingDataSource(primary, replica, lagMonitor);
+    }
+
+    @Bean
+    public MeterBinder dataSourceRoutingMetrics(DataSource dataSource) {
+        return meterRegistry -> {
+            if (dataSource instanceof ReadWriteRoutingDataSource) {
+                ((ReadWriteRoutingDataSource) dataSource).bindTo(meterRegistry);
+            }
+        };
     }
 
     @Bean
-    public LocalContainerEntityManagerFactoryBean entityManagerFactory() {
+    public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
         LocalContainerEntityManagerFactoryBean em = new LocalContainerEntityManagerFactoryBean();
-        em.setDataSource(dataSource());
+        em.setDataSource(dataSource);
         em.setPackagesToScan("br.com.bluesoft.erp.testecandidatos.model");
         em.setPersistenceProviderClass(HibernatePersistenceProvider.class);
         em.setJpaVendorAdapter(jpaVendorAdapter());
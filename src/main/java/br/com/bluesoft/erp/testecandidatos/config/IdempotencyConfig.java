@@ -0,0 +1,46 @@
+package br.com.bluesoft.erp.testecandidatos.config;
+
+import br.com.bluesoft.erp.testecandidatos.idempotency.DatabaseIdempotencyStore;
+import br.com.bluesoft.erp.testecandidatos.idempotency.IdempotencyFilter;
+import br.com.bluesoft.erp.testecandidatos.idempotency.IdempotencyStore;
+import br.com.bluesoft.erp.testecandidatos.idempotency.InMemoryIdempotencyStore;
+import br.com.bluesoft.erp.testecandidatos.repository.IdempotencyRecordRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Configuração do suporte a Idempotency-Key nos endpoints de criação de pedidos e itens.
+ */
+@Configuration
+public class IdempotencyConfig {
+
+    @Bean
+    public IdempotencyStore idempotencyStore(IdempotencyRecordRepository idempotencyRecordRepository,
+                                             @Value("${idempotency.store:memory}") String storeType,
+                                             @Value("${idempotency.ttl-seconds:86400}") long ttlSeconds,
+                                             @Value("${idempotency.max-entries:100000}") int maxEntries) {
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        if ("database".equals(storeType)) {
+            return new DatabaseIdempotencyStore(idempotencyRecordRepository, ttl);
+        }
+        return new InMemoryIdempotencyStore(ttl, maxEntries);
+    }
+
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(
+            IdempotencyStore idempotencyStore,
+            @Value("${idempotency.wait-timeout-ms:10000}") long waitTimeoutMillis) {
+        IdempotencyFilter filter = new IdempotencyFilter(idempotencyStore,
+                Arrays.asList("/api/orders", "/api/orders/*/items"),
+                Duration.ofMillis(waitTimeoutMillis));
+
+        FilterRegistrationBean<IdempotencyFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/orders", "/api/orders/*");
+        return registration;
+    }
+}
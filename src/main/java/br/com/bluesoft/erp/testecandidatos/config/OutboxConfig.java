@@ -0,0 +1,27 @@
+package br.com.bluesoft.erp.testecandidatos.config;
+
+import br.com.bluesoft.erp.testecandidatos.outbox.FileOutboxSink;
+import br.com.bluesoft.erp.testecandidatos.outbox.InMemoryOutboxSink;
+import br.com.bluesoft.erp.testecandidatos.outbox.OutboxSink;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Configuração do destino dos eventos do outbox.
+ */
+@Configuration
+public class OutboxConfig {
+
+    @Bean
+    public OutboxSink outboxSink(@Value("${outbox.sink:memory}") String sinkType,
+                                 @Value("${outbox.file.path:data/outbox/order-events.jsonl}") String filePath) throws IOException {
+        if ("file".equals(sinkType)) {
+            return new FileOutboxSink(Paths.get(filePath));
+        }
+        return new InMemoryOutboxSink();
+    }
+}
@@ -0,0 +1,13 @@
+package br.com.bluesoft.erp.testecandidatos.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita as tarefas agendadas da aplicação. O agendador é o do Spring Boot, com o tamanho do pool em
+ * {@code spring.task.scheduling.pool.size}; com uma única thread, uma tarefa longa atrasaria todas as outras.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
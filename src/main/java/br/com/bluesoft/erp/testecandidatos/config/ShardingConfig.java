@@ -0,0 +1,45 @@
+package br.com.bluesoft.erp.testecandidatos.config;
+
+import br.com.bluesoft.erp.testecandidatos.sharding.ShardedOrderStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuração dos shards de pedidos. Cada shard é um banco próprio, cuja URL é obtida
+ * substituindo o número do shard no modelo configurado.
+ * <p>
+ * Com os shards ativos as tabelas {@code orders} e {@code order_items} do banco principal ficam
+ * vazias. Os leitores de pedidos recebem o {@link ShardedOrderStore} quando ele existe: relatórios,
+ * reconstrução dos totais diários e contagem exata de clientes agregam cada shard, a visão de
+ * leitura relê o pedido do seu shard e os clientes com pedidos vêm dos ids gravados nos shards.
+ * Consultas novas sobre pedidos não podem usar {@code Order} via JPA nem SQL direto no banco principal.
+ */
+@Configuration
+@ConditionalOnProperty(name = "orders.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    @Bean
+    public ShardedOrderStore shardedOrderStore(
+            @Value("${orders.sharding.shards:4}") int shardCount,
+            @Value("${orders.sharding.url-template:jdbc:h2:mem:orders-shard-%d;DB_CLOSE_DELAY=-1}") String urlTemplate,
+            @Value("${orders.sharding.username:sa}") String username,
+            @Value("${orders.sharding.password:}") String password) {
+        List<DataSource> shards = new ArrayList<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            shards.add(DataSourceBuilder.create()
+                    .url(String.format(urlTemplate, shard))
+                    .driverClassName("org.h2.Driver")
+                    .username(username)
+                    .password(password)
+                    .build());
+        }
+        return new ShardedOrderStore(shards);
+    }
+}
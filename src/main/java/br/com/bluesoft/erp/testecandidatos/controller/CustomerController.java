@@ -1,5 +1,6 @@
 package br.com.bluesoft.erp.testecandidatos.controller;
 
+import br.com.bluesoft.erp.testecandidatos.dto.CustomerResponse;
 import br.com.bluesoft.erp.testecandidatos.model.Customer;
 import br.com.bluesoft.erp.testecandidatos.service.CustomerService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,6 +12,7 @@ import java.util.List;
 
 /**
  * Controller para gerenciamento de clientes.
+ * As respostas são {@link CustomerResponse}, sem os pedidos do cliente.
  */
 @RestController
 @RequestMapping("/api/customers")
@@ -24,44 +26,46 @@ public class CustomerController {
     }
 
     @GetMapping
-    public ResponseEntity<List<Customer>> getAllCustomers() {
-        List<Customer> customers = customerService.findAllCustomers();
+    public ResponseEntity<List<CustomerResponse>> getAllCustomers() {
+        List<CustomerResponse> customers = customerService.findAllCustomerSummaries();
         return ResponseEntity.ok(customers);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Customer> getCustomerById(@PathVariable Long id) {
+    public ResponseEntity<CustomerResponse> getCustomerById(@PathVariable Long id) {
         return customerService.findCustomerById(id)
+                .map(CustomerResponse::of)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/email/{email}")
-    public ResponseEntity<Customer> getCustomerByEmail(@PathVariable String email) {
+    public ResponseEntity<CustomerResponse> getCustomerByEmail(@PathVariable String email) {
         return customerService.findCustomerByEmail(email)
+                .map(CustomerResponse::of)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<Customer>> searchCustomersByName(@RequestParam String name) {
-        List<Customer> customers = customerService.searchCustomersByName(name);
+    public ResponseEntity<List<CustomerResponse>> searchCustomersByName(@RequestParam String name) {
+        List<CustomerResponse> customers = customerService.searchCustomerSummariesByName(name);
         return ResponseEntity.ok(customers);
     }
 
     @PostMapping
-    public ResponseEntity<Customer> createCustomer(@RequestBody Customer customer) {
+    public ResponseEntity<CustomerResponse> createCustomer(@RequestBody Customer customer) {
         Customer savedCustomer = customerService.saveCustomer(customer);
-        return ResponseEntity.status(HttpStatus.CREATED).body(savedCustomer);
+        return ResponseEntity.status(HttpStatus.CREATED).body(CustomerResponse.of(savedCustomer));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Customer> updateCustomer(@PathVariable Long id, @RequestBody Customer customer) {
+    public ResponseEntity<CustomerResponse> updateCustomer(@PathVariable Long id, @RequestBody Customer customer) {
         return customerService.findCustomerById(id)
                 .map(existingCustomer -> {
                     customer.setId(id);
                     customerService.updateCustomer(customer);
-                    return ResponseEntity.ok(customer);
+                    return ResponseEntity.ok(CustomerResponse.of(customer));
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -73,8 +77,8 @@ public class CustomerController {
     }
 
     @GetMapping("/with-orders")
-    public ResponseEntity<List<Customer>> getCustomersWithOrders() {
-        List<Customer> customers = customerService.findCustomersWithOrders();
+    public ResponseEntity<List<CustomerResponse>> getCustomersWithOrders() {
+        List<CustomerResponse> customers = customerService.findCustomerSummariesWithOrders();
         return ResponseEntity.ok(customers);
     }
 
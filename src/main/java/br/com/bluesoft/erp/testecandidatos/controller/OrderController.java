@@ -1,61 +1,115 @@
 package br.com.bluesoft.erp.testecandidatos.controller;
 
+import br.com.bluesoft.erp.testecandidatos.dto.OrderResponse;
+import br.com.bluesoft.erp.testecandidatos.dto.OrderSummaryResponse;
 import br.com.bluesoft.erp.testecandidatos.model.Order;
 import br.com.bluesoft.erp.testecandidatos.model.OrderItem;
+import br.com.bluesoft.erp.testecandidatos.model.OrderStatusChange;
+import br.com.bluesoft.erp.testecandidatos.service.FinalizationStatus;
+import br.com.bluesoft.erp.testecandidatos.service.OrderFinalizationService;
+import br.com.bluesoft.erp.testecandidatos.service.OrderQueryService;
 import br.com.bluesoft.erp.testecandidatos.service.OrderService;
+import br.com.bluesoft.erp.testecandidatos.service.OrderStatusStream;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * Controller para gerenciamento de pedidos.
+ * As listagens devolvem {@link OrderSummaryResponse} e as consultas de um pedido {@link OrderResponse},
+ * projetados direto das consultas, sem serializar as entidades.
  */
 @RestController
 @RequestMapping("/api/orders")
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderFinalizationService finalizationService;
+    private final OrderQueryService orderQueryService;
+    private final OrderStatusStream orderStatusStream;
 
     @Autowired
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService,
+                           OrderFinalizationService finalizationService,
+                           OrderQueryService orderQueryService,
+                           OrderStatusStream orderStatusStream) {
         this.orderService = orderService;
+        this.finalizationService = finalizationService;
+        this.orderQueryService = orderQueryService;
+        this.orderStatusStream = orderStatusStream;
     }
 
+    // Com o modelo de leitura ativo, as consultas devolvem a visão desnormalizada do pedido
+
     @GetMapping
-    public ResponseEntity<List<Order>> getAllOrders() {
-        List<Order> orders = orderService.findAllOrders();
+    public ResponseEntity<List<?>> getAllOrders() {
+        if (orderQueryService.isReadModelEnabled()) {
+            return ResponseEntity.ok(orderQueryService.findAllOrderViews());
+        }
+        List<OrderSummaryResponse> orders = orderService.findOrderSummaries();
         return ResponseEntity.ok(orders);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Order> getOrderById(@PathVariable Long id) {
-        return orderService.findOrderById(id)
-                .map(ResponseEntity::ok)
+    public ResponseEntity<?> getOrderById(@PathVariable Long id) {
+        Optional<?> order = orderQueryService.isReadModelEnabled()
+                ? orderQueryService.findOrderView(id)
+                : orderService.findOrderDetails(id);
+        return order
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/number/{orderNumber}")
-    public ResponseEntity<Order> getOrderByNumber(@PathVariable String orderNumber) {
-        return orderService.findOrderByNumber(orderNumber)
+    public ResponseEntity<OrderResponse> getOrderByNumber(@PathVariable String orderNumber) {
+        return orderService.findOrderDetailsByNumber(orderNumber)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/customer/{customerId}")
-    public ResponseEntity<List<Order>> getOrdersByCustomerId(@PathVariable Long customerId) {
-        List<Order> orders = orderService.findOrdersByCustomerId(customerId);
+    public ResponseEntity<List<?>> getOrdersByCustomerId(@PathVariable Long customerId) {
+        if (orderQueryService.isReadModelEnabled()) {
+            return ResponseEntity.ok(orderQueryService.findOrderViewsByCustomerId(customerId));
+        }
+        List<OrderSummaryResponse> orders = orderService.findOrderSummariesByCustomerId(customerId);
         return ResponseEntity.ok(orders);
     }
 
+    /**
+     * Fluxo SSE com a situação atual do pedido (evento {@code snapshot}) seguida de cada mudança
+     * (evento {@code status}), no lugar de consultar o pedido repetidamente.
+     */
+    @GetMapping(value = "/{orderId}/status/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamOrderStatus(@PathVariable Long orderId) {
+        return orderStatusStream.subscribeToOrder(orderId,
+                        () -> orderService.findOrderDetails(orderId).map(OrderStatusChange::of))
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Fluxo SSE com as mudanças de situação dos pedidos do cliente a partir da assinatura.
+     */
+    @GetMapping(value = "/customer/{customerId}/status/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamCustomerOrderStatus(@PathVariable Long customerId) {
+        return orderStatusStream.subscribeToCustomer(customerId);
+    }
+
     @PostMapping
-    public ResponseEntity<Order> createOrder(@RequestParam Long customerId, @RequestBody List<OrderItem> items) {
+    public ResponseEntity<OrderResponse> createOrder(@RequestParam Long customerId, @RequestBody List<OrderItem> items) {
         Order order = orderService.createOrder(customerId, items);
-        return ResponseEntity.status(HttpStatus.CREATED).body(order);
+        return ResponseEntity.status(HttpStatus.CREATED).body(OrderResponse.of(order));
     }
 
     @PostMapping("/{orderId}/items")
@@ -78,14 +132,41 @@ public class OrderController {
 
     @GetMapping("/{orderId}/total")
     public ResponseEntity<BigDecimal> calculateOrderTotal(@PathVariable Long orderId) {
-        BigDecimal total = orderService.calculateOrderTotal(orderId);
+        BigDecimal total = orderQueryService.isReadModelEnabled()
+                ? orderQueryService.calculateOrderTotal(orderId)
+                : orderService.calculateOrderTotal(orderId);
         return ResponseEntity.ok(total);
     }
 
     @PostMapping("/{orderId}/finalize")
-    public ResponseEntity<Void> finalizeOrder(@PathVariable Long orderId) {
-        orderService.finalizeOrder(orderId);
-        return ResponseEntity.ok().build();
+    public ResponseEntity<FinalizationStatus> finalizeOrder(@PathVariable Long orderId) {
+        if (!finalizationService.isAsyncEnabled()) {
+            orderService.finalizeOrder(orderId);
+            return ResponseEntity.ok().build();
+        }
+
+        try {
+            FinalizationStatus status = finalizationService.enqueue(orderId);
+            return ResponseEntity.accepted()
+                    .location(ServletUriComponentsBuilder.fromCurrentRequest()
+                            .replacePath("/api/orders/{orderId}/finalization")
+                            .buildAndExpand(orderId)
+                            .toUri())
+                    .body(status);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .build();
+        }
+    }
+
+    @GetMapping("/{orderId}/finalization")
+    public ResponseEntity<FinalizationStatus> getFinalizationStatus(@PathVariable Long orderId) {
+        return finalizationService.findStatus(orderId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping("/{orderId}/cancel")
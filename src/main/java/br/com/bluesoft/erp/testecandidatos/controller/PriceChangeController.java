@@ -0,0 +1,60 @@
+package br.com.bluesoft.erp.testecandidatos.controller;
+
+import br.com.bluesoft.erp.testecandidatos.dto.PriceChangeRequest;
+import br.com.bluesoft.erp.testecandidatos.model.PriceChangeBatch;
+import br.com.bluesoft.erp.testecandidatos.model.ProductPriceAudit;
+import br.com.bluesoft.erp.testecandidatos.service.PriceChangeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controller para alterações de preço em lote com data de vigência e para o histórico de preços.
+ */
+@RestController
+@RequestMapping("/api/products")
+public class PriceChangeController {
+
+    private final PriceChangeService priceChangeService;
+
+    @Autowired
+    public PriceChangeController(PriceChangeService priceChangeService) {
+        this.priceChangeService = priceChangeService;
+    }
+
+    @PostMapping("/price-changes")
+    public ResponseEntity<PriceChangeBatch> schedulePriceChanges(@RequestBody PriceChangeRequest request) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(priceChangeService.schedule(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/price-changes/{batchId}")
+    public ResponseEntity<PriceChangeBatch> getPriceChangeBatch(@PathVariable Long batchId) {
+        return priceChangeService.findBatch(batchId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/price-changes/{batchId}")
+    public ResponseEntity<Void> cancelPriceChangeBatch(@PathVariable Long batchId) {
+        try {
+            priceChangeService.cancel(batchId);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @GetMapping("/{id}/price-history")
+    public ResponseEntity<List<ProductPriceAudit>> getPriceHistory(@PathVariable Long id) {
+        return ResponseEntity.ok(priceChangeService.findPriceHistory(id));
+    }
+}
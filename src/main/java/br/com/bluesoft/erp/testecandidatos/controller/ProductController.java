@@ -1,46 +1,115 @@
 package br.com.bluesoft.erp.testecandidatos.controller;
 
+import br.com.bluesoft.erp.testecandidatos.dto.BulkStockEntry;
+import br.com.bluesoft.erp.testecandidatos.dto.BulkStockResponse;
+import br.com.bluesoft.erp.testecandidatos.model.CachedResponse;
+import br.com.bluesoft.erp.testecandidatos.service.ProductResponseCache;
+import br.com.bluesoft.erp.testecandidatos.catalog.CatalogSnapshot;
+import br.com.bluesoft.erp.testecandidatos.model.LowStockAlert;
 import br.com.bluesoft.erp.testecandidatos.model.Product;
+import br.com.bluesoft.erp.testecandidatos.model.ProductChanges;
+import br.com.bluesoft.erp.testecandidatos.model.TopSeller;
+import br.com.bluesoft.erp.testecandidatos.service.BulkStockService;
+import br.com.bluesoft.erp.testecandidatos.service.CatalogSnapshotService;
+import br.com.bluesoft.erp.testecandidatos.service.LowStockMonitor;
+import br.com.bluesoft.erp.testecandidatos.service.ProductChangeService;
 import br.com.bluesoft.erp.testecandidatos.service.ProductService;
+import br.com.bluesoft.erp.testecandidatos.service.TopSellerTracker;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Controller para gerenciamento de produtos.
+ * As listas e a consulta por SKU respondem com o JSON já serializado do {@link ProductResponseCache},
+ * com ETag; um {@code If-None-Match} que corresponde à resposta em cache recebe 304 sem acessar o banco.
  */
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
 
     private final ProductService productService;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final TopSellerTracker topSellerTracker;
+    private final ProductResponseCache productResponseCache;
+    private final ProductChangeService productChangeService;
+    private final LowStockMonitor lowStockMonitor;
+    private final BulkStockService bulkStockService;
 
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService,
+                             CatalogSnapshotService catalogSnapshotService,
+                             TopSellerTracker topSellerTracker,
+                             ProductResponseCache productResponseCache,
+                             ProductChangeService productChangeService,
+                             LowStockMonitor lowStockMonitor,
+                             BulkStockService bulkStockService) {
         this.productService = productService;
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.topSellerTracker = topSellerTracker;
+        this.productResponseCache = productResponseCache;
+        this.productChangeService = productChangeService;
+        this.lowStockMonitor = lowStockMonitor;
+        this.bulkStockService = bulkStockService;
     }
 
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        List<Product> products = productService.findAllProducts();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<byte[]> getAllProducts(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        Optional<CatalogSnapshot> snapshot = servingSnapshot();
+        CachedResponse response = productResponseCache.allProducts(sourceVersion(snapshot),
+                () -> snapshot.isPresent() ? snapshot.get().findAll() : productService.findAllProducts());
+        return cachedResponse(response, ifNoneMatch, acceptEncoding);
+    }
+
+    /**
+     * Produtos gravados ou excluídos depois do cursor {@code since}. Responde 410 quando exclusões
+     * posteriores ao cursor já foram descartadas e o cliente precisa recomeçar de {@code since=0}.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<ProductChanges> getProductChanges(@RequestParam(defaultValue = "0") long since,
+                                                            @RequestParam(defaultValue = "500") int limit) {
+        ProductChanges changes;
+        try {
+            changes = productChangeService.changesSince(since, limit);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (changes.isResetRequired()) {
+            return ResponseEntity.status(HttpStatus.GONE).body(changes);
+        }
+        return ResponseEntity.ok(changes);
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Product> getProductById(@PathVariable Long id) {
-        return productService.findProductById(id)
+        Optional<CatalogSnapshot> snapshot = servingSnapshot();
+        Optional<Product> product = snapshot.isPresent()
+                ? snapshot.get().findById(id)
+                : productService.findProductById(id);
+        return product
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/sku/{sku}")
-    public ResponseEntity<Product> getProductBySku(@PathVariable String sku) {
-        return productService.findProductBySku(sku)
-                .map(ResponseEntity::ok)
+    public ResponseEntity<byte[]> getProductBySku(
+            @PathVariable String sku,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        Optional<CatalogSnapshot> snapshot = servingSnapshot();
+        return productResponseCache.productBySku(sku, sourceVersion(snapshot),
+                        () -> snapshot.isPresent() ? snapshot.get().findBySku(sku) : productService.findProductBySku(sku))
+                .map(response -> cachedResponse(response, ifNoneMatch, acceptEncoding))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -73,6 +142,47 @@ public class ProductController {
         return ResponseEntity.ok().build();
     }
 
+    @PostMapping("/{id}/stock/adjustments")
+    public ResponseEntity<Integer> adjustStock(@PathVariable Long id, @RequestParam int delta) {
+        try {
+            return ResponseEntity.ok(productService.adjustProductStock(id, delta));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    /**
+     * Ajusta o estoque de vários produtos em uma transação. Cada entrada recebe o próprio resultado;
+     * responde 400 apenas quando o lote inteiro é recusado.
+     */
+    @PostMapping("/stock/bulk")
+    public ResponseEntity<BulkStockResponse> bulkAdjustStock(@RequestBody List<BulkStockEntry> entries) {
+        try {
+            return ResponseEntity.ok(bulkStockService.applyStockChanges(entries));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Define o limite de reposição do produto; sem {@code threshold} o produto volta ao limite padrão.
+     */
+    @PutMapping("/{id}/reorder-threshold")
+    public ResponseEntity<Void> updateReorderThreshold(@PathVariable Long id,
+                                                       @RequestParam(required = false) Integer threshold) {
+        if (threshold != null && threshold < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            productService.updateReorderThreshold(id, threshold);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok().build();
+    }
+
     @PutMapping("/{id}/price")
     public ResponseEntity<Void> updatePrice(@PathVariable Long id, @RequestParam BigDecimal price) {
         productService.updateProductPrice(id, price);
@@ -80,9 +190,32 @@ public class ProductController {
     }
 
     @GetMapping("/low-stock")
-    public ResponseEntity<List<Product>> getProductsWithLowStock() {
-        List<Product> products = productService.findProductsWithLowStock();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<byte[]> getProductsWithLowStock(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        CachedResponse response = productResponseCache.lowStockProducts(ProductResponseCache.DATABASE,
+                productService::findProductsWithLowStock);
+        return cachedResponse(response, ifNoneMatch, acceptEncoding);
+    }
+
+    /**
+     * Produtos abaixo do limite de reposição em ordem de urgência, lidos da memória do {@link LowStockMonitor}.
+     */
+    @GetMapping("/low-stock/priority")
+    public ResponseEntity<List<LowStockAlert>> getLowStockPriority(@RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(lowStockMonitor.mostUrgent(limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Fluxo SSE com um alerta cada vez que um produto cruza o limite de reposição.
+     */
+    @GetMapping(value = "/low-stock/alerts", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamLowStockAlerts() {
+        return lowStockMonitor.subscribe();
     }
 
     @GetMapping("/inventory-value")
@@ -107,4 +240,58 @@ public class ProductController {
         List<Product> products = productService.findProductsByPriceRange(minPrice, maxPrice);
         return ResponseEntity.ok(products);
     }
+
+    /**
+     * Mais vendidos da janela recente. Nome e SKU vêm da fotografia do catálogo, quando houver,
+     * para que a consulta não acesse o banco.
+     */
+    @GetMapping("/top-sellers")
+    public ResponseEntity<List<TopSeller>> getTopSellers(@RequestParam(defaultValue = "10") int limit) {
+        List<TopSeller> sellers;
+        try {
+            sellers = topSellerTracker.topSellers(limit);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        Optional<CatalogSnapshot> snapshot = catalogSnapshotService.currentSnapshot();
+        if (snapshot.isPresent()) {
+            for (TopSeller seller : sellers) {
+                snapshot.get().findById(seller.getProductId()).ifPresent(product -> {
+                    seller.setProductName(product.getName());
+                    seller.setProductSku(product.getSku());
+                });
+            }
+        }
+        return ResponseEntity.ok(sellers);
+    }
+
+    /**
+     * Responde 304 quando o cliente já tem a resposta, ou o corpo em gzip quando o cliente aceita.
+     */
+    private ResponseEntity<byte[]> cachedResponse(CachedResponse response, String ifNoneMatch, String acceptEncoding) {
+        boolean gzip = response.getGzipBody() != null && acceptEncoding != null && acceptEncoding.contains("gzip");
+        String etag = gzip ? response.getGzipEtag() : response.getEtag();
+        if (response.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(response.getGzipBody());
+        }
+        return builder.body(response.getBody());
+    }
+
+    private static long sourceVersion(Optional<CatalogSnapshot> snapshot) {
+        return snapshot.map(CatalogSnapshot::getVersion).orElse(ProductResponseCache.DATABASE);
+    }
+
+    private Optional<CatalogSnapshot> servingSnapshot() {
+        return catalogSnapshotService.isServing() ? catalogSnapshotService.currentSnapshot() : Optional.empty();
+    }
 }
@@ -0,0 +1,160 @@
+package br.com.bluesoft.erp.testecandidatos.controller;
+
+import br.com.bluesoft.erp.testecandidatos.model.DailySales;
+import br.com.bluesoft.erp.testecandidatos.model.DistinctCustomerCount;
+import br.com.bluesoft.erp.testecandidatos.model.ProductSales;
+import br.com.bluesoft.erp.testecandidatos.model.RollupBackfillResult;
+import br.com.bluesoft.erp.testecandidatos.service.DistinctCustomerService;
+import br.com.bluesoft.erp.testecandidatos.service.ReportService;
+import br.com.bluesoft.erp.testecandidatos.service.SalesRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controller para relatórios de estoque e vendas.
+ */
+@RestController
+@RequestMapping("/api/reports")
+public class ReportController {
+
+    private final ReportService reportService;
+    private final SalesRollupService salesRollupService;
+    private final DistinctCustomerService distinctCustomerService;
+
+    @Autowired
+    public ReportController(ReportService reportService,
+                            SalesRollupService salesRollupService,
+                            DistinctCustomerService distinctCustomerService) {
+        this.reportService = reportService;
+        this.salesRollupService = salesRollupService;
+        this.distinctCustomerService = distinctCustomerService;
+    }
+
+    @GetMapping("/inventory/by-sku-prefix")
+    public ResponseEntity<Map<String, BigDecimal>> getInventoryValueBySkuPrefix(
+            @RequestParam(defaultValue = "3") int prefixLength) {
+        try {
+            return ResponseEntity.ok(reportService.inventoryValueBySkuPrefix(prefixLength));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/revenue/daily")
+    public ResponseEntity<Map<LocalDate, BigDecimal>> getRevenueByDay(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        if (to == null) {
+            to = LocalDate.now();
+        }
+
+        if (from == null) {
+            from = to.minusDays(29);
+        }
+
+        try {
+            return ResponseEntity.ok(reportService.revenueByDay(from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/products/top")
+    public ResponseEntity<List<ProductSales>> getTopProducts(@RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(reportService.topProducts(limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/sales/daily")
+    public ResponseEntity<List<DailySales>> getDailySales(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        try {
+            return ResponseEntity.ok(salesRollupService.dailySales(start, end));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/sales/products")
+    public ResponseEntity<List<ProductSales>> getProductSales(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        try {
+            return ResponseEntity.ok(salesRollupService.productSales(start, end));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/sales/average-order-value")
+    public ResponseEntity<BigDecimal> getAverageOrderValue(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        try {
+            return ResponseEntity.ok(salesRollupService.averageOrderValue(start, end));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/sales/backfill")
+    public ResponseEntity<RollupBackfillResult> backfillSales() {
+        return ResponseEntity.ok(salesRollupService.backfill());
+    }
+
+    /**
+     * Clientes distintos com pedidos hoje ({@code day}), na semana ({@code week}, a partir de segunda)
+     * ou no mês ({@code month}) corrente, ou no período informado. Com {@code exact=true} a contagem
+     * é feita sobre os pedidos, para conferência.
+     */
+    @GetMapping("/customers/distinct")
+    public ResponseEntity<DistinctCustomerCount> getDistinctCustomers(
+            @RequestParam(defaultValue = "day") String period,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "false") boolean exact) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from;
+        if (start == null) {
+            switch (period) {
+                case "day":
+                    start = end;
+                    break;
+                case "week":
+                    start = end.with(DayOfWeek.MONDAY);
+                    break;
+                case "month":
+                    start = end.withDayOfMonth(1);
+                    break;
+                default:
+                    return ResponseEntity.badRequest().build();
+            }
+        }
+        try {
+            return ResponseEntity.ok(exact
+                    ? distinctCustomerService.exact(start, end)
+                    : distinctCustomerService.estimate(start, end));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
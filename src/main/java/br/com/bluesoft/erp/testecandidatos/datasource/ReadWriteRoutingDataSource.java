@@ -0,0 +1,118 @@
+package br.com.bluesoft.erp.testecandidatos.datasource;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link DataSource} que envia transações somente leitura para a réplica e todo o resto para o
+ * primário.
+ * <p>
+ * A conexão física só é obtida no primeiro comando, quando a transação já foi marcada como somente
+ * leitura; por isso o roteamento fica atrás de um {@link LazyConnectionDataSourceProxy}. Leituras
+ * voltam para o primário quando a réplica está atrasada além do limite ou quando a conexão com ela
+ * falha. Conexões fora de transação e transações com escrita sempre usam o primário.
+ */
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements MeterBinder, AutoCloseable {
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaLagMonitor lagMonitor;
+
+    private final LongAdder primaryConnections = new LongAdder();
+    private final LongAdder replicaConnections = new LongAdder();
+    private final LongAdder lagFallbacks = new LongAdder();
+    private final LongAdder failureFallbacks = new LongAdder();
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor) {
+        this.primary = primary;
+        this.replica = replica;
+        this.lagMonitor = lagMonitor;
+
+        setTargetDataSource(new Router());
+        afterPropertiesSet();
+    }
+
+    /**
+     * Registra as métricas de roteamento e de atraso da réplica. As métricas são registradas à
+     * parte porque o registro de métricas depende do próprio {@link DataSource}.
+     */
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        FunctionCounter.builder("datasource.routing.connections", primaryConnections, LongAdder::sum)
+                .tag("target", "primary").register(meterRegistry);
+        FunctionCounter.builder("datasource.routing.connections", replicaConnections, LongAdder::sum)
+                .tag("target", "replica").register(meterRegistry);
+        FunctionCounter.builder("datasource.routing.fallbacks", lagFallbacks, LongAdder::sum)
+                .tag("reason", "lag").register(meterRegistry);
+        FunctionCounter.builder("datasource.routing.fallbacks", failureFallbacks, LongAdder::sum)
+                .tag("reason", "failure").register(meterRegistry);
+        lagMonitor.bindTo(meterRegistry);
+    }
+
+    public ReplicaLagMonitor getLagMonitor() {
+        return lagMonitor;
+    }
+
+    @Override
+    public void close() throws Exception {
+        lagMonitor.close();
+        closeTarget(replica);
+        closeTarget(primary);
+    }
+
+    private static void closeTarget(DataSource dataSource) throws Exception {
+        if (dataSource instanceof EmbeddedDatabase) {
+            ((EmbeddedDatabase) dataSource).shutdown();
+        } else if (dataSource instanceof AutoCloseable) {
+            ((AutoCloseable) dataSource).close();
+        }
+    }
+
+    private Connection routeConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            primaryConnections.increment();
+            return primary.getConnection();
+        }
+        if (!lagMonitor.isReplicaUsable()) {
+            lagFallbacks.increment();
+            primaryConnections.increment();
+            return primary.getConnection();
+        }
+        try {
+            Connection connection = replica.getConnection();
+            replicaConnections.increment();
+            return connection;
+        } catch (SQLException e) {
+            lagMonitor.markUnavailable(e);
+            failureFallbacks.increment();
+            primaryConnections.increment();
+            return primary.getConnection();
+        }
+    }
+
+    /**
+     * Escolhe o destino no momento em que a conexão física é realmente necessária.
+     */
+    private class Router extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return routeConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new UnsupportedOperationException("Credenciais são definidas em cada pool");
+        }
+    }
+}
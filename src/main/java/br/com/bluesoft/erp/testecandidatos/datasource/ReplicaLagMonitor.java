@@ -0,0 +1,166 @@
+package br.com.bluesoft.erp.testecandidatos.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mede o atraso da réplica de leitura por meio de uma linha de batimento.
+ * <p>
+ * A cada verificação, o instante atual é gravado na tabela {@code replication_heartbeat} do
+ * primário e o último batimento que chegou à réplica é lido. Se a réplica já refletiu o último
+ * batimento gravado, o atraso é zero; caso contrário, é o tempo desde o batimento que ela
+ * reflete. Uma réplica inacessível, ou que ainda não recebeu a tabela de batimento, é
+ * considerada indisponível; a réplica só é usada enquanto estiver acessível e com atraso
+ * dentro do limite.
+ */
+public class ReplicaLagMonitor implements MeterBinder, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    static final String CREATE_TABLE =
+            "CREATE TABLE IF NOT EXISTS replication_heartbeat (id INT PRIMARY KEY, beat_at BIGINT NOT NULL)";
+    private static final String UPDATE_BEAT = "UPDATE replication_heartbeat SET beat_at = ? WHERE id = 1";
+    private static final String INSERT_BEAT = "INSERT INTO replication_heartbeat (id, beat_at) VALUES (1, ?)";
+    private static final String SELECT_BEAT = "SELECT beat_at FROM replication_heartbeat WHERE id = 1";
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final long maxLagMillis;
+    private final Clock clock;
+
+    private final AtomicLong lagMillis = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong available = new AtomicLong();
+    private volatile long lastWrittenBeat;
+    private ScheduledExecutorService scheduler;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, long maxLagMillis) {
+        this(primary, replica, maxLagMillis, Clock.systemUTC());
+    }
+
+    ReplicaLagMonitor(DataSource primary, DataSource replica, long maxLagMillis, Clock clock) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLagMillis = maxLagMillis;
+        this.clock = clock;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        meterRegistry.gauge("datasource.replica.lag-ms", lagMillis,
+                lag -> lag.get() == Long.MAX_VALUE ? Double.NaN : lag.get());
+        meterRegistry.gauge("datasource.replica.available", available, AtomicLong::get);
+    }
+
+    /**
+     * Inicia a verificação periódica do atraso em uma thread própria.
+     */
+    public void start(long intervalMillis) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::check, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Lê o batimento da réplica, atualiza o atraso e grava um novo batimento no primário.
+     */
+    public void check() {
+        try {
+            Long replicaBeat = readReplicaBeat();
+            long lag;
+            if (replicaBeat == null) {
+                lag = Long.MAX_VALUE;
+            } else if (lastWrittenBeat != 0 && replicaBeat >= lastWrittenBeat) {
+                lag = 0;
+            } else {
+                lag = Math.max(0, clock.millis() - replicaBeat);
+            }
+            lagMillis.set(lag);
+            available.set(lag == Long.MAX_VALUE ? 0 : 1);
+        } catch (SQLException e) {
+            markUnavailable(e);
+        }
+
+        try {
+            writePrimaryBeat();
+        } catch (SQLException e) {
+            log.warn("Falha ao gravar o batimento de replicação no primário", e);
+        }
+    }
+
+    /**
+     * Marca a réplica como inacessível até a próxima verificação bem-sucedida.
+     */
+    public void markUnavailable(Exception cause) {
+        if (available.getAndSet(0) == 1) {
+            log.warn("Réplica de leitura indisponível; leituras seguem para o primário", cause);
+        }
+        lagMillis.set(Long.MAX_VALUE);
+    }
+
+    public boolean isReplicaUsable() {
+        return available.get() == 1 && lagMillis.get() <= maxLagMillis;
+    }
+
+    public boolean isReplicaAvailable() {
+        return available.get() == 1;
+    }
+
+    public long getLagMillis() {
+        return lagMillis.get();
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private Long readReplicaBeat() throws SQLException {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(SELECT_BEAT)) {
+            return resultSet.next() ? resultSet.getLong(1) : null;
+        }
+    }
+
+    private void writePrimaryBeat() throws SQLException {
+        long beat = clock.millis();
+        try (Connection connection = primary.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(true);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_TABLE);
+            }
+            try (PreparedStatement update = connection.prepareStatement(UPDATE_BEAT)) {
+                update.setLong(1, beat);
+                if (update.executeUpdate() == 0) {
+                    try (PreparedStatement insert = connection.prepareStatement(INSERT_BEAT)) {
+                        insert.setLong(1, beat);
+                        insert.executeUpdate();
+                    }
+                }
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+        lastWrittenBeat = beat;
+    }
+}
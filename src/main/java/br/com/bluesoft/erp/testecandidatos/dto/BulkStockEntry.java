@@ -0,0 +1,28 @@
+package br.com.bluesoft.erp.testecandidatos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entrada do ajuste de estoque em lote: o produto por {@code id} ou por {@code sku}, e a alteração
+ * como {@code delta} relativo ou como {@code stock} absoluto. Exatamente um de cada par deve ser informado.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStockEntry {
+
+    private Long id;
+    private String sku;
+    private Integer delta;
+    private Integer stock;
+
+    public static BulkStockEntry delta(Long id, int delta) {
+        return new BulkStockEntry(id, null, delta, null);
+    }
+
+    public static BulkStockEntry absolute(Long id, int stock) {
+        return new BulkStockEntry(id, null, null, stock);
+    }
+}
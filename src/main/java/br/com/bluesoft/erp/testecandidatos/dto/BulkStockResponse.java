@@ -0,0 +1,20 @@
+package br.com.bluesoft.erp.testecandidatos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Resposta do ajuste de estoque em lote: totais e o resultado de cada entrada.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStockResponse {
+
+    private int applied;
+    private int rejected;
+    private List<BulkStockResult> results;
+}
@@ -0,0 +1,26 @@
+package br.com.bluesoft.erp.testecandidatos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de uma entrada do ajuste de estoque em lote, na mesma posição da requisição.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStockResult {
+
+    public enum Outcome {
+        APLICADO,
+        NAO_ENCONTRADO,
+        INVALIDO,
+        ESTOQUE_INSUFICIENTE
+    }
+
+    private int index;
+    private Long productId;
+    private String sku;
+    private Outcome outcome;
+}
@@ -0,0 +1,25 @@
+package br.com.bluesoft.erp.testecandidatos.dto;
+
+import br.com.bluesoft.erp.testecandidatos.model.Customer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cliente devolvido pela API, sem os pedidos.
+ * O construtor completo é usado nas projeções JPQL ({@code SELECT new ...}).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerResponse {
+
+    private Long id;
+    private String name;
+    private String email;
+    private String phone;
+
+    public static CustomerResponse of(Customer customer) {
+        return new CustomerResponse(customer.getId(), customer.getName(), customer.getEmail(), customer.getPhone());
+    }
+}
@@ -0,0 +1,43 @@
+package br.com.bluesoft.erp.testecandidatos.dto;
+
+import br.com.bluesoft.erp.testecandidatos.model.OrderItem;
+import br.com.bluesoft.erp.testecandidatos.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Item de pedido devolvido pela API, com os dados do produto no lugar da entidade.
+ * O construtor completo é usado nas projeções JPQL ({@code SELECT new ...}).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderItemResponse {
+
+    private Long id;
+    private Long productId;
+    private String productName;
+    private String productSku;
+    private Integer quantity;
+    private BigDecimal unitPrice;
+
+    public static OrderItemResponse of(OrderItem item) {
+        Product product = item.getProduct();
+        return new OrderItemResponse(item.getId(),
+                product != null ? product.getId() : null,
+                product != null ? product.getName() : null,
+                product != null ? product.getSku() : null,
+                item.getQuantity(),
+                item.getUnitPrice());
+    }
+
+    public BigDecimal getSubtotal() {
+        if (quantity == null || unitPrice == null) {
+            return BigDecimal.ZERO;
+        }
+        return unitPrice.multiply(new BigDecimal(quantity));
+    }
+}
@@ -0,0 +1,59 @@
+package br.com.bluesoft.erp.testecandidatos.dto;
+
+import br.com.bluesoft.erp.testecandidatos.model.Customer;
+import br.com.bluesoft.erp.testecandidatos.model.Order;
+import br.com.bluesoft.erp.testecandidatos.model.OrderItem;
+import br.com.bluesoft.erp.testecandidatos.model.Status;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pedido completo devolvido pela API, com os itens e o cliente resumido.
+ * O construtor do cabeçalho é usado nas projeções JPQL; os itens são consultados à parte.
+ */
+@Data
+@NoArgsConstructor
+public class OrderResponse {
+
+    private Long id;
+    private String orderNumber;
+    private LocalDateTime orderDate;
+    private Status status;
+    private BigDecimal totalAmount;
+    private Long customerId;
+    private String customerName;
+    private List<OrderItemResponse> items = new ArrayList<>();
+
+    public OrderResponse(Long id, String orderNumber, LocalDateTime orderDate, Status status,
+                         BigDecimal totalAmount, Long customerId, String customerName) {
+        this.id = id;
+        this.orderNumber = orderNumber;
+        this.orderDate = orderDate;
+        this.status = status;
+        this.totalAmount = totalAmount;
+        this.customerId = customerId;
+        this.customerName = customerName;
+    }
+
+    /**
+     * Converte um pedido já carregado; os itens e o cliente precisam estar acessíveis.
+     */
+    public static OrderResponse of(Order order) {
+        Customer customer = order.getCustomer();
+        OrderResponse response = new OrderResponse(order.getId(), order.getOrderNumber(), order.getOrderDate(),
+                order.getStatus(), order.getTotalAmount(),
+                customer != null ? customer.getId() : null,
+                customer != null ? customer.getName() : null);
+        if (order.getItems() != null) {
+            for (OrderItem item : order.getItems()) {
+                response.getItems().add(OrderItemResponse.of(item));
+            }
+        }
+        return response;
+    }
+}
@@ -0,0 +1,28 @@
+package br.com.bluesoft.erp.testecandidatos.dto;
+
+import br.com.bluesoft.erp.testecandidatos.model.Status;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Pedido nas listagens: cabeçalho, cliente e quantidade de itens, sem os itens.
+ * O construtor completo é usado nas projeções JPQL ({@code SELECT new ...}).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryResponse {
+
+    private Long id;
+    private String orderNumber;
+    private LocalDateTime orderDate;
+    private Status status;
+    private BigDecimal totalAmount;
+    private Long customerId;
+    private String customerName;
+    private long itemCount;
+}
@@ -0,0 +1,20 @@
+package br.com.bluesoft.erp.testecandidatos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Novo preço de um produto, identificado por {@code id} ou por {@code sku}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceChangeEntry {
+
+    private Long id;
+    private String sku;
+    private BigDecimal price;
+}
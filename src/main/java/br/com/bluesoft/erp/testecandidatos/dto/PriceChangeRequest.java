@@ -0,0 +1,22 @@
+package br.com.bluesoft.erp.testecandidatos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Lote de alterações de preço a agendar. Sem {@code effectiveAt} o lote entra em vigor na próxima
+ * verificação de lotes vencidos.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceChangeRequest {
+
+    private String description;
+    private LocalDateTime effectiveAt;
+    private List<PriceChangeEntry> items;
+}
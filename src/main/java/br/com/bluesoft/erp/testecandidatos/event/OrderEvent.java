@@ -0,0 +1,86 @@
+package br.com.bluesoft.erp.testecandidatos.event;
+
+import br.com.bluesoft.erp.testecandidatos.model.Order;
+import br.com.bluesoft.erp.testecandidatos.model.OrderItem;
+import br.com.bluesoft.erp.testecandidatos.model.Status;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Evento do ciclo de vida de um pedido.
+ * Carrega o estado do pedido no momento da alteração para que os consumidores
+ * não precisem consultar as tabelas de pedidos. Nos eventos de item, a lista
+ * contém apenas o item afetado.
+ */
+@Getter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderEvent {
+
+    public enum Type {
+        CRIADO,
+        ITEM_ADICIONADO,
+        ITEM_REMOVIDO,
+        ITEM_ATUALIZADO,
+        FINALIZADO,
+        CANCELADO
+    }
+
+    private Type type;
+    private Long orderId;
+    private String orderNumber;
+    private Long customerId;
+    private Status status;
+    private BigDecimal totalAmount;
+    private Instant occurredAt;
+    private List<Item> items;
+
+    /**
+     * Item do pedido no momento do evento.
+     */
+    @Getter
+    @ToString
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private Long itemId;
+        private Long productId;
+        private Integer quantity;
+        private BigDecimal unitPrice;
+    }
+
+    public static OrderEvent of(Type type, Order order) {
+        return of(type, order, order.getItems());
+    }
+
+    public static OrderEvent of(Type type, Order order, List<OrderItem> orderItems) {
+        List<Item> items = new ArrayList<>();
+        if (orderItems != null) {
+            for (OrderItem orderItem : orderItems) {
+                items.add(new Item(
+                        orderItem.getId(),
+                        orderItem.getProduct() != null ? orderItem.getProduct().getId() : null,
+                        orderItem.getQuantity(),
+                        orderItem.getUnitPrice()));
+            }
+        }
+
+        return new OrderEvent(
+                type,
+                order.getId(),
+                order.getOrderNumber(),
+                order.getCustomer() != null ? order.getCustomer().getId() : null,
+                order.getStatus(),
+                order.getTotalAmount(),
+                Instant.now(),
+                items);
+    }
+}
@@ -0,0 +1,24 @@
+package br.com.bluesoft.erp.testecandidatos.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Evento publicado quando um produto é criado, alterado ou excluído. Alterações que mudam só o preço
+ * usam {@link Type#PRECO_ALTERADO}, que ouvintes interessados apenas em estoque podem ignorar.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ProductChangedEvent {
+
+    public enum Type {
+        SALVO,
+        PRECO_ALTERADO,
+        EXCLUIDO
+    }
+
+    private final Type type;
+    private final Long productId;
+}
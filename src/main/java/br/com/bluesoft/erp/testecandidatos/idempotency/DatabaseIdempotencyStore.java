@@ -0,0 +1,90 @@
+package br.com.bluesoft.erp.testecandidatos.idempotency;
+
+import br.com.bluesoft.erp.testecandidatos.model.IdempotencyRecord;
+import br.com.bluesoft.erp.testecandidatos.repository.IdempotencyRecordRepository;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.persistence.PersistenceException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Armazenamento de chaves de idempotência no banco de dados, compartilhado entre instâncias.
+ * A reserva é feita pela inserção da chave; quem não consegue inserir consulta
+ * periodicamente o registro até que a execução original grave a resposta.
+ */
+public class DatabaseIdempotencyStore implements IdempotencyStore {
+
+    private static final long POLL_INTERVAL_MILLIS = 50;
+
+    private final IdempotencyRecordRepository repository;
+    private final Duration ttl;
+    private final Clock clock;
+
+    public DatabaseIdempotencyStore(IdempotencyRecordRepository repository, Duration ttl) {
+        this(repository, ttl, Clock.systemUTC());
+    }
+
+    DatabaseIdempotencyStore(IdempotencyRecordRepository repository, Duration ttl, Clock clock) {
+        this.repository = repository;
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    @Override
+    public Reservation reserve(String key, String fingerprint, Duration waitTimeout) throws InterruptedException {
+        Instant deadline = clock.instant().plus(waitTimeout);
+        while (true) {
+            Instant now = clock.instant();
+            try {
+                repository.insert(new IdempotencyRecord(key, fingerprint, now, now.plus(ttl)));
+                return Reservation.acquired();
+            } catch (DataAccessException | PersistenceException e) {
+                // Chave já reservada por outra execução
+            }
+
+            Optional<IdempotencyRecord> existing = repository.findById(key);
+            if (!existing.isPresent()) {
+                // A execução original falhou e liberou a chave
+                continue;
+            }
+
+            IdempotencyRecord record = existing.get();
+            if (record.getExpiresAt().isBefore(now)) {
+                repository.deleteById(key);
+                continue;
+            }
+            if (!record.getFingerprint().equals(fingerprint)) {
+                return Reservation.mismatch();
+            }
+            if (record.isCompleted()) {
+                return Reservation.completed(new StoredResponse(
+                        record.getResponseStatus(), record.getContentType(), record.getResponseBody()));
+            }
+            if (now.isAfter(deadline)) {
+                return Reservation.inProgress();
+            }
+            Thread.sleep(POLL_INTERVAL_MILLIS);
+        }
+    }
+
+    @Override
+    public void complete(String key, StoredResponse response) {
+        repository.complete(key, response.getStatus(), response.getContentType(), response.getBody(),
+                clock.instant().plus(ttl));
+    }
+
+    @Override
+    public void release(String key) {
+        repository.deleteById(key);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        repository.deleteExpired(clock.instant());
+    }
+}
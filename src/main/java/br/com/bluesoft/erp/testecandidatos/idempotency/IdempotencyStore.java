@@ -0,0 +1,30 @@
+package br.com.bluesoft.erp.testecandidatos.idempotency;
+
+import java.time.Duration;
+
+/**
+ * Armazenamento das chaves de idempotência e das respostas associadas.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Reserva a chave para o chamador ou, se ela já existir, devolve o resultado
+     * da execução original, aguardando até {@code waitTimeout} caso ela ainda esteja em andamento.
+     */
+    Reservation reserve(String key, String fingerprint, Duration waitTimeout) throws InterruptedException;
+
+    /**
+     * Grava a resposta da execução dona da chave e libera quem estiver aguardando.
+     */
+    void complete(String key, StoredResponse response);
+
+    /**
+     * Libera a chave sem gravar resposta, permitindo que uma nova tentativa seja executada.
+     */
+    void release(String key);
+
+    /**
+     * Remove as chaves expiradas.
+     */
+    void purgeExpired();
+}
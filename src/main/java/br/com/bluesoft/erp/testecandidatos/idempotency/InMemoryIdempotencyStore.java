@@ -0,0 +1,123 @@
+package br.com.bluesoft.erp.testecandidatos.idempotency;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Armazenamento de chaves de idempotência em memória, limitado em quantidade e com expiração.
+ * Requisições concorrentes com a mesma chave aguardam o resultado da primeira.
+ * Válido apenas para uma instância da aplicação.
+ */
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Duration ttl;
+    private final int maxEntries;
+    private final Clock clock;
+
+    private static final class Entry {
+        private final String fingerprint;
+        private final CompletableFuture<StoredResponse> result = new CompletableFuture<>();
+        private volatile Instant expiresAt;
+
+        private Entry(String fingerprint, Instant expiresAt) {
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    public InMemoryIdempotencyStore(Duration ttl, int maxEntries) {
+        this(ttl, maxEntries, Clock.systemUTC());
+    }
+
+    InMemoryIdempotencyStore(Duration ttl, int maxEntries, Clock clock) {
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    @Override
+    public Reservation reserve(String key, String fingerprint, Duration waitTimeout) throws InterruptedException {
+        Instant now = clock.instant();
+        Entry candidate = new Entry(fingerprint, now.plus(ttl));
+        Entry entry = entries.compute(key, (k, existing) ->
+                existing == null || existing.expiresAt.isBefore(now) ? candidate : existing);
+
+        if (entry == candidate) {
+            if (entries.size() > maxEntries) {
+                evict();
+            }
+            return Reservation.acquired();
+        }
+
+        if (!entry.fingerprint.equals(fingerprint)) {
+            return Reservation.mismatch();
+        }
+
+        try {
+            StoredResponse response = entry.result.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            if (response == null) {
+                // A execução original falhou e liberou a chave; tenta assumir a execução
+                return reserve(key, fingerprint, waitTimeout);
+            }
+            return Reservation.completed(response);
+        } catch (TimeoutException e) {
+            return Reservation.inProgress();
+        } catch (ExecutionException e) {
+            return reserve(key, fingerprint, waitTimeout);
+        }
+    }
+
+    @Override
+    public void complete(String key, StoredResponse response) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            entry.expiresAt = clock.instant().plus(ttl);
+            entry.result.complete(response);
+        }
+    }
+
+    @Override
+    public void release(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            entry.result.complete(null);
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        Instant now = clock.instant();
+        entries.entrySet().removeIf(e -> e.getValue().result.isDone() && e.getValue().expiresAt.isBefore(now));
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void evict() {
+        purgeExpired();
+        int excess = entries.size() - maxEntries;
+        if (excess <= 0) {
+            return;
+        }
+        // Acima do limite, descarta as respostas concluídas mais antigas; execuções em andamento são mantidas
+        entries.entrySet().stream()
+                .filter(e -> e.getValue().result.isDone())
+                .sorted(Comparator.comparing(e -> e.getValue().expiresAt))
+                .limit(excess)
+                .map(Map.Entry::getKey)
+                .forEach(entries::remove);
+    }
+}
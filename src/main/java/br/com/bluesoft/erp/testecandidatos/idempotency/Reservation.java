@@ -0,0 +1,43 @@
+package br.com.bluesoft.erp.testecandidatos.idempotency;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Resultado da tentativa de reservar uma chave de idempotência.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class Reservation {
+
+    public enum Outcome {
+        /** O chamador é o dono da execução e deve processar a requisição. */
+        ACQUIRED,
+        /** A requisição já foi processada; a resposta gravada deve ser repetida. */
+        COMPLETED,
+        /** A chave já foi usada com outra requisição. */
+        MISMATCH,
+        /** Outra execução com a mesma chave não terminou dentro do tempo de espera. */
+        IN_PROGRESS
+    }
+
+    private final Outcome outcome;
+    private final StoredResponse response;
+
+    public static Reservation acquired() {
+        return new Reservation(Outcome.ACQUIRED, null);
+    }
+
+    public static Reservation completed(StoredResponse response) {
+        return new Reservation(Outcome.COMPLETED, response);
+    }
+
+    public static Reservation mismatch() {
+        return new Reservation(Outcome.MISMATCH, null);
+    }
+
+    public static Reservation inProgress() {
+        return new Reservation(Outcome.IN_PROGRESS, null);
+    }
+}
@@ -0,0 +1,16 @@
+package br.com.bluesoft.erp.testecandidatos.idempotency;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Resposta HTTP gravada para uma chave de idempotência.
+ */
+@Getter
+@AllArgsConstructor
+public class StoredResponse {
+
+    private final int status;
+    private final String contentType;
+    private final byte[] body;
+}
@@ -0,0 +1,450 @@
+package br.com.bluesoft.erp.testecandidatos.journal;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Diário sequencial, somente de acréscimo, de eventos de pedido.
+ * <p>
+ * Cada registro tem o formato {@code [tamanho:int][sequência:long][conteúdo][crc32:int]}, com o
+ * CRC calculado sobre sequência e conteúdo. As gravações usam commit em grupo: uma única thread
+ * escritora drena todos os registros pendentes, grava-os com uma escrita e um único
+ * {@code force}, e só então libera quem estava aguardando. Na abertura, um registro final
+ * incompleto ou corrompido é descartado.
+ * <p>
+ * Depois do {@link #close()}, ou se a thread escritora parar, novas gravações são recusadas e as
+ * pendentes falham. {@link #appendAndWait} espera no máximo o tempo limite configurado; um registro
+ * abandonado que ainda não entrou em um commit é descartado, mas o que já estava sendo gravado
+ * permanece no diário.
+ * <p>
+ * Depois de uma fotografia do estado, {@link #compact(long)} descarta o início do arquivo: a cauda é
+ * copiada para um arquivo novo, que substitui o atual com uma troca atômica.
+ */
+public class OrderJournal implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderJournal.class);
+
+    private static final int HEADER_SIZE = Integer.BYTES + Long.BYTES;
+    private static final int TRAILER_SIZE = Integer.BYTES;
+    private static final long DEFAULT_APPEND_TIMEOUT_MS = 5_000;
+
+    /**
+     * Recebe os registros lidos do diário.
+     */
+    public interface RecordConsumer {
+        void accept(long sequence, byte[] payload);
+    }
+
+    private static final class Compaction {
+        private final long sequence;
+        private final CompletableFuture<Long> future = new CompletableFuture<>();
+
+        private Compaction(long sequence) {
+            this.sequence = sequence;
+        }
+    }
+
+    private static final class PendingAppend {
+        private final byte[] payload;
+        private final LongConsumer onCommit;
+        private final CompletableFuture<Long> future = new CompletableFuture<>();
+
+        private PendingAppend(byte[] payload, LongConsumer onCommit) {
+            this.payload = payload;
+            this.onCommit = onCommit;
+        }
+    }
+
+    private final Path file;
+    private FileChannel channel;
+    private final int maxBatch;
+    private final long appendTimeoutMillis;
+    // Protege a troca de running junto com a entrada na fila, para nenhum registro ficar sem escritor
+    private final Object appendLock = new Object();
+    private final BlockingQueue<PendingAppend> queue = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Compaction> compactions = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private final CRC32 crc = new CRC32();
+
+    private final DistributionSummary batchSizes;
+    private final Timer commitTimer;
+
+    private ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+    private volatile long lastSequence;
+    private volatile boolean running = true;
+
+    /**
+     * @param maxBatch quantidade máxima de registros por commit em grupo; {@code 1} força cada registro
+     */
+    public OrderJournal(Path file, int maxBatch, MeterRegistry meterRegistry) throws IOException {
+        this(file, maxBatch, DEFAULT_APPEND_TIMEOUT_MS, meterRegistry);
+    }
+
+    /**
+     * @param appendTimeoutMillis espera máxima de {@link #appendAndWait} pelo commit em grupo
+     */
+    public OrderJournal(Path file, int maxBatch, long appendTimeoutMillis, MeterRegistry meterRegistry)
+            throws IOException {
+        this.file = file;
+        this.maxBatch = maxBatch;
+        this.appendTimeoutMillis = appendTimeoutMillis;
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+
+        long validEnd = recover();
+        if (validEnd < channel.size()) {
+            log.warn("Descartando {} bytes incompletos no fim do diário {}", channel.size() - validEnd, file);
+            channel.truncate(validEnd);
+        }
+        channel.position(validEnd);
+
+        this.batchSizes = DistributionSummary.builder("orders.journal.batch.size").register(meterRegistry);
+        this.commitTimer = Timer.builder("orders.journal.commit").register(meterRegistry);
+
+        this.writer = new Thread(this::writeLoop, "order-journal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    public boolean isOpen() {
+        return running;
+    }
+
+    /**
+     * Descarta do arquivo os registros com sequência menor que a informada, já cobertos por uma
+     * fotografia. O registro da própria sequência é mantido, para que a numeração continue dele
+     * na próxima abertura. A cópia é feita pela thread escritora, entre dois commits em grupo.
+     *
+     * @return futuro concluído com a quantidade de bytes descartados
+     */
+    public CompletableFuture<Long> compact(long sequence) {
+        Compaction compaction = new Compaction(sequence);
+        synchronized (appendLock) {
+            if (!running) {
+                throw new IllegalStateException("Diário de pedidos fechado");
+            }
+            compactions.add(compaction);
+        }
+        return compaction.future;
+    }
+
+    /**
+     * Enfileira um registro para o próximo commit em grupo.
+     *
+     * @param onCommit executado pela thread escritora, em ordem de sequência, depois que o
+     *                 registro está em disco e antes de o futuro ser concluído
+     * @return futuro concluído com a sequência do registro quando ele estiver em disco
+     */
+    public CompletableFuture<Long> append(byte[] payload, LongConsumer onCommit) {
+        PendingAppend pending = new PendingAppend(payload, onCommit);
+        synchronized (appendLock) {
+            if (!running) {
+                throw new IllegalStateException("Diário de pedidos fechado");
+            }
+            queue.add(pending);
+        }
+        return pending.future;
+    }
+
+    /**
+     * Grava o registro e aguarda o commit em grupo que o inclui, no máximo pelo tempo limite.
+     *
+     * @return a sequência do registro
+     * @throws IllegalStateException se o diário estiver fechado ou o commit não terminar a tempo
+     */
+    public long appendAndWait(byte[] payload, LongConsumer onCommit) {
+        CompletableFuture<Long> future = append(payload, onCommit);
+        try {
+            return future.get(appendTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            throw new IllegalStateException("Tempo esgotado aguardando o diário de pedidos", e);
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando o diário de pedidos", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw new UncheckedIOException((IOException) e.getCause());
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Falha no diário de pedidos", e.getCause());
+        }
+    }
+
+    /**
+     * Lê, em ordem, os registros com sequência maior que a informada.
+     */
+    public void replay(long afterSequence, RecordConsumer consumer) throws IOException {
+        read(file, afterSequence, consumer);
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (appendLock) {
+            running = false;
+        }
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    private long recover() throws IOException {
+        long[] last = {0L};
+        long validEnd = read(file, 0, (sequence, payload) -> last[0] = sequence);
+        lastSequence = last[0];
+        return validEnd;
+    }
+
+    /**
+     * @return posição do fim do último registro válido
+     */
+    private static long read(Path file, long afterSequence, RecordConsumer consumer) throws IOException {
+        CRC32 check = new CRC32();
+        long size = Files.size(file);
+        long position = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024))) {
+            while (true) {
+                int length;
+                long sequence;
+                byte[] payload;
+                int expected;
+                try {
+                    length = in.readInt();
+                    if (length < 0 || position + HEADER_SIZE + length + TRAILER_SIZE > size) {
+                        break;
+                    }
+                    sequence = in.readLong();
+                    payload = new byte[length];
+                    in.readFully(payload);
+                    expected = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                check.reset();
+                check.update(ByteBuffer.allocate(Long.BYTES).putLong(0, sequence).array());
+                check.update(payload);
+                if ((int) check.getValue() != expected) {
+                    break;
+                }
+                if (sequence > afterSequence) {
+                    consumer.accept(sequence, payload);
+                }
+                position += HEADER_SIZE + length + TRAILER_SIZE;
+            }
+        }
+        return position;
+    }
+
+    private void writeLoop() {
+        List<PendingAppend> batch = new ArrayList<>(maxBatch);
+        try {
+            while (running || !queue.isEmpty()) {
+                PendingAppend first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    runCompactions();
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                // Quem desistiu de esperar não entra no commit
+                batch.removeIf(pending -> pending.future.isCancelled());
+                if (!batch.isEmpty()) {
+                    commit(batch);
+                }
+                batch.clear();
+                runCompactions();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException | Error e) {
+            log.error("Thread escritora do diário de pedidos parou", e);
+            throw e;
+        } finally {
+            stopAccepting(batch);
+        }
+    }
+
+    /**
+     * Recusa novas gravações e falha as que ficaram sem escritor.
+     */
+    private void stopAccepting(List<PendingAppend> unfinished) {
+        synchronized (appendLock) {
+            running = false;
+        }
+        queue.drainTo(unfinished);
+        IllegalStateException stopped = new IllegalStateException("Diário de pedidos fechado");
+        for (PendingAppend pending : unfinished) {
+            pending.future.completeExceptionally(stopped);
+        }
+        Compaction compaction;
+        while ((compaction = compactions.poll()) != null) {
+            compaction.future.completeExceptionally(stopped);
+        }
+    }
+
+    private void runCompactions() {
+        Compaction compaction;
+        while ((compaction = compactions.poll()) != null) {
+            try {
+                compaction.future.complete(discardBefore(compaction.sequence));
+            } catch (IOException | RuntimeException e) {
+                log.warn("Falha ao compactar o diário {} até a sequência {}", file, compaction.sequence, e);
+                compaction.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Copia os registros a partir da sequência para um arquivo novo e o coloca no lugar do atual.
+     */
+    private long discardBefore(long sequence) throws IOException {
+        long end = channel.position();
+        long[] offset = {0L};
+        read(file, -1, (recordSequence, payload) -> {
+            if (recordSequence < sequence) {
+                offset[0] += HEADER_SIZE + payload.length + TRAILER_SIZE;
+            }
+        });
+        if (offset[0] == 0) {
+            return 0;
+        }
+
+        Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+        try (FileChannel target = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long position = offset[0];
+            while (position < end) {
+                position += channel.transferTo(position, end - position, target);
+            }
+            target.force(true);
+        }
+
+        channel.close();
+        try {
+            Files.move(compacted, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            // Sem a troca, o arquivo original continua em uso
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+        }
+        log.info("Diário {} compactado até a sequência {}: {} bytes descartados", file, sequence, offset[0]);
+        return offset[0];
+    }
+
+    private void commit(List<PendingAppend> batch) {
+        long start = System.nanoTime();
+        long position = -1;
+        long first = lastSequence + 1;
+        try {
+            position = channel.position();
+            ByteBuffer out = bufferFor(batch);
+            long sequence = first;
+            for (PendingAppend pending : batch) {
+                out.putInt(pending.payload.length);
+                out.putLong(sequence);
+                out.put(pending.payload);
+                crc.reset();
+                crc.update(ByteBuffer.allocate(Long.BYTES).putLong(0, sequence).array());
+                crc.update(pending.payload);
+                out.putInt((int) crc.getValue());
+                sequence++;
+            }
+            out.flip();
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(false);
+        } catch (IOException | RuntimeException e) {
+            log.error("Falha no commit em grupo de {} registros do diário de pedidos", batch.size(), e);
+            discardPartialWrite(position);
+            for (PendingAppend pending : batch) {
+                pending.future.completeExceptionally(e);
+            }
+            return;
+        }
+
+        lastSequence = first + batch.size() - 1;
+        batchSizes.record(batch.size());
+        commitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        long sequence = first;
+        for (PendingAppend pending : batch) {
+            if (pending.onCommit != null) {
+                try {
+                    pending.onCommit.accept(sequence);
+                } catch (RuntimeException e) {
+                    // O registro já está em disco; a falha do callback não pode desfazê-lo
+                    log.warn("Falha ao processar o registro {} do diário de pedidos", sequence, e);
+                }
+            }
+            if (!pending.future.complete(sequence)) {
+                log.warn("Registro {} gravado no diário depois de o chamador desistir de esperar", sequence);
+            }
+            sequence++;
+        }
+    }
+
+    private ByteBuffer bufferFor(List<PendingAppend> batch) {
+        int size = 0;
+        for (PendingAppend pending : batch) {
+            size += HEADER_SIZE + pending.payload.length + TRAILER_SIZE;
+        }
+        if (buffer.capacity() < size) {
+            buffer = ByteBuffer.allocate(Math.max(size, buffer.capacity() * 2));
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    private void discardPartialWrite(long position) {
+        if (position < 0) {
+            return;
+        }
+        try {
+            channel.truncate(position);
+            channel.position(position);
+        } catch (IOException e) {
+            log.error("Falha ao descartar escrita parcial no diário {}", file, e);
+        }
+    }
+}
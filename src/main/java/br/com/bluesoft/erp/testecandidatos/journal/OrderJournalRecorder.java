@@ -0,0 +1,164 @@
+package br.com.bluesoft.erp.testecandidatos.journal;
+
+import br.com.bluesoft.erp.testecandidatos.event.OrderEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+
+/**
+ * Grava os eventos de pedido no diário sequencial e mantém o estado atual dos pedidos.
+ * <p>
+ * O evento é gravado antes do commit da transação que alterou o pedido e a transação só
+ * prossegue depois que o commit em grupo do diário o tornou durável; assim o diário é a fonte
+ * de auditoria e as tabelas JPA funcionam como projeção. Na inicialização o estado é reconstruído
+ * a partir da última fotografia e da cauda do diário; cada fotografia gravada descarta do diário
+ * os registros que ela já cobre.
+ * <p>
+ * Antes de gravar, as alterações pendentes do EntityManager são enviadas ao banco, para que violações
+ * de restrição desfaçam a transação sem deixar evento no diário. Resta a janela do próprio commit no
+ * banco: se ele falhar depois da gravação, o evento fica no diário sem o pedido correspondente. Esses
+ * casos são registrados em log e contados em {@code orders.journal.orphaned}.
+ */
+@Component
+@ConditionalOnProperty(name = "orders.journal.enabled", havingValue = "true")
+public class OrderJournalRecorder {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderJournalRecorder.class);
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Path journalFile;
+    private final Path snapshotFile;
+    private final int maxBatch;
+    private final long appendTimeoutMillis;
+
+    private OrderJournal journal;
+    private volatile OrderStateStore store = new OrderStateStore();
+    private volatile long lastSnapshotSequence;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public OrderJournalRecorder(ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${orders.journal.directory:data/journal}") String directory,
+                                @Value("${orders.journal.max-batch:256}") int maxBatch,
+                                @Value("${orders.journal.append-timeout-ms:5000}") long appendTimeoutMillis) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.journalFile = Paths.get(directory, "orders.journal");
+        this.snapshotFile = Paths.get(directory, "orders.snapshot.json");
+        this.maxBatch = maxBatch;
+        this.appendTimeoutMillis = appendTimeoutMillis;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        long start = System.nanoTime();
+        if (Files.exists(snapshotFile)) {
+            store = OrderStateStore.readSnapshot(snapshotFile, objectMapper);
+            lastSnapshotSequence = store.getLastSequence();
+        }
+        journal = new OrderJournal(journalFile, maxBatch, appendTimeoutMillis, meterRegistry);
+
+        OrderStateStore recovering = store;
+        int[] replayed = {0};
+        journal.replay(recovering.getLastSequence(), (sequence, payload) -> {
+            recovering.apply(sequence, decode(payload));
+            replayed[0]++;
+        });
+        log.info("Estado de {} pedidos reconstruído da fotografia (seq {}) e de {} eventos do diário em {} ms",
+                recovering.size(), lastSnapshotSequence, replayed[0], (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (journal != null) {
+            journal.close();
+            snapshot();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onOrderEvent(OrderEvent event) {
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar o evento do pedido " + event.getOrderId(), e);
+        }
+        boolean inTransaction = TransactionSynchronizationManager.isActualTransactionActive();
+        if (inTransaction) {
+            // Falhas de restrição aparecem aqui, antes do evento chegar ao diário
+            entityManager.flush();
+        }
+        long sequence = journal.appendAndWait(payload, seq -> store.apply(seq, event));
+        if (inTransaction) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        meterRegistry.counter("orders.journal.orphaned").increment();
+                        log.error("Commit do pedido {} falhou depois do evento {} ir para o diário (seq {})",
+                                event.getOrderId(), event.getType(), sequence);
+                    }
+                }
+            });
+        }
+    }
+
+    public Optional<OrderState> findState(Long orderId) {
+        return store.find(orderId);
+    }
+
+    public long getLastSequence() {
+        return journal.getLastSequence();
+    }
+
+    @Scheduled(fixedDelayString = "${orders.journal.snapshot-interval-ms:60000}")
+    public void snapshot() {
+        if (store.getLastSequence() == lastSnapshotSequence) {
+            return;
+        }
+        try {
+            lastSnapshotSequence = store.writeSnapshot(snapshotFile, objectMapper);
+        } catch (IOException e) {
+            log.warn("Falha ao gravar a fotografia dos pedidos em {}", snapshotFile, e);
+            return;
+        }
+        // Na parada o diário já está fechado; a compactação fica para a próxima fotografia
+        if (journal.isOpen()) {
+            journal.compact(lastSnapshotSequence);
+        }
+    }
+
+    private OrderEvent decode(byte[] payload) {
+        try {
+            return objectMapper.readValue(payload, OrderEvent.class);
+        } catch (IOException e) {
+            throw new IllegalStateException("Registro ilegível no diário de pedidos", e);
+        }
+    }
+}
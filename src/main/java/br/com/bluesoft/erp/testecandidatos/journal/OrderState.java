@@ -0,0 +1,69 @@
+package br.com.bluesoft.erp.testecandidatos.journal;
+
+import br.com.bluesoft.erp.testecandidatos.event.OrderEvent;
+import br.com.bluesoft.erp.testecandidatos.model.Status;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Estado atual de um pedido reconstruído a partir do diário de eventos.
+ */
+@Getter
+@NoArgsConstructor
+public class OrderState {
+
+    private Long orderId;
+    private String orderNumber;
+    private Long customerId;
+    private Status status;
+    private BigDecimal totalAmount;
+    private Instant updatedAt;
+    private long lastSequence;
+    private Map<Long, OrderEvent.Item> items = new LinkedHashMap<>();
+
+    OrderState(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    void apply(long sequence, OrderEvent event) {
+        switch (event.getType()) {
+            case CRIADO:
+            case FINALIZADO:
+            case CANCELADO:
+                // Eventos do pedido carregam a lista completa de itens
+                items.clear();
+                putItems(event);
+                break;
+            case ITEM_ADICIONADO:
+            case ITEM_ATUALIZADO:
+                putItems(event);
+                break;
+            case ITEM_REMOVIDO:
+                event.getItems().forEach(item -> items.remove(item.getItemId()));
+                break;
+            default:
+                throw new IllegalArgumentException("Tipo de evento desconhecido: " + event.getType());
+        }
+        if (event.getOrderNumber() != null) {
+            orderNumber = event.getOrderNumber();
+        }
+        if (event.getCustomerId() != null) {
+            customerId = event.getCustomerId();
+        }
+        status = event.getStatus();
+        totalAmount = event.getTotalAmount();
+        updatedAt = event.getOccurredAt();
+        lastSequence = sequence;
+    }
+
+    private void putItems(OrderEvent event) {
+        if (event.getItems() != null) {
+            event.getItems().forEach(item -> items.put(item.getItemId(), item));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package br.com.bluesoft.erp.testecandidatos.journal;
+
+import br.com.bluesoft.erp.testecandidatos.event.OrderEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estado atual dos pedidos mantido em memória a partir do diário.
+ * Os eventos devem ser aplicados em ordem de sequência; periodicamente o estado é gravado em
+ * uma fotografia, de forma que a reconstrução precise ler apenas a cauda do diário.
+ */
+public class OrderStateStore {
+
+    /**
+     * Conteúdo do arquivo de fotografia.
+     */
+    @Getter
+    @NoArgsConstructor
+    static class Snapshot {
+        private long lastSequence;
+        private List<OrderState> orders = new ArrayList<>();
+
+        Snapshot(long lastSequence, List<OrderState> orders) {
+            this.lastSequence = lastSequence;
+            this.orders = orders;
+        }
+    }
+
+    private final Map<Long, OrderState> states = new ConcurrentHashMap<>();
+    private volatile long lastSequence;
+
+    public synchronized void apply(long sequence, OrderEvent event) {
+        states.computeIfAbsent(event.getOrderId(), OrderState::new).apply(sequence, event);
+        lastSequence = sequence;
+    }
+
+    public Optional<OrderState> find(Long orderId) {
+        return Optional.ofNullable(states.get(orderId));
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    public int size() {
+        return states.size();
+    }
+
+    /**
+     * Grava a fotografia em um arquivo temporário e o move atomicamente para o destino.
+     *
+     * @return a sequência incluída na fotografia
+     */
+    public long writeSnapshot(Path target, ObjectMapper objectMapper) throws IOException {
+        byte[] content;
+        long sequence;
+        // Serializa sob a trava para que nenhum evento seja aplicado no meio da fotografia
+        synchronized (this) {
+            sequence = lastSequence;
+            content = objectMapper.writeValueAsBytes(new Snapshot(sequence, new ArrayList<>(states.values())));
+        }
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        // Forçada para o disco: o diário é compactado logo depois de a fotografia ser gravada
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return sequence;
+    }
+
+    public static OrderStateStore readSnapshot(Path source, ObjectMapper objectMapper) throws IOException {
+        Snapshot snapshot = objectMapper.readValue(Files.readAllBytes(source), Snapshot.class);
+        OrderStateStore store = new OrderStateStore();
+        for (OrderState state : snapshot.getOrders()) {
+            store.states.put(state.getOrderId(), state);
+        }
+        store.lastSequence = snapshot.getLastSequence();
+        return store;
+    }
+}
@@ -0,0 +1,74 @@
+package br.com.bluesoft.erp.testecandidatos.model;
+
+/**
+ * Corpo JSON já serializado de uma resposta, com a versão comprimida em gzip e o ETag.
+ * <p>
+ * O ETag é calculado sobre o conteúdo, então a mesma resposta gerada de novo depois de uma invalidação
+ * tem o mesmo ETag. A versão gzip recebe um ETag próprio, com o sufixo {@code -gzip}, e as duas formas
+ * são aceitas em {@code If-None-Match}.
+ */
+public final class CachedResponse {
+
+    private static final String GZIP_SUFFIX = "-gzip";
+
+    private final byte[] body;
+    private final byte[] gzipBody;
+    private final String etag;
+    private final long sourceVersion;
+
+    public CachedResponse(byte[] body, byte[] gzipBody, String etag, long sourceVersion) {
+        this.body = body;
+        this.gzipBody = gzipBody;
+        this.etag = etag;
+        this.sourceVersion = sourceVersion;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    /**
+     * Corpo comprimido, ou {@code null} quando o corpo é pequeno demais para valer a compressão.
+     */
+    public byte[] getGzipBody() {
+        return gzipBody;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public String getGzipEtag() {
+        return etag.substring(0, etag.length() - 1) + GZIP_SUFFIX + "\"";
+    }
+
+    /**
+     * Versão da origem dos dados (fotografia do catálogo) usada para montar a resposta.
+     */
+    public long getSourceVersion() {
+        return sourceVersion;
+    }
+
+    /**
+     * Indica se algum dos ETags de um cabeçalho {@code If-None-Match} corresponde a esta resposta.
+     * A comparação é fraca, como pede a especificação para requisições GET.
+     */
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null || ifNoneMatch.isEmpty()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag) || tag.equals(getGzipEtag())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
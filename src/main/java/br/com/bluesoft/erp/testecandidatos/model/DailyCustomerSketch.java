@@ -0,0 +1,25 @@
+package br.com.bluesoft.erp.testecandidatos.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * Contador HyperLogLog serializado dos clientes distintos que fizeram pedidos em um dia.
+ */
+@Entity
+@Table(name = "daily_customer_sketches")
+@Data
+@NoArgsConstructor
+public class DailyCustomerSketch {
+
+    @Id
+    @Column(name = "sketch_date")
+    private LocalDate sketchDate;
+
+    @Lob
+    @Column(name = "sketch", nullable = false)
+    private byte[] sketch;
+}
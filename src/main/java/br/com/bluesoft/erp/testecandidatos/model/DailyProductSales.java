@@ -0,0 +1,39 @@
+package br.com.bluesoft.erp.testecandidatos.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Vendas de um produto em um dia: unidades, receita e quantidade de pedidos com o produto.
+ */
+@Entity
+@Table(name = "daily_product_sales", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_daily_product_sales", columnNames = {"sales_date", "product_id"})
+})
+@Data
+@NoArgsConstructor
+public class DailyProductSales {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "units", nullable = false)
+    private long units;
+
+    @Column(name = "revenue", nullable = false)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+}
@@ -0,0 +1,43 @@
+package br.com.bluesoft.erp.testecandidatos.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+
+/**
+ * Totais de vendas de um dia: pedidos finalizados e receita.
+ * Mantido de forma incremental na finalização e no cancelamento de pedidos.
+ */
+@Entity
+@Table(name = "daily_sales")
+@Data
+@NoArgsConstructor
+public class DailySales {
+
+    @Id
+    @Column(name = "sales_date")
+    private LocalDate salesDate;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    @Column(name = "revenue", nullable = false)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    public DailySales(LocalDate salesDate, long orderCount, BigDecimal revenue) {
+        this.salesDate = salesDate;
+        this.orderCount = orderCount;
+        this.revenue = revenue;
+    }
+
+    public BigDecimal getAverageOrderValue() {
+        if (orderCount == 0) {
+            return BigDecimal.ZERO;
+        }
+        return revenue.divide(BigDecimal.valueOf(orderCount), 2, RoundingMode.HALF_UP);
+    }
+}
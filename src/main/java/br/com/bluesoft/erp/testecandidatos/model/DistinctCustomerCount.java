@@ -0,0 +1,23 @@
+package br.com.bluesoft.erp.testecandidatos.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Quantidade de clientes distintos com pedidos no período, de {@code from} a {@code to} inclusive.
+ * Quando aproximada, {@code relativeError} é o erro relativo típico da estimativa.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DistinctCustomerCount {
+
+    private LocalDate from;
+    private LocalDate to;
+    private long customers;
+    private boolean exact;
+    private double relativeError;
+}
@@ -0,0 +1,29 @@
+package br.com.bluesoft.erp.testecandidatos.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Produto com estoque abaixo do limite de reposição, ou o aviso de que voltou ao normal.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LowStockAlert {
+
+    public enum Type {
+        BAIXO,
+        NORMALIZADO
+    }
+
+    private Type type;
+    private Long productId;
+    private String productName;
+    private String productSku;
+    private int stock;
+    private int reorderThreshold;
+    private Instant occurredAt;
+}
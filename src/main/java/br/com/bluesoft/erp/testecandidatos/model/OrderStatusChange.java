@@ -0,0 +1,38 @@
+package br.com.bluesoft.erp.testecandidatos.model;
+
+import br.com.bluesoft.erp.testecandidatos.dto.OrderResponse;
+import br.com.bluesoft.erp.testecandidatos.event.OrderEvent;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Mudança de situação de um pedido enviada aos assinantes do fluxo de situação.
+ * No estado inicial de uma assinatura o tipo é {@code null}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusChange {
+
+    private OrderEvent.Type type;
+    private Long orderId;
+    private String orderNumber;
+    private Long customerId;
+    private Status status;
+    private BigDecimal totalAmount;
+    private Instant occurredAt;
+
+    public static OrderStatusChange of(OrderEvent event) {
+        return new OrderStatusChange(event.getType(), event.getOrderId(), event.getOrderNumber(),
+                event.getCustomerId(), event.getStatus(), event.getTotalAmount(), event.getOccurredAt());
+    }
+
+    public static OrderStatusChange of(OrderResponse order) {
+        return new OrderStatusChange(null, order.getId(), order.getOrderNumber(), order.getCustomerId(),
+                order.getStatus(), order.getTotalAmount(), Instant.now());
+    }
+}
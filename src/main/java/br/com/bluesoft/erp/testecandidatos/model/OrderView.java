@@ -0,0 +1,60 @@
+package br.com.bluesoft.erp.testecandidatos.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Visão desnormalizada de um pedido para consultas (modelo de leitura).
+ * Uma linha por pedido, com cliente, totais e itens embutidos; atualizada de forma
+ * assíncrona a partir das alterações de pedido. Nomes de cliente e produto e SKUs podem mudar
+ * sem alterar o pedido, então não são gravados: são preenchidos na consulta.
+ */
+@Entity
+@Table(name = "order_views", indexes = {
+        @Index(name = "idx_order_views_customer", columnList = "customer_id, order_id")
+})
+@Data
+@NoArgsConstructor
+public class OrderView {
+
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "order_number")
+    private String orderNumber;
+
+    @Column(name = "order_date")
+    private LocalDateTime orderDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    private Status status;
+
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    @Transient
+    private String customerName;
+
+    @Column(name = "item_count", nullable = false)
+    private int itemCount;
+
+    @Column(name = "total_amount")
+    private BigDecimal totalAmount;
+
+    @Lob
+    @Convert(converter = OrderViewItemsConverter.class)
+    @Column(name = "items")
+    private List<OrderViewItem> items = new ArrayList<>();
+
+    @Column(name = "projected_at", nullable = false)
+    private Instant projectedAt;
+}
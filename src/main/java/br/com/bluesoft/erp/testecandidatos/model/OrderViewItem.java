@@ -0,0 +1,25 @@
+package br.com.bluesoft.erp.testecandidatos.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Item embutido na visão de leitura de um pedido. Nome e SKU do produto não são gravados com o
+ * item; a consulta os preenche a partir do cadastro atual.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderViewItem {
+
+    private Long itemId;
+    private Long productId;
+    private String productName;
+    private String productSku;
+    private Integer quantity;
+    private BigDecimal unitPrice;
+    private BigDecimal subtotal;
+}
@@ -0,0 +1,42 @@
+package br.com.bluesoft.erp.testecandidatos.model;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Grava os itens da visão de pedido como um documento JSON em uma única coluna.
+ */
+@Converter
+public class OrderViewItemsConverter implements AttributeConverter<List<OrderViewItem>, String> {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<List<OrderViewItem>> ITEMS = new TypeReference<List<OrderViewItem>>() {
+    };
+
+    @Override
+    public String convertToDatabaseColumn(List<OrderViewItem> items) {
+        try {
+            return MAPPER.writeValueAsString(items == null ? new ArrayList<>() : items);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Falha ao serializar os itens do pedido", e);
+        }
+    }
+
+    @Override
+    public List<OrderViewItem> convertToEntityAttribute(String json) {
+        if (json == null || json.isEmpty()) {
+            return new ArrayList<>();
+        }
+        try {
+            return MAPPER.readValue(json, ITEMS);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Falha ao ler os itens do pedido", e);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package br.com.bluesoft.erp.testecandidatos.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Lote de alterações de preço agendado para entrar em vigor em um único instante.
+ * Os novos preços ficam em {@link PriceChangeItem} até a aplicação.
+ */
+@Entity
+@Table(name = "price_change_batches", indexes = @Index(name = "idx_price_change_batches_due", columnList = "status, effective_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceChangeBatch {
+
+    public enum Status {
+        AGENDADO,
+        APLICADO,
+        CANCELADO
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "description")
+    private String description;
+
+    @Column(name = "effective_at", nullable = false)
+    private LocalDateTime effectiveAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private Status status;
+
+    @Column(name = "item_count", nullable = false)
+    private int itemCount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "applied_at")
+    private LocalDateTime appliedAt;
+}
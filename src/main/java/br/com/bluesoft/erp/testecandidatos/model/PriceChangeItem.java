@@ -0,0 +1,31 @@
+package br.com.bluesoft.erp.testecandidatos.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+
+/**
+ * Novo preço de um produto dentro de um {@link PriceChangeBatch}.
+ */
+@Entity
+@Table(name = "price_change_items",
+        uniqueConstraints = @UniqueConstraint(name = "uk_price_change_items_product", columnNames = {"batch_id", "product_id"}))
+@Data
+@NoArgsConstructor
+public class PriceChangeItem {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "batch_id", nullable = false)
+    private Long batchId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "new_price", nullable = false)
+    private BigDecimal newPrice;
+}
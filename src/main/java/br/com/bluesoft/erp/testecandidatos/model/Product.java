@@ -1,5 +1,6 @@
 package br.com.bluesoft.erp.testecandidatos.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -7,16 +8,24 @@ import javax.persistence.*;
 import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.NotNull;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 /**
  * Entidade que representa um produto.
+ * Toda gravação limpa a sequência de alteração, que é atribuída depois do commit por
+ * {@code ProductChangeService} para a sincronização incremental do catálogo.
  */
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = @Index(name = "idx_products_change_seq", columnList = "change_seq"))
 @Data
 @NoArgsConstructor
 public class Product {
 
+    /**
+     * Estoque mínimo dos produtos sem limite de reposição próprio.
+     */
+    public static final int DEFAULT_REORDER_THRESHOLD = 10;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -38,6 +47,32 @@ public class Product {
     @Column(name = "sku", unique = true)
     private String sku;
 
+    @Column(name = "reorder_threshold")
+    private Integer reorderThreshold;
+
+    @JsonIgnore
+    @Column(name = "change_seq")
+    private Long changeSequence;
+
+    @JsonIgnore
+    @Column(name = "last_modified")
+    private LocalDateTime lastModified;
+
+    @PrePersist
+    @PreUpdate
+    void markChanged() {
+        changeSequence = null;
+        lastModified = LocalDateTime.now();
+    }
+
+    /**
+     * Limite de reposição do produto, ou o padrão quando não definido.
+     * O estoque está baixo quando fica abaixo deste limite.
+     */
+    public int reorderThresholdOrDefault() {
+        return reorderThreshold != null ? reorderThreshold : DEFAULT_REORDER_THRESHOLD;
+    }
+
     public BigDecimal calculateTotalValue() {
         if (stock == null || price == null) {
             return BigDecimal.ZERO;
@@ -0,0 +1,22 @@
+package br.com.bluesoft.erp.testecandidatos.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Alteração de um produto na sincronização incremental: o produto atual ou, se excluído, apenas o id.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChange {
+
+    private long sequence;
+    private Long productId;
+    private boolean deleted;
+    private LocalDateTime lastModified;
+    private Product product;
+}
@@ -0,0 +1,27 @@
+package br.com.bluesoft.erp.testecandidatos.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+
+/**
+ * Linha única com a última sequência de alteração de produtos atribuída e a maior sequência de
+ * exclusão já descartada. Travada durante a atribuição para que apenas uma instância atribua por vez.
+ */
+@Entity
+@Table(name = "product_change_sequence")
+@Data
+@NoArgsConstructor
+public class ProductChangeSequence {
+
+    @Id
+    @Column(name = "id")
+    private Integer id;
+
+    @Column(name = "last_sequence", nullable = false)
+    private long lastSequence;
+
+    @Column(name = "pruned_through", nullable = false)
+    private long prunedThrough;
+}
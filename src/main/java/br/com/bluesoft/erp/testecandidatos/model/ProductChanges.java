@@ -0,0 +1,25 @@
+package br.com.bluesoft.erp.testecandidatos.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Página de alterações de produtos posteriores ao cursor do cliente, em ordem de sequência.
+ * O cliente guarda {@code nextSince} e o envia na próxima consulta; com {@code hasMore} deve consultar
+ * de novo imediatamente. {@code resetRequired} indica que exclusões posteriores ao cursor já foram
+ * descartadas e o cliente precisa recomeçar do zero.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChanges {
+
+    private List<ProductChange> changes = new ArrayList<>();
+    private long nextSince;
+    private boolean hasMore;
+    private boolean resetRequired;
+}
@@ -0,0 +1,39 @@
+package br.com.bluesoft.erp.testecandidatos.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Histórico de preços: o preço anterior e o novo de cada produto alterado por um lote.
+ */
+@Entity
+@Table(name = "product_price_audit", indexes = @Index(name = "idx_product_price_audit_product", columnList = "product_id, changed_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPriceAudit {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "batch_id", nullable = false)
+    private Long batchId;
+
+    @Column(name = "old_price")
+    private BigDecimal oldPrice;
+
+    @Column(name = "new_price", nullable = false)
+    private BigDecimal newPrice;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+}
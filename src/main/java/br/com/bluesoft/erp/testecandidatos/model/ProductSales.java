@@ -0,0 +1,22 @@
+package br.com.bluesoft.erp.testecandidatos.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Quantidade vendida e receita de um produto, usadas no relatório de produtos mais vendidos.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSales {
+
+    private Long productId;
+    private String productName;
+    private String productSku;
+    private long quantity;
+    private BigDecimal revenue;
+}
@@ -0,0 +1,28 @@
+package br.com.bluesoft.erp.testecandidatos.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Registro de um produto excluído, para que a sincronização incremental informe a exclusão.
+ * Removido depois do período de retenção.
+ */
+@Entity
+@Table(name = "product_tombstones", indexes = @Index(name = "idx_product_tombstones_change_seq", columnList = "change_seq"))
+@Data
+@NoArgsConstructor
+public class ProductTombstone {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "change_seq")
+    private Long changeSequence;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+}
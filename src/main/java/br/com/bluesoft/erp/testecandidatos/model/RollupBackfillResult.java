@@ -0,0 +1,18 @@
+package br.com.bluesoft.erp.testecandidatos.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado da reconstrução dos totais diários a partir do histórico de pedidos.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupBackfillResult {
+
+    private long ordersApplied;
+    private long batches;
+    private long failedBatches;
+}
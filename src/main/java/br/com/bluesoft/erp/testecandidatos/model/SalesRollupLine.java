@@ -0,0 +1,20 @@
+package br.com.bluesoft.erp.testecandidatos.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Contribuição de um produto de um pedido para os totais diários.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesRollupLine {
+
+    private Long productId;
+    private long units;
+    private BigDecimal revenue;
+}
@@ -0,0 +1,42 @@
+package br.com.bluesoft.erp.testecandidatos.model;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Grava as contribuições por produto de um pedido como um documento JSON em uma única coluna.
+ */
+@Converter
+public class SalesRollupLinesConverter implements AttributeConverter<List<SalesRollupLine>, String> {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<List<SalesRollupLine>> LINES = new TypeReference<List<SalesRollupLine>>() {
+    };
+
+    @Override
+    public String convertToDatabaseColumn(List<SalesRollupLine> lines) {
+        try {
+            return MAPPER.writeValueAsString(lines == null ? new ArrayList<>() : lines);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Falha ao serializar as contribuições do pedido", e);
+        }
+    }
+
+    @Override
+    public List<SalesRollupLine> convertToEntityAttribute(String json) {
+        if (json == null || json.isEmpty()) {
+            return new ArrayList<>();
+        }
+        try {
+            return MAPPER.readValue(json, LINES);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Falha ao ler as contribuições do pedido", e);
+        }
+    }
+}
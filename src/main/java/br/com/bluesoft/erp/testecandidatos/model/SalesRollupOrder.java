@@ -0,0 +1,41 @@
+package br.com.bluesoft.erp.testecandidatos.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pedido já somado aos totais diários, com o que foi somado por produto.
+ * A chave por pedido impede que o mesmo pedido seja somado duas vezes, e as contribuições
+ * guardadas permitem desfazer exatamente a soma quando o pedido é cancelado. Pedidos cancelados
+ * continuam marcados, sem contribuição, para que a reconstrução não volte a somá-los.
+ */
+@Entity
+@Table(name = "sales_rollup_orders")
+@Data
+@NoArgsConstructor
+public class SalesRollupOrder {
+
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    @Column(name = "revenue", nullable = false)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(name = "cancelled", nullable = false)
+    private boolean cancelled;
+
+    @Lob
+    @Convert(converter = SalesRollupLinesConverter.class)
+    @Column(name = "lines")
+    private List<SalesRollupLine> lines = new ArrayList<>();
+}
@@ -0,0 +1,28 @@
+package br.com.bluesoft.erp.testecandidatos.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * Última geração do diário de deltas de estoque já aplicada na tabela de produtos.
+ * Atualizada na mesma transação do lote de deltas, para que a reprodução do diário
+ * na inicialização não aplique um lote duas vezes.
+ */
+@Entity
+@Table(name = "stock_journal_checkpoints")
+@Data
+@NoArgsConstructor
+public class StockJournalCheckpoint {
+
+    @Id
+    private Long id;
+
+    @Column(name = "generation", nullable = false)
+    private long generation;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
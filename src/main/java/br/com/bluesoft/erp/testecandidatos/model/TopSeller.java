@@ -0,0 +1,21 @@
+package br.com.bluesoft.erp.testecandidatos.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Produto entre os mais vendidos da janela recente, com unidades estimadas.
+ * As unidades vendidas estão entre {@code units - maxError} e {@code units}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TopSeller {
+
+    private Long productId;
+    private String productName;
+    private String productSku;
+    private long units;
+    private long maxError;
+}
@@ -0,0 +1,79 @@
+package br.com.bluesoft.erp.testecandidatos.outbox;
+
+import br.com.bluesoft.erp.testecandidatos.model.OutboxEvent;
+
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Sink que grava os eventos em um arquivo JSON Lines, um evento por linha.
+ * As linhas ficam em buffer até o {@link #flush()}, que grava e sincroniza o arquivo.
+ * <p>
+ * Se a gravação falhar no meio, o arquivo é truncado de volta ao tamanho anterior e o buffer é
+ * descartado, pois o relay publica o lote inteiro de novo. Só quando nem o truncamento é possível
+ * o lote pode aparecer duplicado; os consumidores devem descartar linhas com {@code id} repetido.
+ */
+public class FileOutboxSink implements OutboxSink {
+
+    private final FileChannel channel;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+
+    public FileOutboxSink(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public synchronized void publish(OutboxEvent event) {
+        // O payload já é JSON válido e é embutido sem nova serialização
+        String line = "{\"id\":" + event.getId()
+                + ",\"aggregateId\":" + event.getAggregateId()
+                + ",\"type\":\"" + event.getEventType() + "\""
+                + ",\"createdAt\":\"" + event.getCreatedAt() + "\""
+                + ",\"payload\":" + event.getPayload()
+                + "}\n";
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        buffer.write(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        if (buffer.size() == 0) {
+            return;
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+        buffer.reset();
+        long committedSize = channel.size();
+        try {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            // Remove as linhas já gravadas do lote, que será publicado de novo pelo relay
+            try {
+                channel.truncate(committedSize);
+            } catch (IOException truncateFailure) {
+                e.addSuppressed(truncateFailure);
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        flush();
+        channel.close();
+    }
+}
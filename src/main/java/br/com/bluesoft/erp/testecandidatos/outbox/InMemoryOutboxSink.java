@@ -0,0 +1,32 @@
+package br.com.bluesoft.erp.testecandidatos.outbox;
+
+import br.com.bluesoft.erp.testecandidatos.model.OutboxEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Sink em memória, usado em testes e benchmarks.
+ */
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final ConcurrentLinkedQueue<OutboxEvent> events = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public void publish(OutboxEvent event) {
+        events.add(event);
+    }
+
+    public List<OutboxEvent> getEvents() {
+        return new ArrayList<>(events);
+    }
+
+    public int size() {
+        return events.size();
+    }
+
+    public void clear() {
+        events.clear();
+    }
+}
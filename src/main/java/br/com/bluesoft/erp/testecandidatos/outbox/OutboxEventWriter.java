@@ -0,0 +1,38 @@
+package br.com.bluesoft.erp.testecandidatos.outbox;
+
+import br.com.bluesoft.erp.testecandidatos.event.OrderEvent;
+import br.com.bluesoft.erp.testecandidatos.model.OutboxEvent;
+import br.com.bluesoft.erp.testecandidatos.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Grava os eventos de pedido na tabela de outbox.
+ * O listener é síncrono, portanto a gravação participa da transação
+ * que alterou o pedido: ou ambos são confirmados, ou nenhum.
+ */
+@Component
+public class OutboxEventWriter {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public OutboxEventWriter(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @EventListener
+    public void onOrderEvent(OrderEvent event) {
+        try {
+            String payload = objectMapper.writeValueAsString(event);
+            outboxEventRepository.save(new OutboxEvent(event.getOrderId(), event.getType().name(), payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar o evento do pedido " + event.getOrderId(), e);
+        }
+    }
+}
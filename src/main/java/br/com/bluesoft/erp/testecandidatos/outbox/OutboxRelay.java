@@ -0,0 +1,111 @@
+package br.com.bluesoft.erp.testecandidatos.outbox;
+
+import br.com.bluesoft.erp.testecandidatos.model.OutboxEvent;
+import br.com.bluesoft.erp.testecandidatos.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Publica os eventos pendentes do outbox em lotes.
+ * A entrega é "pelo menos uma vez": o evento só é marcado como publicado depois
+ * que o sink confirma a gravação. Se a publicação de um evento falhar, os eventos
+ * seguintes do mesmo pedido ficam para o próximo ciclo, preservando a ordem por pedido.
+ * Depois de {@code maxAttempts} falhas o evento é estacionado e deixa de ser reenviado; ele e os
+ * eventos seguintes do mesmo pedido ficam retidos até que o evento seja tratado manualmente.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.relay.enabled", havingValue = "true")
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxSink sink;
+    private final int batchSize;
+    private final int maxAttempts;
+
+    @Autowired
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OutboxSink sink,
+                       @Value("${outbox.relay.batch-size:500}") int batchSize,
+                       @Value("${outbox.relay.max-attempts:10}") int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Quantidade máxima de tentativas deve ser positiva");
+        }
+        this.outboxEventRepository = outboxEventRepository;
+        this.sink = sink;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:500}")
+    public void poll() {
+        int published;
+        do {
+            published = relayBatch();
+        } while (published == batchSize);
+    }
+
+    /**
+     * Publica um lote de eventos pendentes.
+     * @return quantidade de eventos publicados
+     */
+    public int relayBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.findUnpublished(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> published = new ArrayList<>(batch.size());
+        List<Long> failed = new ArrayList<>();
+        List<Long> parked = new ArrayList<>();
+        Set<Long> blockedAggregates = new HashSet<>();
+
+        for (OutboxEvent event : batch) {
+            if (blockedAggregates.contains(event.getAggregateId())) {
+                continue;
+            }
+            try {
+                sink.publish(event);
+                published.add(event.getId());
+            } catch (IOException | RuntimeException e) {
+                log.warn("Falha ao publicar o evento {} do pedido {}", event.getId(), event.getAggregateId(), e);
+                blockedAggregates.add(event.getAggregateId());
+                if (event.getAttempts() + 1 >= maxAttempts) {
+                    log.error("Evento {} do pedido {} estacionado depois de {} tentativas",
+                            event.getId(), event.getAggregateId(), event.getAttempts() + 1);
+                    parked.add(event.getId());
+                } else {
+                    failed.add(event.getId());
+                }
+            }
+        }
+
+        // Os eventos que falharam não dependem da confirmação do lote
+        outboxEventRepository.incrementAttempts(failed);
+        outboxEventRepository.park(parked);
+
+        try {
+            sink.flush();
+        } catch (IOException e) {
+            // Nada é marcado como publicado; o lote inteiro será reenviado
+            log.warn("Falha ao confirmar o lote de {} eventos no sink", published.size(), e);
+            outboxEventRepository.incrementAttempts(published);
+            return 0;
+        }
+
+        outboxEventRepository.markPublished(published);
+        return published.size();
+    }
+}
@@ -0,0 +1,20 @@
+package br.com.bluesoft.erp.testecandidatos.outbox;
+
+import br.com.bluesoft.erp.testecandidatos.model.OutboxEvent;
+
+import java.io.IOException;
+
+/**
+ * Destino para onde o relay publica os eventos do outbox.
+ */
+public interface OutboxSink {
+
+    void publish(OutboxEvent event) throws IOException;
+
+    /**
+     * Garante que os eventos publicados até aqui estão duráveis no destino.
+     * Chamado pelo relay antes de marcar o lote como publicado.
+     */
+    default void flush() throws IOException {
+    }
+}
@@ -0,0 +1,163 @@
+package br.com.bluesoft.erp.testecandidatos.reporting;
+
+import org.springframework.jdbc.UncategorizedSQLException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Executa agregações de relatório em paralelo, particionando a tabela por faixas de id.
+ * <p>
+ * A faixa {@code [MIN(id), MAX(id)]} é dividida ao meio recursivamente em um {@link ForkJoinPool}
+ * dedicado até que cada partição tenha no máximo {@code partitionSize} ids. Cada partição abre a
+ * sua própria conexão somente leitura e calcula um resultado parcial, e os parciais são juntados
+ * na volta da recursão. O pool é exclusivo dos relatórios para que as threads bloqueadas em JDBC
+ * não atrasem o pool comum.
+ */
+public class PartitionedReportEngine implements AutoCloseable {
+
+    /**
+     * Agregação parcial de uma faixa de ids, inclusiva nas duas pontas.
+     */
+    public interface PartialAggregation<R> {
+        R aggregate(Connection connection, long fromId, long toId) throws SQLException;
+    }
+
+    private final DataSource dataSource;
+    private final ForkJoinPool pool;
+    private final long partitionSize;
+    private final LongAdder partitions = new LongAdder();
+
+    /**
+     * @param parallelism quantidade de threads; {@code 0} usa a quantidade de processadores
+     */
+    public PartitionedReportEngine(DataSource dataSource, int parallelism, long partitionSize) {
+        if (partitionSize < 1) {
+            throw new IllegalArgumentException("Tamanho da partição deve ser positivo");
+        }
+        this.dataSource = dataSource;
+        this.partitionSize = partitionSize;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Quantidade de partições executadas desde a criação do motor.
+     */
+    public long getPartitionCount() {
+        return partitions.sum();
+    }
+
+    /**
+     * Agrega a tabela inteira.
+     *
+     * @param table tabela com chave numérica {@code id}; nunca deve vir de entrada do usuário
+     * @param empty resultado de uma tabela vazia
+     */
+    public <R> R run(String table, Supplier<R> empty, PartialAggregation<R> partial, BinaryOperator<R> merge) {
+        return run(dataSource, 1, table, empty, partial, merge);
+    }
+
+    /**
+     * Agrega a mesma tabela em vários bancos, como os shards de pedidos, juntando o resultado de
+     * cada banco como mais um parcial.
+     *
+     * @param idStride distância entre ids consecutivos em cada banco; as partições continuam com
+     *                 no máximo {@code partitionSize} ids existentes
+     */
+    public <R> R run(List<DataSource> dataSources, long idStride, String table, Supplier<R> empty,
+                     PartialAggregation<R> partial, BinaryOperator<R> merge) {
+        if (idStride < 1) {
+            throw new IllegalArgumentException("Distância entre ids deve ser positiva");
+        }
+        R result = empty.get();
+        for (DataSource source : dataSources) {
+            result = merge.apply(result, run(source, idStride, table, empty, partial, merge));
+        }
+        return result;
+    }
+
+    private <R> R run(DataSource source, long idStride, String table, Supplier<R> empty,
+                      PartialAggregation<R> partial, BinaryOperator<R> merge) {
+        long[] range = idRange(source, table);
+        if (range == null) {
+            return empty.get();
+        }
+        return pool.invoke(new PartitionTask<>(source, partitionSize * idStride, range[0], range[1], partial, merge));
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    private long[] idRange(DataSource source, String table) {
+        try (Connection connection = source.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT MIN(id), MAX(id) FROM " + table)) {
+            resultSet.next();
+            long min = resultSet.getLong(1);
+            if (resultSet.wasNull()) {
+                return null;
+            }
+            return new long[]{min, resultSet.getLong(2)};
+        } catch (SQLException e) {
+            throw new UncategorizedSQLException("faixa de ids de " + table, null, e);
+        }
+    }
+
+    private <R> R runPartition(DataSource source, long fromId, long toId, PartialAggregation<R> partial) {
+        partitions.increment();
+        try (Connection connection = source.getConnection()) {
+            connection.setReadOnly(true);
+            return partial.aggregate(connection, fromId, toId);
+        } catch (SQLException e) {
+            throw new UncategorizedSQLException("partição " + fromId + ".." + toId, null, e);
+        }
+    }
+
+    private class PartitionTask<R> extends RecursiveTask<R> {
+
+        private final DataSource source;
+        private final long span;
+        private final long fromId;
+        private final long toId;
+        private final PartialAggregation<R> partial;
+        private final BinaryOperator<R> merge;
+
+        PartitionTask(DataSource source, long span, long fromId, long toId,
+                      PartialAggregation<R> partial, BinaryOperator<R> merge) {
+            this.source = source;
+            this.span = span;
+            this.fromId = fromId;
+            this.toId = toId;
+            this.partial = partial;
+            this.merge = merge;
+        }
+
+        @Override
+        protected R compute() {
+            if (toId - fromId < span) {
+                return runPartition(source, fromId, toId, partial);
+            }
+            long middle = fromId + (toId - fromId) / 2;
+            PartitionTask<R> left = new PartitionTask<>(source, span, fromId, middle, partial, merge);
+            PartitionTask<R> right = new PartitionTask<>(source, span, middle + 1, toId, partial, merge);
+            left.fork();
+            R rightResult = right.compute();
+            return merge.apply(left.join(), rightResult);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package br.com.bluesoft.erp.testecandidatos.repository;
 
+import br.com.bluesoft.erp.testecandidatos.dto.CustomerResponse;
 import br.com.bluesoft.erp.testecandidatos.model.Customer;
 import org.springframework.stereotype.Repository;
 
@@ -17,4 +18,12 @@ public interface CustomerRepository extends BaseRepository<Customer, Long> {
     List<Customer> findByNameContaining(String name);
     
     List<Customer> findCustomersWithOrders();
+
+    // Projeções para a API: montadas direto da consulta, sem carregar entidades
+
+    List<CustomerResponse> findAllSummaries();
+
+    List<CustomerResponse> findSummariesByNameContaining(String name);
+
+    List<CustomerResponse> findSummariesWithOrders();
 }
\ No newline at end of file
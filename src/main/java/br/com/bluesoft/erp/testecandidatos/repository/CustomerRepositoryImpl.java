@@ -1,19 +1,32 @@
 package br.com.bluesoft.erp.testecandidatos.repository;
 
+import br.com.bluesoft.erp.testecandidatos.dto.CustomerResponse;
 import br.com.bluesoft.erp.testecandidatos.model.Customer;
+import br.com.bluesoft.erp.testecandidatos.sharding.ShardedOrderStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.TypedQuery;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
  * Implementação do repositório para a entidade Customer.
+ * Com os pedidos em shards, os clientes com pedidos são identificados pelos ids lidos dos shards.
  */
 @Repository
 public class CustomerRepositoryImpl extends BaseRepositoryImpl<Customer, Long> implements CustomerRepository {
 
+    private static final String SELECT_SUMMARY =
+            "SELECT new " + CustomerResponse.class.getName() + "(c.id, c.name, c.email, c.phone) FROM Customer c ";
+
+    @Autowired
+    private ObjectProvider<ShardedOrderStore> shardedOrderStore;
+
     @Override
     public Optional<Customer> findByEmail(String email) {
         TypedQuery<Customer> query = entityManager.createQuery(
@@ -36,6 +49,11 @@ public class CustomerRepositoryImpl extends BaseRepositoryImpl<Customer, Long> i
 
     @Override
     public List<Customer> findCustomersWithOrders() {
+        ShardedOrderStore store = shardedOrderStore.getIfAvailable();
+        if (store != null) {
+            return findByIds("SELECT c FROM Customer c WHERE c.id IN :ids ORDER BY c.id", Customer.class,
+                    store.findCustomerIds());
+        }
         TypedQuery<Customer> query = entityManager.createQuery(
                 "SELECT c FROM Customer c", Customer.class);
         List<Customer> allCustomers = query.getResultList();
@@ -44,4 +62,39 @@ public class CustomerRepositoryImpl extends BaseRepositoryImpl<Customer, Long> i
                 .filter(c -> c.getOrders() != null && !c.getOrders().isEmpty())
                 .collect(Collectors.toList());
     }
+
+    @Override
+    public List<CustomerResponse> findAllSummaries() {
+        return entityManager.createQuery(SELECT_SUMMARY + "ORDER BY c.id", CustomerResponse.class)
+                .getResultList();
+    }
+
+    @Override
+    public List<CustomerResponse> findSummariesByNameContaining(String name) {
+        TypedQuery<CustomerResponse> query = entityManager.createQuery(
+                SELECT_SUMMARY + "WHERE c.name LIKE :name ORDER BY c.id", CustomerResponse.class);
+        query.setParameter("name", "%" + name + "%");
+        return query.getResultList();
+    }
+
+    @Override
+    public List<CustomerResponse> findSummariesWithOrders() {
+        ShardedOrderStore store = shardedOrderStore.getIfAvailable();
+        if (store != null) {
+            return findByIds(SELECT_SUMMARY + "WHERE c.id IN :ids ORDER BY c.id", CustomerResponse.class,
+                    store.findCustomerIds());
+        }
+        return entityManager.createQuery(SELECT_SUMMARY
+                        + "WHERE EXISTS (SELECT o.id FROM Order o WHERE o.customer = c) ORDER BY c.id",
+                CustomerResponse.class).getResultList();
+    }
+
+    private <R> List<R> findByIds(String jpql, Class<R> resultClass, Set<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return entityManager.createQuery(jpql, resultClass)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
 }
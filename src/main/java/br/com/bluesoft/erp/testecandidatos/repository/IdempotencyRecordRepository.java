@@ -0,0 +1,22 @@
+package br.com.bluesoft.erp.testecandidatos.repository;
+
+import br.com.bluesoft.erp.testecandidatos.model.IdempotencyRecord;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+/**
+ * Repositório para a entidade IdempotencyRecord.
+ */
+@Repository
+public interface IdempotencyRecordRepository extends BaseRepository<IdempotencyRecord, String> {
+
+    /**
+     * Insere a chave em uma transação própria, falhando se ela já existir.
+     */
+    void insert(IdempotencyRecord record);
+
+    int complete(String key, int status, String contentType, byte[] body, Instant expiresAt);
+
+    int deleteExpired(Instant now);
+}
@@ -0,0 +1,46 @@
+package br.com.bluesoft.erp.testecandidatos.repository;
+
+import br.com.bluesoft.erp.testecandidatos.model.IdempotencyRecord;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * Implementação do repositório para a entidade IdempotencyRecord.
+ */
+@Repository
+public class IdempotencyRecordRepositoryImpl extends BaseRepositoryImpl<IdempotencyRecord, String>
+        implements IdempotencyRecordRepository {
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void insert(IdempotencyRecord record) {
+        entityManager.persist(record);
+        entityManager.flush();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int complete(String key, int status, String contentType, byte[] body, Instant expiresAt) {
+        return entityManager.createQuery(
+                        "UPDATE IdempotencyRecord r SET r.completed = true, r.responseStatus = :status, "
+                                + "r.contentType = :contentType, r.responseBody = :body, r.expiresAt = :expiresAt "
+                                + "WHERE r.key = :key")
+                .setParameter("status", status)
+                .setParameter("contentType", contentType)
+                .setParameter("body", body)
+                .setParameter("expiresAt", expiresAt)
+                .setParameter("key", key)
+                .executeUpdate();
+    }
+
+    @Override
+    @Transactional
+    public int deleteExpired(Instant now) {
+        return entityManager.createQuery("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+                .setParameter("now", now)
+                .executeUpdate();
+    }
+}
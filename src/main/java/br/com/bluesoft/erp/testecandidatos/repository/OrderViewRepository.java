@@ -0,0 +1,15 @@
+package br.com.bluesoft.erp.testecandidatos.repository;
+
+import br.com.bluesoft.erp.testecandidatos.model.OrderView;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repositório para a visão de leitura de pedidos.
+ */
+@Repository
+public interface OrderViewRepository extends BaseRepository<OrderView, Long> {
+
+    List<OrderView> findByCustomerId(Long customerId);
+}
@@ -0,0 +1,22 @@
+package br.com.bluesoft.erp.testecandidatos.repository;
+
+import br.com.bluesoft.erp.testecandidatos.model.OrderView;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.TypedQuery;
+import java.util.List;
+
+/**
+ * Implementação do repositório para a visão de leitura de pedidos.
+ */
+@Repository
+public class OrderViewRepositoryImpl extends BaseRepositoryImpl<OrderView, Long> implements OrderViewRepository {
+
+    @Override
+    public List<OrderView> findByCustomerId(Long customerId) {
+        TypedQuery<OrderView> query = entityManager.createQuery(
+                "SELECT v FROM OrderView v WHERE v.customerId = :customerId ORDER BY v.orderId", OrderView.class);
+        query.setParameter("customerId", customerId);
+        return query.getResultList();
+    }
+}
@@ -0,0 +1,27 @@
+package br.com.bluesoft.erp.testecandidatos.repository;
+
+import br.com.bluesoft.erp.testecandidatos.model.OutboxEvent;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repositório para a entidade OutboxEvent.
+ */
+@Repository
+public interface OutboxEventRepository extends BaseRepository<OutboxEvent, Long> {
+
+    /**
+     * Eventos não publicados, em ordem de gravação, exceto os dos pedidos com evento estacionado.
+     */
+    List<OutboxEvent> findUnpublished(int limit);
+
+    int markPublished(List<Long> ids);
+
+    int incrementAttempts(List<Long> ids);
+
+    /**
+     * Conta mais uma tentativa e retira os eventos do relay.
+     */
+    int park(List<Long> ids);
+}
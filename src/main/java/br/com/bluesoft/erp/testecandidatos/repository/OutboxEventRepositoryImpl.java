@@ -0,0 +1,64 @@
+package br.com.bluesoft.erp.testecandidatos.repository;
+
+import br.com.bluesoft.erp.testecandidatos.model.OutboxEvent;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.TypedQuery;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Implementação do repositório para a entidade OutboxEvent.
+ */
+@Repository
+public class OutboxEventRepositoryImpl extends BaseRepositoryImpl<OutboxEvent, Long> implements OutboxEventRepository {
+
+    @Override
+    public List<OutboxEvent> findUnpublished(int limit) {
+        TypedQuery<OutboxEvent> query = entityManager.createQuery(
+                                "SELECT e FROM OutboxEvent e WHERE e.publishedAt IS NULL AND NOT EXISTS ("
+                        + "SELECT p.id FROM OutboxEvent p WHERE p.aggregateId = e.aggregateId AND p.parkedAt IS NOT NULL) "
+                        + "ORDER BY e.id", OutboxEvent.class);
+        query.setMaxResults(limit);
+        return query.getResultList();
+    }
+
+    @Override
+    @Transactional
+    public int markPublished(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return entityManager.createQuery(
+                        "UPDATE OutboxEvent e SET e.publishedAt = :now, e.attempts = e.attempts + 1 WHERE e.id IN :ids")
+                .setParameter("now", Instant.now())
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+
+    @Override
+    @Transactional
+    public int incrementAttempts(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return entityManager.createQuery(
+                        "UPDATE OutboxEvent e SET e.attempts = e.attempts + 1 WHERE e.id IN :ids")
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+
+    @Override
+    @Transactional
+    public int park(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return entityManager.createQuery(
+                        "UPDATE OutboxEvent e SET e.parkedAt = :now, e.attempts = e.attempts + 1 WHERE e.id IN :ids")
+                .setParameter("now", Instant.now())
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+}
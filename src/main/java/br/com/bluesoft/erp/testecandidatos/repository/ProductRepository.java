@@ -19,6 +19,10 @@ public interface ProductRepository extends BaseRepository<Product, Long> {
 
     List<Product> searchByName(String name);
 
+    /**
+     * Produtos com estoque abaixo do próprio limite de reposição, ou de {@code minStock} quando
+     * o produto não tem limite.
+     */
     List<Product> findProductsWithLowStock(Integer minStock);
 
 }
@@ -46,7 +46,8 @@ public class ProductRepositoryImpl extends BaseRepositoryImpl<Product, Long> imp
     @Override
     public List<Product> findProductsWithLowStock(Integer minStock) {
         TypedQuery<Product> query = entityManager.createQuery(
-                "SELECT p FROM Product p WHERE p.stock > :minStock", Product.class);
+                "SELECT p FROM Product p WHERE p.stock < COALESCE(p.reorderThreshold, :minStock) ORDER BY p.id",
+                Product.class);
         query.setParameter("minStock", minStock);
         return query.getResultList();
     }
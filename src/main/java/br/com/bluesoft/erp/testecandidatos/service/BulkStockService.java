@@ -0,0 +1,18 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import br.com.bluesoft.erp.testecandidatos.dto.BulkStockEntry;
+import br.com.bluesoft.erp.testecandidatos.dto.BulkStockResponse;
+
+import java.util.List;
+
+/**
+ * Serviço de ajuste de estoque em lote.
+ */
+public interface BulkStockService {
+
+    /**
+     * Aplica as entradas em uma única transação. Entradas inválidas, de produtos inexistentes ou que
+     * deixariam o estoque negativo são recusadas individualmente, sem desfazer as demais.
+     */
+    BulkStockResponse applyStockChanges(List<BulkStockEntry> entries);
+}
@@ -0,0 +1,256 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import br.com.bluesoft.erp.testecandidatos.dto.BulkStockEntry;
+import br.com.bluesoft.erp.testecandidatos.dto.BulkStockResponse;
+import br.com.bluesoft.erp.testecandidatos.dto.BulkStockResult;
+import br.com.bluesoft.erp.testecandidatos.event.ProductChangedEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Implementação do ajuste de estoque em lote com SQL por conjunto.
+ * <p>
+ * As entradas são resolvidas para ids com consultas por bloco, as travas de todos os produtos são
+ * tomadas de uma vez, em ordem, e cada bloco é aplicado com um único {@code UPDATE} em lote. Deltas e
+ * valores absolutos usam o mesmo comando, então entradas do mesmo produto são aplicadas na ordem da
+ * requisição. A condição de estoque não negativo fica no próprio {@code UPDATE}: uma linha não
+ * alterada indica estoque insuficiente, sem ler o estoque antes.
+ */
+@Service
+public class BulkStockServiceImpl implements BulkStockService {
+
+    private static final String UPDATE_SQL = "UPDATE products SET stock = COALESCE(?, COALESCE(stock, 0) + ?), "
+            + "change_seq = NULL, last_modified = LOCALTIMESTAMP "
+            + "WHERE id = ? AND COALESCE(?, COALESCE(stock, 0) + ?) >= 0";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final ProductLockManager productLockManager;
+    private final StockDeltaBuffer stockDeltaBuffer;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+    private final int maxEntries;
+
+    private final Timer bulkTimer;
+    private final DistributionSummary entriesSummary;
+
+    @Autowired
+    public BulkStockServiceImpl(DataSource dataSource,
+                                ProductLockManager productLockManager,
+                                StockDeltaBuffer stockDeltaBuffer,
+                                ApplicationEventPublisher eventPublisher,
+                                MeterRegistry meterRegistry,
+                                @Value("${products.stock-bulk.chunk-size:1000}") int chunkSize,
+                                @Value("${products.stock-bulk.max-entries:100000}") int maxEntries) {
+        if (chunkSize < 1 || maxEntries < 1) {
+            throw new IllegalArgumentException("Tamanho do bloco e limite de entradas devem ser positivos");
+        }
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.productLockManager = productLockManager;
+        this.stockDeltaBuffer = stockDeltaBuffer;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.maxEntries = maxEntries;
+        this.bulkTimer = Timer.builder("products.stock-bulk").register(meterRegistry);
+        this.entriesSummary = DistributionSummary.builder("products.stock-bulk.entries").register(meterRegistry);
+    }
+
+    @Override
+    @Transactional
+    public BulkStockResponse applyStockChanges(List<BulkStockEntry> entries) {
+        if (entries == null || entries.isEmpty()) {
+            throw new IllegalArgumentException("Nenhuma entrada informada");
+        }
+        if (entries.size() > maxEntries) {
+            throw new IllegalArgumentException("Lote excede o limite de " + maxEntries + " entradas");
+        }
+        Timer.Sample sample = Timer.start();
+        entriesSummary.record(entries.size());
+
+        BulkStockResult[] results = new BulkStockResult[entries.size()];
+        Long[] productIds = new Long[entries.size()];
+        for (int start = 0; start < entries.size(); start += chunkSize) {
+            resolve(entries, start, Math.min(entries.size(), start + chunkSize), results, productIds);
+        }
+
+        Set<Long> lockedIds = new LinkedHashSet<>();
+        for (Long productId : productIds) {
+            if (productId != null) {
+                lockedIds.add(productId);
+            }
+        }
+
+        Set<Long> changedIds = productLockManager.withProductLocks(lockedIds, () -> {
+            // Deltas ainda no buffer seriam somados depois de um valor absoluto; as travas impedem novos
+            if (stockDeltaBuffer.isEnabled()) {
+                stockDeltaBuffer.flush();
+            }
+            Set<Long> changed = new HashSet<>();
+            for (int start = 0; start < entries.size(); start += chunkSize) {
+                apply(entries, start, Math.min(entries.size(), start + chunkSize), results, productIds, changed);
+            }
+            return changed;
+        });
+        changedIds.forEach(productId ->
+                eventPublisher.publishEvent(new ProductChangedEvent(ProductChangedEvent.Type.SALVO, productId)));
+
+        int applied = 0;
+        for (BulkStockResult result : results) {
+            if (result.getOutcome() == BulkStockResult.Outcome.APLICADO) {
+                applied++;
+            }
+        }
+        sample.stop(bulkTimer);
+        return new BulkStockResponse(applied, results.length - applied, Arrays.asList(results));
+    }
+
+    /**
+     * Valida as entradas do bloco e resolve ids e SKUs com uma consulta para cada.
+     */
+    private void resolve(List<BulkStockEntry> entries, int start, int end,
+                         BulkStockResult[] results, Long[] productIds) {
+        Set<Long> ids = new HashSet<>();
+        Set<String> skus = new HashSet<>();
+        for (int i = start; i < end; i++) {
+            BulkStockEntry entry = entries.get(i);
+            if (!isValid(entry)) {
+                results[i] = result(i, entry, null, BulkStockResult.Outcome.INVALIDO);
+            } else if (entry.getId() != null) {
+                ids.add(entry.getId());
+            } else {
+                skus.add(entry.getSku());
+            }
+        }
+        // Consultas separadas: com OR o banco deixa de usar os índices e percorre a tabela
+        Set<Long> existingIds = ids.isEmpty() ? new HashSet<>() : new HashSet<>(namedJdbcTemplate.queryForList(
+                "SELECT id FROM products WHERE id IN (:ids)", new MapSqlParameterSource("ids", ids), Long.class));
+        Map<String, Long> idsBySku = new HashMap<>();
+        if (!skus.isEmpty()) {
+            namedJdbcTemplate.query("SELECT id, sku FROM products WHERE sku IN (:skus)",
+                    new MapSqlParameterSource("skus", skus),
+                    resultSet -> {
+                        idsBySku.put(resultSet.getString(2), resultSet.getLong(1));
+                    });
+        }
+
+        for (int i = start; i < end; i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            BulkStockEntry entry = entries.get(i);
+            Long productId = entry.getId() != null
+                    ? (existingIds.contains(entry.getId()) ? entry.getId() : null)
+                    : idsBySku.get(entry.getSku());
+            if (productId == null) {
+                results[i] = result(i, entry, entry.getId(), BulkStockResult.Outcome.NAO_ENCONTRADO);
+            } else {
+                productIds[i] = productId;
+            }
+        }
+    }
+
+    /**
+     * Aplica as entradas resolvidas do bloco em um único {@code UPDATE} em lote.
+     */
+    private void apply(List<BulkStockEntry> entries, int start, int end,
+                       BulkStockResult[] results, Long[] productIds, Set<Long> changed) {
+        List<Integer> pending = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            if (productIds[i] != null) {
+                pending.add(i);
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int row) throws SQLException {
+                int index = pending.get(row);
+                BulkStockEntry entry = entries.get(index);
+                int delta = entry.getDelta() != null ? entry.getDelta() : 0;
+                statement.setObject(1, entry.getStock(), Types.INTEGER);
+                statement.setInt(2, delta);
+                statement.setLong(3, productIds[index]);
+                statement.setObject(4, entry.getStock(), Types.INTEGER);
+                statement.setInt(5, delta);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return pending.size();
+            }
+        });
+
+        List<Integer> unchanged = new ArrayList<>();
+        for (int row = 0; row < counts.length; row++) {
+            int index = pending.get(row);
+            if (counts[row] == 0) {
+                unchanged.add(index);
+            } else {
+                results[index] = result(index, entries.get(index), productIds[index], BulkStockResult.Outcome.APLICADO);
+                changed.add(productIds[index]);
+            }
+        }
+        if (unchanged.isEmpty()) {
+            return;
+        }
+
+        // Sem alteração: estoque insuficiente, ou o produto foi excluído depois da resolução
+        Set<Long> unchangedIds = new HashSet<>();
+        unchanged.forEach(index -> unchangedIds.add(productIds[index]));
+        Set<Long> existingIds = new HashSet<>(namedJdbcTemplate.queryForList(
+                "SELECT id FROM products WHERE id IN (:ids)", new MapSqlParameterSource("ids", unchangedIds),
+                Long.class));
+        for (int index : unchanged) {
+            BulkStockResult.Outcome outcome = existingIds.contains(productIds[index])
+                    ? BulkStockResult.Outcome.ESTOQUE_INSUFICIENTE
+                    : BulkStockResult.Outcome.NAO_ENCONTRADO;
+            results[index] = result(index, entries.get(index), productIds[index], outcome);
+        }
+    }
+
+    private static boolean isValid(BulkStockEntry entry) {
+        if (entry == null) {
+            return false;
+        }
+        boolean hasSku = entry.getSku() != null && !entry.getSku().isEmpty();
+        if ((entry.getId() == null) == !hasSku) {
+            return false;
+        }
+        if ((entry.getDelta() == null) == (entry.getStock() == null)) {
+            return false;
+        }
+        return entry.getStock() == null || entry.getStock() >= 0;
+    }
+
+    private static BulkStockResult result(int index, BulkStockEntry entry, Long productId,
+                                          BulkStockResult.Outcome outcome) {
+        return new BulkStockResult(index, productId, entry == null ? null : entry.getSku(), outcome);
+    }
+}
@@ -0,0 +1,20 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import br.com.bluesoft.erp.testecandidatos.catalog.CatalogSnapshot;
+
+import java.util.Optional;
+
+/**
+ * Serviço que mantém a fotografia do catálogo usada nas leituras de produtos.
+ */
+public interface CatalogSnapshotService {
+
+    /**
+     * Indica se as leituras de produtos devem ser atendidas pela fotografia.
+     */
+    boolean isServing();
+
+    Optional<CatalogSnapshot> currentSnapshot();
+
+    CatalogSnapshot rebuild();
+}
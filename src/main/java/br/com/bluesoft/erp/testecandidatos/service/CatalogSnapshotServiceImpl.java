@@ -0,0 +1,149 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import br.com.bluesoft.erp.testecandidatos.catalog.CatalogSnapshot;
+import br.com.bluesoft.erp.testecandidatos.catalog.CatalogSnapshotFile;
+import br.com.bluesoft.erp.testecandidatos.event.ProductChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Implementação do serviço de fotografia do catálogo.
+ * A fotografia é reconstruída a partir da tabela de produtos quando há alterações
+ * confirmadas ou quando fica mais velha que o intervalo configurado,
+ * e é trocada atomicamente para os leitores.
+ * Quando {@code catalog.snapshot.file} está configurado, cada reconstrução é gravada em disco
+ * e a última fotografia gravada é carregada na inicialização, atendendo leituras imediatamente
+ * enquanto a atualização em segundo plano a reconcilia com o banco.
+ */
+@Service
+public class CatalogSnapshotServiceImpl implements CatalogSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshotServiceImpl.class);
+
+    private static final String SELECT_PRODUCTS =
+            "SELECT id, name, description, price, stock, sku, reorder_threshold FROM products ORDER BY id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final Duration maxAge;
+    private final Path snapshotFile;
+
+    private final AtomicReference<CatalogSnapshot> current = new AtomicReference<>();
+    private final AtomicLong versions = new AtomicLong();
+    private volatile boolean dirty = true;
+
+    @Autowired
+    public CatalogSnapshotServiceImpl(DataSource dataSource,
+                                      @Value("${catalog.snapshot.enabled:false}") boolean enabled,
+                                      @Value("${catalog.snapshot.max-age-ms:60000}") long maxAgeMillis,
+                                      @Value("${catalog.snapshot.file:}") String snapshotFile) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(1000);
+        this.enabled = enabled;
+        this.maxAge = Duration.ofMillis(maxAgeMillis);
+        this.snapshotFile = snapshotFile.isEmpty() ? null : Paths.get(snapshotFile);
+    }
+
+    /**
+     * Carrega a fotografia gravada na execução anterior, se houver. A fotografia continua
+     * marcada como suja para que a primeira verificação agendada a reconstrua a partir do banco.
+     */
+    @PostConstruct
+    public void loadFromFile() {
+        if (!enabled || snapshotFile == null || !Files.exists(snapshotFile)) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            CatalogSnapshot snapshot = CatalogSnapshotFile.read(snapshotFile);
+            versions.set(snapshot.getVersion());
+            current.compareAndSet(null, snapshot);
+            log.info("Fotografia do catálogo v{} carregada de {} com {} produtos em {} ms",
+                    snapshot.getVersion(), snapshotFile, snapshot.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            log.warn("Fotografia do catálogo em {} ignorada: {}", snapshotFile, e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isServing() {
+        return enabled && current.get() != null;
+    }
+
+    @Override
+    public Optional<CatalogSnapshot> currentSnapshot() {
+        return Optional.ofNullable(current.get());
+    }
+
+    @Override
+    public synchronized CatalogSnapshot rebuild() {
+        long start = System.nanoTime();
+        // Alterações confirmadas durante a leitura marcam a fotografia como suja de novo
+        dirty = false;
+
+        Integer expected = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products", Integer.class);
+        CatalogSnapshot.Builder builder = CatalogSnapshot.builder(expected == null ? 0 : expected);
+        jdbcTemplate.query(SELECT_PRODUCTS, rs -> {
+            builder.add(
+                    rs.getLong("id"),
+                    rs.getString("name"),
+                    rs.getString("description"),
+                    rs.getBigDecimal("price"),
+                    (Integer) rs.getObject("stock"),
+                    rs.getString("sku"),
+                    (Integer) rs.getObject("reorder_threshold"));
+        });
+
+        CatalogSnapshot snapshot = builder.build(versions.incrementAndGet());
+        current.set(snapshot);
+        log.info("Fotografia do catálogo v{} construída com {} produtos em {} ms",
+                snapshot.getVersion(), snapshot.size(), (System.nanoTime() - start) / 1_000_000);
+        writeToFile(snapshot);
+        return snapshot;
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.snapshot.check-interval-ms:1000}")
+    public void refreshIfNeeded() {
+        if (!enabled) {
+            return;
+        }
+        CatalogSnapshot snapshot = current.get();
+        if (dirty || snapshot == null || snapshot.getBuiltAt().plus(maxAge).isBefore(Instant.now())) {
+            rebuild();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        dirty = true;
+    }
+
+    private void writeToFile(CatalogSnapshot snapshot) {
+        if (snapshotFile == null) {
+            return;
+        }
+        try {
+            CatalogSnapshotFile.write(snapshot, snapshotFile);
+        } catch (IOException e) {
+            log.warn("Falha ao gravar a fotografia do catálogo em {}", snapshotFile, e);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package br.com.bluesoft.erp.testecandidatos.service;
 
+import br.com.bluesoft.erp.testecandidatos.dto.CustomerResponse;
 import br.com.bluesoft.erp.testecandidatos.model.Customer;
 
 import java.util.List;
@@ -27,4 +28,12 @@ public interface CustomerService {
     List<Customer> findCustomersWithOrders();
     
     boolean validateCustomerEmail(String email);
+
+    // Listagens para a API, projetadas direto da consulta sem carregar entidades
+
+    List<CustomerResponse> findAllCustomerSummaries();
+
+    List<CustomerResponse> searchCustomerSummariesByName(String name);
+
+    List<CustomerResponse> findCustomerSummariesWithOrders();
 }
\ No newline at end of file
@@ -1,11 +1,15 @@
 package br.com.bluesoft.erp.testecandidatos.service;
 
+import br.com.bluesoft.erp.testecandidatos.concurrent.SingleFlight;
+import br.com.bluesoft.erp.testecandidatos.dto.CustomerResponse;
 import br.com.bluesoft.erp.testecandidatos.model.Customer;
 import br.com.bluesoft.erp.testecandidatos.repository.CustomerRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 import java.util.Optional;
@@ -18,12 +22,15 @@ import java.util.regex.Pattern;
 public class CustomerServiceImpl implements CustomerService {
 
     private final CustomerRepository customerRepository;
+
+    private final SingleFlight<Long, Optional<Customer>> customerByIdLookups;
     
     private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@(.+)$");
 
     @Autowired
-    public CustomerServiceImpl(CustomerRepository customerRepository) {
+    public CustomerServiceImpl(CustomerRepository customerRepository, MeterRegistry meterRegistry) {
         this.customerRepository = customerRepository;
+        this.customerByIdLookups = new SingleFlight<>("customer.id", meterRegistry);
     }
 
     @Override
@@ -33,9 +40,13 @@ public class CustomerServiceImpl implements CustomerService {
     }
 
     @Override
-    @Transactional(readOnly = true, isolation = Isolation.SERIALIZABLE)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public Optional<Customer> findCustomerById(Long id) {
-        return customerRepository.findById(id);
+        // Dentro de uma transação o chamador precisa da sua própria instância gerenciada
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return customerRepository.findById(id);
+        }
+        return customerByIdLookups.execute(id, () -> customerRepository.findById(id));
     }
 
     @Override
@@ -84,4 +95,22 @@ public class CustomerServiceImpl implements CustomerService {
         
         return EMAIL_PATTERN.matcher(email).matches();
     }
-}
\ No newline at end of file
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CustomerResponse> findAllCustomerSummaries() {
+        return customerRepository.findAllSummaries();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CustomerResponse> searchCustomerSummariesByName(String name) {
+        return customerRepository.findSummariesByNameContaining(name);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CustomerResponse> findCustomerSummariesWithOrders() {
+        return customerRepository.findSummariesWithOrders();
+    }
+}
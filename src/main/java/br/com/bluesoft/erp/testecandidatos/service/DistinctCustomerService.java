@@ -0,0 +1,28 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import br.com.bluesoft.erp.testecandidatos.model.DistinctCustomerCount;
+
+import java.time.LocalDate;
+
+/**
+ * Serviço de contagem de clientes distintos com pedidos por período.
+ */
+public interface DistinctCustomerService {
+
+    /**
+     * Estimativa pelos contadores HyperLogLog diários, de {@code from} a {@code to} inclusive.
+     */
+    DistinctCustomerCount estimate(LocalDate from, LocalDate to);
+
+    /**
+     * Contagem exata sobre a tabela de pedidos; lenta, serve para conferência.
+     */
+    DistinctCustomerCount exact(LocalDate from, LocalDate to);
+
+    /**
+     * Grava no banco os contadores acumulados em memória.
+     *
+     * @return a quantidade de dias gravados
+     */
+    int flush();
+}
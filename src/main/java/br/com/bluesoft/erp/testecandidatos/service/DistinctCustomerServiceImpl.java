@@ -0,0 +1,193 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import br.com.bluesoft.erp.testecandidatos.event.OrderEvent;
+import br.com.bluesoft.erp.testecandidatos.model.DistinctCustomerCount;
+import br.com.bluesoft.erp.testecandidatos.sharding.ShardedOrderStore;
+import br.com.bluesoft.erp.testecandidatos.sketch.HyperLogLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implementação da contagem de clientes distintos com um HyperLogLog por dia.
+ * <p>
+ * A criação de um pedido acrescenta o cliente ao contador do dia em memória, depois do commit. Os
+ * contadores em memória são gravados periodicamente em {@code daily_customer_sketches}, combinando
+ * pelo máximo dos registradores com o que já está gravado; como a combinação é idempotente, várias
+ * instâncias podem gravar o mesmo dia. Semanas e meses são a combinação dos dias do período.
+ * Pedidos criados desde a última gravação são perdidos se a instância parar sem descarregar.
+ */
+@Service
+public class DistinctCustomerServiceImpl implements DistinctCustomerService {
+
+    private static final Logger log = LoggerFactory.getLogger(DistinctCustomerServiceImpl.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int precision;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    private final ConcurrentHashMap<LocalDate, HyperLogLog> pending = new ConcurrentHashMap<>();
+    // Bancos com a tabela orders: o principal ou cada shard de pedidos
+    private final List<JdbcTemplate> orderTemplates = new ArrayList<>();
+
+    @Autowired
+    public DistinctCustomerServiceImpl(DataSource dataSource,
+                                       ObjectProvider<ShardedOrderStore> shardedOrderStore,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${customers.distinct.precision:14}") int precision) {
+        this(dataSource, shardedOrderStore.getIfAvailable(), transactionManager, precision);
+    }
+
+    public DistinctCustomerServiceImpl(DataSource dataSource, ShardedOrderStore shardedOrderStore,
+                                       PlatformTransactionManager transactionManager, int precision) {
+        if (precision < HyperLogLog.MIN_PRECISION || precision > HyperLogLog.MAX_PRECISION) {
+            throw new IllegalArgumentException("Precisão deve estar entre "
+                    + HyperLogLog.MIN_PRECISION + " e " + HyperLogLog.MAX_PRECISION);
+        }
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.precision = precision;
+        if (shardedOrderStore == null) {
+            orderTemplates.add(jdbcTemplate);
+        } else {
+            shardedOrderStore.getShards().forEach(shard -> orderTemplates.add(new JdbcTemplate(shard)));
+        }
+    }
+
+    @TransactionalEventListener
+    public void onOrderEvent(OrderEvent event) {
+        if (event.getType() == OrderEvent.Type.CRIADO && event.getCustomerId() != null) {
+            record(event.getOccurredAt().atZone(zone).toLocalDate(), event.getCustomerId());
+        }
+    }
+
+    void record(LocalDate day, long customerId) {
+        // compute é atômico por chave em relação à remoção feita na descarga
+        pending.compute(day, (key, sketch) -> {
+            HyperLogLog target = sketch != null ? sketch : new HyperLogLog(precision);
+            target.add(customerId);
+            return target;
+        });
+    }
+
+    @Override
+    public DistinctCustomerCount estimate(LocalDate from, LocalDate to) {
+        validatePeriod(from, to);
+        HyperLogLog union = new HyperLogLog(precision);
+        jdbcTemplate.query("SELECT sketch FROM daily_customer_sketches WHERE sketch_date BETWEEN ? AND ?",
+                resultSet -> {
+                    union.merge(HyperLogLog.fromBytes(resultSet.getBytes(1)));
+                },
+                Date.valueOf(from), Date.valueOf(to));
+        for (LocalDate day : new ArrayList<>(pending.keySet())) {
+            if (!day.isBefore(from) && !day.isAfter(to)) {
+                pending.computeIfPresent(day, (key, sketch) -> {
+                    union.merge(sketch);
+                    return sketch;
+                });
+            }
+        }
+        return new DistinctCustomerCount(from, to, union.estimate(), false, union.getRelativeError());
+    }
+
+    @Override
+    public DistinctCustomerCount exact(LocalDate from, LocalDate to) {
+        validatePeriod(from, to);
+        // Todos os pedidos de um cliente ficam no mesmo shard, então a soma por shard continua exata
+        long customers = 0;
+        for (JdbcTemplate orderTemplate : orderTemplates) {
+            Long count = orderTemplate.queryForObject(
+                    "SELECT COUNT(DISTINCT customer_id) FROM orders WHERE order_date >= ? AND order_date < ?",
+                    Long.class,
+                    Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+            customers += count != null ? count : 0;
+        }
+        return new DistinctCustomerCount(from, to, customers, true, 0);
+    }
+
+    @Scheduled(fixedDelayString = "${customers.distinct.flush-interval-ms:10000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    @Override
+    public synchronized int flush() {
+        int flushed = 0;
+        for (LocalDate day : new ArrayList<>(pending.keySet())) {
+            HyperLogLog sketch = pending.remove(day);
+            if (sketch == null) {
+                continue;
+            }
+            try {
+                store(day, sketch);
+                flushed++;
+            } catch (RuntimeException e) {
+                // Volta para a memória e é combinado de novo na próxima descarga
+                log.warn("Falha ao gravar o contador de clientes de {}", day, e);
+                pending.merge(day, sketch, (current, failed) -> {
+                    current.merge(failed);
+                    return current;
+                });
+            }
+        }
+        return flushed;
+    }
+
+    /**
+     * Combina o contador com o gravado, travando a linha do dia até o commit.
+     */
+    private void store(LocalDate day, HyperLogLog sketch) {
+        Date date = Date.valueOf(day);
+        for (int attempt = 0; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    List<byte[]> stored = jdbcTemplate.query(
+                            "SELECT sketch FROM daily_customer_sketches WHERE sketch_date = ? FOR UPDATE",
+                            (resultSet, row) -> resultSet.getBytes(1), date);
+                    if (stored.isEmpty()) {
+                        jdbcTemplate.update("INSERT INTO daily_customer_sketches (sketch_date, sketch) VALUES (?, ?)",
+                                date, sketch.toBytes());
+                    } else {
+                        HyperLogLog merged = HyperLogLog.fromBytes(stored.get(0));
+                        merged.merge(sketch);
+                        jdbcTemplate.update("UPDATE daily_customer_sketches SET sketch = ? WHERE sketch_date = ?",
+                                merged.toBytes(), date);
+                    }
+                });
+                return;
+            } catch (DuplicateKeyException e) {
+                // Outra instância criou o dia ao mesmo tempo; a segunda tentativa combina com ele
+                if (attempt > 0) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static void validatePeriod(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Data inicial posterior à data final");
+        }
+    }
+}
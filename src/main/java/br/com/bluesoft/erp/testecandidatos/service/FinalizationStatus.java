@@ -0,0 +1,67 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Acompanhamento de uma finalização de pedido enfileirada.
+ */
+@Getter
+public class FinalizationStatus {
+
+    public enum State {
+        ENFILEIRADO,
+        PROCESSANDO,
+        CONCLUIDO,
+        FALHOU
+    }
+
+    private final Long orderId;
+    private final Instant enqueuedAt;
+
+    private volatile State state = State.ENFILEIRADO;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    public FinalizationStatus(Long orderId) {
+        this.orderId = orderId;
+        this.enqueuedAt = Instant.now();
+    }
+
+    void markStarted() {
+        this.startedAt = Instant.now();
+        this.state = State.PROCESSANDO;
+    }
+
+    void markCompleted() {
+        this.finishedAt = Instant.now();
+        this.state = State.CONCLUIDO;
+    }
+
+    void markFailed(String error) {
+        this.error = error;
+        this.finishedAt = Instant.now();
+        this.state = State.FALHOU;
+    }
+
+    public boolean isFinished() {
+        return state == State.CONCLUIDO || state == State.FALHOU;
+    }
+
+    /**
+     * Tempo em que o pedido aguardou na fila, em milissegundos.
+     */
+    public Long getQueueMillis() {
+        return startedAt == null ? null : Duration.between(enqueuedAt, startedAt).toMillis();
+    }
+
+    /**
+     * Tempo gasto na finalização propriamente dita, em milissegundos.
+     */
+    public Long getProcessingMillis() {
+        return startedAt == null || finishedAt == null ? null : Duration.between(startedAt, finishedAt).toMillis();
+    }
+}
@@ -0,0 +1,232 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import br.com.bluesoft.erp.testecandidatos.concurrent.StripedLock;
+import br.com.bluesoft.erp.testecandidatos.event.ProductChangedEvent;
+import br.com.bluesoft.erp.testecandidatos.model.LowStockAlert;
+import br.com.bluesoft.erp.testecandidatos.model.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Produtos com estoque abaixo do limite de reposição, mantidos em memória em ordem de urgência.
+ * <p>
+ * A lista é carregada uma vez na inicialização e depois atualizada a cada alteração de produto
+ * confirmada, com uma leitura pela chave primária do produto alterado; nenhuma consulta percorre a
+ * tabela. A urgência é a fração do limite que ainda está em estoque, então um produto zerado vem antes
+ * de um produto com metade do limite. Quando um produto cruza o limite, para baixo ou de volta, um
+ * alerta é enviado aos assinantes por SSE em uma thread própria, para que um cliente lento não atrase o
+ * commit de quem alterou o estoque; com a fila cheia os alertas mais antigos são descartados.
+ * Deltas de estoque ainda não descarregados pelo {@link StockDeltaBuffer} só contam depois da descarga.
+ */
+@Component
+public class LowStockMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(LowStockMonitor.class);
+
+    // Estoque nulo fica fora da lista, como na carga inicial, em vez de contar como zero
+    private static final String SELECT_PRODUCT =
+            "SELECT id, name, sku, stock, reorder_threshold FROM products WHERE id = ? AND stock IS NOT NULL";
+    private static final String SELECT_LOW_STOCK =
+            "SELECT id, name, sku, stock, reorder_threshold FROM products WHERE stock < COALESCE(reorder_threshold, ?)";
+
+    /**
+     * Menor fração do limite em estoque primeiro; empates pelo menor id.
+     */
+    private static final Comparator<LowStockAlert> BY_URGENCY = (a, b) -> {
+        int byFill = Long.compare((long) a.getStock() * b.getReorderThreshold(),
+                (long) b.getStock() * a.getReorderThreshold());
+        return byFill != 0 ? byFill : Long.compare(a.getProductId(), b.getProductId());
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StripedLock productLocks = new StripedLock(64);
+    private final Clock clock;
+    private final long sseTimeoutMillis;
+
+    private final Map<Long, LowStockAlert> lowById = new HashMap<>();
+    private final TreeSet<LowStockAlert> byUrgency = new TreeSet<>(BY_URGENCY);
+
+    private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+    private final ThreadPoolExecutor dispatcher;
+
+    @Autowired
+    public LowStockMonitor(DataSource dataSource,
+                           @Value("${products.low-stock.alert-queue-capacity:1000}") int queueCapacity,
+                           @Value("${products.low-stock.sse-timeout-ms:1800000}") long sseTimeoutMillis) {
+        this(dataSource, queueCapacity, sseTimeoutMillis, Clock.systemUTC());
+    }
+
+    LowStockMonitor(DataSource dataSource, int queueCapacity, long sseTimeoutMillis, Clock clock) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.clock = clock;
+        this.sseTimeoutMillis = sseTimeoutMillis;
+        this.dispatcher = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "low-stock-alerts");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.DiscardOldestPolicy());
+    }
+
+    /**
+     * Carrega os produtos que já estão abaixo do limite; roda depois que o esquema foi criado.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void load() {
+        List<LowStockAlert> current = jdbcTemplate.query(SELECT_LOW_STOCK, (rs, row) -> new LowStockAlert(
+                LowStockAlert.Type.BAIXO, rs.getLong("id"), rs.getString("name"), rs.getString("sku"),
+                rs.getInt("stock"), threshold(rs.getObject("reorder_threshold")), clock.instant()),
+                Product.DEFAULT_REORDER_THRESHOLD);
+        synchronized (this) {
+            lowById.clear();
+            byUrgency.clear();
+            current.forEach(this::put);
+        }
+        log.info("{} produtos com estoque abaixo do limite de reposição", current.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        // O preço não entra na lista; evita uma trava e uma leitura por produto em lotes de preços
+        if (event.getProductId() != null && event.getType() != ProductChangedEvent.Type.PRECO_ALTERADO) {
+            refresh(event.getProductId());
+        }
+    }
+
+    /**
+     * Relê o produto e atualiza a lista, alertando quando ele cruza o limite. A leitura e a
+     * atualização ficam sob a trava do produto, para que a última leitura seja a última aplicada.
+     */
+    void refresh(long productId) {
+        productLocks.lock(productId);
+        try {
+            List<LowStockAlert> rows = jdbcTemplate.query(SELECT_PRODUCT, (rs, row) -> new LowStockAlert(
+                    LowStockAlert.Type.BAIXO, rs.getLong("id"), rs.getString("name"), rs.getString("sku"),
+                    rs.getInt("stock"), threshold(rs.getObject("reorder_threshold")), clock.instant()), productId);
+            LowStockAlert current = rows.isEmpty() ? null : rows.get(0);
+            boolean low = current != null && current.getStock() < current.getReorderThreshold();
+
+            LowStockAlert previous;
+            synchronized (this) {
+                previous = remove(productId);
+                if (low) {
+                    put(current);
+                }
+            }
+            if (low && previous == null) {
+                publish(current);
+            } else if (!low && previous != null && current != null) {
+                current.setType(LowStockAlert.Type.NORMALIZADO);
+                publish(current);
+            }
+        } finally {
+            productLocks.unlock(productId);
+        }
+    }
+
+    /**
+     * Os {@code limit} produtos mais urgentes, sem acessar o banco.
+     */
+    public synchronized List<LowStockAlert> mostUrgent(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limite deve ser positivo");
+        }
+        List<LowStockAlert> result = new ArrayList<>(Math.min(limit, byUrgency.size()));
+        Iterator<LowStockAlert> iterator = byUrgency.iterator();
+        while (iterator.hasNext() && result.size() < limit) {
+            result.add(copyOf(iterator.next()));
+        }
+        return result;
+    }
+
+    public synchronized int size() {
+        return byUrgency.size();
+    }
+
+    /**
+     * Novo assinante dos alertas; é removido quando a conexão termina ou falha.
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(sseTimeoutMillis);
+        subscribers.add(emitter);
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(() -> subscribers.remove(emitter));
+        emitter.onError(error -> subscribers.remove(emitter));
+        return emitter;
+    }
+
+    /**
+     * Encerra as assinaturas antes de o servidor web parar.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void close() {
+        dispatcher.shutdownNow();
+        subscribers.forEach(SseEmitter::complete);
+    }
+
+    private void publish(LowStockAlert alert) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        LowStockAlert copy = copyOf(alert);
+        dispatcher.execute(() -> {
+            for (SseEmitter emitter : subscribers) {
+                try {
+                    emitter.send(SseEmitter.event()
+                            .name("low-stock")
+                            .id(copy.getProductId() + "-" + copy.getOccurredAt().toEpochMilli())
+                            .data(copy));
+                } catch (IOException | IllegalStateException e) {
+                    subscribers.remove(emitter);
+                    emitter.completeWithError(e);
+                }
+            }
+        });
+    }
+
+    private void put(LowStockAlert alert) {
+        lowById.put(alert.getProductId(), alert);
+        byUrgency.add(alert);
+    }
+
+    private LowStockAlert remove(long productId) {
+        LowStockAlert previous = lowById.remove(productId);
+        if (previous != null) {
+            byUrgency.remove(previous);
+        }
+        return previous;
+    }
+
+    private static int threshold(Object value) {
+        return value != null ? ((Number) value).intValue() : Product.DEFAULT_REORDER_THRESHOLD;
+    }
+
+    private static LowStockAlert copyOf(LowStockAlert alert) {
+        return new LowStockAlert(alert.getType(), alert.getProductId(), alert.getProductName(),
+                alert.getProductSku(), alert.getStock(), alert.getReorderThreshold(), alert.getOccurredAt());
+    }
+}
@@ -0,0 +1,17 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import java.util.Optional;
+
+/**
+ * Serviço para finalização assíncrona de pedidos.
+ */
+public interface OrderFinalizationService {
+
+    boolean isAsyncEnabled();
+
+    FinalizationStatus enqueue(Long orderId);
+
+    Optional<FinalizationStatus> findStatus(Long orderId);
+
+    int getQueueDepth();
+}
@@ -0,0 +1,201 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implementação da finalização assíncrona de pedidos.
+ * Os pedidos são colocados em uma fila limitada e drenados em lotes por um
+ * conjunto fixo de workers; cada pedido é finalizado em sua própria transação.
+ */
+@Service
+public class OrderFinalizationServiceImpl implements OrderFinalizationService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderFinalizationServiceImpl.class);
+
+    private final OrderService orderService;
+    private final boolean asyncEnabled;
+    private final int workerCount;
+    private final int batchSize;
+    private final int retainedStatuses;
+
+    private final BlockingQueue<FinalizationStatus> queue;
+    private final Map<Long, FinalizationStatus> statuses = new ConcurrentHashMap<>();
+    private final Queue<Long> finishedOrderIds = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger finishedCount = new AtomicInteger();
+
+    private final Timer queueTimer;
+    private final Timer processingTimer;
+    private final DistributionSummary batchSizeSummary;
+
+    private ExecutorService workers;
+    private volatile boolean running;
+
+    @Autowired
+    public OrderFinalizationServiceImpl(OrderService orderService,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${orders.finalization.async:false}") boolean asyncEnabled,
+                                        @Value("${orders.finalization.queue-capacity:1000}") int queueCapacity,
+                                        @Value("${orders.finalization.workers:4}") int workerCount,
+                                        @Value("${orders.finalization.batch-size:50}") int batchSize,
+                                        @Value("${orders.finalization.retained-statuses:10000}") int retainedStatuses) {
+        this.orderService = orderService;
+        this.asyncEnabled = asyncEnabled;
+        this.workerCount = workerCount;
+        this.batchSize = batchSize;
+        this.retainedStatuses = retainedStatuses;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        this.queueTimer = Timer.builder("orders.finalization.stage")
+                .tag("stage", "queue")
+                .register(meterRegistry);
+        this.processingTimer = Timer.builder("orders.finalization.stage")
+                .tag("stage", "finalize")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("orders.finalization.batch.size")
+                .register(meterRegistry);
+        meterRegistry.gauge("orders.finalization.queue.depth", queue, BlockingQueue::size);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!asyncEnabled) {
+            return;
+        }
+        running = true;
+        AtomicInteger threadCounter = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "order-finalizer-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workerCount; i++) {
+            workers.submit(this::drainLoop);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (workers != null) {
+            workers.shutdownNow();
+            workers.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Override
+    public boolean isAsyncEnabled() {
+        return asyncEnabled;
+    }
+
+    @Override
+    public FinalizationStatus enqueue(Long orderId) {
+        if (!orderService.findOrderById(orderId).isPresent()) {
+            throw new IllegalArgumentException("Pedido não encontrado");
+        }
+
+        FinalizationStatus status = new FinalizationStatus(orderId);
+        FinalizationStatus current = statuses.compute(orderId,
+                (id, existing) -> existing != null && !existing.isFinished() ? existing : status);
+        if (current != status) {
+            // Já existe uma finalização pendente para este pedido
+            return current;
+        }
+
+        if (!queue.offer(status)) {
+            statuses.remove(orderId, status);
+            throw new IllegalStateException("Fila de finalização de pedidos cheia");
+        }
+        return status;
+    }
+
+    @Override
+    public Optional<FinalizationStatus> findStatus(Long orderId) {
+        return Optional.ofNullable(statuses.get(orderId));
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private void drainLoop() {
+        List<FinalizationStatus> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                FinalizationStatus first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                batchSizeSummary.record(batch.size());
+
+                for (FinalizationStatus status : batch) {
+                    process(status);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void process(FinalizationStatus status) {
+        status.markStarted();
+        queueTimer.record(Duration.between(status.getEnqueuedAt(), status.getStartedAt()));
+
+        long start = System.nanoTime();
+        try {
+            orderService.finalizeOrder(status.getOrderId());
+            status.markCompleted();
+        } catch (RuntimeException e) {
+            log.warn("Falha ao finalizar o pedido {}", status.getOrderId(), e);
+            status.markFailed(e.getMessage());
+        } finally {
+            processingTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            retire(status.getOrderId());
+        }
+    }
+
+    private void retire(Long orderId) {
+        finishedOrderIds.add(orderId);
+        finishedCount.incrementAndGet();
+        while (finishedCount.get() > retainedStatuses) {
+            Long oldest = finishedOrderIds.poll();
+            if (oldest == null) {
+                break;
+            }
+            finishedCount.decrementAndGet();
+            FinalizationStatus old = statuses.get(oldest);
+            if (old != null && old.isFinished()) {
+                statuses.remove(oldest, old);
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import br.com.bluesoft.erp.testecandidatos.model.OrderView;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Serviço de consultas de pedidos servidas pelo modelo de leitura.
+ */
+public interface OrderQueryService {
+
+    boolean isReadModelEnabled();
+
+    Optional<OrderView> findOrderView(Long orderId);
+
+    List<OrderView> findOrderViewsByCustomerId(Long customerId);
+
+    List<OrderView> findAllOrderViews();
+
+    BigDecimal calculateOrderTotal(Long orderId);
+}
@@ -0,0 +1,131 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import br.com.bluesoft.erp.testecandidatos.model.OrderView;
+import br.com.bluesoft.erp.testecandidatos.model.OrderViewItem;
+import br.com.bluesoft.erp.testecandidatos.repository.OrderViewRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Implementação das consultas de pedidos a partir da visão desnormalizada.
+ * Cada consulta lê uma única linha por pedido, sem carregar cliente, itens e produtos; os nomes de
+ * clientes e produtos das visões lidas vêm do cadastro atual, em uma consulta por tabela.
+ */
+@Service
+public class OrderQueryServiceImpl implements OrderQueryService {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final OrderViewRepository orderViewRepository;
+    private final boolean readModelEnabled;
+
+    @Autowired
+    public OrderQueryServiceImpl(OrderViewRepository orderViewRepository,
+                                 @Value("${orders.read-model.enabled:false}") boolean readModelEnabled) {
+        this.orderViewRepository = orderViewRepository;
+        this.readModelEnabled = readModelEnabled;
+    }
+
+    @Override
+    public boolean isReadModelEnabled() {
+        return readModelEnabled;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<OrderView> findOrderView(Long orderId) {
+        return orderViewRepository.findById(orderId)
+                .map(view -> withNames(Collections.singletonList(view)).get(0));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrderView> findOrderViewsByCustomerId(Long customerId) {
+        return withNames(orderViewRepository.findByCustomerId(customerId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrderView> findAllOrderViews() {
+        return withNames(orderViewRepository.findAll());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BigDecimal calculateOrderTotal(Long orderId) {
+        return orderViewRepository.findById(orderId)
+                .map(OrderView::getTotalAmount)
+                .orElseThrow(() -> new IllegalArgumentException("Pedido não encontrado"));
+    }
+
+    /**
+     * Cópias das visões com os nomes atuais de clientes e produtos; as visões gravadas não mudam.
+     */
+    private List<OrderView> withNames(List<OrderView> views) {
+        Set<Long> customerIds = new HashSet<>();
+        Set<Long> productIds = new HashSet<>();
+        for (OrderView view : views) {
+            if (view.getCustomerId() != null) {
+                customerIds.add(view.getCustomerId());
+            }
+            for (OrderViewItem item : view.getItems()) {
+                if (item.getProductId() != null) {
+                    productIds.add(item.getProductId());
+                }
+            }
+        }
+
+        Map<Long, Object[]> customers = findByIds("SELECT c.id, c.name FROM Customer c WHERE c.id IN :ids",
+                customerIds);
+        Map<Long, Object[]> products = findByIds("SELECT p.id, p.name, p.sku FROM Product p WHERE p.id IN :ids",
+                productIds);
+        List<OrderView> named = new ArrayList<>(views.size());
+        for (OrderView view : views) {
+            OrderView copy = new OrderView();
+            copy.setOrderId(view.getOrderId());
+            copy.setOrderNumber(view.getOrderNumber());
+            copy.setOrderDate(view.getOrderDate());
+            copy.setStatus(view.getStatus());
+            copy.setCustomerId(view.getCustomerId());
+            Object[] customer = customers.get(view.getCustomerId());
+            copy.setCustomerName(customer != null ? (String) customer[1] : null);
+            copy.setItemCount(view.getItemCount());
+            copy.setTotalAmount(view.getTotalAmount());
+            copy.setProjectedAt(view.getProjectedAt());
+            for (OrderViewItem item : view.getItems()) {
+                Object[] product = products.get(item.getProductId());
+                copy.getItems().add(new OrderViewItem(item.getItemId(), item.getProductId(),
+                        product != null ? (String) product[1] : null, product != null ? (String) product[2] : null,
+                        item.getQuantity(), item.getUnitPrice(), item.getSubtotal()));
+            }
+            named.add(copy);
+        }
+        return named;
+    }
+
+    private Map<Long, Object[]> findByIds(String jpql, Set<Long> ids) {
+        Map<Long, Object[]> rows = new HashMap<>();
+        if (!ids.isEmpty()) {
+            entityManager.createQuery(jpql, Object[].class)
+                    .setParameter("ids", ids)
+                    .getResultList()
+                    .forEach(row -> rows.put((Long) row[0], row));
+        }
+        return rows;
+    }
+}
@@ -1,5 +1,7 @@
 package br.com.bluesoft.erp.testecandidatos.service;
 
+import br.com.bluesoft.erp.testecandidatos.dto.OrderResponse;
+import br.com.bluesoft.erp.testecandidatos.dto.OrderSummaryResponse;
 import br.com.bluesoft.erp.testecandidatos.model.Order;
 import br.com.bluesoft.erp.testecandidatos.model.OrderItem;
 
@@ -33,4 +35,14 @@ public interface OrderService {
     void finalizeOrder(Long orderId);
     
     void cancelOrder(Long orderId);
+
+    // Consultas para a API, projetadas direto da consulta sem carregar entidades
+
+    List<OrderSummaryResponse> findOrderSummaries();
+
+    List<OrderSummaryResponse> findOrderSummariesByCustomerId(Long customerId);
+
+    Optional<OrderResponse> findOrderDetails(Long id);
+
+    Optional<OrderResponse> findOrderDetailsByNumber(String orderNumber);
 }
\ No newline at end of file
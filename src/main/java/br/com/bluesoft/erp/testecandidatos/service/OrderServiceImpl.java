@@ -1,5 +1,9 @@
 package br.com.bluesoft.erp.testecandidatos.service;
 
+import br.com.bluesoft.erp.testecandidatos.dto.OrderItemResponse;
+import br.com.bluesoft.erp.testecandidatos.dto.OrderResponse;
+import br.com.bluesoft.erp.testecandidatos.dto.OrderSummaryResponse;
+import br.com.bluesoft.erp.testecandidatos.event.OrderEvent;
 import br.com.bluesoft.erp.testecandidatos.model.Customer;
 import br.com.bluesoft.erp.testecandidatos.model.Order;
 import br.com.bluesoft.erp.testecandidatos.model.OrderItem;
@@ -8,6 +12,8 @@ import br.com.bluesoft.erp.testecandidatos.model.Status;
 import br.com.bluesoft.erp.testecandidatos.repository.CustomerRepository;
 import br.com.bluesoft.erp.testecandidatos.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
@@ -18,6 +24,7 @@ import javax.persistence.TypedQuery;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -26,22 +33,41 @@ import java.util.UUID;
  * Implementação do serviço para gerenciamento de pedidos.
  */
 @Service
+@ConditionalOnProperty(name = "orders.sharding.enabled", havingValue = "false", matchIfMissing = true)
 public class OrderServiceImpl implements OrderService {
 
+    private static final String SELECT_SUMMARY = "SELECT new " + OrderSummaryResponse.class.getName()
+            + "(o.id, o.orderNumber, o.orderDate, o.status, o.totalAmount, c.id, c.name, COUNT(i.id)) "
+            + "FROM Order o LEFT JOIN o.customer c LEFT JOIN o.items i ";
+
+    private static final String GROUP_SUMMARY =
+            "GROUP BY o.id, o.orderNumber, o.orderDate, o.status, o.totalAmount, c.id, c.name ORDER BY o.id";
+
+    private static final String SELECT_DETAILS = "SELECT new " + OrderResponse.class.getName()
+            + "(o.id, o.orderNumber, o.orderDate, o.status, o.totalAmount, c.id, c.name) "
+            + "FROM Order o LEFT JOIN o.customer c ";
+
+    private static final String SELECT_ITEMS = "SELECT new " + OrderItemResponse.class.getName()
+            + "(i.id, p.id, p.name, p.sku, i.quantity, i.unitPrice) "
+            + "FROM OrderItem i LEFT JOIN i.product p WHERE i.order.id = :orderId ORDER BY i.id";
+
     @PersistenceContext
     private EntityManager entityManager;
 
     private final CustomerRepository customerRepository;
     private final ProductRepository productRepository;
     private final ProductService productService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     public OrderServiceImpl(CustomerRepository customerRepository, 
                            ProductRepository productRepository,
-                           ProductService productService) {
+                           ProductService productService,
+                           ApplicationEventPublisher eventPublisher) {
         this.customerRepository = customerRepository;
         this.productRepository = productRepository;
         this.productService = productService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -79,6 +105,8 @@ public class OrderServiceImpl implements OrderService {
 
         // order.updateTotalAmount();
 
+        eventPublisher.publishEvent(OrderEvent.of(OrderEvent.Type.CRIADO, order, items));
+
         return order;
     }
 
@@ -134,6 +162,9 @@ public class OrderServiceImpl implements OrderService {
 
         // Persiste o item
         entityManager.persist(item);
+
+        eventPublisher.publishEvent(
+                OrderEvent.of(OrderEvent.Type.ITEM_ADICIONADO, order, Collections.singletonList(item)));
     }
 
     @Override
@@ -157,6 +188,9 @@ public class OrderServiceImpl implements OrderService {
         if (itemToRemove != null) {
             // Remove o item
             entityManager.remove(itemToRemove);
+
+            eventPublisher.publishEvent(
+                    OrderEvent.of(OrderEvent.Type.ITEM_REMOVIDO, order, Collections.singletonList(itemToRemove)));
         }
     }
 
@@ -173,6 +207,9 @@ public class OrderServiceImpl implements OrderService {
         entityManager.merge(item);
 
         // orderOpt.get().updateTotalAmount();
+
+        eventPublisher.publishEvent(
+                OrderEvent.of(OrderEvent.Type.ITEM_ATUALIZADO, orderOpt.get(), Collections.singletonList(item)));
     }
 
     @Override
@@ -204,6 +241,8 @@ public class OrderServiceImpl implements OrderService {
 
         order.setStatus(Status.FINALIZADO);
         entityManager.merge(order);
+
+        eventPublisher.publishEvent(OrderEvent.of(OrderEvent.Type.FINALIZADO, order));
     }
 
     @Override
@@ -215,7 +254,55 @@ public class OrderServiceImpl implements OrderService {
         }
 
         Order order = orderOpt.get();
+        order.cancelOrder();
         entityManager.merge(order);
+
+        eventPublisher.publishEvent(OrderEvent.of(OrderEvent.Type.CANCELADO, order));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrderSummaryResponse> findOrderSummaries() {
+        return entityManager.createQuery(SELECT_SUMMARY + GROUP_SUMMARY, OrderSummaryResponse.class)
+                .getResultList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrderSummaryResponse> findOrderSummariesByCustomerId(Long customerId) {
+        TypedQuery<OrderSummaryResponse> query = entityManager.createQuery(
+                SELECT_SUMMARY + "WHERE c.id = :customerId " + GROUP_SUMMARY, OrderSummaryResponse.class);
+        query.setParameter("customerId", customerId);
+        return query.getResultList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<OrderResponse> findOrderDetails(Long id) {
+        TypedQuery<OrderResponse> query = entityManager.createQuery(
+                SELECT_DETAILS + "WHERE o.id = :id", OrderResponse.class);
+        query.setParameter("id", id);
+        return withItems(query.getResultList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<OrderResponse> findOrderDetailsByNumber(String orderNumber) {
+        TypedQuery<OrderResponse> query = entityManager.createQuery(
+                SELECT_DETAILS + "WHERE o.orderNumber = :orderNumber", OrderResponse.class);
+        query.setParameter("orderNumber", orderNumber);
+        return withItems(query.getResultList());
+    }
+
+    private Optional<OrderResponse> withItems(List<OrderResponse> found) {
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        OrderResponse order = found.get(0);
+        order.setItems(entityManager.createQuery(SELECT_ITEMS, OrderItemResponse.class)
+                .setParameter("orderId", order.getId())
+                .getResultList());
+        return Optional.of(order);
     }
 
     private String generateOrderNumber() {
@@ -0,0 +1,362 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import br.com.bluesoft.erp.testecandidatos.event.OrderEvent;
+import br.com.bluesoft.erp.testecandidatos.model.OrderStatusChange;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Fluxo das mudanças de situação dos pedidos para assinantes por SSE, por pedido ou por cliente.
+ * <p>
+ * Criação, finalização e cancelamento são distribuídos depois do commit. A thread do commit só coloca a
+ * mudança, serializada uma única vez, no buffer limitado de cada assinante interessado; o envio fica com
+ * um pool pequeno de threads, com no máximo uma tarefa por assinante. O assinante cujo buffer enche, ou cujo envio falha, é
+ * desconectado e precisa assinar de novo, recebendo a situação atual do pedido. Um envio preso em um
+ * cliente que parou de ler ocupa uma thread do pool até o tempo limite de escrita do servidor. Cada
+ * instância distribui apenas os pedidos alterados por ela.
+ */
+@Component
+public class OrderStatusStream {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderStatusStream.class);
+
+    static final String CHANGE = "status";
+    static final String SNAPSHOT = "snapshot";
+
+    /**
+     * Destino dos envios de um assinante; no servidor, um {@link SseEmitter}.
+     */
+    interface Sink {
+
+        void send(String name, String json) throws IOException;
+
+        void complete();
+    }
+
+    private final Map<Long, Set<Subscription>> byOrder = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Subscription>> byCustomer = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final AtomicLong evicted = new AtomicLong();
+
+    private final ObjectMapper objectMapper;
+    private final ExecutorService senders;
+    private final int bufferCapacity;
+    private final long timeoutMillis;
+
+    @Autowired
+    public OrderStatusStream(ObjectProvider<ObjectMapper> objectMapper,
+                             @Value("${orders.status-stream.buffer-capacity:32}") int bufferCapacity,
+                             @Value("${orders.status-stream.sender-threads:4}") int senderThreads,
+                             @Value("${orders.status-stream.timeout-ms:1800000}") long timeoutMillis) {
+        // Usa o mesmo ObjectMapper das respostas do Spring MVC, quando houver
+        this(objectMapper.getIfAvailable(() -> new ObjectMapper().findAndRegisterModules()),
+                bufferCapacity, senderThreads, timeoutMillis);
+    }
+
+    OrderStatusStream(ObjectMapper objectMapper, int bufferCapacity, int senderThreads, long timeoutMillis) {
+        if (bufferCapacity < 1) {
+            throw new IllegalArgumentException("Capacidade do buffer deve ser positiva");
+        }
+        this.objectMapper = objectMapper;
+        this.bufferCapacity = bufferCapacity;
+        this.timeoutMillis = timeoutMillis;
+        AtomicInteger threads = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "order-status-sender-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderEvent(OrderEvent event) {
+        switch (event.getType()) {
+            case CRIADO:
+            case FINALIZADO:
+            case CANCELADO:
+                publish(OrderStatusChange.of(event));
+                break;
+            default:
+                // Alterações de itens não mudam a situação do pedido
+        }
+    }
+
+    void publish(OrderStatusChange change) {
+        Set<Subscription> orderSubscriptions = byOrder.get(change.getOrderId());
+        Set<Subscription> customerSubscriptions = change.getCustomerId() != null
+                ? byCustomer.get(change.getCustomerId()) : null;
+        if (orderSubscriptions == null && customerSubscriptions == null) {
+            return;
+        }
+        Message message = new Message(CHANGE, serialize(change));
+        deliver(orderSubscriptions, message);
+        deliver(customerSubscriptions, message);
+    }
+
+    /**
+     * Assina as mudanças do pedido. A situação atual é lida depois do registro e enviada primeiro, então
+     * nenhuma mudança confirmada entre a leitura e o registro se perde. Vazio quando o pedido não existe.
+     */
+    public Optional<SseEmitter> subscribeToOrder(Long orderId, Supplier<Optional<OrderStatusChange>> currentState) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Optional<Subscription> subscription = subscribeToOrder(orderId, currentState, sinkOf(emitter));
+        if (!subscription.isPresent()) {
+            return Optional.empty();
+        }
+        register(emitter, subscription.get());
+        return Optional.of(emitter);
+    }
+
+    /**
+     * Assina as mudanças de todos os pedidos do cliente a partir de agora.
+     */
+    public SseEmitter subscribeToCustomer(Long customerId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        register(emitter, subscribeToCustomer(customerId, sinkOf(emitter)));
+        return emitter;
+    }
+
+    Optional<Subscription> subscribeToOrder(Long orderId, Supplier<Optional<OrderStatusChange>> currentState, Sink sink) {
+        Subscription subscription = new Subscription(byOrder, orderId, sink);
+        subscription.holdUntilSnapshot();
+        subscription.add();
+        // Mudanças recebidas até aqui foram confirmadas antes da leitura e já estão na situação atual
+        subscription.discardHeld();
+        Optional<OrderStatusChange> current = currentState.get();
+        if (!current.isPresent()) {
+            subscription.close(false);
+            return Optional.empty();
+        }
+        subscription.releaseAfter(new Message(SNAPSHOT, serialize(current.get())));
+        return Optional.of(subscription);
+    }
+
+    Subscription subscribeToCustomer(Long customerId, Sink sink) {
+        Subscription subscription = new Subscription(byCustomer, customerId, sink);
+        subscription.add();
+        return subscription;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.get();
+    }
+
+    public long getEvictedCount() {
+        return evicted.get();
+    }
+
+    /**
+     * Encerra as assinaturas antes de o servidor web parar, para que o fim das conexões ainda seja tratado.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void close() {
+        senders.shutdownNow();
+        for (Map<Long, Set<Subscription>> index : Arrays.asList(byOrder, byCustomer)) {
+            index.values().forEach(set -> set.forEach(subscription -> subscription.close(true)));
+        }
+    }
+
+    private void deliver(Set<Subscription> subscriptions, Message message) {
+        if (subscriptions != null) {
+            for (Subscription subscription : subscriptions) {
+                subscription.offer(message);
+            }
+        }
+    }
+
+    private String serialize(OrderStatusChange change) {
+        try {
+            return objectMapper.writeValueAsString(change);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar a situação do pedido " + change.getOrderId(), e);
+        }
+    }
+
+    private static void register(SseEmitter emitter, Subscription subscription) {
+        emitter.onCompletion(() -> subscription.close(false));
+        emitter.onTimeout(() -> subscription.close(false));
+        emitter.onError(error -> subscription.close(false));
+    }
+
+    private static Sink sinkOf(SseEmitter emitter) {
+        return new Sink() {
+            @Override
+            public void send(String name, String json) throws IOException {
+                emitter.send(SseEmitter.event().name(name).data(json, MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void complete() {
+                emitter.complete();
+            }
+        };
+    }
+
+    private static final class Message {
+
+        private final String name;
+        private final String json;
+
+        private Message(String name, String json) {
+            this.name = name;
+            this.json = json;
+        }
+    }
+
+    /**
+     * Assinante com o seu buffer; {@code scheduled} garante uma única tarefa de envio por vez. Enquanto a
+     * situação atual do pedido é lida, as mudanças ficam retidas em {@code held} e só entram no buffer
+     * depois dela, para que uma mudança nunca seja enviada antes de uma situação mais antiga.
+     */
+    final class Subscription implements Runnable {
+
+        private final Map<Long, Set<Subscription>> index;
+        private final Long key;
+        private final Sink sink;
+        private final ArrayBlockingQueue<Message> buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile List<Message> held;
+
+        Subscription(Map<Long, Set<Subscription>> index, Long key, Sink sink) {
+            this.index = index;
+            this.key = key;
+            this.sink = sink;
+        }
+
+        private void add() {
+            index.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(this);
+            subscribers.incrementAndGet();
+        }
+
+        void offer(Message message) {
+            if (held != null) {
+                synchronized (this) {
+                    if (held != null) {
+                        held.add(message);
+                        return;
+                    }
+                }
+            }
+            enqueue(message);
+        }
+
+        private void holdUntilSnapshot() {
+            held = new ArrayList<>();
+        }
+
+        private synchronized void discardHeld() {
+            held.clear();
+        }
+
+        /**
+         * Coloca a situação atual no buffer e, atrás dela, as mudanças retidas durante a leitura.
+         */
+        private synchronized void releaseAfter(Message snapshot) {
+            enqueue(snapshot);
+            for (Message message : held) {
+                enqueue(message);
+            }
+            held = null;
+        }
+
+        private void enqueue(Message message) {
+            if (closed.get()) {
+                return;
+            }
+            if (!buffer.offer(message)) {
+                evicted.incrementAndGet();
+                log.debug("Assinante da situação de pedidos desconectado por não acompanhar os envios ({})", key);
+                close(true);
+                return;
+            }
+            schedule();
+        }
+
+        @Override
+        public void run() {
+            try {
+                Message next;
+                while (!closed.get() && (next = buffer.poll()) != null) {
+                    sink.send(next.name, next.json);
+                }
+            } catch (IOException | RuntimeException e) {
+                close(true);
+                return;
+            } finally {
+                scheduled.set(false);
+            }
+            // Mudança colocada depois do último poll e antes de liberar a tarefa
+            if (!buffer.isEmpty()) {
+                schedule();
+            }
+        }
+
+        void close(boolean completeSink) {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            index.computeIfPresent(key, (k, set) -> {
+                set.remove(this);
+                return set.isEmpty() ? null : set;
+            });
+            subscribers.decrementAndGet();
+            buffer.clear();
+            if (completeSink) {
+                // O SseEmitter encerra sob a mesma trava de um envio que pode estar preso em um cliente
+                // lento, então o encerramento não roda na thread do commit
+                try {
+                    senders.execute(this::complete);
+                } catch (RejectedExecutionException e) {
+                    complete();
+                }
+            }
+        }
+
+        private void complete() {
+            try {
+                sink.complete();
+            } catch (RuntimeException e) {
+                // A conexão já terminou
+            }
+        }
+
+        boolean isClosed() {
+            return closed.get();
+        }
+
+        private void schedule() {
+            if (!closed.get() && scheduled.compareAndSet(false, true)) {
+                senders.execute(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import br.com.bluesoft.erp.testecandidatos.event.OrderEvent;
+import br.com.bluesoft.erp.testecandidatos.model.Order;
+import br.com.bluesoft.erp.testecandidatos.model.OrderItem;
+import br.com.bluesoft.erp.testecandidatos.model.OrderView;
+import br.com.bluesoft.erp.testecandidatos.model.OrderViewItem;
+import br.com.bluesoft.erp.testecandidatos.model.Product;
+import br.com.bluesoft.erp.testecandidatos.repository.OrderViewRepository;
+import br.com.bluesoft.erp.testecandidatos.sharding.ShardedOrderStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mantém a visão de leitura dos pedidos atualizada a partir dos eventos de pedido.
+ * <p>
+ * Depois do commit, o pedido alterado é enfileirado e uma thread dedicada relê o pedido
+ * das tabelas normalizadas e grava a visão. Alterações repetidas do mesmo pedido ainda
+ * pendentes são agrupadas em uma única projeção. O atraso entre a alteração e a gravação
+ * da visão é publicado no timer {@code orders.read-model.lag}. Uma projeção que falha volta a ficar
+ * pendente e é repetida com espera crescente; as falhas são contadas em {@code orders.read-model.failures}.
+ * Com os pedidos em shards, o pedido é lido do seu shard. A visão guarda só os ids de cliente e
+ * produtos; os nomes, que mudam sem alterar o pedido, são preenchidos pelo {@link OrderQueryService}.
+ */
+@Component
+public class OrderViewProjector {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderViewProjector.class);
+
+    private static final long INITIAL_RETRY_DELAY_MS = 200;
+    private static final long MAX_RETRY_DELAY_MS = 30_000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final OrderViewRepository orderViewRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    // Nulo quando os pedidos estão no banco principal
+    private final ShardedOrderStore shardedOrderStore;
+
+    // Pedido pendente -> instante da alteração mais antiga ainda não projetada
+    private final Map<Long, Instant> pending = new ConcurrentHashMap<>();
+    private final BlockingQueue<Long> queue = new LinkedBlockingQueue<>();
+    // Pedido -> falhas seguidas de projeção
+    private final Map<Long, Integer> failedAttempts = new ConcurrentHashMap<>();
+    private final AtomicLong lastLagMillis = new AtomicLong();
+    private final Timer lagTimer;
+    private final Counter failures;
+
+    private Thread worker;
+    private ScheduledExecutorService retries;
+    private volatile boolean running;
+
+    @Autowired
+    public OrderViewProjector(OrderViewRepository orderViewRepository,
+                              ObjectProvider<ShardedOrderStore> shardedOrderStore,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${orders.read-model.enabled:false}") boolean enabled) {
+        this(orderViewRepository, shardedOrderStore.getIfAvailable(), transactionManager, meterRegistry, enabled);
+    }
+
+    public OrderViewProjector(OrderViewRepository orderViewRepository,
+                              ShardedOrderStore shardedOrderStore,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              boolean enabled) {
+        this.orderViewRepository = orderViewRepository;
+        this.shardedOrderStore = shardedOrderStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+
+        this.lagTimer = Timer.builder("orders.read-model.lag").register(meterRegistry);
+        this.failures = meterRegistry.counter("orders.read-model.failures");
+        meterRegistry.gauge("orders.read-model.pending", pending, Map::size);
+        meterRegistry.gauge("orders.read-model.last-lag-ms", lastLagMillis, AtomicLong::get);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        retries = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-read-model-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        worker = new Thread(this::projectLoop, "order-read-model");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (retries != null) {
+            retries.shutdownNow();
+        }
+        if (worker != null) {
+            worker.interrupt();
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * Reconstrói a visão de todos os pedidos na inicialização.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void rebuildAll() {
+        if (!enabled) {
+            return;
+        }
+        List<Long> orderIds = shardedOrderStore != null ? shardedOrderStore.findOrderIds()
+                : transactionTemplate.execute(status -> entityManager
+                        .createQuery("SELECT o.id FROM Order o", Long.class)
+                        .getResultList());
+        Instant now = Instant.now();
+        orderIds.forEach(orderId -> schedule(orderId, now));
+        log.info("Reconstrução da visão de leitura agendada para {} pedidos", orderIds.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderEvent(OrderEvent event) {
+        if (enabled) {
+            schedule(event.getOrderId(), event.getOccurredAt());
+        }
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public long getLastLagMillis() {
+        return lastLagMillis.get();
+    }
+
+    void schedule(Long orderId, Instant changedAt) {
+        if (pending.putIfAbsent(orderId, changedAt) == null) {
+            queue.add(orderId);
+        }
+    }
+
+    /**
+     * Relê o pedido e grava a sua visão, ou a remove se o pedido não existir mais. Em caso de falha o
+     * pedido volta a ficar pendente e a projeção é repetida depois de uma espera.
+     */
+    void project(Long orderId) {
+        Instant changedAt = pending.remove(orderId);
+        try {
+            write(orderId);
+        } catch (RuntimeException e) {
+            retryLater(orderId, changedAt, e);
+            return;
+        }
+        failedAttempts.remove(orderId);
+
+        if (changedAt != null) {
+            Duration lag = Duration.between(changedAt, Instant.now());
+            lagTimer.record(lag);
+            lastLagMillis.set(lag.toMillis());
+        }
+    }
+
+    private void write(Long orderId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Order order = loadOrder(orderId);
+            Optional<OrderView> existing = orderViewRepository.findById(orderId);
+            if (order == null) {
+                existing.ifPresent(orderViewRepository::delete);
+                return;
+            }
+            OrderView view = existing.orElseGet(OrderView::new);
+            fill(view, order);
+            if (!existing.isPresent()) {
+                orderViewRepository.save(view);
+            }
+        });
+    }
+
+    private Order loadOrder(Long orderId) {
+        if (shardedOrderStore == null) {
+            return entityManager.find(Order.class, orderId);
+        }
+        return shardedOrderStore.findById(orderId).orElse(null);
+    }
+
+    private void retryLater(Long orderId, Instant changedAt, RuntimeException cause) {
+        failures.increment();
+        int attempt = failedAttempts.merge(orderId, 1, Integer::sum);
+        long delay = Math.min(MAX_RETRY_DELAY_MS, INITIAL_RETRY_DELAY_MS << Math.min(attempt - 1, 20));
+        log.warn("Falha ao projetar o pedido {} (tentativa {}); nova tentativa em {} ms", orderId, attempt, delay, cause);
+
+        Instant since = changedAt != null ? changedAt : Instant.now();
+        // Uma alteração chegada durante a projeção já enfileirou o pedido; só preserva o instante mais antigo
+        if (pending.putIfAbsent(orderId, since) != null) {
+            pending.merge(orderId, since, (current, failed) -> failed.isBefore(current) ? failed : current);
+            return;
+        }
+        if (retries == null) {
+            queue.add(orderId);
+            return;
+        }
+        try {
+            retries.schedule(() -> queue.add(orderId), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Projetor em parada
+        }
+    }
+
+    private void projectLoop() {
+        while (running) {
+            try {
+                Long orderId = queue.poll(1, TimeUnit.SECONDS);
+                if (orderId != null) {
+                    project(orderId);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Falha ao atualizar a visão de leitura de pedidos", e);
+            }
+        }
+    }
+
+    private static void fill(OrderView view, Order order) {
+        List<OrderViewItem> items = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+        for (OrderItem item : order.getItems()) {
+            Product product = item.getProduct();
+            BigDecimal subtotal = item.getSubtotal();
+            if (subtotal == null && item.getUnitPrice() != null && item.getQuantity() != null) {
+                subtotal = item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
+            }
+            if (subtotal != null) {
+                total = total.add(subtotal);
+            }
+            items.add(new OrderViewItem(
+                    item.getId(),
+                    product != null ? product.getId() : null,
+                    null,
+                    null,
+                    item.getQuantity(),
+                    item.getUnitPrice(),
+                    subtotal));
+        }
+
+        view.setOrderId(order.getId());
+        view.setOrderNumber(order.getOrderNumber());
+        view.setOrderDate(order.getOrderDate());
+        view.setStatus(order.getStatus());
+        view.setCustomerId(order.getCustomer() != null ? order.getCustomer().getId() : null);
+        view.setItems(items);
+        view.setItemCount(items.size());
+        view.setTotalAmount(total);
+        view.setProjectedAt(Instant.now());
+    }
+}
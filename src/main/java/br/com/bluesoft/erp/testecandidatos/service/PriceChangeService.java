@@ -0,0 +1,38 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import br.com.bluesoft.erp.testecandidatos.dto.PriceChangeRequest;
+import br.com.bluesoft.erp.testecandidatos.model.PriceChangeBatch;
+import br.com.bluesoft.erp.testecandidatos.model.ProductPriceAudit;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Serviço de alterações de preço em lote com data de vigência.
+ */
+public interface PriceChangeService {
+
+    /**
+     * Grava os novos preços do lote para aplicação na data de vigência. O lote é recusado inteiro
+     * se alguma entrada for inválida ou apontar para um produto inexistente.
+     */
+    PriceChangeBatch schedule(PriceChangeRequest request);
+
+    Optional<PriceChangeBatch> findBatch(Long batchId);
+
+    /**
+     * Cancela um lote ainda não aplicado.
+     */
+    void cancel(Long batchId);
+
+    /**
+     * Aplica, cada um em uma transação, os lotes agendados cuja vigência já começou.
+     * Devolve a quantidade de lotes aplicados.
+     */
+    int applyDueBatches();
+
+    /**
+     * Alterações de preço do produto feitas por lotes, da mais recente para a mais antiga.
+     */
+    List<ProductPriceAudit> findPriceHistory(Long productId);
+}
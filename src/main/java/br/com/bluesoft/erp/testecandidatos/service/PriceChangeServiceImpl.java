@@ -0,0 +1,276 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import br.com.bluesoft.erp.testecandidatos.dto.PriceChangeEntry;
+import br.com.bluesoft.erp.testecandidatos.dto.PriceChangeRequest;
+import br.com.bluesoft.erp.testecandidatos.event.ProductChangedEvent;
+import br.com.bluesoft.erp.testecandidatos.model.PriceChangeBatch;
+import br.com.bluesoft.erp.testecandidatos.model.ProductPriceAudit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Implementação das alterações de preço em lote.
+ * <p>
+ * Os novos preços ficam em {@code price_change_items} até a vigência. A aplicação de um lote é uma única
+ * transação com três comandos por conjunto: marca o lote como aplicado, grava o histórico com o preço
+ * anterior ({@code INSERT ... SELECT}) e troca todos os preços com um único {@code UPDATE}. Os novos
+ * preços ficam visíveis juntos, no commit. A marcação só vale para lote ainda agendado, então um
+ * cancelamento ou outra instância aplicando o mesmo lote ao mesmo tempo não aplicam duas vezes.
+ */
+@Service
+public class PriceChangeServiceImpl implements PriceChangeService {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceChangeServiceImpl.class);
+
+    private static final String BATCH_COLUMNS =
+            "id, description, effective_at, status, item_count, created_at, applied_at";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+    private final int maxItems;
+
+    private final Counter appliedItems;
+    private final Timer applyTimer;
+
+    @Autowired
+    public PriceChangeServiceImpl(DataSource dataSource,
+                                  PlatformTransactionManager transactionManager,
+                                  ApplicationEventPublisher eventPublisher,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${products.price-changes.chunk-size:1000}") int chunkSize,
+                                  @Value("${products.price-changes.max-items:100000}") int maxItems) {
+        if (chunkSize < 1 || maxItems < 1) {
+            throw new IllegalArgumentException("Tamanho do bloco e limite de itens devem ser positivos");
+        }
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.maxItems = maxItems;
+        this.appliedItems = Counter.builder("products.price-changes.applied").register(meterRegistry);
+        this.applyTimer = Timer.builder("products.price-changes.apply").register(meterRegistry);
+    }
+
+    @Override
+    @Transactional
+    public PriceChangeBatch schedule(PriceChangeRequest request) {
+        List<PriceChangeEntry> items = request == null ? null : request.getItems();
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("Nenhum preço informado");
+        }
+        if (items.size() > maxItems) {
+            throw new IllegalArgumentException("Lote excede o limite de " + maxItems + " preços");
+        }
+
+        // Vigência padrão e data de criação vêm do relógio do banco, o mesmo usado para aplicar os lotes
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO price_change_batches (description, effective_at, status, item_count, created_at) "
+                            + "VALUES (?, COALESCE(CAST(? AS TIMESTAMP), LOCALTIMESTAMP), ?, ?, LOCALTIMESTAMP)",
+                    Statement.RETURN_GENERATED_KEYS);
+            statement.setString(1, request.getDescription());
+            if (request.getEffectiveAt() != null) {
+                statement.setTimestamp(2, Timestamp.valueOf(request.getEffectiveAt()));
+            } else {
+                statement.setNull(2, Types.TIMESTAMP);
+            }
+            statement.setString(3, PriceChangeBatch.Status.AGENDADO.name());
+            statement.setInt(4, items.size());
+            return statement;
+        }, keyHolder);
+        Long batchId = keyHolder.getKey().longValue();
+
+        Set<Long> productIds = new HashSet<>();
+        for (int start = 0; start < items.size(); start += chunkSize) {
+            stage(batchId, items, start, Math.min(items.size(), start + chunkSize), productIds);
+        }
+        return findBatch(batchId).orElseThrow(() -> new IllegalStateException("Lote de preços não gravado"));
+    }
+
+    /**
+     * Valida e resolve as entradas do bloco e grava os itens com um {@code INSERT} em lote.
+     */
+    private void stage(Long batchId, List<PriceChangeEntry> items, int start, int end, Set<Long> productIds) {
+        Set<Long> ids = new HashSet<>();
+        Set<String> skus = new HashSet<>();
+        for (int i = start; i < end; i++) {
+            PriceChangeEntry entry = items.get(i);
+            boolean hasSku = entry != null && entry.getSku() != null && !entry.getSku().isEmpty();
+            if (entry == null || (entry.getId() == null) == !hasSku) {
+                throw new IllegalArgumentException("Entrada " + i + " deve informar id ou sku");
+            }
+            if (entry.getPrice() == null || entry.getPrice().compareTo(new BigDecimal("0.01")) < 0) {
+                throw new IllegalArgumentException("Preço inválido na entrada " + i);
+            }
+            if (entry.getId() != null) {
+                ids.add(entry.getId());
+            } else {
+                skus.add(entry.getSku());
+            }
+        }
+
+        // Consultas separadas, como no ajuste de estoque em lote, para que ambas usem índice
+        Set<Long> existingIds = ids.isEmpty() ? new HashSet<>() : new HashSet<>(namedJdbcTemplate.queryForList(
+                "SELECT id FROM products WHERE id IN (:ids)", new MapSqlParameterSource("ids", ids), Long.class));
+        Map<String, Long> idsBySku = new HashMap<>();
+        if (!skus.isEmpty()) {
+            namedJdbcTemplate.query("SELECT id, sku FROM products WHERE sku IN (:skus)",
+                    new MapSqlParameterSource("skus", skus),
+                    resultSet -> {
+                        idsBySku.put(resultSet.getString(2), resultSet.getLong(1));
+                    });
+        }
+
+        List<Object[]> rows = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            PriceChangeEntry entry = items.get(i);
+            Long productId = entry.getId() != null
+                    ? (existingIds.contains(entry.getId()) ? entry.getId() : null)
+                    : idsBySku.get(entry.getSku());
+            if (productId == null) {
+                throw new IllegalArgumentException("Produto não encontrado na entrada " + i);
+            }
+            if (!productIds.add(productId)) {
+                throw new IllegalArgumentException("Produto " + productId + " repetido no lote");
+            }
+            rows.add(new Object[]{batchId, productId, entry.getPrice()});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO price_change_items (batch_id, product_id, new_price) VALUES (?, ?, ?)",
+                rows);
+    }
+
+    @Override
+    public Optional<PriceChangeBatch> findBatch(Long batchId) {
+        return jdbcTemplate.query("SELECT " + BATCH_COLUMNS + " FROM price_change_batches WHERE id = ?",
+                (rs, row) -> batch(rs), batchId).stream().findFirst();
+    }
+
+    @Override
+    @Transactional
+    public void cancel(Long batchId) {
+        int updated = jdbcTemplate.update("UPDATE price_change_batches SET status = ? WHERE id = ? AND status = ?",
+                PriceChangeBatch.Status.CANCELADO.name(), batchId, PriceChangeBatch.Status.AGENDADO.name());
+        if (updated == 0) {
+            PriceChangeBatch batch = findBatch(batchId)
+                    .orElseThrow(() -> new IllegalArgumentException("Lote de preços não encontrado"));
+            throw new IllegalStateException("Lote de preços " + batchId + " já está " + batch.getStatus());
+        }
+    }
+
+    @Override
+    public int applyDueBatches() {
+        // Relógio do banco, comum a todas as instâncias
+        List<Long> due = jdbcTemplate.queryForList(
+                "SELECT id FROM price_change_batches WHERE status = ? AND effective_at <= LOCALTIMESTAMP "
+                        + "ORDER BY effective_at, id",
+                Long.class, PriceChangeBatch.Status.AGENDADO.name());
+        int applied = 0;
+        for (Long batchId : due) {
+            try {
+                if (apply(batchId)) {
+                    applied++;
+                }
+            } catch (RuntimeException e) {
+                // O lote continua agendado e é tentado de novo na próxima verificação
+                log.warn("Falha ao aplicar o lote de preços {}", batchId, e);
+            }
+        }
+        return applied;
+    }
+
+    @Scheduled(fixedDelayString = "${products.price-changes.check-interval-ms:1000}")
+    public void scheduledApply() {
+        applyDueBatches();
+    }
+
+    private boolean apply(Long batchId) {
+        Timer.Sample sample = Timer.start();
+        Integer changed = transactionTemplate.execute(status -> {
+            // Relógio do banco, como na seleção dos lotes vencidos; histórico e produtos copiam o mesmo instante
+            int claimed = jdbcTemplate.update(
+                    "UPDATE price_change_batches SET status = ?, applied_at = LOCALTIMESTAMP WHERE id = ? AND status = ?",
+                    PriceChangeBatch.Status.APLICADO.name(), batchId, PriceChangeBatch.Status.AGENDADO.name());
+            if (claimed == 0) {
+                return null;
+            }
+            jdbcTemplate.update("INSERT INTO product_price_audit (product_id, batch_id, old_price, new_price, changed_at) "
+                    + "SELECT p.id, i.batch_id, p.price, i.new_price, b.applied_at FROM price_change_items i "
+                    + "JOIN products p ON p.id = i.product_id JOIN price_change_batches b ON b.id = i.batch_id "
+                    + "WHERE i.batch_id = ?", batchId);
+            int updated = jdbcTemplate.update("UPDATE products SET price = (SELECT i.new_price FROM price_change_items i "
+                    + "WHERE i.batch_id = ? AND i.product_id = products.id), change_seq = NULL, "
+                    + "last_modified = (SELECT applied_at FROM price_change_batches WHERE id = ?) "
+                    + "WHERE id IN (SELECT product_id FROM price_change_items WHERE batch_id = ?)",
+                    batchId, batchId, batchId);
+
+            // Os ouvintes descartam caches depois do commit
+            jdbcTemplate.queryForList("SELECT product_id FROM product_price_audit WHERE batch_id = ?", Long.class,
+                    batchId).forEach(productId -> eventPublisher.publishEvent(
+                    new ProductChangedEvent(ProductChangedEvent.Type.PRECO_ALTERADO, productId)));
+            return updated;
+        });
+        if (changed == null) {
+            return false;
+        }
+        sample.stop(applyTimer);
+        appliedItems.increment(changed);
+        log.info("Lote de preços {} aplicado: {} produtos", batchId, changed);
+        return true;
+    }
+
+    @Override
+    public List<ProductPriceAudit> findPriceHistory(Long productId) {
+        return jdbcTemplate.query("SELECT id, product_id, batch_id, old_price, new_price, changed_at "
+                        + "FROM product_price_audit WHERE product_id = ? ORDER BY changed_at DESC, id DESC",
+                (rs, row) -> new ProductPriceAudit(rs.getLong("id"), rs.getLong("product_id"), rs.getLong("batch_id"),
+                        rs.getBigDecimal("old_price"), rs.getBigDecimal("new_price"),
+                        rs.getTimestamp("changed_at").toLocalDateTime()),
+                productId);
+    }
+
+    private static PriceChangeBatch batch(ResultSet rs) throws SQLException {
+        Timestamp appliedAt = rs.getTimestamp("applied_at");
+        return new PriceChangeBatch(rs.getLong("id"), rs.getString("description"),
+                rs.getTimestamp("effective_at").toLocalDateTime(),
+                PriceChangeBatch.Status.valueOf(rs.getString("status")), rs.getInt("item_count"),
+                rs.getTimestamp("created_at").toLocalDateTime(),
+                appliedAt != null ? appliedAt.toLocalDateTime() : null);
+    }
+}
@@ -0,0 +1,31 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import br.com.bluesoft.erp.testecandidatos.model.ProductChanges;
+
+/**
+ * Serviço de sincronização incremental do catálogo por sequência de alteração.
+ */
+public interface ProductChangeService {
+
+    /**
+     * Até {@code limit} produtos gravados ou excluídos depois da sequência {@code since}.
+     * Com {@code since} zero devolve o catálogo inteiro, página a página.
+     */
+    ProductChanges changesSince(long since, int limit);
+
+    /**
+     * Registra a exclusão do produto na transação corrente.
+     */
+    void recordDeletion(Long productId);
+
+    /**
+     * Atribui sequências às gravações e exclusões confirmadas que ainda não têm uma.
+     * Devolve a quantidade de alterações sequenciadas.
+     */
+    int assignSequences();
+
+    /**
+     * Descarta as exclusões mais antigas que o período de retenção.
+     */
+    int pruneTombstones();
+}
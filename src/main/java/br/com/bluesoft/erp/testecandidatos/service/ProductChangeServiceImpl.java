@@ -0,0 +1,218 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import br.com.bluesoft.erp.testecandidatos.model.Product;
+import br.com.bluesoft.erp.testecandidatos.model.ProductChange;
+import br.com.bluesoft.erp.testecandidatos.model.ProductChanges;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Implementação da sincronização incremental do catálogo.
+ * <p>
+ * As gravações de produto e as exclusões deixam a sequência vazia e as sequências são atribuídas depois
+ * do commit, em lotes, por uma única transação por vez: a linha de {@code product_change_sequence} fica
+ * travada durante a atribuição. Assim uma sequência nunca fica visível antes de todas as menores, e a
+ * consulta lê apenas até a última sequência confirmada, então o cursor do cliente nunca salta uma
+ * alteração. A alteração aparece na consulta incremental no máximo um intervalo de atribuição depois
+ * do commit.
+ */
+@Service
+public class ProductChangeServiceImpl implements ProductChangeService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductChangeServiceImpl.class);
+
+    private static final int COUNTER_ID = 1;
+    private static final int MAX_LIMIT = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration tombstoneRetention;
+
+    @Autowired
+    public ProductChangeServiceImpl(DataSource dataSource,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${products.changes.sequence-batch-size:10000}") int batchSize,
+                                    @Value("${products.changes.tombstone-retention-days:30}") int retentionDays) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.tombstoneRetention = Duration.ofDays(retentionDays);
+    }
+
+    @Override
+    public ProductChanges changesSince(long since, int limit) {
+        if (since < 0) {
+            throw new IllegalArgumentException("Cursor não pode ser negativo");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limite deve estar entre 1 e " + MAX_LIMIT);
+        }
+        long[] counter = readCounter();
+        long lastSequence = counter[0];
+        long prunedThrough = counter[1];
+        if (since > 0 && since < prunedThrough) {
+            return new ProductChanges(new ArrayList<>(), since, false, true);
+        }
+
+        // Só até a última sequência confirmada: as duas consultas enxergam o mesmo conjunto
+        List<ProductChange> changes = new ArrayList<>(jdbcTemplate.query(
+                "SELECT id, name, description, price, stock, sku, reorder_threshold, change_seq, last_modified FROM products "
+                        + "WHERE change_seq > ? AND change_seq <= ? ORDER BY change_seq LIMIT ?",
+                (rs, row) -> upsert(rs), since, lastSequence, limit + 1));
+        changes.addAll(jdbcTemplate.query(
+                "SELECT product_id, change_seq, deleted_at FROM product_tombstones "
+                        + "WHERE change_seq > ? AND change_seq <= ? ORDER BY change_seq LIMIT ?",
+                (rs, row) -> new ProductChange(rs.getLong("change_seq"), rs.getLong("product_id"), true,
+                        rs.getTimestamp("deleted_at").toLocalDateTime(), null),
+                since, lastSequence, limit + 1));
+        changes.sort(Comparator.comparingLong(ProductChange::getSequence));
+
+        boolean hasMore = changes.size() > limit;
+        if (hasMore) {
+            changes = new ArrayList<>(changes.subList(0, limit));
+        }
+        long nextSince = changes.isEmpty() ? Math.max(since, 0) : changes.get(changes.size() - 1).getSequence();
+        return new ProductChanges(changes, nextSince, hasMore, false);
+    }
+
+    @Override
+    public void recordDeletion(Long productId) {
+        jdbcTemplate.update("INSERT INTO product_tombstones (product_id, change_seq, deleted_at) VALUES (?, NULL, ?)",
+                productId, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    @Override
+    public synchronized int assignSequences() {
+        Integer assigned = transactionTemplate.execute(status -> {
+            long last = lockCounter();
+            List<Long> products = jdbcTemplate.queryForList(
+                    "SELECT id FROM products WHERE change_seq IS NULL ORDER BY id LIMIT ?", Long.class, batchSize);
+            List<Long> tombstones = jdbcTemplate.queryForList(
+                    "SELECT product_id FROM product_tombstones WHERE change_seq IS NULL ORDER BY product_id LIMIT ?",
+                    Long.class, batchSize);
+            if (products.isEmpty() && tombstones.isEmpty()) {
+                return 0;
+            }
+
+            long next = last;
+            List<Object[]> productUpdates = new ArrayList<>(products.size());
+            for (Long id : products) {
+                productUpdates.add(new Object[]{++next, id});
+            }
+            List<Object[]> tombstoneUpdates = new ArrayList<>(tombstones.size());
+            for (Long id : tombstones) {
+                tombstoneUpdates.add(new Object[]{++next, id});
+            }
+            // Uma gravação concorrente do mesmo produto espera a trava da linha e volta a limpar a
+            // sequência depois deste commit, entrando na próxima atribuição
+            jdbcTemplate.batchUpdate("UPDATE products SET change_seq = ? WHERE id = ? AND change_seq IS NULL",
+                    productUpdates);
+            jdbcTemplate.batchUpdate(
+                    "UPDATE product_tombstones SET change_seq = ? WHERE product_id = ? AND change_seq IS NULL",
+                    tombstoneUpdates);
+            jdbcTemplate.update("UPDATE product_change_sequence SET last_sequence = ? WHERE id = ?", next, COUNTER_ID);
+            return productUpdates.size() + tombstoneUpdates.size();
+        });
+        return assigned == null ? 0 : assigned;
+    }
+
+    @Override
+    public synchronized int pruneTombstones() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(tombstoneRetention));
+        Integer pruned = transactionTemplate.execute(status -> {
+            lockCounter();
+            Long through = jdbcTemplate.queryForObject(
+                    "SELECT MAX(change_seq) FROM product_tombstones WHERE deleted_at < ? AND change_seq IS NOT NULL",
+                    Long.class, cutoff);
+            if (through == null) {
+                return 0;
+            }
+            int deleted = jdbcTemplate.update(
+                    "DELETE FROM product_tombstones WHERE change_seq <= ?", through);
+            jdbcTemplate.update(
+                    "UPDATE product_change_sequence SET pruned_through = GREATEST(pruned_through, ?) WHERE id = ?",
+                    through, COUNTER_ID);
+            return deleted;
+        });
+        if (pruned != null && pruned > 0) {
+            log.info("{} exclusões de produtos descartadas da sincronização incremental", pruned);
+        }
+        return pruned == null ? 0 : pruned;
+    }
+
+    @Scheduled(fixedDelayString = "${products.changes.sequence-interval-ms:1000}")
+    public void scheduledAssign() {
+        assignSequences();
+    }
+
+    @Scheduled(fixedDelayString = "${products.changes.prune-interval-ms:3600000}")
+    public void scheduledPrune() {
+        pruneTombstones();
+    }
+
+    /**
+     * Última sequência atribuída e maior sequência descartada, sem travar.
+     */
+    private long[] readCounter() {
+        List<long[]> rows = jdbcTemplate.query(
+                "SELECT last_sequence, pruned_through FROM product_change_sequence WHERE id = ?",
+                (rs, row) -> new long[]{rs.getLong(1), rs.getLong(2)}, COUNTER_ID);
+        return rows.isEmpty() ? new long[]{0, 0} : rows.get(0);
+    }
+
+    /**
+     * Trava a linha do contador até o fim da transação, criando-a na primeira vez, e devolve a última
+     * sequência atribuída.
+     */
+    private long lockCounter() {
+        for (int attempt = 0; ; attempt++) {
+            List<Long> last = jdbcTemplate.queryForList(
+                    "SELECT last_sequence FROM product_change_sequence WHERE id = ? FOR UPDATE", Long.class, COUNTER_ID);
+            if (!last.isEmpty()) {
+                return last.get(0);
+            }
+            try {
+                jdbcTemplate.update("INSERT INTO product_change_sequence (id, last_sequence, pruned_through) "
+                        + "VALUES (?, 0, 0)", COUNTER_ID);
+            } catch (DuplicateKeyException e) {
+                // Outra instância criou a linha ao mesmo tempo; a próxima volta trava a linha dela
+                if (attempt > 0) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static ProductChange upsert(ResultSet rs) throws SQLException {
+        Product product = new Product();
+        product.setId(rs.getLong("id"));
+        product.setName(rs.getString("name"));
+        product.setDescription(rs.getString("description"));
+        product.setPrice(rs.getBigDecimal("price"));
+        product.setStock((Integer) rs.getObject("stock"));
+        product.setSku(rs.getString("sku"));
+        product.setReorderThreshold((Integer) rs.getObject("reorder_threshold"));
+        Timestamp lastModified = rs.getTimestamp("last_modified");
+        return new ProductChange(rs.getLong("change_seq"), product.getId(), false,
+                lastModified != null ? lastModified.toLocalDateTime() : null, product);
+    }
+}
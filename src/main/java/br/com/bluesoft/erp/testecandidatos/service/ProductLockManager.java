@@ -0,0 +1,60 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import br.com.bluesoft.erp.testecandidatos.concurrent.StripedLock;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.function.Supplier;
+
+/**
+ * Travas em memória por produto para os caminhos de leitura-modificação-escrita de estoque.
+ * Protege apenas contra concorrência dentro do mesmo nó; entre nós continua valendo o banco.
+ * <p>
+ * Dentro de uma transação a trava é mantida até o commit ou rollback, para que outra thread
+ * não leia o estoque anterior enquanto a alteração ainda não foi confirmada.
+ */
+@Component
+public class ProductLockManager {
+
+    private final StripedLock locks;
+
+    @Autowired
+    public ProductLockManager(@Value("${products.stock-locks.stripes:256}") int stripes,
+                              MeterRegistry meterRegistry) {
+        this.locks = new StripedLock(stripes, "product.stock", meterRegistry);
+    }
+
+    public <T> T withProductLock(Long productId, Supplier<T> action) {
+        return withProductLocks(Collections.singletonList(productId), action);
+    }
+
+    /**
+     * Executa a ação com as travas de todos os produtos informados.
+     */
+    public <T> T withProductLocks(Collection<Long> productIds, Supplier<T> action) {
+        long[] keys = productIds.stream().mapToLong(Long::longValue).toArray();
+        int[] stripes = locks.lockAll(keys);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    locks.unlockStripes(stripes);
+                }
+            });
+            return action.get();
+        }
+
+        try {
+            return action.get();
+        } finally {
+            locks.unlockStripes(stripes);
+        }
+    }
+}
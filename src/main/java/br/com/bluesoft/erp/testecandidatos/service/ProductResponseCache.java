@@ -0,0 +1,163 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import br.com.bluesoft.erp.testecandidatos.event.ProductChangedEvent;
+import br.com.bluesoft.erp.testecandidatos.model.CachedResponse;
+import br.com.bluesoft.erp.testecandidatos.model.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache das respostas mais lidas do catálogo já serializadas em JSON e comprimidas em gzip:
+ * a lista completa, a lista de estoque baixo e cada produto por SKU.
+ * <p>
+ * As entradas são descartadas depois do commit de qualquer alteração de produto: as listas sempre e,
+ * por SKU, apenas as do produto alterado. Uma carga iniciada antes de uma invalidação não é guardada,
+ * para que dados lidos antes do commit não voltem ao cache. Cada entrada guarda também a versão da
+ * fotografia do catálogo de onde veio e só é usada enquanto a versão for a mesma.
+ * Cada instância tem o seu cache; como o ETag depende só do conteúdo, instâncias diferentes dão o
+ * mesmo ETag para a mesma resposta.
+ */
+@Component
+public class ProductResponseCache {
+
+    /**
+     * Versão de origem das respostas montadas a partir do banco, e não da fotografia.
+     */
+    public static final long DATABASE = -1;
+
+    private static final String ALL_KEY = "all";
+    private static final String LOW_STOCK_KEY = "low-stock";
+    private static final String SKU_PREFIX = "sku:";
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int gzipMinBytes;
+
+    private final Map<String, CachedResponse> entries = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> keysByProduct = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public ProductResponseCache(ObjectProvider<ObjectMapper> objectMapper,
+                                @Value("${products.response-cache.enabled:true}") boolean enabled,
+                                @Value("${products.response-cache.gzip-min-bytes:1024}") int gzipMinBytes) {
+        // Usa o mesmo ObjectMapper das respostas do Spring MVC, quando houver
+        this(objectMapper.getIfAvailable(ObjectMapper::new), enabled, gzipMinBytes);
+    }
+
+    public ProductResponseCache(ObjectMapper objectMapper, boolean enabled, int gzipMinBytes) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.gzipMinBytes = gzipMinBytes;
+    }
+
+    public CachedResponse allProducts(long sourceVersion, Supplier<List<Product>> loader) {
+        return list(ALL_KEY, sourceVersion, loader);
+    }
+
+    public CachedResponse lowStockProducts(long sourceVersion, Supplier<List<Product>> loader) {
+        return list(LOW_STOCK_KEY, sourceVersion, loader);
+    }
+
+    /**
+     * Produto por SKU. Produtos não encontrados não são guardados.
+     */
+    public Optional<CachedResponse> productBySku(String sku, long sourceVersion, Supplier<Optional<Product>> loader) {
+        String key = SKU_PREFIX + sku;
+        CachedResponse cached = lookup(key, sourceVersion);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long loadedAt = generation.get();
+        Optional<Product> product = loader.get();
+        if (!product.isPresent()) {
+            return Optional.empty();
+        }
+        CachedResponse response = serialize(product.get(), sourceVersion);
+        if (enabled && product.get().getId() != null) {
+            keysByProduct.computeIfAbsent(product.get().getId(), id -> ConcurrentHashMap.newKeySet()).add(key);
+            store(key, response, loadedAt);
+        }
+        return Optional.of(response);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        generation.incrementAndGet();
+        entries.remove(ALL_KEY);
+        entries.remove(LOW_STOCK_KEY);
+        Set<String> keys = event.getProductId() == null ? null : keysByProduct.remove(event.getProductId());
+        if (keys != null) {
+            keys.forEach(entries::remove);
+        }
+    }
+
+    private CachedResponse list(String key, long sourceVersion, Supplier<List<Product>> loader) {
+        CachedResponse cached = lookup(key, sourceVersion);
+        if (cached != null) {
+            return cached;
+        }
+        long loadedAt = generation.get();
+        CachedResponse response = serialize(loader.get(), sourceVersion);
+        if (enabled) {
+            store(key, response, loadedAt);
+        }
+        return response;
+    }
+
+    private CachedResponse lookup(String key, long sourceVersion) {
+        if (!enabled) {
+            return null;
+        }
+        CachedResponse cached = entries.get(key);
+        return cached != null && cached.getSourceVersion() == sourceVersion ? cached : null;
+    }
+
+    private void store(String key, CachedResponse response, long loadedAt) {
+        entries.put(key, response);
+        // Uma invalidação durante a carga pode ter chegado antes ou depois do put; em ambos os casos desfaz
+        if (generation.get() != loadedAt) {
+            entries.remove(key, response);
+        }
+    }
+
+    private CachedResponse serialize(Object value, long sourceVersion) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar a resposta do catálogo", e);
+        }
+        byte[] gzipBody = enabled && body.length >= gzipMinBytes ? gzip(body) : null;
+        String etag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+        return new CachedResponse(body, gzipBody, etag, sourceVersion);
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -23,7 +23,14 @@ public interface ProductService {
     
     void updateProductStock(Long productId, Integer newStock);
     
+    Integer adjustProductStock(Long productId, int delta);
+    
     void updateProductPrice(Long productId, BigDecimal newPrice);
+
+    /**
+     * Define o limite de reposição do produto; {@code null} volta ao padrão.
+     */
+    void updateReorderThreshold(Long productId, Integer threshold);
     
     void deleteProduct(Long productId);
     
@@ -1,11 +1,16 @@
 package br.com.bluesoft.erp.testecandidatos.service;
 
+import br.com.bluesoft.erp.testecandidatos.concurrent.SingleFlight;
+import br.com.bluesoft.erp.testecandidatos.event.ProductChangedEvent;
 import br.com.bluesoft.erp.testecandidatos.model.Product;
 import br.com.bluesoft.erp.testecandidatos.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -18,26 +23,58 @@ import java.util.Optional;
 public class ProductServiceImpl implements ProductService {
 
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductLockManager productLockManager;
+    private final StockDeltaBuffer stockDeltaBuffer;
+    private final ProductChangeService productChangeService;
+
+    private final SingleFlight<Long, Optional<Product>> productByIdLookups;
+    private final SingleFlight<String, Optional<Product>> productBySkuLookups;
 
     @Autowired
-    public ProductServiceImpl(ProductRepository productRepository) {
+    public ProductServiceImpl(ProductRepository productRepository,
+                              ApplicationEventPublisher eventPublisher,
+                              ProductLockManager productLockManager,
+                              StockDeltaBuffer stockDeltaBuffer,
+                              ProductChangeService productChangeService,
+                              MeterRegistry meterRegistry) {
         this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+        this.productLockManager = productLockManager;
+        this.stockDeltaBuffer = stockDeltaBuffer;
+        this.productChangeService = productChangeService;
+        this.productByIdLookups = new SingleFlight<>("product.id", meterRegistry);
+        this.productBySkuLookups = new SingleFlight<>("product.sku", meterRegistry);
     }
 
     @Override
     @Transactional
     public Product saveProduct(Product product) {
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        publishChange(ProductChangedEvent.Type.SALVO, saved);
+        return saved;
     }
 
     @Override
     public Optional<Product> findProductById(Long id) {
-        return productRepository.findById(id);
+        // Dentro de uma transação o chamador precisa da sua própria instância gerenciada
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return productRepository.findById(id);
+        }
+        if (stockDeltaBuffer.isEnabled()) {
+            // Soma os deltas de estoque ainda não gravados para que o chamador veja as próprias escritas
+            return stockDeltaBuffer.withPendingStock(
+                    () -> productByIdLookups.execute(id, () -> productRepository.findById(id)));
+        }
+        return productByIdLookups.execute(id, () -> productRepository.findById(id));
     }
 
     @Override
     public Optional<Product> findProductBySku(String sku) {
-        return productRepository.findBySku(sku);
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return productRepository.findBySku(sku);
+        }
+        return productBySkuLookups.execute(sku, () -> productRepository.findBySku(sku));
     }
 
     @Override
@@ -51,13 +88,54 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
+    @Transactional
     public void updateProductStock(Long productId, Integer newStock) {
-        Optional<Product> productOpt = productRepository.findById(productId);
-        if (productOpt.isPresent()) {
-            Product product = productOpt.get();
+        productLockManager.withProductLock(productId, () -> {
+            // Deltas ainda no buffer seriam somados depois ao valor absoluto
+            stockDeltaBuffer.flushProduct(productId);
+            Optional<Product> productOpt = productRepository.findById(productId);
+            if (productOpt.isPresent()) {
+                Product product = productOpt.get();
+                product.setStock(newStock);
+                productRepository.save(product);
+                publishChange(ProductChangedEvent.Type.SALVO, product);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    @Transactional
+    public Integer adjustProductStock(Long productId, int delta) {
+        return productLockManager.withProductLock(productId, () -> {
+            if (stockDeltaBuffer.isEnabled()) {
+                return bufferStockDelta(productId, delta);
+            }
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(() -> new IllegalArgumentException("Produto não encontrado"));
+
+            int current = product.getStock() == null ? 0 : product.getStock();
+            int newStock = current + delta;
+            if (newStock < 0) {
+                throw new IllegalStateException("Estoque insuficiente para o produto " + productId);
+            }
             product.setStock(newStock);
             productRepository.save(product);
+            publishChange(ProductChangedEvent.Type.SALVO, product);
+            return newStock;
+        });
+    }
+
+    private Integer bufferStockDelta(Long productId, int delta) {
+        Product product = stockDeltaBuffer.withPendingStock(() -> productRepository.findById(productId))
+                .orElseThrow(() -> new IllegalArgumentException("Produto não encontrado"));
+
+        int newStock = (product.getStock() == null ? 0 : product.getStock()) + delta;
+        if (newStock < 0) {
+            throw new IllegalStateException("Estoque insuficiente para o produto " + productId);
         }
+        stockDeltaBuffer.add(productId, delta);
+        return newStock;
     }
 
     @Override
@@ -68,13 +146,32 @@ public class ProductServiceImpl implements ProductService {
             Product product = productOpt.get();
             product.setPrice(newPrice);
             productRepository.save(product);
+            publishChange(ProductChangedEvent.Type.PRECO_ALTERADO, product);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void updateReorderThreshold(Long productId, Integer threshold) {
+        if (threshold != null && threshold < 0) {
+            throw new IllegalArgumentException("Limite de reposição não pode ser negativo");
         }
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new IllegalArgumentException("Produto não encontrado"));
+        product.setReorderThreshold(threshold);
+        productRepository.save(product);
+        publishChange(ProductChangedEvent.Type.SALVO, product);
     }
 
     @Override
     @Transactional
     public void deleteProduct(Long productId) {
+        boolean existed = productRepository.existsById(productId);
         productRepository.deleteById(productId);
+        if (existed) {
+            productChangeService.recordDeletion(productId);
+        }
+        eventPublisher.publishEvent(new ProductChangedEvent(ProductChangedEvent.Type.EXCLUIDO, productId));
     }
 
     @Override
@@ -88,6 +185,12 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     public List<Product> findProductsWithLowStock() {
-        return productRepository.findProductsWithLowStock(10);
+        return productRepository.findProductsWithLowStock(Product.DEFAULT_REORDER_THRESHOLD);
+    }
+
+    private void publishChange(ProductChangedEvent.Type type, Product product) {
+        if (product != null) {
+            eventPublisher.publishEvent(new ProductChangedEvent(type, product.getId()));
+        }
     }
-}
\ No newline at end of file
+}
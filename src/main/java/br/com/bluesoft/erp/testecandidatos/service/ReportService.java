@@ -0,0 +1,29 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import br.com.bluesoft.erp.testecandidatos.model.ProductSales;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serviço de relatórios de estoque e vendas.
+ */
+public interface ReportService {
+
+    /**
+     * Valor em estoque agrupado pelos primeiros {@code prefixLength} caracteres do SKU.
+     */
+    Map<String, BigDecimal> inventoryValueBySkuPrefix(int prefixLength);
+
+    /**
+     * Receita dos pedidos não cancelados por dia, de {@code from} a {@code to} inclusive.
+     */
+    Map<LocalDate, BigDecimal> revenueByDay(LocalDate from, LocalDate to);
+
+    /**
+     * Produtos com maior receita nos pedidos não cancelados.
+     */
+    List<ProductSales> topProducts(int limit);
+}
@@ -0,0 +1,213 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import br.com.bluesoft.erp.testecandidatos.model.ProductSales;
+import br.com.bluesoft.erp.testecandidatos.reporting.PartitionedReportEngine;
+import br.com.bluesoft.erp.testecandidatos.sharding.ShardedOrderStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Implementação dos relatórios sobre o {@link PartitionedReportEngine}.
+ * Cada partição agrega a sua faixa de ids no próprio banco e os parciais são somados em memória.
+ * Com os pedidos em shards, os relatórios de pedidos particionam cada shard e juntam os resultados;
+ * nomes e SKUs dos produtos continuam vindo do banco principal.
+ */
+@Service
+public class ReportServiceImpl implements ReportService {
+
+    private static final String NOT_CANCELLED = "(o.status IS NULL OR o.status <> 'CANCELADO')";
+
+    private static final String REVENUE_BY_DAY_SQL =
+            "SELECT CAST(o.order_date AS DATE), SUM(COALESCE(i.unit_price, 0) * i.quantity) "
+                    + "FROM order_items i JOIN orders o ON o.id = i.order_id "
+                    + "WHERE i.id BETWEEN ? AND ? AND o.order_date >= ? AND o.order_date < ? AND " + NOT_CANCELLED + " "
+                    + "GROUP BY CAST(o.order_date AS DATE)";
+
+    private static final String SALES_BY_PRODUCT_SQL =
+            "SELECT i.product_id, SUM(i.quantity), SUM(COALESCE(i.unit_price, 0) * i.quantity) "
+                    + "FROM order_items i JOIN orders o ON o.id = i.order_id "
+                    + "WHERE i.id BETWEEN ? AND ? AND i.product_id IS NOT NULL AND " + NOT_CANCELLED + " "
+                    + "GROUP BY i.product_id";
+
+    static final String NO_SKU = "(sem SKU)";
+
+    private final PartitionedReportEngine engine;
+    private final ReportSupport support;
+    // Nulo quando os pedidos estão no banco principal
+    private final ShardedOrderStore shardedOrderStore;
+
+    @Autowired
+    public ReportServiceImpl(DataSource dataSource,
+                             ObjectProvider<ShardedOrderStore> shardedOrderStore,
+                             MeterRegistry meterRegistry,
+                             @Value("${reports.parallelism:0}") int parallelism,
+                             @Value("${reports.partition-size:10000}") long partitionSize) {
+        this(dataSource, shardedOrderStore.getIfAvailable(), meterRegistry, parallelism, partitionSize);
+    }
+
+    public ReportServiceImpl(DataSource dataSource, ShardedOrderStore shardedOrderStore, MeterRegistry meterRegistry,
+                             int parallelism, long partitionSize) {
+        this.engine = new PartitionedReportEngine(dataSource, parallelism, partitionSize);
+        this.support = new ReportSupport(new NamedParameterJdbcTemplate(dataSource), meterRegistry);
+        this.shardedOrderStore = shardedOrderStore;
+    }
+
+    @PreDestroy
+    public void close() {
+        engine.close();
+    }
+
+    @Override
+    public Map<String, BigDecimal> inventoryValueBySkuPrefix(int prefixLength) {
+        if (prefixLength < 1) {
+            throw new IllegalArgumentException("Tamanho do prefixo deve ser positivo");
+        }
+        // O tamanho entra como literal para que o agrupamento use a mesma expressão do SELECT
+        String prefix = "SUBSTRING(sku, 1, " + prefixLength + ")";
+        String sql = "SELECT " + prefix + ", SUM(COALESCE(price, 0) * COALESCE(stock, 0)) FROM products "
+                + "WHERE id BETWEEN ? AND ? GROUP BY " + prefix;
+
+        return support.timed("inventory-by-sku-prefix", () -> engine.<Map<String, BigDecimal>>run("products",
+                TreeMap::new,
+                (connection, fromId, toId) -> {
+                    Map<String, BigDecimal> partial = new TreeMap<>();
+                    try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                        statement.setLong(1, fromId);
+                        statement.setLong(2, toId);
+                        try (ResultSet resultSet = statement.executeQuery()) {
+                            while (resultSet.next()) {
+                                String key = resultSet.getString(1);
+                                partial.merge(key != null ? key : NO_SKU, resultSet.getBigDecimal(2), BigDecimal::add);
+                            }
+                        }
+                    }
+                    return partial;
+                },
+                ReportServiceImpl::sum));
+    }
+
+    @Override
+    public Map<LocalDate, BigDecimal> revenueByDay(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Data inicial posterior à data final");
+        }
+
+        return support.timed("revenue-by-day", () -> this.<Map<LocalDate, BigDecimal>>runOnOrderItems(
+                TreeMap::new,
+                (connection, fromId, toId) -> {
+                    Map<LocalDate, BigDecimal> partial = new TreeMap<>();
+                    try (PreparedStatement statement = connection.prepareStatement(REVENUE_BY_DAY_SQL)) {
+                        statement.setLong(1, fromId);
+                        statement.setLong(2, toId);
+                        statement.setObject(3, from.atStartOfDay());
+                        statement.setObject(4, to.plusDays(1).atStartOfDay());
+                        try (ResultSet resultSet = statement.executeQuery()) {
+                            while (resultSet.next()) {
+                                Date day = resultSet.getDate(1);
+                                partial.merge(day.toLocalDate(), resultSet.getBigDecimal(2), BigDecimal::add);
+                            }
+                        }
+                    }
+                    return partial;
+                },
+                ReportServiceImpl::sum));
+    }
+
+    @Override
+    public List<ProductSales> topProducts(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limite deve ser positivo");
+        }
+
+        return support.timed("top-products", () -> {
+            Map<Long, ProductSales> sales = runOnOrderItems(HashMap::new,
+                    ReportServiceImpl::salesByProduct, ReportServiceImpl::mergeSales);
+
+            // Heap mínimo com os N maiores; o menor é descartado quando o heap passa do limite
+            Comparator<ProductSales> byRevenue = Comparator.comparing(ProductSales::getRevenue)
+                    .thenComparing(ProductSales::getProductId, Comparator.reverseOrder());
+            PriorityQueue<ProductSales> top = new PriorityQueue<>(limit + 1, byRevenue);
+            for (ProductSales productSales : sales.values()) {
+                top.add(productSales);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+
+            List<ProductSales> result = new ArrayList<>(top);
+            result.sort(byRevenue.reversed());
+            support.fillProductNames(result);
+            return result;
+        });
+    }
+
+    /**
+     * Agrega {@code order_items} no banco principal ou em cada shard de pedidos.
+     */
+    private <R> R runOnOrderItems(Supplier<R> empty, PartitionedReportEngine.PartialAggregation<R> partial,
+                                  BinaryOperator<R> merge) {
+        if (shardedOrderStore == null) {
+            return engine.run("order_items", empty, partial, merge);
+        }
+        return engine.run(shardedOrderStore.getShards(), shardedOrderStore.getIdStride(), "order_items",
+                empty, partial, merge);
+    }
+
+    private static Map<Long, ProductSales> salesByProduct(Connection connection, long fromId, long toId)
+            throws SQLException {
+        Map<Long, ProductSales> partial = new HashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(SALES_BY_PRODUCT_SQL)) {
+            statement.setLong(1, fromId);
+            statement.setLong(2, toId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    long productId = resultSet.getLong(1);
+                    partial.put(productId, new ProductSales(productId, null, null,
+                            resultSet.getLong(2), resultSet.getBigDecimal(3)));
+                }
+            }
+        }
+        return partial;
+    }
+
+    private static Map<Long, ProductSales> mergeSales(Map<Long, ProductSales> left, Map<Long, ProductSales> right) {
+        Map<Long, ProductSales> target = left.size() >= right.size() ? left : right;
+        Map<Long, ProductSales> source = target == left ? right : left;
+        source.forEach((productId, productSales) -> target.merge(productId, productSales, (a, b) -> {
+            a.setQuantity(a.getQuantity() + b.getQuantity());
+            a.setRevenue(a.getRevenue().add(b.getRevenue()));
+            return a;
+        }));
+        return target;
+    }
+
+    private static <K> Map<K, BigDecimal> sum(Map<K, BigDecimal> left, Map<K, BigDecimal> right) {
+        right.forEach((key, value) -> left.merge(key, value, BigDecimal::add));
+        return left;
+    }
+
+
+}
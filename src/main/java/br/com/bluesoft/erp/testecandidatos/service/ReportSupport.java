@@ -0,0 +1,52 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import br.com.bluesoft.erp.testecandidatos.model.ProductSales;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Partes comuns dos serviços de relatório: medição do tempo de cada relatório no timer
+ * {@code reports.duration} e preenchimento de nome e SKU nas vendas por produto.
+ */
+final class ReportSupport {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    ReportSupport(NamedParameterJdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    <T> T timed(String report, Supplier<T> body) {
+        return Timer.builder("reports.duration")
+                .tag("report", report)
+                .register(meterRegistry)
+                .record(body);
+    }
+
+    /**
+     * Preenche nome e SKU a partir do cadastro de produtos, em uma única consulta.
+     */
+    void fillProductNames(List<ProductSales> sales) {
+        if (sales.isEmpty()) {
+            return;
+        }
+        Map<Long, ProductSales> byId = new HashMap<>();
+        sales.forEach(productSales -> byId.put(productSales.getProductId(), productSales));
+        jdbcTemplate.query("SELECT id, name, sku FROM products WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", byId.keySet()),
+                resultSet -> {
+                    ProductSales productSales = byId.get(resultSet.getLong("id"));
+                    productSales.setProductName(resultSet.getString("name"));
+                    productSales.setProductSku(resultSet.getString("sku"));
+                });
+    }
+}
@@ -0,0 +1,44 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import br.com.bluesoft.erp.testecandidatos.event.OrderEvent;
+import br.com.bluesoft.erp.testecandidatos.model.DailySales;
+import br.com.bluesoft.erp.testecandidatos.model.ProductSales;
+import br.com.bluesoft.erp.testecandidatos.model.RollupBackfillResult;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Serviço de análise de vendas sobre os totais diários pré-agregados.
+ * As consultas leem apenas os totais, nunca as tabelas de pedidos.
+ */
+public interface SalesRollupService {
+
+    /**
+     * Soma aos totais o pedido finalizado ou subtrai o pedido cancelado, na transação que alterou o pedido.
+     */
+    void onOrderEvent(OrderEvent event);
+
+    /**
+     * Pedidos finalizados e receita por dia, de {@code from} a {@code to} inclusive.
+     * Dias sem vendas não aparecem.
+     */
+    List<DailySales> dailySales(LocalDate from, LocalDate to);
+
+    /**
+     * Unidades e receita por produto no período, da maior para a menor receita.
+     */
+    List<ProductSales> productSales(LocalDate from, LocalDate to);
+
+    /**
+     * Valor médio dos pedidos finalizados no período; zero quando não houver pedidos.
+     */
+    BigDecimal averageOrderValue(LocalDate from, LocalDate to);
+
+    /**
+     * Soma aos totais os pedidos finalizados que ainda não foram somados.
+     * Pode ser executada novamente: pedidos já somados são ignorados.
+     */
+    RollupBackfillResult backfill();
+}
@@ -0,0 +1,504 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import br.com.bluesoft.erp.testecandidatos.event.OrderEvent;
+import br.com.bluesoft.erp.testecandidatos.model.DailySales;
+import br.com.bluesoft.erp.testecandidatos.model.Order;
+import br.com.bluesoft.erp.testecandidatos.model.ProductSales;
+import br.com.bluesoft.erp.testecandidatos.model.RollupBackfillResult;
+import br.com.bluesoft.erp.testecandidatos.model.SalesRollupLine;
+import br.com.bluesoft.erp.testecandidatos.model.SalesRollupLinesConverter;
+import br.com.bluesoft.erp.testecandidatos.model.SalesRollupOrder;
+import br.com.bluesoft.erp.testecandidatos.reporting.PartitionedReportEngine;
+import br.com.bluesoft.erp.testecandidatos.sharding.ShardedOrderStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.BinaryOperator;
+
+/**
+ * Implementação da análise de vendas sobre as tabelas {@code daily_sales} e {@code daily_product_sales}.
+ * <p>
+ * A finalização e o cancelamento de um pedido somam ou subtraem a contribuição do pedido antes do
+ * commit da mesma transação, então os totais nunca divergem dos pedidos confirmados. As linhas de
+ * total são criadas zeradas em transações próprias e depois incrementadas com {@code x = x + ?},
+ * sempre na mesma ordem de chaves, para que finalizações simultâneas do mesmo dia apenas esperem
+ * umas pelas outras. A tabela {@code sales_rollup_orders} guarda o que cada pedido somou.
+ */
+@Service
+public class SalesRollupServiceImpl implements SalesRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesRollupServiceImpl.class);
+
+    private static final String BACKFILL_SELECT =
+            "SELECT o.id, CAST(o.order_date AS DATE), i.product_id, SUM(COALESCE(i.quantity, 0)), "
+                    + "SUM(COALESCE(i.unit_price, 0) * COALESCE(i.quantity, 0)) "
+                    + "FROM orders o LEFT JOIN order_items i ON i.order_id = o.id "
+                    + "WHERE o.id BETWEEN ? AND ? AND o.status = 'FINALIZADO' AND o.order_date IS NOT NULL ";
+
+    private static final String BACKFILL_GROUP =
+            "GROUP BY o.id, CAST(o.order_date AS DATE), i.product_id ORDER BY o.id";
+
+    private static final String BACKFILL_SQL = BACKFILL_SELECT
+            + "AND NOT EXISTS (SELECT 1 FROM sales_rollup_orders r WHERE r.order_id = o.id) " + BACKFILL_GROUP;
+
+    // Os shards não têm sales_rollup_orders; os pedidos já somados são descartados no banco principal
+    private static final String SHARD_BACKFILL_SQL = BACKFILL_SELECT + BACKFILL_GROUP;
+
+    private static final SalesRollupLinesConverter LINES = new SalesRollupLinesConverter();
+
+    private final OrderService orderService;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate newTransactionTemplate;
+    private final PartitionedReportEngine engine;
+    private final ReportSupport support;
+    private final int batchSize;
+    // Nulo quando os pedidos estão no banco principal
+    private final ShardedOrderStore shardedOrderStore;
+
+    @Autowired
+    public SalesRollupServiceImpl(OrderService orderService,
+                                  DataSource dataSource,
+                                  ObjectProvider<ShardedOrderStore> shardedOrderStore,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${sales.rollup.backfill-parallelism:0}") int parallelism,
+                                  @Value("${sales.rollup.backfill-partition-size:10000}") long partitionSize,
+                                  @Value("${sales.rollup.backfill-batch-size:500}") int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Tamanho do lote deve ser positivo");
+        }
+        this.orderService = orderService;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.engine = new PartitionedReportEngine(dataSource, parallelism, partitionSize);
+        this.support = new ReportSupport(namedJdbcTemplate, meterRegistry);
+        this.batchSize = batchSize;
+        this.shardedOrderStore = shardedOrderStore.getIfAvailable();
+    }
+
+    @PreDestroy
+    public void close() {
+        engine.close();
+    }
+
+    @Override
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onOrderEvent(OrderEvent event) {
+        if (event.getType() == OrderEvent.Type.FINALIZADO) {
+            applyFinalized(event);
+        } else if (event.getType() == OrderEvent.Type.CANCELADO) {
+            applyCancelled(event);
+        }
+    }
+
+    private void applyFinalized(OrderEvent event) {
+        Optional<SalesRollupOrder> marker = findMarker(event.getOrderId());
+        if (marker.isPresent() && !marker.get().isCancelled()) {
+            return;
+        }
+
+        SalesRollupOrder contribution = contributionOf(event);
+        List<SalesRollupOrder> contributions = Collections.singletonList(contribution);
+        ensureRows(contributions);
+        if (marker.isPresent()) {
+            updateMarker(contribution);
+        } else {
+            insertMarkers(contributions);
+        }
+        applyDeltas(contributions, 1);
+    }
+
+    private void applyCancelled(OrderEvent event) {
+        Optional<SalesRollupOrder> marker = findMarker(event.getOrderId());
+        if (marker.isPresent() && marker.get().isCancelled()) {
+            return;
+        }
+
+        SalesRollupOrder cancelled = new SalesRollupOrder();
+        cancelled.setOrderId(event.getOrderId());
+        cancelled.setCancelled(true);
+        if (marker.isPresent()) {
+            applyDeltas(Collections.singletonList(marker.get()), -1);
+            cancelled.setSalesDate(marker.get().getSalesDate());
+            updateMarker(cancelled);
+        } else {
+            // Cancelado sem ter sido somado: fica marcado para que a reconstrução não o some
+            cancelled.setSalesDate(orderDate(event));
+            insertMarkers(Collections.singletonList(cancelled));
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<DailySales> dailySales(LocalDate from, LocalDate to) {
+        validatePeriod(from, to);
+        return support.timed("sales-daily", () -> jdbcTemplate.query(
+                "SELECT sales_date, order_count, revenue FROM daily_sales "
+                        + "WHERE sales_date BETWEEN ? AND ? AND order_count > 0 ORDER BY sales_date",
+                (resultSet, row) -> new DailySales(resultSet.getDate(1).toLocalDate(),
+                        resultSet.getLong(2), resultSet.getBigDecimal(3)),
+                Date.valueOf(from), Date.valueOf(to)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductSales> productSales(LocalDate from, LocalDate to) {
+        validatePeriod(from, to);
+        return support.timed("sales-products", () -> {
+            List<ProductSales> sales = jdbcTemplate.query(
+                    "SELECT product_id, SUM(units), SUM(revenue) FROM daily_product_sales "
+                            + "WHERE sales_date BETWEEN ? AND ? GROUP BY product_id HAVING SUM(order_count) > 0 "
+                            + "ORDER BY SUM(revenue) DESC, product_id",
+                    (resultSet, row) -> new ProductSales(resultSet.getLong(1), null, null,
+                            resultSet.getLong(2), resultSet.getBigDecimal(3)),
+                    Date.valueOf(from), Date.valueOf(to));
+            support.fillProductNames(sales);
+            return sales;
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BigDecimal averageOrderValue(LocalDate from, LocalDate to) {
+        validatePeriod(from, to);
+        return support.timed("sales-average-order-value", () -> jdbcTemplate.queryForObject(
+                "SELECT SUM(order_count), SUM(revenue) FROM daily_sales WHERE sales_date BETWEEN ? AND ?",
+                (resultSet, row) -> {
+                    long orders = resultSet.getLong(1);
+                    if (orders == 0) {
+                        return BigDecimal.ZERO;
+                    }
+                    return resultSet.getBigDecimal(2).divide(BigDecimal.valueOf(orders), 2, RoundingMode.HALF_UP);
+                },
+                Date.valueOf(from), Date.valueOf(to)));
+    }
+
+    @Override
+    public RollupBackfillResult backfill() {
+        long start = System.nanoTime();
+        BinaryOperator<long[]> sum = (left, right) -> {
+            for (int i = 0; i < left.length; i++) {
+                left[i] += right[i];
+            }
+            return left;
+        };
+        long[] totals;
+        if (shardedOrderStore == null) {
+            totals = engine.run("orders", () -> new long[3],
+                    (connection, fromId, toId) -> backfillPartition(connection, fromId, toId, false), sum);
+        } else {
+            totals = engine.run(shardedOrderStore.getShards(), shardedOrderStore.getIdStride(), "orders",
+                    () -> new long[3],
+                    (connection, fromId, toId) -> backfillPartition(connection, fromId, toId, true), sum);
+        }
+
+        RollupBackfillResult result = new RollupBackfillResult(totals[0], totals[1], totals[2]);
+        log.info("Reconstrução dos totais diários: {} pedidos em {} lotes ({} com falha) em {} ms",
+                result.getOrdersApplied(), result.getBatches(), result.getFailedBatches(),
+                (System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    /**
+     * Lê os pedidos finalizados ainda não somados da faixa e os soma em lotes, cada lote na sua
+     * própria transação. Um lote com falha não interrompe os demais e é refeito na próxima execução.
+     */
+    private long[] backfillPartition(Connection connection, long fromId, long toId, boolean shard)
+            throws SQLException {
+        Map<Long, SalesRollupOrder> pending = new LinkedHashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(shard ? SHARD_BACKFILL_SQL : BACKFILL_SQL)) {
+            statement.setLong(1, fromId);
+            statement.setLong(2, toId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    SalesRollupOrder contribution = pending.computeIfAbsent(resultSet.getLong(1), orderId -> {
+                        SalesRollupOrder created = new SalesRollupOrder();
+                        created.setOrderId(orderId);
+                        return created;
+                    });
+                    contribution.setSalesDate(resultSet.getDate(2).toLocalDate());
+                    long productId = resultSet.getLong(3);
+                    boolean hasProduct = !resultSet.wasNull();
+                    BigDecimal revenue = resultSet.getBigDecimal(5);
+                    if (revenue != null) {
+                        contribution.setRevenue(contribution.getRevenue().add(revenue));
+                    }
+                    if (hasProduct) {
+                        contribution.getLines().add(new SalesRollupLine(productId, resultSet.getLong(4),
+                                revenue != null ? revenue : BigDecimal.ZERO));
+                    }
+                }
+            }
+        }
+
+        if (shard && !pending.isEmpty()) {
+            pending.keySet().removeAll(namedJdbcTemplate.queryForList(
+                    "SELECT order_id FROM sales_rollup_orders WHERE order_id IN (:ids)",
+                    new MapSqlParameterSource("ids", pending.keySet()), Long.class));
+        }
+
+        long[] totals = new long[3];
+        List<SalesRollupOrder> contributions = new ArrayList<>(pending.values());
+        for (int from = 0; from < contributions.size(); from += batchSize) {
+            List<SalesRollupOrder> batch = contributions.subList(from, Math.min(from + batchSize, contributions.size()));
+            totals[1]++;
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    ensureRows(batch);
+                    insertMarkers(batch);
+                    applyDeltas(batch, 1);
+                });
+                totals[0] += batch.size();
+            } catch (DataAccessException e) {
+                totals[2]++;
+                log.warn("Falha ao somar o lote de {} pedidos da faixa {}..{}", batch.size(), fromId, toId, e);
+            }
+        }
+        return totals;
+    }
+
+    private SalesRollupOrder contributionOf(OrderEvent event) {
+        SalesRollupOrder contribution = new SalesRollupOrder();
+        contribution.setOrderId(event.getOrderId());
+        contribution.setSalesDate(orderDate(event));
+
+        Map<Long, SalesRollupLine> lines = new TreeMap<>();
+        for (OrderEvent.Item item : event.getItems()) {
+            long quantity = item.getQuantity() != null ? item.getQuantity() : 0;
+            BigDecimal unitPrice = item.getUnitPrice() != null ? item.getUnitPrice() : BigDecimal.ZERO;
+            BigDecimal revenue = unitPrice.multiply(BigDecimal.valueOf(quantity));
+            contribution.setRevenue(contribution.getRevenue().add(revenue));
+            if (item.getProductId() != null) {
+                lines.merge(item.getProductId(), new SalesRollupLine(item.getProductId(), quantity, revenue),
+                        (a, b) -> new SalesRollupLine(a.getProductId(), a.getUnits() + b.getUnits(),
+                                a.getRevenue().add(b.getRevenue())));
+            }
+        }
+        contribution.setLines(new ArrayList<>(lines.values()));
+        return contribution;
+    }
+
+    /**
+     * Dia do pedido, que é o dia em que a venda é contabilizada.
+     */
+    private LocalDate orderDate(OrderEvent event) {
+        Order order = orderService.findOrderById(event.getOrderId())
+                .orElseThrow(() -> new IllegalArgumentException("Pedido não encontrado"));
+        if (order.getOrderDate() != null) {
+            return order.getOrderDate().toLocalDate();
+        }
+        return event.getOccurredAt().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    private Optional<SalesRollupOrder> findMarker(Long orderId) {
+        List<SalesRollupOrder> markers = jdbcTemplate.query(
+                "SELECT sales_date, revenue, cancelled, lines FROM sales_rollup_orders WHERE order_id = ?",
+                (resultSet, row) -> {
+                    SalesRollupOrder marker = new SalesRollupOrder();
+                    marker.setOrderId(orderId);
+                    Date salesDate = resultSet.getDate(1);
+                    marker.setSalesDate(salesDate != null ? salesDate.toLocalDate() : null);
+                    marker.setRevenue(resultSet.getBigDecimal(2));
+                    marker.setCancelled(resultSet.getBoolean(3));
+                    marker.setLines(LINES.convertToEntityAttribute(resultSet.getString(4)));
+                    return marker;
+                },
+                orderId);
+        return markers.stream().findFirst();
+    }
+
+    private void insertMarkers(List<SalesRollupOrder> markers) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO sales_rollup_orders (order_id, sales_date, revenue, cancelled, lines) VALUES (?, ?, ?, ?, ?)",
+                markers, markers.size(), (statement, marker) -> {
+                    statement.setLong(1, marker.getOrderId());
+                    statement.setDate(2, marker.getSalesDate() != null ? Date.valueOf(marker.getSalesDate()) : null);
+                    statement.setBigDecimal(3, marker.getRevenue());
+                    statement.setBoolean(4, marker.isCancelled());
+                    statement.setString(5, LINES.convertToDatabaseColumn(marker.getLines()));
+                });
+    }
+
+    private void updateMarker(SalesRollupOrder marker) {
+        jdbcTemplate.update(
+                "UPDATE sales_rollup_orders SET sales_date = ?, revenue = ?, cancelled = ?, lines = ? WHERE order_id = ?",
+                marker.getSalesDate() != null ? Date.valueOf(marker.getSalesDate()) : null, marker.getRevenue(),
+                marker.isCancelled(), LINES.convertToDatabaseColumn(marker.getLines()), marker.getOrderId());
+    }
+
+    /**
+     * Cria zeradas as linhas de total que ainda não existem. A criação é confirmada em transações
+     * próprias para que a transação do pedido só precise de incrementos, que não conflitam entre si.
+     */
+    private void ensureRows(List<SalesRollupOrder> contributions) {
+        Set<Long> products = new HashSet<>();
+        Map<LocalDate, Set<Long>> wanted = new TreeMap<>();
+        for (SalesRollupOrder contribution : contributions) {
+            Set<Long> dayProducts = wanted.computeIfAbsent(contribution.getSalesDate(), day -> new TreeSet<>());
+            for (SalesRollupLine line : contribution.getLines()) {
+                products.add(line.getProductId());
+                dayProducts.add(line.getProductId());
+            }
+        }
+
+        MapSqlParameterSource parameters = new MapSqlParameterSource("days", toSqlDates(wanted.keySet()));
+        Set<LocalDate> existingDays = new HashSet<>(namedJdbcTemplate.query(
+                "SELECT sales_date FROM daily_sales WHERE sales_date IN (:days)", parameters,
+                (resultSet, row) -> resultSet.getDate(1).toLocalDate()));
+        Map<LocalDate, Set<Long>> existingProducts = new HashMap<>();
+        if (!products.isEmpty()) {
+            parameters.addValue("products", products);
+            namedJdbcTemplate.query(
+                    "SELECT sales_date, product_id FROM daily_product_sales "
+                            + "WHERE sales_date IN (:days) AND product_id IN (:products)", parameters,
+                    resultSet -> {
+                        existingProducts.computeIfAbsent(resultSet.getDate(1).toLocalDate(), day -> new HashSet<>())
+                                .add(resultSet.getLong(2));
+                    });
+        }
+
+        List<Object[]> missingDays = new ArrayList<>();
+        List<Object[]> missingProducts = new ArrayList<>();
+        wanted.forEach((day, dayProducts) -> {
+            if (!existingDays.contains(day)) {
+                missingDays.add(new Object[]{Date.valueOf(day)});
+            }
+            Set<Long> existing = existingProducts.getOrDefault(day, Collections.emptySet());
+            for (Long productId : dayProducts) {
+                if (!existing.contains(productId)) {
+                    missingProducts.add(new Object[]{Date.valueOf(day), productId});
+                }
+            }
+        });
+
+        insertMissing("INSERT INTO daily_sales (sales_date, order_count, revenue) VALUES (?, 0, 0)", missingDays);
+        insertMissing("INSERT INTO daily_product_sales (sales_date, product_id, units, revenue, order_count) "
+                + "VALUES (?, ?, 0, 0, 0)", missingProducts);
+    }
+
+    private void insertMissing(String sql, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            newTransactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, rows));
+        } catch (DuplicateKeyException e) {
+            // Outra transação criou alguma das linhas ao mesmo tempo; cria as restantes uma a uma
+            for (Object[] row : rows) {
+                try {
+                    newTransactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(sql, row));
+                } catch (DuplicateKeyException ignored) {
+                    // Linha já existe
+                }
+            }
+        }
+    }
+
+    /**
+     * Soma ({@code sign = 1}) ou subtrai ({@code sign = -1}) as contribuições dos totais,
+     * percorrendo as chaves em ordem crescente.
+     */
+    private void applyDeltas(List<SalesRollupOrder> contributions, int sign) {
+        Map<LocalDate, Delta> dayDeltas = new TreeMap<>();
+        Map<LocalDate, Map<Long, Delta>> productDeltas = new TreeMap<>();
+        for (SalesRollupOrder contribution : contributions) {
+            dayDeltas.computeIfAbsent(contribution.getSalesDate(), day -> new Delta())
+                    .add(0, contribution.getRevenue());
+            Map<Long, Delta> dayProducts = productDeltas.computeIfAbsent(contribution.getSalesDate(), day -> new TreeMap<>());
+            for (SalesRollupLine line : contribution.getLines()) {
+                dayProducts.computeIfAbsent(line.getProductId(), productId -> new Delta())
+                        .add(line.getUnits(), line.getRevenue());
+            }
+        }
+
+        BigDecimal signum = BigDecimal.valueOf(sign);
+        List<Object[]> dayUpdates = new ArrayList<>();
+        dayDeltas.forEach((day, delta) -> dayUpdates.add(new Object[]{
+                sign * delta.orders, delta.revenue.multiply(signum), Date.valueOf(day)}));
+        jdbcTemplate.batchUpdate(
+                "UPDATE daily_sales SET order_count = order_count + ?, revenue = revenue + ? WHERE sales_date = ?",
+                dayUpdates);
+
+        List<Object[]> productUpdates = new ArrayList<>();
+        productDeltas.forEach((day, dayProducts) -> dayProducts.forEach((productId, delta) ->
+                productUpdates.add(new Object[]{
+                        sign * delta.units, delta.revenue.multiply(signum), sign * delta.orders,
+                        Date.valueOf(day), productId})));
+        jdbcTemplate.batchUpdate(
+                "UPDATE daily_product_sales SET units = units + ?, revenue = revenue + ?, order_count = order_count + ? "
+                        + "WHERE sales_date = ? AND product_id = ?",
+                productUpdates);
+    }
+
+    private static List<Date> toSqlDates(Set<LocalDate> days) {
+        List<Date> dates = new ArrayList<>();
+        days.forEach(day -> dates.add(Date.valueOf(day)));
+        return dates;
+    }
+
+    private static void validatePeriod(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Data inicial posterior à data final");
+        }
+    }
+
+
+    /**
+     * Variação acumulada de uma linha de total.
+     */
+    private static final class Delta {
+        private long orders;
+        private long units;
+        private BigDecimal revenue = BigDecimal.ZERO;
+
+        void add(long units, BigDecimal revenue) {
+            this.orders++;
+            this.units += units;
+            this.revenue = this.revenue.add(revenue);
+        }
+    }
+
+}
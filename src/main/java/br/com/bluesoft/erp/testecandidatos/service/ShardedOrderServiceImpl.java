@@ -0,0 +1,238 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import br.com.bluesoft.erp.testecandidatos.dto.OrderResponse;
+import br.com.bluesoft.erp.testecandidatos.dto.OrderSummaryResponse;
+import br.com.bluesoft.erp.testecandidatos.event.OrderEvent;
+import br.com.bluesoft.erp.testecandidatos.model.Customer;
+import br.com.bluesoft.erp.testecandidatos.model.Order;
+import br.com.bluesoft.erp.testecandidatos.model.OrderItem;
+import br.com.bluesoft.erp.testecandidatos.model.Product;
+import br.com.bluesoft.erp.testecandidatos.model.Status;
+import br.com.bluesoft.erp.testecandidatos.repository.CustomerRepository;
+import br.com.bluesoft.erp.testecandidatos.repository.ProductRepository;
+import br.com.bluesoft.erp.testecandidatos.sharding.ShardedOrderStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Implementação do serviço de pedidos sobre shards por cliente.
+ * <p>
+ * Pedidos e itens ficam no {@link ShardedOrderStore}; clientes e produtos continuam no banco
+ * principal e são carregados para completar os pedidos devolvidos. A gravação no shard é
+ * confirmada antes da transação principal, que só publica os eventos do pedido.
+ */
+@Service
+@ConditionalOnProperty(name = "orders.sharding.enabled", havingValue = "true")
+public class ShardedOrderServiceImpl implements OrderService {
+
+    private final ShardedOrderStore orderStore;
+    private final CustomerRepository customerRepository;
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public ShardedOrderServiceImpl(ShardedOrderStore orderStore,
+                                   CustomerRepository customerRepository,
+                                   ProductRepository productRepository,
+                                   ApplicationEventPublisher eventPublisher) {
+        this.orderStore = orderStore;
+        this.customerRepository = customerRepository;
+        this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    @Transactional
+    public Order createOrder(Long customerId, List<OrderItem> items) {
+        Optional<Customer> customerOpt = customerRepository.findById(customerId);
+        if (!customerOpt.isPresent()) {
+            throw new IllegalArgumentException("Cliente não encontrado");
+        }
+
+        Order order = new Order();
+        order.setCustomer(customerOpt.get());
+        order.setOrderDate(LocalDateTime.now());
+        order.setItems(items != null ? new ArrayList<>(items) : new ArrayList<>());
+        orderStore.insertOrder(order);
+
+        eventPublisher.publishEvent(OrderEvent.of(OrderEvent.Type.CRIADO, order, items));
+
+        return order;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Order> findOrderById(Long id) {
+        return orderStore.findById(id).map(this::hydrate);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Order> findOrderByNumber(String orderNumber) {
+        return orderStore.findByNumber(orderNumber).map(this::hydrate);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Order> findAllOrders() {
+        return hydrate(orderStore.findAll());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Order> findOrdersByCustomerId(Long customerId) {
+        return hydrate(orderStore.findByCustomerId(customerId));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void addItemToOrder(Long orderId, OrderItem item) {
+        Order order = requireOrder(orderId);
+
+        orderStore.insertItem(order, item);
+
+        eventPublisher.publishEvent(
+                OrderEvent.of(OrderEvent.Type.ITEM_ADICIONADO, order, Collections.singletonList(item)));
+    }
+
+    @Override
+    @Transactional
+    public void removeItemFromOrder(Long orderId, Long itemId) {
+        Order order = requireOrder(orderId);
+
+        OrderItem itemToRemove = null;
+        for (OrderItem item : order.getItems()) {
+            if (item.getId().equals(itemId)) {
+                itemToRemove = item;
+                break;
+            }
+        }
+
+        if (itemToRemove != null && orderStore.deleteItem(orderId, itemId)) {
+            eventPublisher.publishEvent(
+                    OrderEvent.of(OrderEvent.Type.ITEM_REMOVIDO, order, Collections.singletonList(itemToRemove)));
+        }
+    }
+
+    @Override
+    @Transactional
+    public void updateOrderItem(Long orderId, OrderItem item) {
+        Order order = requireOrder(orderId);
+
+        orderStore.updateItem(order, item);
+
+        eventPublisher.publishEvent(
+                OrderEvent.of(OrderEvent.Type.ITEM_ATUALIZADO, order, Collections.singletonList(item)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BigDecimal calculateOrderTotal(Long orderId) {
+        return requireOrder(orderId).calculateTotal();
+    }
+
+    @Override
+    @Transactional
+    public void finalizeOrder(Long orderId) {
+        Order order = requireOrder(orderId);
+
+        order.setTotalAmount(order.calculateTotal());
+        order.setStatus(Status.FINALIZADO);
+        orderStore.updateOrder(order);
+
+        eventPublisher.publishEvent(OrderEvent.of(OrderEvent.Type.FINALIZADO, order));
+    }
+
+    @Override
+    @Transactional
+    public void cancelOrder(Long orderId) {
+        Order order = requireOrder(orderId);
+
+        order.cancelOrder();
+        orderStore.updateOrder(order);
+
+        eventPublisher.publishEvent(OrderEvent.of(OrderEvent.Type.CANCELADO, order));
+    }
+
+    // Os pedidos não estão no banco principal; as respostas são montadas dos pedidos lidos dos shards
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrderSummaryResponse> findOrderSummaries() {
+        return findAllOrders().stream().map(ShardedOrderServiceImpl::summaryOf).collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrderSummaryResponse> findOrderSummariesByCustomerId(Long customerId) {
+        return findOrdersByCustomerId(customerId).stream()
+                .map(ShardedOrderServiceImpl::summaryOf)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<OrderResponse> findOrderDetails(Long id) {
+        return findOrderById(id).map(OrderResponse::of);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<OrderResponse> findOrderDetailsByNumber(String orderNumber) {
+        return findOrderByNumber(orderNumber).map(OrderResponse::of);
+    }
+
+    private static OrderSummaryResponse summaryOf(Order order) {
+        Customer customer = order.getCustomer();
+        return new OrderSummaryResponse(order.getId(), order.getOrderNumber(), order.getOrderDate(),
+                order.getStatus(), order.getTotalAmount(),
+                customer != null ? customer.getId() : null,
+                customer != null ? customer.getName() : null,
+                order.getItems().size());
+    }
+
+    private Order requireOrder(Long orderId) {
+        return findOrderById(orderId)
+                .orElseThrow(() -> new IllegalArgumentException("Pedido não encontrado"));
+    }
+
+    private Order hydrate(Order order) {
+        return hydrate(Collections.singletonList(order)).get(0);
+    }
+
+    /**
+     * Substitui as referências por id de cliente e produto pelas entidades do banco principal,
+     * carregando cada uma apenas uma vez.
+     */
+    private List<Order> hydrate(List<Order> orders) {
+        Map<Long, Customer> customers = new HashMap<>();
+        Map<Long, Product> products = new HashMap<>();
+        for (Order order : orders) {
+            Customer reference = order.getCustomer();
+            order.setCustomer(customers.computeIfAbsent(reference.getId(),
+                    id -> customerRepository.findById(id).orElse(reference)));
+            for (OrderItem item : order.getItems()) {
+                Product product = item.getProduct();
+                if (product != null) {
+                    item.setProduct(products.computeIfAbsent(product.getId(),
+                            id -> productRepository.findById(id).orElse(product)));
+                }
+            }
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,363 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import br.com.bluesoft.erp.testecandidatos.event.ProductChangedEvent;
+import br.com.bluesoft.erp.testecandidatos.model.Product;
+import br.com.bluesoft.erp.testecandidatos.stock.StockDeltaJournal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Buffer de escrita adiada ("write-behind") para deltas de estoque.
+ * <p>
+ * Os deltas são gravados em um diário local e acumulados em contadores por produto; a cada
+ * intervalo configurado, ou ao atingir a quantidade máxima de deltas pendentes, são aplicados
+ * em um único {@code UPDATE} em lote. A geração do diário aplicada é registrada na mesma
+ * transação, e as gerações ainda não aplicadas são reproduzidas na inicialização.
+ * <p>
+ * Leituras feitas por {@link #withPendingStock(Supplier)} somam os deltas pendentes ao estoque
+ * lido do banco, garantindo que o chamador veja as próprias escritas.
+ */
+@Component
+public class StockDeltaBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(StockDeltaBuffer.class);
+
+    private static final long CHECKPOINT_ID = 1L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final int maxPendingDeltas;
+    private final String journalPath;
+    private final boolean journalFsync;
+
+    private final ConcurrentHashMap<Long, LongAdder> pending = new ConcurrentHashMap<>();
+    private final AtomicLong pendingDeltas = new AtomicLong();
+    private volatile Map<Long, Long> inFlight = Collections.emptyMap();
+
+    // Leitura: acréscimo de deltas; escrita: troca dos contadores e rotação do diário
+    private final ReentrantReadWriteLock appendLock = new ReentrantReadWriteLock();
+    // Leitura: leituras com os deltas pendentes; escrita: descarga até o commit
+    private final ReentrantReadWriteLock flushLock = new ReentrantReadWriteLock();
+    private final ReentrantLock flushing = new ReentrantLock();
+
+    private final Counter flushedDeltas;
+    private final Timer flushTimer;
+
+    private StockDeltaJournal journal;
+
+    @Autowired
+    public StockDeltaBuffer(DataSource dataSource,
+                            PlatformTransactionManager transactionManager,
+                            ApplicationEventPublisher eventPublisher,
+                            MeterRegistry meterRegistry,
+                            @Value("${stock.write-behind.enabled:false}") boolean enabled,
+                            @Value("${stock.write-behind.max-pending-deltas:1000}") int maxPendingDeltas,
+                            @Value("${stock.write-behind.journal:data/stock-deltas.journal}") String journalPath,
+                            @Value("${stock.write-behind.journal-fsync:false}") boolean journalFsync) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // A descarga não pode participar da transação de quem disparou o lote
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.maxPendingDeltas = maxPendingDeltas;
+        this.journalPath = journalPath;
+        this.journalFsync = journalFsync;
+
+        this.flushedDeltas = Counter.builder("stock.write-behind.flushed").register(meterRegistry);
+        this.flushTimer = Timer.builder("stock.write-behind.flush").register(meterRegistry);
+        meterRegistry.gauge("stock.write-behind.pending", pendingDeltas, AtomicLong::get);
+    }
+
+    /**
+     * Reproduz as gerações do diário ainda não aplicadas e as descarrega no banco.
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        journal = new StockDeltaJournal(Paths.get(journalPath), journalFsync);
+        long checkpoint = readCheckpoint();
+        List<Long> generations = journal.generations();
+
+        int replayed = 0;
+        for (Long generation : generations) {
+            if (generation > checkpoint) {
+                replayed += journal.replay(generation, this::accumulate);
+            }
+        }
+        long last = generations.isEmpty() ? checkpoint : Math.max(checkpoint, generations.get(generations.size() - 1));
+        journal.open(last + 1);
+        if (replayed > 0) {
+            log.info("{} deltas de estoque reproduzidos do diário {}", replayed, journalPath);
+        }
+        flush();
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (journal != null) {
+            flush();
+            journal.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Registra um delta de estoque. O delta fica durável no diário antes de ser acumulado.
+     */
+    public void add(long productId, int delta) {
+        if (!enabled) {
+            throw new IllegalStateException("Escrita adiada de estoque desativada");
+        }
+        appendLock.readLock().lock();
+        try {
+            journal.append(productId, delta);
+            accumulate(productId, delta);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar o diário de estoque", e);
+        } finally {
+            appendLock.readLock().unlock();
+        }
+        if (pendingDeltas.get() >= maxPendingDeltas) {
+            flushIfIdle();
+        }
+    }
+
+    /**
+     * Executa a leitura do produto e soma ao estoque os deltas ainda não gravados,
+     * sem que uma descarga concorrente faça o delta ser contado duas vezes ou nenhuma.
+     *
+     * @return uma cópia do produto com o estoque projetado
+     */
+    public Optional<Product> withPendingStock(Supplier<Optional<Product>> loader) {
+        flushLock.readLock().lock();
+        try {
+            return loader.get().map(product -> {
+                long delta = pendingDelta(product.getId());
+                if (delta == 0) {
+                    return product;
+                }
+                Product copy = copyOf(product);
+                long stock = (product.getStock() == null ? 0 : product.getStock()) + delta;
+                copy.setStock((int) stock);
+                return copy;
+            });
+        } finally {
+            flushLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Garante que os deltas do produto, pendentes ou em descarga, estejam no banco antes de uma gravação
+     * absoluta do estoque; do contrário seriam somados ao novo valor na próxima descarga. O chamador deve
+     * ter a trava do produto, para que nenhum delta novo chegue depois da descarga.
+     *
+     * @throws IllegalStateException se a descarga falhar e os deltas continuarem pendentes
+     */
+    public void flushProduct(long productId) {
+        if (!enabled || pendingDelta(productId) == 0) {
+            return;
+        }
+        // Espera uma descarga em andamento e descarrega o restante
+        flush();
+        if (pendingDelta(productId) != 0) {
+            throw new IllegalStateException("Deltas de estoque do produto " + productId
+                    + " não puderam ser descarregados");
+        }
+    }
+
+    public long getPendingDeltas() {
+        return pendingDeltas.get();
+    }
+
+    @Scheduled(fixedDelayString = "${stock.write-behind.flush-interval-ms:200}")
+    public void scheduledFlush() {
+        if (enabled) {
+            flush();
+        }
+    }
+
+    /**
+     * Aplica no banco, em um único lote, todos os deltas acumulados.
+     *
+     * @return a quantidade de produtos atualizados
+     */
+    public int flush() {
+        flushing.lock();
+        try {
+            return doFlush();
+        } finally {
+            flushing.unlock();
+        }
+    }
+
+    private void flushIfIdle() {
+        if (flushing.tryLock()) {
+            try {
+                doFlush();
+            } finally {
+                flushing.unlock();
+            }
+        }
+    }
+
+    private int doFlush() {
+        if (pendingDeltas.get() == 0) {
+            return 0;
+        }
+        Timer.Sample sample = Timer.start();
+        flushLock.writeLock().lock();
+        try {
+            Map<Long, Long> batch = new HashMap<>();
+            long deltaCount;
+            long generation;
+            appendLock.writeLock().lock();
+            try {
+                generation = journal.rotate();
+                pending.forEach((productId, adder) -> {
+                    long sum = adder.sum();
+                    if (sum != 0) {
+                        batch.put(productId, sum);
+                    }
+                });
+                pending.clear();
+                deltaCount = pendingDeltas.getAndSet(0);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Falha ao rotacionar o diário de estoque", e);
+            } finally {
+                appendLock.writeLock().unlock();
+            }
+
+            inFlight = batch;
+            try {
+                apply(batch, generation);
+            } catch (RuntimeException e) {
+                // A geração fica em disco e os deltas voltam a ser pendentes para a próxima descarga
+                log.warn("Falha ao descarregar {} deltas de estoque", deltaCount, e);
+                restore(batch, deltaCount);
+                return 0;
+            } finally {
+                inFlight = Collections.emptyMap();
+            }
+
+            flushedDeltas.increment(deltaCount);
+            deleteJournalUpTo(generation);
+            batch.keySet().forEach(productId ->
+                    eventPublisher.publishEvent(new ProductChangedEvent(ProductChangedEvent.Type.SALVO, productId)));
+            return batch.size();
+        } finally {
+            flushLock.writeLock().unlock();
+            sample.stop(flushTimer);
+        }
+    }
+
+    private void apply(Map<Long, Long> batch, long generation) {
+        List<Object[]> updates = new ArrayList<>(batch.size());
+        batch.forEach((productId, delta) -> updates.add(new Object[]{delta, productId}));
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!updates.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE products SET stock = COALESCE(stock, 0) + ?, change_seq = NULL, "
+                        + "last_modified = LOCALTIMESTAMP WHERE id = ?", updates);
+            }
+            writeCheckpoint(generation);
+        });
+    }
+
+    private void restore(Map<Long, Long> batch, long deltaCount) {
+        batch.forEach((productId, delta) -> pending.computeIfAbsent(productId, id -> new LongAdder()).add(delta));
+        pendingDeltas.addAndGet(deltaCount);
+    }
+
+    private void accumulate(long productId, int delta) {
+        pending.computeIfAbsent(productId, id -> new LongAdder()).add(delta);
+        pendingDeltas.incrementAndGet();
+    }
+
+    private long pendingDelta(Long productId) {
+        LongAdder adder = pending.get(productId);
+        long delta = adder == null ? 0 : adder.sum();
+        Long flushingDelta = inFlight.get(productId);
+        return flushingDelta == null ? delta : delta + flushingDelta;
+    }
+
+    private long readCheckpoint() {
+        List<Long> generations = jdbcTemplate.queryForList(
+                "SELECT generation FROM stock_journal_checkpoints WHERE id = ?", Long.class, CHECKPOINT_ID);
+        return generations.isEmpty() ? 0 : generations.get(0);
+    }
+
+    private void writeCheckpoint(long generation) {
+        Timestamp now = Timestamp.from(Instant.now());
+        int updated = jdbcTemplate.update(
+                "UPDATE stock_journal_checkpoints SET generation = ?, updated_at = ? WHERE id = ?",
+                generation, now, CHECKPOINT_ID);
+        if (updated == 0) {
+            jdbcTemplate.update(
+                    "INSERT INTO stock_journal_checkpoints (id, generation, updated_at) VALUES (?, ?, ?)",
+                    CHECKPOINT_ID, generation, now);
+        }
+    }
+
+    private void deleteJournalUpTo(long generation) {
+        try {
+            journal.deleteUpTo(generation);
+        } catch (IOException e) {
+            // Gerações já aplicadas são ignoradas na reprodução, então basta tentar de novo depois
+            log.warn("Falha ao remover gerações antigas do diário de estoque", e);
+        }
+    }
+
+    private static Product copyOf(Product product) {
+        Product copy = new Product();
+        copy.setId(product.getId());
+        copy.setName(product.getName());
+        copy.setDescription(product.getDescription());
+        copy.setPrice(product.getPrice());
+        copy.setStock(product.getStock());
+        copy.setSku(product.getSku());
+        copy.setReorderThreshold(product.getReorderThreshold());
+        copy.setChangeSequence(product.getChangeSequence());
+        copy.setLastModified(product.getLastModified());
+        return copy;
+    }
+}
@@ -0,0 +1,72 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import br.com.bluesoft.erp.testecandidatos.event.OrderEvent;
+import br.com.bluesoft.erp.testecandidatos.model.TopSeller;
+import br.com.bluesoft.erp.testecandidatos.sketch.SlidingTopK;
+import br.com.bluesoft.erp.testecandidatos.sketch.SpaceSaving;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Acompanha os produtos mais vendidos na janela recente a partir dos itens dos pedidos finalizados.
+ * <p>
+ * Os itens entram em um {@link SlidingTopK} em memória depois do commit da finalização, então a consulta
+ * não toca o banco e a memória não cresce com a quantidade de produtos ou de pedidos. Cancelamentos
+ * posteriores não são descontados. Cada instância conta apenas os pedidos finalizados por ela.
+ */
+@Component
+public class TopSellerTracker {
+
+    private final SlidingTopK topK;
+    private final Clock clock;
+
+    @Autowired
+    public TopSellerTracker(@Value("${products.top-sellers.capacity:256}") int capacity,
+                            @Value("${products.top-sellers.bucket-seconds:300}") long bucketSeconds,
+                            @Value("${products.top-sellers.buckets:12}") int buckets) {
+        this(capacity, bucketSeconds, buckets, Clock.systemUTC());
+    }
+
+    TopSellerTracker(int capacity, long bucketSeconds, int buckets, Clock clock) {
+        this.topK = new SlidingTopK(capacity, Duration.ofSeconds(bucketSeconds), buckets);
+        this.clock = clock;
+    }
+
+    @TransactionalEventListener
+    public void onOrderEvent(OrderEvent event) {
+        if (event.getType() != OrderEvent.Type.FINALIZADO) {
+            return;
+        }
+        long timestamp = event.getOccurredAt() != null ? event.getOccurredAt().toEpochMilli() : clock.millis();
+        for (OrderEvent.Item item : event.getItems()) {
+            if (item.getProductId() != null && item.getQuantity() != null) {
+                topK.offer(item.getProductId(), item.getQuantity(), timestamp);
+            }
+        }
+    }
+
+    public Duration getWindow() {
+        return topK.getWindow();
+    }
+
+    /**
+     * Os {@code limit} produtos com mais unidades vendidas na janela, sem nome e SKU.
+     */
+    public List<TopSeller> topSellers(int limit) {
+        if (limit < 1 || limit > topK.getCapacity()) {
+            throw new IllegalArgumentException("Limite deve estar entre 1 e " + topK.getCapacity());
+        }
+        List<TopSeller> sellers = new ArrayList<>(limit);
+        for (SpaceSaving.Entry entry : topK.top(limit, clock.millis())) {
+            sellers.add(new TopSeller(entry.getItem(), null, null, entry.getCount(), entry.getError()));
+        }
+        return sellers;
+    }
+}
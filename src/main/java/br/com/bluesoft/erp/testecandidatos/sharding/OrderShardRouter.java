@@ -0,0 +1,87 @@
+package br.com.bluesoft.erp.testecandidatos.sharding;
+
+import java.util.OptionalInt;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Decide em qual shard fica cada pedido.
+ * <p>
+ * O shard é escolhido pelo hash do id do cliente, de modo que todos os pedidos de um cliente
+ * ficam juntos. O shard também é codificado nos bits menos significativos dos ids de pedido e
+ * de item e no número do pedido ({@code ORD-<shard>-<sequência>}), então buscas por id ou por
+ * número vão direto ao shard certo. Como os ids carregam o shard físico, a quantidade de shards
+ * não pode mudar depois que houver dados sem uma migração.
+ */
+public class OrderShardRouter {
+
+    static final int SHARD_BITS = 10;
+    public static final int MAX_SHARDS = 1 << SHARD_BITS;
+
+    // O shard tem ao menos três dígitos e chega a quatro a partir do shard 1000
+    private static final Pattern ORDER_NUMBER = Pattern.compile("ORD-(\\d{3,4})-(\\d+)");
+
+    private final int shardCount;
+
+    public OrderShardRouter(int shardCount) {
+        if (shardCount < 1 || shardCount > MAX_SHARDS) {
+            throw new IllegalArgumentException("Quantidade de shards deve estar entre 1 e " + MAX_SHARDS);
+        }
+        this.shardCount = shardCount;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public int shardForCustomer(Long customerId) {
+        return Math.floorMod(mix(customerId), shardCount);
+    }
+
+    /**
+     * Compõe o id global a partir do id local do shard.
+     */
+    public long globalId(int shard, long localId) {
+        return (localId << SHARD_BITS) | shard;
+    }
+
+    /**
+     * Shard codificado no id, ou vazio se o id não pertence a nenhum shard conhecido.
+     */
+    public OptionalInt shardOfId(Long id) {
+        if (id == null || id < 0) {
+            return OptionalInt.empty();
+        }
+        int shard = (int) (id & (MAX_SHARDS - 1));
+        return shard < shardCount ? OptionalInt.of(shard) : OptionalInt.empty();
+    }
+
+    public String orderNumber(long orderId) {
+        return String.format("ORD-%03d-%d", orderId & (MAX_SHARDS - 1), orderId >>> SHARD_BITS);
+    }
+
+    /**
+     * Shard codificado no número do pedido, ou vazio se o número não segue o formato dos shards.
+     */
+    public OptionalInt shardOfOrderNumber(String orderNumber) {
+        if (orderNumber == null) {
+            return OptionalInt.empty();
+        }
+        Matcher matcher = ORDER_NUMBER.matcher(orderNumber);
+        if (!matcher.matches()) {
+            return OptionalInt.empty();
+        }
+        int shard = Integer.parseInt(matcher.group(1));
+        return shard < shardCount ? OptionalInt.of(shard) : OptionalInt.empty();
+    }
+
+    // Finalizador do MurmurHash3: ids sequenciais se espalham de forma uniforme entre os shards
+    private static int mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return (int) value;
+    }
+}
@@ -0,0 +1,343 @@
+package br.com.bluesoft.erp.testecandidatos.sharding;
+
+import br.com.bluesoft.erp.testecandidatos.model.Customer;
+import br.com.bluesoft.erp.testecandidatos.model.Order;
+import br.com.bluesoft.erp.testecandidatos.model.OrderItem;
+import br.com.bluesoft.erp.testecandidatos.model.Product;
+import br.com.bluesoft.erp.testecandidatos.model.Status;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Persistência de pedidos e itens distribuída em N bancos.
+ * <p>
+ * Cada shard tem suas próprias tabelas {@code orders} e {@code order_items}; clientes e produtos
+ * continuam no banco principal e são referenciados apenas pelo id. As consultas por cliente, id
+ * ou número vão a um único shard; a listagem geral, e a busca por um número fora do formato dos
+ * shards, consultam todos os shards em paralelo e juntam os resultados.
+ * <p>
+ * Os pedidos devolvidos trazem cliente e produtos apenas com o id preenchido. Relatórios que agregam
+ * direto em SQL leem cada shard por {@link #getShards()}; como os ids de um shard são espaçados de
+ * {@link #getIdStride()}, as faixas de id devem ser medidas nessa unidade.
+ */
+public class ShardedOrderStore implements AutoCloseable {
+
+    private static final String[] SCHEMA = {
+            "CREATE SEQUENCE IF NOT EXISTS order_seq",
+            "CREATE SEQUENCE IF NOT EXISTS order_item_seq",
+            "CREATE TABLE IF NOT EXISTS orders (id BIGINT PRIMARY KEY, order_number VARCHAR(40) NOT NULL UNIQUE, "
+                    + "order_date TIMESTAMP, customer_id BIGINT NOT NULL, status VARCHAR(20), total_amount DECIMAL(19, 2))",
+            "CREATE INDEX IF NOT EXISTS idx_orders_customer ON orders (customer_id)",
+            "CREATE TABLE IF NOT EXISTS order_items (id BIGINT PRIMARY KEY, order_id BIGINT NOT NULL, "
+                    + "product_id BIGINT, quantity INT NOT NULL, unit_price DECIMAL(19, 2), subtotal DECIMAL(19, 2))",
+            "CREATE INDEX IF NOT EXISTS idx_order_items_order ON order_items (order_id)"
+    };
+
+    private static final String ORDER_COLUMNS =
+            "o.id, o.order_number, o.order_date, o.customer_id, o.status, o.total_amount";
+    private static final String ITEM_COLUMNS =
+            "i.id, i.order_id, i.product_id, i.quantity, i.unit_price, i.subtotal";
+
+    private final List<DataSource> shards;
+    private final OrderShardRouter router;
+    private final List<JdbcTemplate> jdbcTemplates = new ArrayList<>();
+    private final List<TransactionTemplate> transactionTemplates = new ArrayList<>();
+    private final List<TransactionTemplate> readOnlyTemplates = new ArrayList<>();
+    private final ExecutorService scatterExecutor;
+
+    public ShardedOrderStore(List<DataSource> shards) {
+        this.shards = new ArrayList<>(shards);
+        this.router = new OrderShardRouter(shards.size());
+
+        for (DataSource shard : shards) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(shard);
+            for (String statement : SCHEMA) {
+                jdbcTemplate.execute(statement);
+            }
+            DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(shard);
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+
+            jdbcTemplates.add(jdbcTemplate);
+            transactionTemplates.add(new TransactionTemplate(transactionManager));
+            readOnlyTemplates.add(readOnly);
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.scatterExecutor = Executors.newFixedThreadPool(shards.size(), runnable -> {
+            Thread thread = new Thread(runnable, "order-shard-scatter-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public OrderShardRouter getRouter() {
+        return router;
+    }
+
+    /**
+     * Bancos dos shards, na ordem do número do shard.
+     */
+    public List<DataSource> getShards() {
+        return Collections.unmodifiableList(shards);
+    }
+
+    /**
+     * Distância entre ids consecutivos de pedidos e itens dentro de um mesmo shard.
+     */
+    public long getIdStride() {
+        return OrderShardRouter.MAX_SHARDS;
+    }
+
+    /**
+     * Grava o pedido e seus itens no shard do cliente, preenchendo ids e número do pedido.
+     */
+    public Order insertOrder(Order order) {
+        int shard = router.shardForCustomer(order.getCustomer().getId());
+        JdbcTemplate jdbcTemplate = jdbcTemplates.get(shard);
+        transactionTemplates.get(shard).executeWithoutResult(status -> {
+            long orderId = router.globalId(shard, nextValue(jdbcTemplate, "order_seq"));
+            order.setId(orderId);
+            order.setOrderNumber(router.orderNumber(orderId));
+            jdbcTemplate.update("INSERT INTO orders (id, order_number, order_date, customer_id, status, total_amount) "
+                            + "VALUES (?, ?, ?, ?, ?, ?)",
+                    orderId, order.getOrderNumber(), order.getOrderDate(), order.getCustomer().getId(),
+                    order.getStatus() != null ? order.getStatus().name() : null, order.getTotalAmount());
+            for (OrderItem item : order.getItems()) {
+                insertItem(shard, order, item);
+            }
+        });
+        return order;
+    }
+
+    public Optional<Order> findById(Long orderId) {
+        OptionalInt shard = router.shardOfId(orderId);
+        if (!shard.isPresent()) {
+            return Optional.empty();
+        }
+        return first(loadOrders(shard.getAsInt(), "o.id = ?", orderId));
+    }
+
+    public Optional<Order> findByNumber(String orderNumber) {
+        OptionalInt shard = router.shardOfOrderNumber(orderNumber);
+        if (shard.isPresent()) {
+            return first(loadOrders(shard.getAsInt(), "o.order_number = ?", orderNumber));
+        }
+        return first(scatter("o.order_number = ?", orderNumber));
+    }
+
+    public List<Order> findByCustomerId(Long customerId) {
+        return loadOrders(router.shardForCustomer(customerId), "o.customer_id = ?", customerId);
+    }
+
+    public List<Order> findAll() {
+        return scatter("1 = 1");
+    }
+
+    /**
+     * Ids de todos os pedidos, sem carregar os pedidos.
+     */
+    public List<Long> findOrderIds() {
+        List<Long> orderIds = new ArrayList<>();
+        for (JdbcTemplate jdbcTemplate : jdbcTemplates) {
+            orderIds.addAll(jdbcTemplate.queryForList("SELECT id FROM orders", Long.class));
+        }
+        orderIds.sort(Comparator.naturalOrder());
+        return orderIds;
+    }
+
+    /**
+     * Ids dos clientes que têm ao menos um pedido.
+     */
+    public Set<Long> findCustomerIds() {
+        Set<Long> customerIds = new TreeSet<>();
+        for (JdbcTemplate jdbcTemplate : jdbcTemplates) {
+            customerIds.addAll(jdbcTemplate.queryForList("SELECT DISTINCT customer_id FROM orders", Long.class));
+        }
+        return customerIds;
+    }
+
+    public void insertItem(Order order, OrderItem item) {
+        int shard = requireShard(order.getId());
+        transactionTemplates.get(shard).executeWithoutResult(status -> insertItem(shard, order, item));
+    }
+
+    /**
+     * Atualiza o item do pedido, inserindo-o se ainda não existir.
+     */
+    public void updateItem(Order order, OrderItem item) {
+        int shard = requireShard(order.getId());
+        JdbcTemplate jdbcTemplate = jdbcTemplates.get(shard);
+        transactionTemplates.get(shard).executeWithoutResult(status -> {
+            int updated = item.getId() == null ? 0 : jdbcTemplate.update(
+                    "UPDATE order_items SET product_id = ?, quantity = ?, unit_price = ?, subtotal = ? "
+                            + "WHERE id = ? AND order_id = ?",
+                    productId(item), item.getQuantity(), item.getUnitPrice(), item.getSubtotal(),
+                    item.getId(), order.getId());
+            if (updated == 0) {
+                insertItem(shard, order, item);
+            }
+        });
+    }
+
+    public boolean deleteItem(Long orderId, Long itemId) {
+        int shard = requireShard(orderId);
+        return transactionTemplates.get(shard).execute(status -> jdbcTemplates.get(shard)
+                .update("DELETE FROM order_items WHERE id = ? AND order_id = ?", itemId, orderId) > 0);
+    }
+
+    /**
+     * Grava status e valor total do pedido.
+     */
+    public void updateOrder(Order order) {
+        int shard = requireShard(order.getId());
+        transactionTemplates.get(shard).executeWithoutResult(status -> jdbcTemplates.get(shard).update(
+                "UPDATE orders SET status = ?, total_amount = ? WHERE id = ?",
+                order.getStatus() != null ? order.getStatus().name() : null, order.getTotalAmount(), order.getId()));
+    }
+
+    @Override
+    public void close() throws Exception {
+        scatterExecutor.shutdownNow();
+        for (DataSource shard : shards) {
+            if (shard instanceof AutoCloseable) {
+                ((AutoCloseable) shard).close();
+            }
+        }
+    }
+
+    private int requireShard(Long orderId) {
+        OptionalInt shard = router.shardOfId(orderId);
+        if (!shard.isPresent()) {
+            throw new IllegalArgumentException("Pedido não encontrado");
+        }
+        return shard.getAsInt();
+    }
+
+    private void insertItem(int shard, Order order, OrderItem item) {
+        JdbcTemplate jdbcTemplate = jdbcTemplates.get(shard);
+        item.setId(router.globalId(shard, nextValue(jdbcTemplate, "order_item_seq")));
+        item.setOrder(order);
+        jdbcTemplate.update("INSERT INTO order_items (id, order_id, product_id, quantity, unit_price, subtotal) "
+                        + "VALUES (?, ?, ?, ?, ?, ?)",
+                item.getId(), order.getId(), productId(item), item.getQuantity(), item.getUnitPrice(),
+                item.getSubtotal());
+    }
+
+    private static Long productId(OrderItem item) {
+        return item.getProduct() != null ? item.getProduct().getId() : null;
+    }
+
+    private static long nextValue(JdbcTemplate jdbcTemplate, String sequence) {
+        return jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR " + sequence, Long.class);
+    }
+
+    private static Optional<Order> first(List<Order> orders) {
+        return orders.isEmpty() ? Optional.empty() : Optional.of(orders.get(0));
+    }
+
+    /**
+     * Executa a consulta em todos os shards em paralelo e junta os resultados ordenados por id.
+     */
+    private List<Order> scatter(String where, Object... args) {
+        List<CompletableFuture<List<Order>>> futures = new ArrayList<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            int target = shard;
+            futures.add(CompletableFuture.supplyAsync(() -> loadOrders(target, where, args), scatterExecutor));
+        }
+
+        List<Order> orders = new ArrayList<>();
+        try {
+            for (CompletableFuture<List<Order>> future : futures) {
+                orders.addAll(future.join());
+            }
+        } catch (CompletionException e) {
+            // Resultado parcial não é aceitável: a falha de um shard falha a consulta
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        orders.sort(Comparator.comparing(Order::getId));
+        return orders;
+    }
+
+    /**
+     * Carrega os pedidos de um shard que atendem ao filtro, junto com os seus itens.
+     */
+    private List<Order> loadOrders(int shard, String where, Object... args) {
+        JdbcTemplate jdbcTemplate = jdbcTemplates.get(shard);
+        return readOnlyTemplates.get(shard).execute(status -> {
+            Map<Long, Order> orders = new LinkedHashMap<>();
+            jdbcTemplate.query("SELECT " + ORDER_COLUMNS + " FROM orders o WHERE " + where + " ORDER BY o.id",
+                    resultSet -> {
+                        Order order = mapOrder(resultSet);
+                        orders.put(order.getId(), order);
+                    }, args);
+            if (orders.isEmpty()) {
+                return new ArrayList<>();
+            }
+            jdbcTemplate.query("SELECT " + ITEM_COLUMNS + " FROM order_items i JOIN orders o ON o.id = i.order_id "
+                            + "WHERE " + where + " ORDER BY i.id",
+                    resultSet -> {
+                        Order order = orders.get(resultSet.getLong("order_id"));
+                        if (order != null) {
+                            OrderItem item = mapItem(resultSet);
+                            item.setOrder(order);
+                            order.getItems().add(item);
+                        }
+                    }, args);
+            return new ArrayList<>(orders.values());
+        });
+    }
+
+    private static Order mapOrder(ResultSet resultSet) throws SQLException {
+        Order order = new Order();
+        order.setId(resultSet.getLong("id"));
+        order.setOrderNumber(resultSet.getString("order_number"));
+        order.setOrderDate(resultSet.getObject("order_date", LocalDateTime.class));
+        Customer customer = new Customer();
+        customer.setId(resultSet.getLong("customer_id"));
+        order.setCustomer(customer);
+        String status = resultSet.getString("status");
+        order.setStatus(status != null ? Status.valueOf(status) : null);
+        order.setTotalAmount(resultSet.getBigDecimal("total_amount"));
+        return order;
+    }
+
+    private static OrderItem mapItem(ResultSet resultSet) throws SQLException {
+        OrderItem item = new OrderItem();
+        item.setId(resultSet.getLong("id"));
+        long productId = resultSet.getLong("product_id");
+        if (!resultSet.wasNull()) {
+            Product product = new Product();
+            product.setId(productId);
+            item.setProduct(product);
+        }
+        item.setQuantity(resultSet.getInt("quantity"));
+        item.setUnitPrice(resultSet.getBigDecimal("unit_price"));
+        item.setSubtotal(resultSet.getBigDecimal("subtotal"));
+        return item;
+    }
+}
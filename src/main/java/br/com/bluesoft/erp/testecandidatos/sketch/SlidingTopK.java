@@ -0,0 +1,115 @@
+package br.com.bluesoft.erp.testecandidatos.sketch;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Itens mais frequentes em uma janela deslizante, com um {@link SpaceSaving} por faixa de tempo.
+ * <p>
+ * A janela cobre as últimas {@code bucketCount} faixas, incluindo a faixa corrente ainda incompleta;
+ * faixas mais antigas são reaproveitadas quando o tempo passa, então a memória fica limitada a
+ * {@code bucketCount * capacity} contadores. Na consulta as faixas são somadas; para um item ausente de
+ * uma faixa cheia, a menor contagem dessa faixa entra no erro. O resultado somado fica em cache até a
+ * próxima gravação ou a troca de faixa, e as consultas seguintes apenas copiam os primeiros itens.
+ */
+public final class SlidingTopK {
+
+    private final long bucketMillis;
+    private final SpaceSaving[] buckets;
+    private final long[] bucketEpochs;
+
+    private long version;
+    private long cachedVersion = -1;
+    private long cachedEpoch;
+    private List<SpaceSaving.Entry> cached = Collections.emptyList();
+
+    public SlidingTopK(int capacity, Duration bucket, int bucketCount) {
+        if (bucketCount < 1 || bucket.toMillis() < 1) {
+            throw new IllegalArgumentException("Janela deve ter ao menos uma faixa de tempo positiva");
+        }
+        this.bucketMillis = bucket.toMillis();
+        this.buckets = new SpaceSaving[bucketCount];
+        this.bucketEpochs = new long[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new SpaceSaving(capacity);
+            bucketEpochs[i] = Long.MIN_VALUE;
+        }
+    }
+
+    public Duration getWindow() {
+        return Duration.ofMillis(bucketMillis * buckets.length);
+    }
+
+    public int getCapacity() {
+        return buckets[0].getCapacity();
+    }
+
+    /**
+     * Registra {@code weight} ocorrências de {@code item} no instante {@code timestampMillis}.
+     * Ocorrências anteriores à janela são descartadas.
+     */
+    public synchronized void offer(long item, long weight, long timestampMillis) {
+        long epoch = Math.floorDiv(timestampMillis, bucketMillis);
+        int index = (int) Math.floorMod(epoch, (long) buckets.length);
+        if (bucketEpochs[index] != epoch) {
+            if (bucketEpochs[index] > epoch) {
+                return;
+            }
+            buckets[index].clear();
+            bucketEpochs[index] = epoch;
+        }
+        buckets[index].offer(item, weight);
+        version++;
+    }
+
+    /**
+     * Os {@code n} itens de maior contagem estimada na janela que termina em {@code nowMillis}.
+     */
+    public synchronized List<SpaceSaving.Entry> top(int n, long nowMillis) {
+        long epoch = Math.floorDiv(nowMillis, bucketMillis);
+        if (cachedVersion != version || cachedEpoch != epoch) {
+            cached = merge(epoch);
+            cachedVersion = version;
+            cachedEpoch = epoch;
+        }
+        return new ArrayList<>(cached.subList(0, Math.min(n, cached.size())));
+    }
+
+    private List<SpaceSaving.Entry> merge(long epoch) {
+        List<SpaceSaving> live = new ArrayList<>();
+        for (int i = 0; i < buckets.length; i++) {
+            if (bucketEpochs[i] <= epoch && bucketEpochs[i] > epoch - buckets.length) {
+                live.add(buckets[i]);
+            }
+        }
+
+        Map<Long, long[]> merged = new HashMap<>();
+        for (SpaceSaving bucket : live) {
+            for (SpaceSaving.Entry entry : bucket.entries()) {
+                long[] countAndError = merged.computeIfAbsent(entry.getItem(), item -> new long[2]);
+                countAndError[0] += entry.getCount();
+                countAndError[1] += entry.getError();
+            }
+        }
+
+        List<SpaceSaving.Entry> entries = new ArrayList<>(merged.size());
+        merged.forEach((item, countAndError) -> {
+            long count = countAndError[0];
+            long error = countAndError[1];
+            for (SpaceSaving bucket : live) {
+                long missing = bucket.minCount();
+                if (missing > 0 && bucket.estimate(item) == null) {
+                    count += missing;
+                    error += missing;
+                }
+            }
+            entries.add(new SpaceSaving.Entry(item, count, error));
+        });
+        entries.sort(SpaceSaving.BY_COUNT_DESC);
+        return entries;
+    }
+}
@@ -0,0 +1,204 @@
+package br.com.bluesoft.erp.testecandidatos.sketch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contagem aproximada dos itens mais frequentes de um fluxo com memória fixa (algoritmo Space-Saving).
+ * <p>
+ * Mantém no máximo {@code capacity} contadores em um heap mínimo. Um item novo com todos os contadores
+ * ocupados substitui o de menor contagem e herda essa contagem como erro. A contagem estimada nunca é
+ * menor que a real e passa dela em no máximo {@code error}; qualquer item com mais de
+ * {@code total / capacity} ocorrências está garantidamente entre os contadores.
+ * Não é thread-safe.
+ */
+public final class SpaceSaving {
+
+    /**
+     * Contagem estimada de um item; a contagem real está entre {@code count - error} e {@code count}.
+     */
+    public static final class Entry {
+        private final long item;
+        private final long count;
+        private final long error;
+
+        public Entry(long item, long count, long error) {
+            this.item = item;
+            this.count = count;
+            this.error = error;
+        }
+
+        public long getItem() {
+            return item;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return item + "=" + count + "±" + error;
+        }
+    }
+
+    /**
+     * Ordem decrescente de contagem; empates pelo menor item, para resultados estáveis.
+     */
+    public static final Comparator<Entry> BY_COUNT_DESC = Comparator.comparingLong(Entry::getCount).reversed()
+            .thenComparingLong(Entry::getItem);
+
+    private final int capacity;
+    private final long[] items;
+    private final long[] counts;
+    private final long[] errors;
+    private final Map<Long, Integer> positions;
+    private int size;
+    private long total;
+
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacidade deve ser positiva");
+        }
+        this.capacity = capacity;
+        this.items = new long[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.positions = new HashMap<>(capacity * 2);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Soma de todos os pesos recebidos.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Maior contagem que um item fora dos contadores pode ter; zero enquanto houver contador livre.
+     */
+    public long minCount() {
+        return size < capacity ? 0 : counts[0];
+    }
+
+    public void offer(long item, long weight) {
+        if (weight <= 0) {
+            return;
+        }
+        total += weight;
+
+        Integer position = positions.get(item);
+        if (position != null) {
+            counts[position] += weight;
+            siftDown(position);
+        } else if (size < capacity) {
+            items[size] = item;
+            counts[size] = weight;
+            errors[size] = 0;
+            positions.put(item, size);
+            siftUp(size++);
+        } else {
+            // Substitui o menor contador; a contagem herdada vira o erro do item novo
+            positions.remove(items[0]);
+            long inherited = counts[0];
+            items[0] = item;
+            errors[0] = inherited;
+            counts[0] = inherited + weight;
+            positions.put(item, 0);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Contagem estimada de um item, ou {@code null} se ele não estiver entre os contadores.
+     */
+    public Entry estimate(long item) {
+        Integer position = positions.get(item);
+        return position == null ? null : new Entry(item, counts[position], errors[position]);
+    }
+
+    /**
+     * Os {@code n} itens de maior contagem estimada, em ordem decrescente.
+     */
+    public List<Entry> top(int n) {
+        List<Entry> entries = entries();
+        entries.sort(BY_COUNT_DESC);
+        return entries.size() > n ? new ArrayList<>(entries.subList(0, n)) : entries;
+    }
+
+    /**
+     * Todos os contadores, sem ordem definida.
+     */
+    public List<Entry> entries() {
+        List<Entry> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            entries.add(new Entry(items[i], counts[i], errors[i]));
+        }
+        return entries;
+    }
+
+    public void clear() {
+        positions.clear();
+        size = 0;
+        total = 0;
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (counts[parent] <= counts[index]) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && counts[left] < counts[smallest]) {
+                smallest = left;
+            }
+            if (right < size && counts[right] < counts[smallest]) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        long item = items[a];
+        long count = counts[a];
+        long error = errors[a];
+        items[a] = items[b];
+        counts[a] = counts[b];
+        errors[a] = errors[b];
+        items[b] = item;
+        counts[b] = count;
+        errors[b] = error;
+        positions.put(items[a], a);
+        positions.put(items[b], b);
+    }
+}
@@ -0,0 +1,161 @@
+package br.com.bluesoft.erp.testecandidatos.stock;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Diário local, somente de acréscimo, dos deltas de estoque ainda não gravados no banco.
+ * <p>
+ * O diário é dividido em gerações ({@code <arquivo>.<geração>}): a cada descarga a geração
+ * corrente é fechada e uma nova é aberta. Cada registro tem 16 bytes (id do produto, delta e
+ * CRC32 dos 12 bytes anteriores); um registro final incompleto ou corrompido, típico de uma
+ * queda no meio da escrita, encerra a leitura da geração.
+ */
+public class StockDeltaJournal implements Closeable {
+
+    static final int RECORD_SIZE = 16;
+
+    /**
+     * Recebe os deltas lidos de uma geração do diário.
+     */
+    public interface DeltaConsumer {
+        void accept(long productId, int delta);
+    }
+
+    private final Path directory;
+    private final String prefix;
+    private final boolean fsync;
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+    private final CRC32 crc = new CRC32();
+
+    private FileChannel channel;
+    private long generation;
+
+    /**
+     * @param basePath caminho base dos arquivos do diário
+     * @param fsync    se cada registro deve ser forçado para o disco; sem isso o diário sobrevive
+     *                 à queda do processo, mas não necessariamente à do sistema operacional
+     */
+    public StockDeltaJournal(Path basePath, boolean fsync) throws IOException {
+        Path absolute = basePath.toAbsolutePath();
+        this.directory = absolute.getParent();
+        this.prefix = absolute.getFileName().toString() + ".";
+        this.fsync = fsync;
+        Files.createDirectories(directory);
+    }
+
+    /**
+     * Gerações existentes em disco, em ordem crescente.
+     */
+    public List<Long> generations() throws IOException {
+        List<Long> generations = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*")) {
+            for (Path file : files) {
+                String suffix = file.getFileName().toString().substring(prefix.length());
+                try {
+                    generations.add(Long.parseLong(suffix));
+                } catch (NumberFormatException e) {
+                    // Arquivo com o mesmo prefixo que não pertence ao diário
+                }
+            }
+        }
+        Collections.sort(generations);
+        return generations;
+    }
+
+    public synchronized void open(long generation) throws IOException {
+        close();
+        this.channel = FileChannel.open(fileOf(generation),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.generation = generation;
+    }
+
+    public synchronized long currentGeneration() {
+        return generation;
+    }
+
+    public synchronized void append(long productId, int delta) throws IOException {
+        record.clear();
+        record.putLong(productId).putInt(delta);
+        crc.reset();
+        crc.update(record.array(), 0, RECORD_SIZE - Integer.BYTES);
+        record.putInt((int) crc.getValue());
+        record.flip();
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+        if (fsync) {
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Fecha a geração corrente e passa a escrever na seguinte.
+     *
+     * @return a geração fechada
+     */
+    public synchronized long rotate() throws IOException {
+        long closed = generation;
+        channel.force(false);
+        open(closed + 1);
+        return closed;
+    }
+
+    /**
+     * Lê os registros válidos de uma geração.
+     *
+     * @return a quantidade de registros lidos
+     */
+    public int replay(long generation, DeltaConsumer consumer) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(fileOf(generation)));
+        CRC32 check = new CRC32();
+        int count = 0;
+        while (buffer.remaining() >= RECORD_SIZE) {
+            int start = buffer.position();
+            long productId = buffer.getLong();
+            int delta = buffer.getInt();
+            int expected = buffer.getInt();
+            check.reset();
+            check.update(buffer.array(), start, RECORD_SIZE - Integer.BYTES);
+            if ((int) check.getValue() != expected) {
+                break;
+            }
+            consumer.accept(productId, delta);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Remove as gerações fechadas até a informada, inclusive.
+     */
+    public void deleteUpTo(long generation) throws IOException {
+        for (Long existing : generations()) {
+            if (existing <= generation && existing != currentGeneration()) {
+                Files.deleteIfExists(fileOf(existing));
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private Path fileOf(long generation) {
+        return directory.resolve(prefix + generation);
+    }
+}
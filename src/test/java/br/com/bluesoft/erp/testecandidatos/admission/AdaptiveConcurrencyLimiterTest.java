@@ -0,0 +1,112 @@
+package br.com.bluesoft.erp.testecandidatos.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes para o limite de concorrência ajustado pela latência.
+ */
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = Duration.ofMillis(10).toNanos();
+    private static final long SLOW = Duration.ofMillis(500).toNanos();
+
+    private AdaptiveConcurrencyLimiter limiter(int initial, int min, int max) {
+        return new AdaptiveConcurrencyLimiter("teste", initial, min, max, Duration.ofMillis(100), 0.5);
+    }
+
+    @Test
+    public void testRejectsWhenLimitIsReached() {
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 1, 10);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(1, limiter.getRejected());
+
+        limiter.release();
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    public void testSlowResponseHalvesLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(8, 1, 10);
+
+        limiter.tryAcquire();
+        limiter.release(0, SLOW);
+        assertEquals(4, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void testBurstOfSlowResponsesCountsOnce() {
+        AdaptiveConcurrencyLimiter limiter = limiter(8, 1, 10);
+        for (int i = 0; i < 8; i++) {
+            limiter.tryAcquire();
+        }
+
+        // Todas admitidas antes da primeira redução: reduz uma vez só
+        for (int i = 0; i < 8; i++) {
+            limiter.release(0, SLOW + i);
+        }
+        assertEquals(4, limiter.getLimit());
+
+        // Admitida depois da redução, volta a reduzir
+        limiter.tryAcquire();
+        limiter.release(SLOW + 100, 2 * SLOW + 100);
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    public void testLimitStaysWithinBounds() {
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 2, 3);
+        limiter.tryAcquire();
+        limiter.release(0, SLOW);
+        assertEquals(2, limiter.getLimit());
+
+        // Com o limite em uso, respostas rápidas aumentam até o máximo
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire();
+            limiter.tryAcquire();
+            limiter.release(SLOW + i, SLOW + i + FAST);
+            limiter.release(SLOW + i, SLOW + i + FAST);
+        }
+        assertEquals(3, limiter.getLimit());
+    }
+
+    @Test
+    public void testIdleLimitDoesNotGrow() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10, 1, 100);
+
+        // Uma requisição por vez não prova que o servidor aguenta mais
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire();
+            limiter.release(0, FAST);
+        }
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    public void testMetrics() {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1, 10);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        limiter.bindTo(registry);
+
+        limiter.tryAcquire();
+        limiter.tryAcquire();
+
+        assertEquals(1, registry.get("admission.limit").tag("limiter", "teste").gauge().value(), 0);
+        assertEquals(1, registry.get("admission.in.flight").tag("limiter", "teste").gauge().value(), 0);
+        assertEquals(1, registry.get("admission.requests").tag("outcome", "accepted").functionCounter().count(), 0);
+        assertEquals(1, registry.get("admission.requests").tag("outcome", "rejected").functionCounter().count(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBoundsAreRejected() {
+        limiter(20, 1, 10);
+    }
+}
@@ -0,0 +1,122 @@
+package br.com.bluesoft.erp.testecandidatos.admission;
+
+import br.com.bluesoft.erp.testecandidatos.controller.OrderController;
+import br.com.bluesoft.erp.testecandidatos.model.Order;
+import br.com.bluesoft.erp.testecandidatos.service.OrderFinalizationService;
+import br.com.bluesoft.erp.testecandidatos.service.OrderQueryService;
+import br.com.bluesoft.erp.testecandidatos.service.OrderService;
+import br.com.bluesoft.erp.testecandidatos.service.OrderStatusStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Testes para o filtro de controle de admissão.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class AdmissionControlFilterTest {
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private OrderFinalizationService finalizationService;
+
+    @Mock
+    private OrderQueryService orderQueryService;
+
+    @Mock
+    private OrderStatusStream orderStatusStream;
+
+    private AdaptiveConcurrencyLimiter writes;
+    private MockMvc mockMvc;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        writes = new AdaptiveConcurrencyLimiter("writes", 1, 1, 10, Duration.ofSeconds(10), 0.9);
+        AdaptiveConcurrencyLimiter reads = new AdaptiveConcurrencyLimiter("reads", 1, 1, 10, Duration.ofSeconds(10), 0.9);
+        AdmissionControlFilter filter = new AdmissionControlFilter(writes, reads,
+                Arrays.asList("/api/orders", "/api/orders/**"), Duration.ofSeconds(2));
+        mockMvc = MockMvcBuilders.standaloneSetup(new OrderController(orderService, finalizationService,
+                        orderQueryService, orderStatusStream))
+                .addFilters(filter)
+                .build();
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testSaturatedWritesAreRejectedWhileReadsContinue() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Order order = new Order();
+        order.setId(1L);
+        when(orderService.createOrder(eq(1L), anyList())).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return order;
+        });
+        when(orderService.findOrderSummaries()).thenReturn(Collections.emptyList());
+
+        // A primeira criação ocupa a única vaga de escrita
+        Future<Integer> first = executor.submit(() -> mockMvc.perform(post("/api/orders").param("customerId", "1")
+                        .contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andReturn().getResponse().getStatus());
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        mockMvc.perform(post("/api/orders").param("customerId", "1")
+                        .contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"));
+
+        // Leituras têm limite próprio
+        mockMvc.perform(get("/api/orders")).andExpect(status().isOk());
+
+        release.countDown();
+        assertEquals(201, (int) first.get(5, TimeUnit.SECONDS));
+        assertEquals(0, writes.getInFlight());
+        assertEquals(1, writes.getRejected());
+    }
+
+    @Test
+    public void testSlotIsReleasedWhenHandlerFails() throws Exception {
+        when(orderService.createOrder(eq(1L), anyList())).thenThrow(new IllegalStateException("falha"));
+
+        try {
+            mockMvc.perform(post("/api/orders").param("customerId", "1")
+                    .contentType(MediaType.APPLICATION_JSON).content("[]"));
+        } catch (Exception e) {
+            // A exceção do controller chega ao teste
+        }
+        assertEquals(0, writes.getInFlight());
+    }
+}
@@ -0,0 +1,135 @@
+package br.com.bluesoft.erp.testecandidatos.benchmark;
+
+import br.com.bluesoft.erp.testecandidatos.TesteApplication;
+import br.com.bluesoft.erp.testecandidatos.dto.BulkStockEntry;
+import br.com.bluesoft.erp.testecandidatos.dto.BulkStockResponse;
+import br.com.bluesoft.erp.testecandidatos.service.BulkStockService;
+import br.com.bluesoft.erp.testecandidatos.service.ProductService;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Vazão do ajuste de estoque em lote comparada ao ajuste produto a produto, com a aplicação iniciada
+ * sem servidor web: os dois caminhos são chamados direto nos serviços, então a diferença medida é a de
+ * SQL e transações. A soma dos estoques é conferida depois de cada rodada.
+ * Não é executado pelo surefire; rodar com:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=br.com.bluesoft.erp.testecandidatos.benchmark.BulkStockBenchmark \
+ *     -Dexec.args="produtos entradas tamanho-do-bloco"
+ * </pre>
+ */
+public class BulkStockBenchmark {
+
+    private static final int INITIAL_STOCK = 1_000_000;
+
+    public static void main(String[] args) {
+        int products = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int entries = args.length > 1 ? Integer.parseInt(args[1]) : 50_000;
+        int chunkSize = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+
+        ConfigurableApplicationContext context = SpringApplication.run(TesteApplication.class,
+                "--spring.main.web-application-type=none",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--outbox.sink=memory",
+                "--products.stock-bulk.chunk-size=" + chunkSize,
+                "--products.stock-bulk.max-entries=" + entries,
+                "--spring.main.banner-mode=off");
+        try {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+            ProductService productService = context.getBean(ProductService.class);
+            BulkStockService bulkStockService = context.getBean(BulkStockService.class);
+            long firstId = createProducts(jdbcTemplate, products);
+
+            // Deltas pequenos e alguns valores absolutos, em produtos sorteados
+            Random random = new Random(42);
+            List<BulkStockEntry> batch = new ArrayList<>(entries);
+            for (int i = 0; i < entries; i++) {
+                long productId = firstId + random.nextInt(products);
+                batch.add(i % 20 == 0
+                        ? BulkStockEntry.absolute(productId, INITIAL_STOCK)
+                        : BulkStockEntry.delta(productId, random.nextInt(7) - 3));
+            }
+
+            System.out.printf("produtos=%d entradas=%d bloco=%d%n", products, entries, chunkSize);
+            for (int round = 0; round < 2; round++) {
+                // A primeira rodada serve de aquecimento da JIT
+                String prefix = round == 0 ? "aquecimento " : "";
+
+                reset(jdbcTemplate);
+                long start = System.nanoTime();
+                int applied = 0;
+                for (BulkStockEntry entry : batch) {
+                    // Valor absoluto como o cliente faria sem o lote: lê o estoque e ajusta pela diferença
+                    int delta = entry.getStock() != null
+                            ? entry.getStock() - productService.findProductById(entry.getId()).get().getStock()
+                            : entry.getDelta();
+                    try {
+                        productService.adjustProductStock(entry.getId(), delta);
+                        applied++;
+                    } catch (IllegalStateException e) {
+                        // Estoque insuficiente, como no lote
+                    }
+                }
+                report(prefix + "um a um", applied, start, jdbcTemplate, expectedTotal(batch, products, firstId));
+
+                reset(jdbcTemplate);
+                start = System.nanoTime();
+                BulkStockResponse response = bulkStockService.applyStockChanges(batch);
+                report(prefix + "lote", response.getApplied(), start, jdbcTemplate,
+                        expectedTotal(batch, products, firstId));
+            }
+        } finally {
+            context.close();
+        }
+    }
+
+    private static long createProducts(JdbcTemplate jdbcTemplate, int products) {
+        List<Object[]> rows = new ArrayList<>(products);
+        for (int i = 0; i < products; i++) {
+            rows.add(new Object[]{"Produto " + i, "BENCH-" + i, INITIAL_STOCK});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO products (name, sku, stock, price) VALUES (?, ?, ?, 10)", rows);
+        return jdbcTemplate.queryForObject("SELECT MIN(id) FROM products WHERE sku LIKE 'BENCH-%'", Long.class);
+    }
+
+    private static void reset(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("UPDATE products SET stock = ? WHERE sku LIKE 'BENCH-%'", INITIAL_STOCK);
+    }
+
+    /**
+     * Estoque final esperado: as entradas repetidas na ordem, como o lote deve aplicá-las.
+     */
+    private static long expectedTotal(List<BulkStockEntry> batch, int products, long firstId) {
+        long[] stock = new long[products];
+        Arrays.fill(stock, INITIAL_STOCK);
+        for (BulkStockEntry entry : batch) {
+            int index = (int) (entry.getId() - firstId);
+            if (entry.getStock() != null) {
+                stock[index] = entry.getStock();
+            } else if (stock[index] + entry.getDelta() >= 0) {
+                stock[index] += entry.getDelta();
+            }
+        }
+        long total = 0;
+        for (long value : stock) {
+            total += value;
+        }
+        return total;
+    }
+
+    private static void report(String name, int applied, long start, JdbcTemplate jdbcTemplate, long expected) {
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        long total = jdbcTemplate.queryForObject("SELECT SUM(stock) FROM products WHERE sku LIKE 'BENCH-%'", Long.class);
+        System.out.printf("%-20s tempo=%.2fs vazão=%.0f entradas/s aplicadas=%d consistente=%s%n",
+                name, seconds, applied / seconds, applied, total == expected);
+    }
+}
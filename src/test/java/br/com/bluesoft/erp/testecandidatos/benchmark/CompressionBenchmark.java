@@ -0,0 +1,122 @@
+package br.com.bluesoft.erp.testecandidatos.benchmark;
+
+import br.com.bluesoft.erp.testecandidatos.TesteApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark de bytes trafegados e tempo até o último byte das listas completas, com e sem gzip,
+ * em HTTP/1.1 e em HTTP/2 sem TLS (h2c), contra a aplicação iniciada em uma porta livre e
+ * populada com dados sintéticos.
+ * <p>
+ * O cliente HTTP do JDK não descomprime o corpo, então o tamanho lido é o tamanho trafegado.
+ * Não é executado pelo surefire; rodar com:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=br.com.bluesoft.erp.testecandidatos.benchmark.CompressionBenchmark \
+ *     -Dexec.args="produtos clientes pedidos"
+ * </pre>
+ */
+public class CompressionBenchmark {
+
+    private static final String[] ENDPOINTS = {"/api/products", "/api/customers", "/api/orders"};
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int products = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int customers = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        int orders = args.length > 2 ? Integer.parseInt(args[2]) : 20_000;
+
+        ConfigurableApplicationContext context = SpringApplication.run(TesteApplication.class,
+                "--server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--outbox.sink=memory",
+                "--spring.main.banner-mode=off");
+        try {
+            populate(new JdbcTemplate(context.getBean(DataSource.class)), products, customers, orders);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            System.out.printf("produtos=%d clientes=%d pedidos=%d%n", products, customers, orders);
+
+            for (String endpoint : ENDPOINTS) {
+                URI uri = URI.create("http://localhost:" + port + endpoint);
+                for (HttpClient.Version version : HttpClient.Version.values()) {
+                    HttpClient client = HttpClient.newBuilder().version(version).build();
+                    for (boolean gzip : new boolean[]{false, true}) {
+                        HttpRequest.Builder request = HttpRequest.newBuilder(uri).GET();
+                        if (gzip) {
+                            request.header("Accept-Encoding", "gzip");
+                        }
+                        // Aquecimento, que também faz o upgrade para h2c
+                        HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+                        client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+
+                        double best = Double.MAX_VALUE;
+                        for (int i = 0; i < 5; i++) {
+                            long start = System.nanoTime();
+                            response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+                            best = Math.min(best, (System.nanoTime() - start) / 1_000_000.0);
+                        }
+                        System.out.printf("%-15s %-8s %-8s bytes=%10d último byte=%8.1fms%n",
+                                endpoint, response.version(),
+                                response.headers().firstValue("Content-Encoding").orElse("identity"),
+                                response.body().length, best);
+                    }
+                }
+            }
+        } finally {
+            context.close();
+        }
+    }
+
+    private static void populate(JdbcTemplate jdbcTemplate, int products, int customers, int orders) {
+        Random random = new Random(42);
+        List<Object[]> batch = new ArrayList<>();
+        for (int id = 1; id <= products; id++) {
+            batch.add(new Object[]{id, "Produto " + id, "Descrição do produto " + id,
+                    BigDecimal.valueOf(100 + random.nextInt(10_000), 2), random.nextInt(500), "SKU-" + id});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO products (id, name, description, price, stock, sku) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", batch);
+
+        batch.clear();
+        for (int id = 1; id <= customers; id++) {
+            batch.add(new Object[]{id, "Cliente " + id, "cliente" + id + "@example.com", "11 9" + (10_000_000 + id)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO customers (id, name, email, phone) VALUES (?, ?, ?, ?)", batch);
+
+        batch.clear();
+        List<Object[]> items = new ArrayList<>();
+        long itemId = 1;
+        for (int id = 1; id <= orders; id++) {
+            BigDecimal total = BigDecimal.ZERO;
+            int count = 1 + random.nextInt(5);
+            for (int i = 0; i < count; i++) {
+                BigDecimal unitPrice = BigDecimal.valueOf(100 + random.nextInt(10_000), 2);
+                int quantity = 1 + random.nextInt(5);
+                BigDecimal subtotal = unitPrice.multiply(BigDecimal.valueOf(quantity));
+                total = total.add(subtotal);
+                items.add(new Object[]{itemId++, id, 1 + random.nextInt(products), quantity, unitPrice, subtotal});
+            }
+            batch.add(new Object[]{id, "ORD-" + id, LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(id),
+                    1 + random.nextInt(customers), "FINALIZADO", total});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO orders (id, order_number, order_date, customer_id, status, total_amount) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", batch);
+        jdbcTemplate.batchUpdate("INSERT INTO order_items (id, order_id, product_id, quantity, unit_price, subtotal) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", items);
+    }
+}
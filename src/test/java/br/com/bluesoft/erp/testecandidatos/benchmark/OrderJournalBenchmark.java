@@ -0,0 +1,164 @@
+package br.com.bluesoft.erp.testecandidatos.benchmark;
+
+import br.com.bluesoft.erp.testecandidatos.config.TestConfig;
+import br.com.bluesoft.erp.testecandidatos.journal.OrderJournalRecorder;
+import br.com.bluesoft.erp.testecandidatos.model.Customer;
+import br.com.bluesoft.erp.testecandidatos.model.Order;
+import br.com.bluesoft.erp.testecandidatos.model.OrderItem;
+import br.com.bluesoft.erp.testecandidatos.model.Product;
+import br.com.bluesoft.erp.testecandidatos.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark de vazão das alterações de pedido pelo {@code OrderService}: {@code addItemToOrder} com o
+ * diário desligado, comparado ao mesmo caminho com o diário ligado, em que cada transação espera o
+ * {@code force} do diário antes do commit, com {@code force} por registro e com commit em grupo.
+ * <p>
+ * O banco de testes é H2 em memória, que não força nada para o disco; o diário, sim.
+ * Não é executado pelo surefire; rodar com:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=br.com.bluesoft.erp.testecandidatos.benchmark.OrderJournalBenchmark \
+ *     -Dexec.args="threads operações"
+ * </pre>
+ */
+public class OrderJournalBenchmark {
+
+    interface Operation {
+        void run(int thread, int index) throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+
+        Path directory = Files.createTempDirectory("order-journal-benchmark");
+        try {
+            System.out.printf("threads=%d operações=%d%n", threads, operations);
+            benchmark("diário desligado", null, 0, threads, operations);
+            for (int maxBatch : new int[]{1, 256}) {
+                benchmark("diário lote=" + maxBatch, directory.resolve("lote-" + maxBatch), maxBatch,
+                        threads, operations);
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sobe um contexto com o diário ligado ou desligado e mede {@code addItemToOrder}, depois de um aquecimento.
+     */
+    private static void benchmark(String name, Path journalDirectory, int maxBatch, int threads, int operations)
+            throws Exception {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("orders.journal.enabled", String.valueOf(journalDirectory != null));
+        if (journalDirectory != null) {
+            properties.put("orders.journal.directory", journalDirectory.toString());
+            properties.put("orders.journal.max-batch", String.valueOf(maxBatch));
+        }
+
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.getEnvironment().setActiveProfiles("test");
+            context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", properties));
+            context.register(TestConfig.class, OrderJournalRecorder.class);
+            context.registerBean(ObjectMapper.class, () -> new ObjectMapper().registerModule(new JavaTimeModule()));
+            context.refresh();
+
+            OrderService orderService = context.getBean(OrderService.class);
+            Long[] ids = createOrderAndProduct(context);
+            Long orderId = ids[0];
+            Long productId = ids[1];
+
+            for (String prefix : new String[]{"aquecimento ", ""}) {
+                run(prefix + name, threads, operations, (thread, index) -> {
+                    OrderItem item = new OrderItem();
+                    Product product = new Product();
+                    product.setId(productId);
+                    item.setProduct(product);
+                    item.setQuantity(1);
+                    item.setUnitPrice(BigDecimal.TEN);
+                    item.setSubtotal(BigDecimal.TEN);
+                    orderService.addItemToOrder(orderId, item);
+                });
+            }
+        }
+    }
+
+    private static void run(String name, int threads, int operations, Operation operation) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        int perThread = operations / threads;
+        List<Future<?>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    operation.run(thread, thread * perThread + i);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        executor.shutdown();
+
+        System.out.printf("%-36s tempo=%.2fs vazão=%.0f alterações/s%n",
+                name, seconds, perThread * threads / seconds);
+    }
+
+    private static Long[] createOrderAndProduct(AnnotationConfigApplicationContext context) {
+        EntityManagerFactory entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        return transactionTemplate.execute(status -> {
+            EntityManager entityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+
+            Customer customer = new Customer();
+            customer.setName("Cliente Benchmark");
+            customer.setEmail("benchmark@example.com");
+            entityManager.persist(customer);
+
+            Product product = new Product();
+            product.setName("Produto Benchmark");
+            product.setPrice(BigDecimal.TEN);
+            product.setStock(1_000_000);
+            product.setSku("BENCH-001");
+            entityManager.persist(product);
+
+            Order order = new Order();
+            order.setOrderNumber("ORD-BENCH");
+            order.setOrderDate(LocalDateTime.now());
+            order.setCustomer(customer);
+            order.setTotalAmount(BigDecimal.ZERO);
+            entityManager.persist(order);
+            return new Long[]{order.getId(), product.getId()};
+        });
+    }
+}
@@ -0,0 +1,271 @@
+package br.com.bluesoft.erp.testecandidatos.benchmark;
+
+import br.com.bluesoft.erp.testecandidatos.TesteApplication;
+import br.com.bluesoft.erp.testecandidatos.event.OrderEvent;
+import br.com.bluesoft.erp.testecandidatos.model.Status;
+import br.com.bluesoft.erp.testecandidatos.service.OrderStatusStream;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Teste de carga do fluxo SSE de situação dos pedidos: abre assinantes reais por HTTP contra a aplicação
+ * iniciada em uma porta livre, distribuídos entre os clientes, publica mudanças de situação e mede o
+ * tempo até cada assinante receber cada mudança. Uma fração dos assinantes para de ler depois do
+ * cabeçalho da resposta, para verificar que eles são desconectados sem atrasar os demais.
+ * <p>
+ * Os assinantes usam sockets NIO lidos por uma única thread, sem cliente HTTP. Servidor e assinantes
+ * ficam no mesmo processo, então cada assinante usa dois descritores de arquivo: 10 mil assinantes
+ * pedem {@code ulimit -n} acima de 20 mil. Não é executado pelo surefire; rodar com:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=br.com.bluesoft.erp.testecandidatos.benchmark.OrderStatusStreamBenchmark \
+ *     -Dexec.args="assinantes clientes mudanças percentual-lentos mudanças-por-segundo"
+ * </pre>
+ */
+public class OrderStatusStreamBenchmark {
+
+    private static final byte[] ORDER_ID = "\"orderId\":".getBytes(StandardCharsets.US_ASCII);
+
+    public static void main(String[] args) throws Exception {
+        int subscribers = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int customers = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int changes = args.length > 2 ? Integer.parseInt(args[2]) : 2_000;
+        double slowPercent = args.length > 3 ? Double.parseDouble(args[3]) : 1.0;
+        int perSecond = args.length > 4 ? Integer.parseInt(args[4]) : 200;
+
+        ConfigurableApplicationContext context = SpringApplication.run(TesteApplication.class,
+                "--server.port=0",
+                "--server.tomcat.max-connections=" + (subscribers + 100),
+                "--server.tomcat.accept-count=" + subscribers,
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--outbox.sink=memory",
+                "--spring.main.banner-mode=off");
+        try {
+            OrderStatusStream stream = context.getBean(OrderStatusStream.class);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            Clients clients = new Clients(port, subscribers, customers, slowPercent);
+
+            long start = System.nanoTime();
+            clients.connect();
+            while (stream.getSubscriberCount() < subscribers) {
+                clients.poll(10);
+            }
+            System.out.printf("assinantes=%d clientes=%d lentos=%d conexão=%dms%n", subscribers, customers,
+                    clients.slow, (System.nanoTime() - start) / 1_000_000);
+
+            // Cada mudança vai para os assinantes de um cliente; os lentos não leem nada depois do cabeçalho
+            long expected = 0;
+            long publishNanos = 0;
+            start = System.nanoTime();
+            for (int i = 0; i < changes; i++) {
+                // Mudanças em ritmo constante, lendo os assinantes enquanto espera a próxima
+                long due = start + i * 1_000_000_000L / perSecond;
+                while (System.nanoTime() < due) {
+                    clients.poll(Math.max(1, (due - System.nanoTime()) / 1_000_000));
+                }
+                long orderId = i + 1;
+                long customerId = 1 + (i % customers);
+                clients.published.put(orderId, System.nanoTime());
+                long before = System.nanoTime();
+                stream.onOrderEvent(new OrderEvent(i % 2 == 0 ? OrderEvent.Type.FINALIZADO : OrderEvent.Type.CANCELADO,
+                        orderId, "ORD-" + orderId, customerId, Status.FINALIZADO, BigDecimal.TEN, Instant.now(),
+                        new ArrayList<>()));
+                publishNanos += System.nanoTime() - before;
+                expected += clients.fastOf(customerId);
+                clients.poll(0);
+            }
+            long deadline = System.nanoTime() + 30_000_000_000L;
+            while (clients.received.get() < expected && System.nanoTime() < deadline) {
+                clients.poll(10);
+            }
+            double elapsed = (System.nanoTime() - start) / 1_000_000.0;
+
+            long[] latencies = clients.latencies();
+            System.out.printf("mudanças=%d (%d/s) entregas=%d/%d em %.0fms (%.0f entregas/s)%n", changes, perSecond,
+                    clients.received.get(), expected, elapsed, clients.received.get() * 1000.0 / elapsed);
+            System.out.printf("publicação na thread do commit: média=%.1fµs%n", publishNanos / 1000.0 / changes);
+            System.out.printf("latência de entrega: p50=%.1fms p99=%.1fms máx=%.1fms%n",
+                    percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 1.0));
+            System.out.printf("desconectados por lentidão=%d assinantes restantes=%d%n",
+                    stream.getEvictedCount(), stream.getSubscriberCount());
+            clients.close();
+            while (stream.getSubscriberCount() > 0 && System.nanoTime() < deadline + 10_000_000_000L) {
+                Thread.sleep(10);
+            }
+        } finally {
+            context.close();
+        }
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    /**
+     * Assinantes como sockets não bloqueantes; cada leitura procura os {@code "orderId":} recebidos.
+     */
+    private static class Clients {
+
+        private final Selector selector;
+        private final int port;
+        private final int subscribers;
+        private final int customers;
+        private final int slowEvery;
+        private final int[] fastPerCustomer;
+        private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(64 * 1024);
+        private final List<SocketChannel> channels = new ArrayList<>();
+        private final List<long[]> latencyChunks = new ArrayList<>();
+        private long[] latencyChunk = new long[1 << 16];
+        private int latencyCount;
+
+        final ConcurrentHashMap<Long, Long> published = new ConcurrentHashMap<>();
+        final AtomicLong received = new AtomicLong();
+        int slow;
+
+        Clients(int port, int subscribers, int customers, double slowPercent) throws IOException {
+            this.selector = Selector.open();
+            this.port = port;
+            this.subscribers = subscribers;
+            this.customers = customers;
+            this.slowEvery = slowPercent > 0 ? (int) Math.round(100 / slowPercent) : Integer.MAX_VALUE;
+            this.fastPerCustomer = new int[customers + 1];
+        }
+
+        void connect() throws IOException {
+            for (int i = 0; i < subscribers; i++) {
+                long customerId = 1 + (i % customers);
+                boolean isSlow = i % slowEvery == slowEvery - 1;
+                SocketChannel channel = SocketChannel.open();
+                if (isSlow) {
+                    channel.setOption(StandardSocketOptions.SO_RCVBUF, 4096);
+                    slow++;
+                } else {
+                    fastPerCustomer[(int) customerId]++;
+                }
+                channel.connect(new InetSocketAddress("localhost", port));
+                channel.write(ByteBuffer.wrap(("GET /api/orders/customer/" + customerId + "/status/stream HTTP/1.1\r\n"
+                        + "Host: localhost\r\nAccept: text/event-stream\r\n\r\n").getBytes(StandardCharsets.US_ASCII)));
+                channel.configureBlocking(false);
+                channel.register(selector, SelectionKey.OP_READ, new State(isSlow));
+                channels.add(channel);
+                if (i % 500 == 0) {
+                    poll(0);
+                }
+            }
+        }
+
+        int fastOf(long customerId) {
+            return fastPerCustomer[(int) customerId];
+        }
+
+        void poll(long timeoutMillis) throws IOException {
+            if (timeoutMillis > 0) {
+                selector.select(timeoutMillis);
+            } else {
+                selector.selectNow();
+            }
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                State state = (State) key.attachment();
+                SocketChannel channel = (SocketChannel) key.channel();
+                readBuffer.clear();
+                int read = channel.read(readBuffer);
+                if (read < 0) {
+                    key.cancel();
+                    continue;
+                }
+                readBuffer.flip();
+                if (state.slow) {
+                    // Depois do cabeçalho o assinante lento para de ler
+                    key.interestOps(0);
+                    continue;
+                }
+                scan(state, System.nanoTime());
+            }
+        }
+
+        private void scan(State state, long now) {
+            while (readBuffer.hasRemaining()) {
+                byte b = readBuffer.get();
+                if (state.matched == ORDER_ID.length) {
+                    if (b >= '0' && b <= '9') {
+                        state.value = state.value * 10 + (b - '0');
+                        continue;
+                    }
+                    Long sentAt = published.get(state.value);
+                    if (sentAt != null) {
+                        record(now - sentAt);
+                        received.incrementAndGet();
+                    }
+                    state.matched = 0;
+                    state.value = 0;
+                }
+                state.matched = b == ORDER_ID[state.matched] ? state.matched + 1 : (b == ORDER_ID[0] ? 1 : 0);
+            }
+        }
+
+        private void record(long nanos) {
+            if (latencyCount == latencyChunk.length) {
+                latencyChunks.add(latencyChunk);
+                latencyChunk = new long[latencyChunk.length];
+                latencyCount = 0;
+            }
+            latencyChunk[latencyCount++] = nanos;
+        }
+
+        long[] latencies() {
+            long[] all = new long[latencyChunks.size() * latencyChunk.length + latencyCount];
+            int offset = 0;
+            for (long[] chunk : latencyChunks) {
+                System.arraycopy(chunk, 0, all, offset, chunk.length);
+                offset += chunk.length;
+            }
+            System.arraycopy(latencyChunk, 0, all, offset, latencyCount);
+            Arrays.sort(all);
+            return all;
+        }
+
+        void close() throws IOException {
+            for (SocketChannel channel : channels) {
+                channel.close();
+            }
+            selector.close();
+        }
+    }
+
+    private static class State {
+
+        final boolean slow;
+        int matched;
+        long value;
+
+        State(boolean slow) {
+            this.slow = slow;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package br.com.bluesoft.erp.testecandidatos.benchmark;
+
+import br.com.bluesoft.erp.testecandidatos.config.TestConfig;
+import br.com.bluesoft.erp.testecandidatos.outbox.FileOutboxSink;
+import br.com.bluesoft.erp.testecandidatos.outbox.InMemoryOutboxSink;
+import br.com.bluesoft.erp.testecandidatos.outbox.OutboxRelay;
+import br.com.bluesoft.erp.testecandidatos.outbox.OutboxSink;
+import br.com.bluesoft.erp.testecandidatos.repository.OutboxEventRepository;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark de vazão do relay do outbox.
+ * Não é executado pelo surefire; rodar com:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=br.com.bluesoft.erp.testecandidatos.benchmark.OutboxRelayBenchmark -Dexec.args=100000
+ * </pre>
+ */
+public class OutboxRelayBenchmark {
+
+    private static final String PAYLOAD = "{\"type\":\"CRIADO\",\"orderId\":1,\"items\":[{\"productId\":1,\"quantity\":2}]}";
+
+    public static void main(String[] args) throws Exception {
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.getEnvironment().setActiveProfiles("test");
+            context.register(TestConfig.class);
+            context.refresh();
+
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+            OutboxEventRepository repository = context.getBean(OutboxEventRepository.class);
+            insertEvents(jdbcTemplate, events);
+
+            Path file = Files.createTempFile("outbox-benchmark", ".jsonl");
+            for (int batchSize : new int[]{100, 500, 2000}) {
+                run("memória", jdbcTemplate, repository, new InMemoryOutboxSink(), batchSize, events);
+                FileOutboxSink fileSink = new FileOutboxSink(file);
+                run("arquivo", jdbcTemplate, repository, fileSink, batchSize, events);
+                fileSink.close();
+            }
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void run(String sinkName, JdbcTemplate jdbcTemplate, OutboxEventRepository repository,
+                            OutboxSink sink, int batchSize, int events) {
+        jdbcTemplate.update("UPDATE outbox_events SET published_at = NULL, parked_at = NULL, attempts = 0");
+
+        OutboxRelay relay = new OutboxRelay(repository, sink, batchSize, 10);
+        long start = System.nanoTime();
+        int published = 0;
+        int batch;
+        while ((batch = relay.relayBatch()) > 0) {
+            published += batch;
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        System.out.printf("sink=%-8s lote=%5d eventos=%d tempo=%.2fs vazão=%.0f eventos/s%n",
+                sinkName, batchSize, published, seconds, events / seconds);
+    }
+
+    private static void insertEvents(JdbcTemplate jdbcTemplate, int events) {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < events; i++) {
+            rows.add(new Object[]{(long) (i % 1000), "CRIADO", PAYLOAD, now});
+            if (rows.size() == 1000) {
+                flush(jdbcTemplate, rows);
+            }
+        }
+        flush(jdbcTemplate, rows);
+    }
+
+    private static void flush(JdbcTemplate jdbcTemplate, List<Object[]> rows) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO outbox_events (aggregate_id, event_type, payload, created_at, attempts) VALUES (?, ?, ?, ?, 0)",
+                rows);
+        rows.clear();
+    }
+}
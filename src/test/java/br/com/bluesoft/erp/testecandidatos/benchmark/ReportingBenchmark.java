@@ -0,0 +1,126 @@
+package br.com.bluesoft.erp.testecandidatos.benchmark;
+
+import br.com.bluesoft.erp.testecandidatos.service.ReportServiceImpl;
+import br.com.bluesoft.erp.testecandidatos.sharding.ShardedOrderStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Benchmark de escalabilidade dos relatórios por partições: o mesmo relatório com 1, 2, 4, ...
+ * threads até a quantidade de processadores, sobre um banco H2 em memória populado com
+ * produtos, pedidos e itens sintéticos.
+ * <p>
+ * Não é executado pelo surefire; rodar com:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=br.com.bluesoft.erp.testecandidatos.benchmark.ReportingBenchmark \
+ *     -Dexec.args="produtos itens [threads máximas]"
+ * </pre>
+ */
+public class ReportingBenchmark {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+    private static final int DAYS = 90;
+
+    public static void main(String[] args) {
+        int products = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int items = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+
+        DriverManagerDataSource dataSource =
+                new DriverManagerDataSource("jdbc:h2:mem:reporting-benchmark;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        populate(jdbcTemplate, products, items);
+
+        int processors = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        System.out.printf("produtos=%d itens=%d processadores=%d threads máximas=%d%n",
+                products, items, Runtime.getRuntime().availableProcessors(), processors);
+
+        List<Integer> levels = new ArrayList<>();
+        for (int threads = 1; threads < processors; threads *= 2) {
+            levels.add(threads);
+        }
+        levels.add(processors);
+
+        for (String report : new String[]{"estoque por prefixo", "receita por dia", "top 10 produtos"}) {
+            double baseline = 0;
+            for (int threads : levels) {
+                ReportServiceImpl reportService = new ReportServiceImpl(dataSource, (ShardedOrderStore) null, new SimpleMeterRegistry(),
+                        threads, Math.max(1000, items / (threads * 8L)));
+                Supplier<Object> run = () -> {
+                    switch (report) {
+                        case "estoque por prefixo":
+                            return reportService.inventoryValueBySkuPrefix(3);
+                        case "receita por dia":
+                            return reportService.revenueByDay(START, START.plusDays(DAYS));
+                        default:
+                            return reportService.topProducts(10);
+                    }
+                };
+                // Aquecimento
+                run.get();
+                double millis = best(run, 5);
+                reportService.close();
+
+                if (threads == 1) {
+                    baseline = millis;
+                }
+                System.out.printf("%-20s threads=%-3d tempo=%8.1fms aceleração=%.2fx%n",
+                        report, threads, millis, baseline / millis);
+            }
+        }
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    private static double best(Supplier<Object> run, int rounds) {
+        double best = Double.MAX_VALUE;
+        for (int i = 0; i < rounds; i++) {
+            long start = System.nanoTime();
+            run.get();
+            best = Math.min(best, (System.nanoTime() - start) / 1_000_000.0);
+        }
+        return best;
+    }
+
+    private static void populate(JdbcTemplate jdbcTemplate, int products, int items) {
+        jdbcTemplate.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, name VARCHAR(255), sku VARCHAR(255), "
+                + "price DECIMAL(19, 2), stock INT)");
+        jdbcTemplate.execute("CREATE TABLE orders (id BIGINT PRIMARY KEY, order_date TIMESTAMP, status VARCHAR(20))");
+        jdbcTemplate.execute("CREATE TABLE order_items (id BIGINT PRIMARY KEY, order_id BIGINT, product_id BIGINT, "
+                + "quantity INT, unit_price DECIMAL(19, 2))");
+
+        Random random = new Random(42);
+        List<Object[]> batch = new ArrayList<>();
+        for (int id = 1; id <= products; id++) {
+            batch.add(new Object[]{id, "Produto " + id, String.format("P%02d-%d", id % 50, id),
+                    1 + random.nextInt(10_000) / 100.0, random.nextInt(500)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO products VALUES (?, ?, ?, ?, ?)", batch);
+
+        int orders = Math.max(1, items / 4);
+        batch.clear();
+        for (int id = 1; id <= orders; id++) {
+            LocalDateTime date = START.plusDays(random.nextInt(DAYS)).atTime(random.nextInt(24), 0);
+            batch.add(new Object[]{id, date, id % 20 == 0 ? "CANCELADO" : "FINALIZADO"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO orders VALUES (?, ?, ?)", batch);
+
+        batch.clear();
+        for (int id = 1; id <= items; id++) {
+            batch.add(new Object[]{id, 1 + random.nextInt(orders), 1 + random.nextInt(products),
+                    1 + random.nextInt(5), 1 + random.nextInt(10_000) / 100.0});
+            if (batch.size() == 10_000) {
+                jdbcTemplate.batchUpdate("INSERT INTO order_items VALUES (?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO order_items VALUES (?, ?, ?, ?, ?)", batch);
+    }
+}
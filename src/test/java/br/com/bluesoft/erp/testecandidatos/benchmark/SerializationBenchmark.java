@@ -0,0 +1,144 @@
+package br.com.bluesoft.erp.testecandidatos.benchmark;
+
+import br.com.bluesoft.erp.testecandidatos.dto.CustomerResponse;
+import br.com.bluesoft.erp.testecandidatos.dto.OrderResponse;
+import br.com.bluesoft.erp.testecandidatos.dto.OrderSummaryResponse;
+import br.com.bluesoft.erp.testecandidatos.model.Customer;
+import br.com.bluesoft.erp.testecandidatos.model.Order;
+import br.com.bluesoft.erp.testecandidatos.model.OrderItem;
+import br.com.bluesoft.erp.testecandidatos.model.Product;
+import br.com.bluesoft.erp.testecandidatos.model.Status;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * Benchmark de serialização das respostas: tamanho do JSON e tempo de serialização por endpoint,
+ * com as entidades JPA e com os DTOs, sobre objetos sintéticos em memória.
+ * <p>
+ * As entidades são montadas sem as referências de volta ({@code Customer.orders} e
+ * {@code OrderItem.order}), que levariam o Jackson a uma recursão infinita; o tamanho medido é
+ * portanto o menor que a serialização das entidades poderia produzir.
+ * <p>
+ * Não é executado pelo surefire; rodar com:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=br.com.bluesoft.erp.testecandidatos.benchmark.SerializationBenchmark \
+ *     -Dexec.args="pedidos [itens por pedido]"
+ * </pre>
+ */
+public class SerializationBenchmark {
+
+    public static void main(String[] args) throws JsonProcessingException {
+        int orders = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        int itemsPerOrder = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        List<Order> entities = populate(orders, itemsPerOrder);
+        List<Customer> customers = entities.stream().map(Order::getCustomer).distinct()
+                .collect(Collectors.toList());
+        Order detail = entities.get(0);
+
+        List<CustomerResponse> customerResponses = customers.stream().map(CustomerResponse::of)
+                .collect(Collectors.toList());
+        List<OrderSummaryResponse> summaries = entities.stream().map(SerializationBenchmark::summaryOf)
+                .collect(Collectors.toList());
+        OrderResponse detailResponse = OrderResponse.of(detail);
+
+        System.out.printf("pedidos=%d itens por pedido=%d clientes=%d%n", orders, itemsPerOrder, customers.size());
+        compare(objectMapper, "GET /api/customers", customers, customerResponses, 20);
+        compare(objectMapper, "GET /api/orders", entities, summaries, 20);
+        compare(objectMapper, "GET /api/orders/{id}", detail, detailResponse, 20_000);
+    }
+
+    private static void compare(ObjectMapper objectMapper, String endpoint, Object entity, Object dto, int rounds)
+            throws JsonProcessingException {
+        int entityBytes = objectMapper.writeValueAsBytes(entity).length;
+        int dtoBytes = objectMapper.writeValueAsBytes(dto).length;
+        // Aquecimento
+        time(objectMapper, entity, rounds);
+        time(objectMapper, dto, rounds);
+        double entityMicros = time(objectMapper, entity, rounds);
+        double dtoMicros = time(objectMapper, dto, rounds);
+
+        System.out.printf("%-22s entidade: %9d bytes %10.1fµs | DTO: %9d bytes %10.1fµs | %.0f%% do tamanho%n",
+                endpoint, entityBytes, entityMicros, dtoBytes, dtoMicros, 100.0 * dtoBytes / entityBytes);
+    }
+
+    private static double time(ObjectMapper objectMapper, Object value, int rounds) throws JsonProcessingException {
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            objectMapper.writeValueAsBytes(value);
+        }
+        return (System.nanoTime() - start) / 1_000.0 / rounds;
+    }
+
+    private static OrderSummaryResponse summaryOf(Order order) {
+        return new OrderSummaryResponse(order.getId(), order.getOrderNumber(), order.getOrderDate(),
+                order.getStatus(), order.getTotalAmount(), order.getCustomer().getId(),
+                order.getCustomer().getName(), order.getItems().size());
+    }
+
+    private static List<Order> populate(int orders, int itemsPerOrder) {
+        Random random = new Random(42);
+
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= 200; id++) {
+            Product product = new Product();
+            product.setId(id);
+            product.setName("Produto " + id);
+            product.setDescription("Descrição do produto " + id + " com algumas palavras a mais");
+            product.setSku(String.format("SKU-%05d", id));
+            product.setPrice(BigDecimal.valueOf(100 + random.nextInt(10_000), 2));
+            product.setStock(random.nextInt(500));
+            products.add(product);
+        }
+
+        List<Customer> customers = new ArrayList<>();
+        for (long id = 1; id <= Math.max(1, orders / 10); id++) {
+            Customer customer = new Customer();
+            customer.setId(id);
+            customer.setName("Cliente " + id);
+            customer.setEmail("cliente" + id + "@example.com");
+            customer.setPhone("11 9" + (10_000_000 + id));
+            customers.add(customer);
+        }
+
+        List<Order> result = new ArrayList<>(orders);
+        long itemId = 1;
+        for (long id = 1; id <= orders; id++) {
+            Order order = new Order();
+            order.setId(id);
+            order.setOrderNumber("ORD-" + id);
+            order.setOrderDate(LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(id));
+            order.setStatus(Status.FINALIZADO);
+            order.setCustomer(customers.get(random.nextInt(customers.size())));
+            BigDecimal total = BigDecimal.ZERO;
+            for (int i = 0; i < itemsPerOrder; i++) {
+                Product product = products.get(random.nextInt(products.size()));
+                OrderItem item = new OrderItem();
+                item.setId(itemId++);
+                item.setProduct(product);
+                item.setQuantity(1 + random.nextInt(5));
+                item.setUnitPrice(product.getPrice());
+                item.setSubtotal(product.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+                total = total.add(item.getSubtotal());
+                order.getItems().add(item);
+            }
+            order.setTotalAmount(total);
+            result.add(order);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,226 @@
+package br.com.bluesoft.erp.testecandidatos.benchmark;
+
+import br.com.bluesoft.erp.testecandidatos.concurrent.StripedLock;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Benchmark das estratégias de baixa de estoque concorrente sob carga concentrada
+ * em poucos SKUs (distribuição Zipfian): travas por faixa em memória, trava pessimista
+ * no banco ({@code SELECT ... FOR UPDATE}) e {@code UPDATE} condicional.
+ * Não é executado pelo surefire; rodar com:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=br.com.bluesoft.erp.testecandidatos.benchmark.StockLockBenchmark \
+ *     -Dexec.args="threads produtos operações expoente"
+ * </pre>
+ */
+public class StockLockBenchmark {
+
+    private static final String URL = "jdbc:h2:mem:stock-benchmark;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000";
+    private static final int INITIAL_STOCK = 1_000_000;
+
+    interface Strategy {
+        /**
+         * @return {@code true} se a baixa foi aplicada
+         */
+        boolean decrement(Connection connection, long productId, int quantity) throws SQLException;
+
+        default void prepare(Connection connection) throws SQLException {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int products = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int operations = args.length > 2 ? Integer.parseInt(args[2]) : 200_000;
+        double exponent = args.length > 3 ? Double.parseDouble(args[3]) : 0.99;
+
+        double[] cdf = zipfCdf(products, exponent);
+        StripedLock locks = new StripedLock(256);
+
+        try (Connection admin = DriverManager.getConnection(URL)) {
+            createTable(admin, products);
+
+            Strategy striped = (connection, productId, quantity) -> {
+                locks.lock(productId);
+                try {
+                    int current = readStock(connection, "SELECT stock FROM products WHERE id = ?", productId);
+                    if (current < quantity) {
+                        return false;
+                    }
+                    writeStock(connection, productId, current - quantity);
+                    return true;
+                } finally {
+                    locks.unlock(productId);
+                }
+            };
+
+            Strategy pessimistic = new Strategy() {
+                @Override
+                public void prepare(Connection connection) throws SQLException {
+                    connection.setAutoCommit(false);
+                }
+
+                @Override
+                public boolean decrement(Connection connection, long productId, int quantity) throws SQLException {
+                    try {
+                        int current = readStock(connection,
+                                "SELECT stock FROM products WHERE id = ? FOR UPDATE", productId);
+                        boolean applied = current >= quantity;
+                        if (applied) {
+                            writeStock(connection, productId, current - quantity);
+                        }
+                        connection.commit();
+                        return applied;
+                    } catch (SQLException e) {
+                        connection.rollback();
+                        throw e;
+                    }
+                }
+            };
+
+            Strategy conditional = (connection, productId, quantity) -> {
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "UPDATE products SET stock = stock - ? WHERE id = ? AND stock >= ?")) {
+                    statement.setInt(1, quantity);
+                    statement.setLong(2, productId);
+                    statement.setInt(3, quantity);
+                    return statement.executeUpdate() == 1;
+                }
+            };
+
+            System.out.printf("threads=%d produtos=%d operações=%d expoente=%.2f%n",
+                    threads, products, operations, exponent);
+            for (int round = 0; round < 2; round++) {
+                // A primeira rodada serve de aquecimento da JIT
+                String prefix = round == 0 ? "aquecimento " : "";
+                run(prefix + "faixas", striped, admin, cdf, threads, operations);
+                run(prefix + "pessimista", pessimistic, admin, cdf, threads, operations);
+                run(prefix + "condicional", conditional, admin, cdf, threads, operations);
+            }
+        }
+    }
+
+    private static void run(String name, Strategy strategy, Connection admin, double[] cdf,
+                            int threads, int operations) throws Exception {
+        try (Statement statement = admin.createStatement()) {
+            statement.executeUpdate("UPDATE products SET stock = " + INITIAL_STOCK);
+        }
+        long before = totalStock(admin);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<long[]>> futures = new ArrayList<>();
+        int perThread = operations / threads;
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                long applied = 0;
+                long units = 0;
+                try (Connection connection = DriverManager.getConnection(URL)) {
+                    strategy.prepare(connection);
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < perThread; i++) {
+                        long productId = sample(cdf, random.nextDouble()) + 1;
+                        int quantity = 1 + random.nextInt(3);
+                        if (strategy.decrement(connection, productId, quantity)) {
+                            applied++;
+                            units += quantity;
+                        }
+                    }
+                }
+                return new long[]{applied, units};
+            }));
+        }
+        long applied = 0;
+        long units = 0;
+        for (Future<long[]> future : futures) {
+            long[] result = future.get();
+            applied += result[0];
+            units += result[1];
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        executor.shutdown();
+
+        long after = totalStock(admin);
+        System.out.printf("%-24s tempo=%.2fs vazão=%.0f ops/s baixas=%d consistente=%s%n",
+                name, seconds, perThread * threads / seconds, applied, before - after == units);
+    }
+
+    private static void createTable(Connection connection, int products) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, stock INT NOT NULL)");
+        }
+        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO products VALUES (?, ?)")) {
+            for (int id = 1; id <= products; id++) {
+                statement.setLong(1, id);
+                statement.setInt(2, INITIAL_STOCK);
+                statement.addBatch();
+                if (id % 1000 == 0) {
+                    statement.executeBatch();
+                }
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private static int readStock(Connection connection, String sql, long productId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, productId);
+            try (ResultSet rs = statement.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    private static void writeStock(Connection connection, long productId, int stock) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("UPDATE products SET stock = ? WHERE id = ?")) {
+            statement.setInt(1, stock);
+            statement.setLong(2, productId);
+            statement.executeUpdate();
+        }
+    }
+
+    private static long totalStock(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT SUM(stock) FROM products")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    /**
+     * Distribuição acumulada Zipfian: o produto de posição k tem peso 1 / k^expoente.
+     */
+    private static double[] zipfCdf(int products, double exponent) {
+        double[] cdf = new double[products];
+        double sum = 0;
+        for (int k = 1; k <= products; k++) {
+            sum += 1.0 / Math.pow(k, exponent);
+            cdf[k - 1] = sum;
+        }
+        for (int i = 0; i < products; i++) {
+            cdf[i] /= sum;
+        }
+        return cdf;
+    }
+
+    private static int sample(double[] cdf, double u) {
+        int index = Arrays.binarySearch(cdf, u);
+        return Math.min(index >= 0 ? index : -index - 1, cdf.length - 1);
+    }
+}
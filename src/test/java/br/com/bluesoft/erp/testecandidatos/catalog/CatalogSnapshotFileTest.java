@@ -0,0 +1,89 @@
+package br.com.bluesoft.erp.testecandidatos.catalog;
+
+import br.com.bluesoft.erp.testecandidatos.model.Product;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes para o arquivo binário da fotografia do catálogo.
+ */
+public class CatalogSnapshotFileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private CatalogSnapshot sampleSnapshot() {
+        return CatalogSnapshot.builder(3)
+                .add(1L, "Caneta", "Caneta azul", new BigDecimal("2.50"), 100, "CAN-001", 25)
+                .add(2L, "Lápis", null, new BigDecimal("1.00"), null, "LAP-001")
+                .add(3L, "Borracha", null, null, 0, null)
+                .build(42L);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        CatalogSnapshot original = sampleSnapshot();
+        Path file = folder.getRoot().toPath().resolve("catalog.bin");
+
+        CatalogSnapshotFile.write(original, file);
+        CatalogSnapshot loaded = CatalogSnapshotFile.read(file);
+
+        assertEquals(original.size(), loaded.size());
+        assertEquals(42L, loaded.getVersion());
+        assertEquals(original.getBuiltAt().toEpochMilli(), loaded.getBuiltAt().toEpochMilli());
+        for (long id = 1; id <= 3; id++) {
+            assertEquals(original.findById(id).get(), loaded.findById(id).get());
+        }
+        Product lapis = loaded.findBySku("LAP-001").get();
+        assertEquals("Lápis", lapis.getName());
+        assertNull(lapis.getStock());
+        assertNull(lapis.getReorderThreshold());
+        assertEquals(Integer.valueOf(25), loaded.findById(1L).get().getReorderThreshold());
+    }
+
+    @Test
+    public void testRoundTripEmptySnapshot() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("empty.bin");
+
+        CatalogSnapshotFile.write(CatalogSnapshot.builder(0).build(1L), file);
+
+        assertEquals(0, CatalogSnapshotFile.read(file).size());
+    }
+
+    @Test(expected = IOException.class)
+    public void testCorruptedPayloadIsRejected() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("catalog.bin");
+        CatalogSnapshotFile.write(sampleSnapshot(), file);
+
+        // Altera um byte do conteúdo para invalidar o checksum
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(CatalogSnapshotFile.HEADER_SIZE + 3);
+            int value = raf.read();
+            raf.seek(CatalogSnapshotFile.HEADER_SIZE + 3);
+            raf.write(value ^ 0xFF);
+        }
+
+        CatalogSnapshotFile.read(file);
+    }
+
+    @Test(expected = IOException.class)
+    public void testUnknownFormatVersionIsRejected() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("catalog.bin");
+        CatalogSnapshotFile.write(sampleSnapshot(), file);
+
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(Integer.BYTES);
+            raf.writeInt(CatalogSnapshotFile.FORMAT_VERSION + 1);
+        }
+
+        CatalogSnapshotFile.read(file);
+    }
+}
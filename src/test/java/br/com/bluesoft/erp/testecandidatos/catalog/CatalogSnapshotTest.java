@@ -0,0 +1,94 @@
+package br.com.bluesoft.erp.testecandidatos.catalog;
+
+import br.com.bluesoft.erp.testecandidatos.model.Product;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes para a fotografia colunar do catálogo.
+ */
+public class CatalogSnapshotTest {
+
+    @Test
+    public void testLookupByIdAndSku() {
+        CatalogSnapshot snapshot = CatalogSnapshot.builder(2)
+                .add(10L, "Caneta", "Caneta azul", new BigDecimal("2.50"), 100, "CAN-001")
+                .add(20L, "Lápis", null, new BigDecimal("1.00"), 5, "LAP-001")
+                .build(1L);
+
+        assertEquals(2, snapshot.size());
+
+        Optional<Product> caneta = snapshot.findById(10L);
+        assertTrue(caneta.isPresent());
+        assertEquals("Caneta", caneta.get().getName());
+        assertEquals(0, new BigDecimal("2.50").compareTo(caneta.get().getPrice()));
+        assertEquals(Integer.valueOf(100), caneta.get().getStock());
+
+        Optional<Product> lapis = snapshot.findBySku("LAP-001");
+        assertTrue(lapis.isPresent());
+        assertEquals(Long.valueOf(20L), lapis.get().getId());
+        // Texto acentuado deve sobreviver à codificação UTF-8 do pool
+        assertEquals("Lápis", lapis.get().getName());
+        assertNull(lapis.get().getDescription());
+
+        assertFalse(snapshot.findById(30L).isPresent());
+        assertFalse(snapshot.findBySku("XYZ").isPresent());
+    }
+
+    @Test
+    public void testNullColumnsArePreserved() {
+        CatalogSnapshot snapshot = CatalogSnapshot.builder(1)
+                .add(1L, "Sem preço", null, null, null, null)
+                .build(1L);
+
+        Product product = snapshot.findById(1L).get();
+        assertNull(product.getPrice());
+        assertNull(product.getStock());
+        assertNull(product.getSku());
+        assertFalse(snapshot.findBySku(null).isPresent());
+    }
+
+    @Test
+    public void testFindAllKeepsLoadOrder() {
+        CatalogSnapshot.Builder builder = CatalogSnapshot.builder(16);
+        for (long id = 100; id > 0; id--) {
+            builder.add(id, "Produto " + id, null, BigDecimal.ONE, (int) id, "SKU-" + id);
+        }
+        CatalogSnapshot snapshot = builder.build(7L);
+
+        List<Product> products = snapshot.findAll();
+        assertEquals(100, products.size());
+        assertEquals(Long.valueOf(100L), products.get(0).getId());
+        assertEquals(7L, snapshot.getVersion());
+        for (long id = 1; id <= 100; id++) {
+            assertEquals("SKU-" + id, snapshot.findById(id).get().getSku());
+        }
+    }
+
+    @Test
+    public void testLongIntHashMapWithCollidingKeys() {
+        LongIntHashMap map = new LongIntHashMap(1000, -1);
+        for (int i = 0; i < 1000; i++) {
+            map.put(i * 31L, i);
+        }
+        map.put(31L, 42);
+
+        assertEquals(1000, map.size());
+        assertEquals(42, map.get(31L));
+        assertEquals(999, map.get(999 * 31L));
+        assertEquals(-1, map.get(7L));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testLongIntHashMapRejectsOverflow() {
+        LongIntHashMap map = new LongIntHashMap(2, -1);
+        for (int i = 0; i < 10; i++) {
+            map.put(i, i);
+        }
+    }
+}
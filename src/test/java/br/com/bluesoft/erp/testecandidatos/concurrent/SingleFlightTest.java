@@ -0,0 +1,96 @@
+package br.com.bluesoft.erp.testecandidatos.concurrent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes para o agrupamento de chamadas concorrentes.
+ */
+public class SingleFlightTest {
+
+    @Test
+    public void testConcurrentCallsShareOneExecution() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>("product.id", meterRegistry);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+        List<Future<String>> results = new ArrayList<>();
+        results.add(executor.submit(() -> singleFlight.execute(1L, () -> {
+            loads.incrementAndGet();
+            await(release);
+            return "produto-1";
+        })));
+
+        // Aguarda a primeira chamada entrar em andamento
+        while (singleFlight.getExecutions() == 0) {
+            Thread.sleep(1);
+        }
+        for (int i = 0; i < 9; i++) {
+            results.add(executor.submit(() -> singleFlight.execute(1L, () -> {
+                loads.incrementAndGet();
+                return "produto-1";
+            })));
+        }
+        while (singleFlight.getCollapsed() < 9) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("produto-1", result.get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdownNow();
+
+        assertEquals("Consulta deveria ser executada uma única vez", 1, loads.get());
+        assertEquals(9.0, meterRegistry.get("lookups.coalesced").tag("lookup", "product.id")
+                .functionCounter().count(), 0.0);
+    }
+
+    @Test
+    public void testFailureIsSharedAndNotCached() {
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+
+        try {
+            singleFlight.execute(1L, () -> {
+                throw new IllegalStateException("banco indisponível");
+            });
+            fail("Exceção deveria ser propagada");
+        } catch (IllegalStateException expected) {
+            // esperado
+        }
+
+        // Depois de terminar, a próxima chamada executa novamente
+        assertEquals("ok", singleFlight.execute(1L, () -> "ok"));
+        assertEquals(2, singleFlight.getExecutions());
+    }
+
+    @Test
+    public void testDifferentKeysAreNotCoalesced() {
+        SingleFlight<Long, Long> singleFlight = new SingleFlight<>();
+
+        assertEquals(Long.valueOf(1L), singleFlight.execute(1L, () -> 1L));
+        assertEquals(Long.valueOf(2L), singleFlight.execute(2L, () -> 2L));
+        assertEquals(0, singleFlight.getCollapsed());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
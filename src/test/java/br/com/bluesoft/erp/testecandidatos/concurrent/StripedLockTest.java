@@ -0,0 +1,81 @@
+package br.com.bluesoft.erp.testecandidatos.concurrent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes para as travas por faixa.
+ */
+public class StripedLockTest {
+
+    @Test
+    public void testStripesAreRoundedToPowerOfTwo() {
+        assertEquals(16, new StripedLock(10).stripes());
+        assertEquals(16, new StripedLock(16).stripes());
+        assertEquals(1, new StripedLock(1).stripes());
+    }
+
+    @Test
+    public void testReadModifyWriteIsSerializedPerKey() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        StripedLock locks = new StripedLock(8, "test", meterRegistry);
+        int[] stock = new int[4];
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    int key = i % stock.length;
+                    locks.lock(key);
+                    try {
+                        // Leitura e escrita separadas: sem a trava haveria perda de atualizações
+                        int current = stock[key];
+                        stock[key] = current + 1;
+                    } finally {
+                        locks.unlock(key);
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        for (int value : stock) {
+            assertEquals(20_000, value);
+        }
+        assertNotNull(meterRegistry.get("locks.wait").tag("lock", "test").timer());
+    }
+
+    @Test
+    public void testLockAllAcquiresEachStripeOnce() {
+        StripedLock locks = new StripedLock(4);
+
+        // Chaves repetidas ou na mesma faixa não podem travar a faixa duas vezes
+        int[] stripes = locks.lockAll(1L, 1L, 2L, 3L, 4L, 5L, 6L);
+        for (int i = 1; i < stripes.length; i++) {
+            assertTrue("Faixas deveriam estar em ordem crescente e sem repetição", stripes[i] > stripes[i - 1]);
+        }
+        locks.unlockStripes(stripes);
+
+        // Depois de liberadas, outra thread consegue adquirir todas as faixas
+        Thread other = new Thread(() -> locks.unlockStripes(locks.lockAll(1L, 2L, 3L, 4L, 5L, 6L)));
+        other.start();
+        try {
+            other.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        assertFalse("Faixas deveriam estar livres", other.isAlive());
+    }
+}
@@ -1,5 +1,7 @@
 package br.com.bluesoft.erp.testecandidatos.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.hibernate.jpa.HibernatePersistenceProvider;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
@@ -69,6 +71,11 @@ public class TestConfig {
         return transactionManager;
     }
 
+    @Bean
+    public MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+
     private Properties additionalProperties() {
         Properties properties = new Properties();
         properties.setProperty("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
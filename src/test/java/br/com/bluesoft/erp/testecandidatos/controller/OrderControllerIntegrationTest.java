@@ -0,0 +1,145 @@
+package br.com.bluesoft.erp.testecandidatos.controller;
+
+import br.com.bluesoft.erp.testecandidatos.TesteApplication;
+import br.com.bluesoft.erp.testecandidatos.config.TestConfig;
+import br.com.bluesoft.erp.testecandidatos.model.Customer;
+import br.com.bluesoft.erp.testecandidatos.model.Order;
+import br.com.bluesoft.erp.testecandidatos.model.OrderItem;
+import br.com.bluesoft.erp.testecandidatos.model.Product;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Testes de integração para as respostas do controller de pedidos.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = TesteApplication.class)
+@ActiveProfiles("test")
+@Import(TestConfig.class)
+@Transactional
+public class OrderControllerIntegrationTest {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private MockMvc mockMvc;
+
+    private Customer customer;
+    private Order order;
+
+    @Before
+    public void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+
+        customer = new Customer();
+        customer.setName("Cliente Resposta");
+        customer.setEmail("resposta@example.com");
+        entityManager.persist(customer);
+
+        Product product = new Product();
+        product.setName("Produto Resposta");
+        product.setSku("DTO-001");
+        product.setPrice(new BigDecimal("4.50"));
+        product.setStock(10);
+        entityManager.persist(product);
+
+        order = new Order();
+        order.setOrderNumber("ORD-DTO-1");
+        order.setOrderDate(LocalDateTime.of(2024, 5, 1, 10, 30));
+        order.setCustomer(customer);
+        order.setItems(new ArrayList<>());
+        entityManager.persist(order);
+
+        for (int quantity = 1; quantity <= 2; quantity++) {
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setProduct(product);
+            item.setQuantity(quantity);
+            item.setUnitPrice(new BigDecimal("4.50"));
+            entityManager.persist(item);
+        }
+
+        // Pedido sem itens também aparece nas listagens
+        Order empty = new Order();
+        empty.setOrderNumber("ORD-DTO-2");
+        empty.setCustomer(customer);
+        entityManager.persist(empty);
+
+        entityManager.flush();
+        // As respostas não podem depender de entidades já carregadas no contexto
+        entityManager.clear();
+    }
+
+    @Test
+    public void testListsReturnSummariesWithoutItems() throws Exception {
+        mockMvc.perform(get("/api/orders/customer/" + customer.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].orderNumber", is("ORD-DTO-1")))
+                .andExpect(jsonPath("$[0].customerName", is("Cliente Resposta")))
+                .andExpect(jsonPath("$[0].itemCount", is(2)))
+                .andExpect(jsonPath("$[0].items").doesNotExist())
+                .andExpect(jsonPath("$[0].customer").doesNotExist())
+                .andExpect(jsonPath("$[1].itemCount", is(0)));
+
+        mockMvc.perform(get("/api/orders"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.orderNumber == 'ORD-DTO-1')].itemCount", is(java.util.Collections.singletonList(2))));
+    }
+
+    @Test
+    public void testDetailsIncludeItemsWithProductData() throws Exception {
+        mockMvc.perform(get("/api/orders/" + order.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orderNumber", is("ORD-DTO-1")))
+                .andExpect(jsonPath("$.customerId", is(customer.getId().intValue())))
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[1].productSku", is("DTO-001")))
+                .andExpect(jsonPath("$.items[1].subtotal", is(9.0)))
+                .andExpect(jsonPath("$.items[0].order").doesNotExist());
+
+        mockMvc.perform(get("/api/orders/number/ORD-DTO-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(order.getId().intValue())));
+
+        mockMvc.perform(get("/api/orders/number/ORD-INEXISTENTE"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testCustomerResponsesOmitOrders() throws Exception {
+        mockMvc.perform(get("/api/customers/" + customer.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is("Cliente Resposta")))
+                .andExpect(jsonPath("$.orders").doesNotExist());
+
+        mockMvc.perform(get("/api/customers/with-orders"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.id == " + customer.getId() + ")].email",
+                        is(java.util.Collections.singletonList("resposta@example.com"))));
+    }
+}
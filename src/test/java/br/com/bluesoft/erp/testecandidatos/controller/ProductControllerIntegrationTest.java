@@ -223,6 +223,37 @@ public class ProductControllerIntegrationTest {
         assertNotEquals("Estoque não deveria ser atualizado com valor negativo", Integer.valueOf(-50), updatedProduct.get().getStock());
     }
 
+    @Test
+    public void testBulkAdjustStock() throws Exception {
+        String body = "[{\"id\":" + product1.getId() + ",\"delta\":-30},"
+                + "{\"sku\":\"SKU002\",\"stock\":40},"
+                + "{\"sku\":\"SKU999\",\"delta\":1},"
+                + "{\"id\":" + product1.getId() + ",\"delta\":-100}]";
+
+        mockMvc.perform(post("/api/products/stock/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.applied", is(2)))
+                .andExpect(jsonPath("$.rejected", is(2)))
+                .andExpect(jsonPath("$.results[1].productId", is(product2.getId().intValue())))
+                .andExpect(jsonPath("$.results[2].outcome", is("NAO_ENCONTRADO")))
+                .andExpect(jsonPath("$.results[3].outcome", is("ESTOQUE_INSUFICIENTE")));
+
+        // O lote grava por JDBC; descarta as entidades em memória para ler do banco
+        entityManager.clear();
+        assertEquals(Integer.valueOf(70), productService.findProductById(product1.getId()).get().getStock());
+        assertEquals(Integer.valueOf(40), productService.findProductById(product2.getId()).get().getStock());
+    }
+
+    @Test
+    public void testBulkAdjustStockWithoutEntries() throws Exception {
+        mockMvc.perform(post("/api/products/stock/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void testUpdatePrice() throws Exception {
         // Executa e verifica
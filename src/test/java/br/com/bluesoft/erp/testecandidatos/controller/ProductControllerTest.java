@@ -7,6 +7,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
@@ -15,8 +16,16 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import java.math.BigDecimal;
 import java.util.Arrays;
 
+import br.com.bluesoft.erp.testecandidatos.service.ProductResponseCache;
+import br.com.bluesoft.erp.testecandidatos.event.ProductChangedEvent;
 import br.com.bluesoft.erp.testecandidatos.model.Product;
+import br.com.bluesoft.erp.testecandidatos.model.TopSeller;
+import br.com.bluesoft.erp.testecandidatos.service.BulkStockService;
+import br.com.bluesoft.erp.testecandidatos.service.CatalogSnapshotService;
+import br.com.bluesoft.erp.testecandidatos.service.LowStockMonitor;
+import br.com.bluesoft.erp.testecandidatos.service.ProductChangeService;
 import br.com.bluesoft.erp.testecandidatos.service.ProductService;
+import br.com.bluesoft.erp.testecandidatos.service.TopSellerTracker;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
@@ -26,6 +35,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -40,6 +50,24 @@ public class ProductControllerTest {
     @Mock
     private ProductService productService;
 
+    @Mock
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Mock
+    private TopSellerTracker topSellerTracker;
+
+    @Mock
+    private ProductChangeService productChangeService;
+
+    @Mock
+    private LowStockMonitor lowStockMonitor;
+
+    @Mock
+    private BulkStockService bulkStockService;
+
+    @Spy
+    private ProductResponseCache productResponseCache = new ProductResponseCache(new ObjectMapper(), true, 1024);
+
     @InjectMocks
     private ProductController productController;
 
@@ -160,4 +188,66 @@ public class ProductControllerTest {
         verify(productService, times(1)).findProductsByPriceRange(
             new BigDecimal("30.00"), new BigDecimal("20.00"));
     }
+
+    @Test
+    public void testGetTopSellers() throws Exception {
+        when(topSellerTracker.topSellers(2)).thenReturn(Arrays.asList(
+                new TopSeller(2L, null, null, 40L, 0L),
+                new TopSeller(1L, null, null, 15L, 3L)));
+
+        mockMvc.perform(get("/api/products/top-sellers").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].productId", is(2)))
+                .andExpect(jsonPath("$[0].units", is(40)))
+                .andExpect(jsonPath("$[1].maxError", is(3)));
+
+        // Limite fora da capacidade do rastreador
+        when(topSellerTracker.topSellers(0)).thenThrow(new IllegalArgumentException("Limite deve estar entre 1 e 256"));
+        mockMvc.perform(get("/api/products/top-sellers").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testCachedResponsesHonorIfNoneMatch() throws Exception {
+        when(productService.findAllProducts()).thenReturn(Arrays.asList(product1, product2));
+
+        String etag = mockMvc.perform(get("/api/products"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // Mesmo conteúdo: 304 sem corpo e sem nova consulta
+        mockMvc.perform(get("/api/products").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+        verify(productService, times(1)).findAllProducts();
+
+        // Alteração de produto descarta a lista e força nova consulta
+        productResponseCache.onProductChanged(new ProductChangedEvent(ProductChangedEvent.Type.SALVO, 1L));
+        product1.setName("Produto 1 alterado");
+        mockMvc.perform(get("/api/products").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name", is("Produto 1 alterado")));
+        verify(productService, times(2)).findAllProducts();
+    }
+
+    @Test
+    public void testGetProductBySkuFromCache() throws Exception {
+        when(productService.findProductBySku("SKU001")).thenReturn(java.util.Optional.of(product1));
+        when(productService.findProductBySku("SKU999")).thenReturn(java.util.Optional.empty());
+
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/products/sku/SKU001"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+                    .andExpect(jsonPath("$.sku", is("SKU001")));
+        }
+        verify(productService, times(1)).findProductBySku("SKU001");
+
+        // Produto inexistente não fica em cache
+        mockMvc.perform(get("/api/products/sku/SKU999")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/products/sku/SKU999")).andExpect(status().isNotFound());
+        verify(productService, times(2)).findProductBySku("SKU999");
+    }
 }
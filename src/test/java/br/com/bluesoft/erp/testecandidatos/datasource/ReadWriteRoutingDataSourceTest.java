@@ -0,0 +1,186 @@
+package br.com.bluesoft.erp.testecandidatos.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.jpa.HibernatePersistenceProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes para o roteamento entre primário e réplica, com duas instâncias H2 em memória.
+ */
+public class ReadWriteRoutingDataSourceTest {
+
+    /**
+     * Réplica que pode ser derrubada durante o teste.
+     */
+    private static class FailingDataSource extends DelegatingDataSource {
+        private volatile boolean down;
+
+        FailingDataSource(EmbeddedDatabase target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) {
+                throw new SQLException("Réplica fora do ar");
+            }
+            return super.getConnection();
+        }
+    }
+
+    private EmbeddedDatabase primary;
+    private EmbeddedDatabase replicaDatabase;
+    private FailingDataSource replica;
+    private SimpleMeterRegistry meterRegistry;
+    private ReplicaLagMonitor lagMonitor;
+    private ReadWriteRoutingDataSource routing;
+    private JdbcTemplate jdbcTemplate;
+
+    private static EmbeddedDatabase database(String name) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        JdbcTemplate jdbc = new JdbcTemplate(database);
+        jdbc.execute("CREATE TABLE instance (name VARCHAR(20))");
+        jdbc.update("INSERT INTO instance (name) VALUES (?)", name);
+        return database;
+    }
+
+    @Before
+    public void setUp() {
+        primary = database("primary");
+        replicaDatabase = database("replica");
+        replica = new FailingDataSource(replicaDatabase);
+        meterRegistry = new SimpleMeterRegistry();
+        lagMonitor = new ReplicaLagMonitor(primary, replica, 50);
+        routing = new ReadWriteRoutingDataSource(primary, replica, lagMonitor);
+        routing.bindTo(meterRegistry);
+        jdbcTemplate = new JdbcTemplate(routing);
+
+        // Primeiro batimento replicado: réplica em dia
+        lagMonitor.check();
+        replicateHeartbeat();
+        lagMonitor.check();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        routing.close();
+    }
+
+    /**
+     * Simula a replicação copiando o batimento do primário para a réplica.
+     */
+    private void replicateHeartbeat() {
+        Long beat = new JdbcTemplate(primary).queryForObject(
+                "SELECT beat_at FROM replication_heartbeat WHERE id = 1", Long.class);
+        JdbcTemplate replicaJdbc = new JdbcTemplate(replicaDatabase);
+        replicaJdbc.execute(ReplicaLagMonitor.CREATE_TABLE);
+        replicaJdbc.update("DELETE FROM replication_heartbeat");
+        replicaJdbc.update("INSERT INTO replication_heartbeat (id, beat_at) VALUES (1, ?)", beat);
+    }
+
+    private String instance(PlatformTransactionManager transactionManager, boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        return template.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM instance", String.class));
+    }
+
+    @Test
+    public void testReadOnlyTransactionsGoToReplica() {
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+
+        assertEquals(0, lagMonitor.getLagMillis());
+        assertEquals("replica", instance(transactionManager, true));
+        assertEquals("primary", instance(transactionManager, false));
+        // Fora de transação, sempre o primário
+        assertEquals("primary", jdbcTemplate.queryForObject("SELECT name FROM instance", String.class));
+    }
+
+    @Test
+    public void testLaggingReplicaFallsBackToPrimary() throws InterruptedException {
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+
+        // Novo batimento que não chega à réplica
+        lagMonitor.check();
+        Thread.sleep(100);
+        lagMonitor.check();
+
+        assertTrue(lagMonitor.getLagMillis() >= 100);
+        assertFalse(lagMonitor.isReplicaUsable());
+        assertEquals("primary", instance(transactionManager, true));
+        assertEquals(1.0, meterRegistry.get("datasource.routing.fallbacks").tag("reason", "lag").functionCounter().count(), 0.0);
+
+        // A réplica alcança o primário e volta a receber leituras
+        replicateHeartbeat();
+        lagMonitor.check();
+        assertEquals("replica", instance(transactionManager, true));
+    }
+
+    @Test
+    public void testUnreachableReplicaFallsBackToPrimary() {
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+
+        replica.down = true;
+        assertEquals("primary", instance(transactionManager, true));
+        assertFalse(lagMonitor.isReplicaAvailable());
+        assertEquals(1.0, meterRegistry.get("datasource.routing.fallbacks").tag("reason", "failure").functionCounter().count(), 0.0);
+
+        replica.down = false;
+        replicateHeartbeat();
+        lagMonitor.check();
+        assertEquals("replica", instance(transactionManager, true));
+    }
+
+    @Test
+    public void testJpaReadOnlyTransactionsGoToReplica() {
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(routing);
+        factoryBean.setPackagesToScan("br.com.bluesoft.erp.testecandidatos.model");
+        factoryBean.setPersistenceProviderClass(HibernatePersistenceProvider.class);
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        Properties properties = new Properties();
+        properties.setProperty("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        properties.setProperty("hibernate.hbm2ddl.auto", "none");
+        factoryBean.setJpaProperties(properties);
+        factoryBean.afterPropertiesSet();
+        EntityManagerFactory entityManagerFactory = factoryBean.getObject();
+
+        try {
+            JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+            TransactionTemplate template = new TransactionTemplate(transactionManager);
+            for (boolean readOnly : new boolean[]{true, false}) {
+                template.setReadOnly(readOnly);
+                String name = template.execute(status -> (String) EntityManagerFactoryUtils
+                        .getTransactionalEntityManager(entityManagerFactory)
+                        .createNativeQuery("SELECT name FROM instance")
+                        .getSingleResult());
+                assertEquals(readOnly ? "replica" : "primary", name);
+            }
+        } finally {
+            factoryBean.destroy();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package br.com.bluesoft.erp.testecandidatos.idempotency;
+
+import br.com.bluesoft.erp.testecandidatos.controller.OrderController;
+import br.com.bluesoft.erp.testecandidatos.model.Order;
+import br.com.bluesoft.erp.testecandidatos.service.OrderFinalizationService;
+import br.com.bluesoft.erp.testecandidatos.service.OrderQueryService;
+import br.com.bluesoft.erp.testecandidatos.service.OrderService;
+import br.com.bluesoft.erp.testecandidatos.service.OrderStatusStream;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Testes para o filtro de Idempotency-Key.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class IdempotencyFilterTest {
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private OrderFinalizationService finalizationService;
+
+    @Mock
+    private OrderQueryService orderQueryService;
+
+    @Mock
+    private OrderStatusStream orderStatusStream;
+
+    private MockMvc mockMvc;
+
+    @Before
+    public void setUp() {
+        IdempotencyFilter filter = new IdempotencyFilter(
+                new InMemoryIdempotencyStore(Duration.ofMinutes(1), 100),
+                Arrays.asList("/api/orders", "/api/orders/*/items"),
+                Duration.ofSeconds(1));
+        mockMvc = MockMvcBuilders.standaloneSetup(new OrderController(orderService, finalizationService, orderQueryService,
+                        orderStatusStream))
+                .addFilters(filter)
+                .build();
+
+        Order order = new Order();
+        order.setId(1L);
+        order.setOrderNumber("ORD-001");
+        when(orderService.createOrder(eq(1L), anyList())).thenReturn(order);
+    }
+
+    @Test
+    public void testRetryWithSameKeyDoesNotCreateDuplicateOrder() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/api/orders")
+                            .param("customerId", "1")
+                            .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "abc-123")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("[]"))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.orderNumber").value("ORD-001"));
+        }
+
+        verify(orderService, times(1)).createOrder(eq(1L), anyList());
+    }
+
+    @Test
+    public void testReplayedResponseIsFlagged() throws Exception {
+        mockMvc.perform(post("/api/orders").param("customerId", "1")
+                .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "abc-123")
+                .contentType(MediaType.APPLICATION_JSON).content("[]"));
+
+        mockMvc.perform(post("/api/orders").param("customerId", "1")
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "abc-123")
+                        .contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"));
+    }
+
+    @Test
+    public void testSameKeyWithDifferentBodyIsRejected() throws Exception {
+        mockMvc.perform(post("/api/orders").param("customerId", "1")
+                .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "abc-123")
+                .contentType(MediaType.APPLICATION_JSON).content("[]"));
+
+        mockMvc.perform(post("/api/orders").param("customerId", "1")
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "abc-123")
+                        .contentType(MediaType.APPLICATION_JSON).content("[{\"quantity\":1}]"))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    public void testRequestsWithoutKeyAreNotDeduplicated() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/api/orders").param("customerId", "1")
+                            .contentType(MediaType.APPLICATION_JSON).content("[]"))
+                    .andExpect(status().isCreated());
+        }
+
+        verify(orderService, times(2)).createOrder(eq(1L), anyList());
+    }
+}
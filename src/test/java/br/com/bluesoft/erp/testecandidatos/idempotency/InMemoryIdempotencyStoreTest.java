@@ -0,0 +1,118 @@
+package br.com.bluesoft.erp.testecandidatos.idempotency;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes para o armazenamento de chaves de idempotência em memória.
+ */
+public class InMemoryIdempotencyStoreTest {
+
+    private static final Duration WAIT = Duration.ofSeconds(5);
+
+    @Test
+    public void testConcurrentDuplicatesWaitForFirstExecution() throws Exception {
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(Duration.ofMinutes(1), 100);
+        assertEquals(Reservation.Outcome.ACQUIRED, store.reserve("k1", "f1", WAIT).getOutcome());
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch started = new CountDownLatch(8);
+        List<Future<Reservation>> duplicates = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            duplicates.add(executor.submit(() -> {
+                started.countDown();
+                return store.reserve("k1", "f1", WAIT);
+            }));
+        }
+        started.await();
+
+        // Conclui a execução original; as duplicadas recebem a mesma resposta
+        store.complete("k1", new StoredResponse(201, "application/json", "{\"id\":1}".getBytes(StandardCharsets.UTF_8)));
+
+        for (Future<Reservation> duplicate : duplicates) {
+            Reservation reservation = duplicate.get(5, TimeUnit.SECONDS);
+            assertEquals(Reservation.Outcome.COMPLETED, reservation.getOutcome());
+            assertEquals(201, reservation.getResponse().getStatus());
+        }
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testDifferentRequestWithSameKeyIsRejected() throws InterruptedException {
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(Duration.ofMinutes(1), 100);
+        store.reserve("k1", "f1", WAIT);
+
+        assertEquals(Reservation.Outcome.MISMATCH, store.reserve("k1", "f2", WAIT).getOutcome());
+    }
+
+    @Test
+    public void testReleasedKeyCanBeRetried() throws InterruptedException {
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(Duration.ofMinutes(1), 100);
+        store.reserve("k1", "f1", WAIT);
+        store.release("k1");
+
+        assertEquals(Reservation.Outcome.ACQUIRED, store.reserve("k1", "f1", WAIT).getOutcome());
+    }
+
+    @Test
+    public void testInProgressWhenWaitTimesOut() throws InterruptedException {
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(Duration.ofMinutes(1), 100);
+        store.reserve("k1", "f1", WAIT);
+
+        assertEquals(Reservation.Outcome.IN_PROGRESS,
+                store.reserve("k1", "f1", Duration.ofMillis(20)).getOutcome());
+    }
+
+    @Test
+    public void testExpiredKeysArePurgedAndStoreIsBounded() throws InterruptedException {
+        MutableClock clock = new MutableClock();
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(Duration.ofMinutes(1), 2, clock);
+        for (int i = 0; i < 3; i++) {
+            store.reserve("k" + i, "f", WAIT);
+            store.complete("k" + i, new StoredResponse(200, null, new byte[0]));
+        }
+        assertTrue("Quantidade de chaves deveria respeitar o limite", store.size() <= 2);
+
+        clock.advance(Duration.ofMinutes(2));
+        store.purgeExpired();
+        assertEquals(0, store.size());
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
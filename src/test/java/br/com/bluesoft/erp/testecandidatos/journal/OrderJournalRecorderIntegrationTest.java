@@ -0,0 +1,143 @@
+package br.com.bluesoft.erp.testecandidatos.journal;
+
+import br.com.bluesoft.erp.testecandidatos.TesteApplication;
+import br.com.bluesoft.erp.testecandidatos.config.TestConfig;
+import br.com.bluesoft.erp.testecandidatos.event.OrderEvent;
+import br.com.bluesoft.erp.testecandidatos.model.Customer;
+import br.com.bluesoft.erp.testecandidatos.model.Status;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes de integração para a gravação dos eventos de pedido no diário.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = TesteApplication.class, properties = {
+        "orders.journal.enabled=true",
+        "orders.journal.directory=target/journal-recorder-test"
+})
+@ActiveProfiles("test")
+@Import(TestConfig.class)
+public class OrderJournalRecorderIntegrationTest {
+
+    private static final AtomicLong ORDER_IDS = new AtomicLong(System.nanoTime());
+
+    @Autowired
+    private OrderJournalRecorder recorder;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @Before
+    public void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    public void testEventIsJournaledOnCommit() {
+        Long orderId = ORDER_IDS.incrementAndGet();
+        long before = recorder.getLastSequence();
+
+        transactionTemplate.executeWithoutResult(status -> eventPublisher.publishEvent(event(orderId)));
+
+        assertEquals(before + 1, recorder.getLastSequence());
+        assertTrue(recorder.findState(orderId).isPresent());
+    }
+
+    @Test
+    public void testConstraintViolationKeepsEventOutOfJournal() {
+        Long orderId = ORDER_IDS.incrementAndGet();
+        Long firstId = transactionTemplate.execute(status -> persistCustomer("a" + orderId + "@teste.com"));
+        Long secondId = transactionTemplate.execute(status -> persistCustomer("b" + orderId + "@teste.com"));
+        long before = recorder.getLastSequence();
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // E-mail duplicado só viola a restrição de unicidade quando a alteração vai ao banco
+                Customer second = entityManager.find(Customer.class, secondId);
+                second.setEmail(entityManager.find(Customer.class, firstId).getEmail());
+                eventPublisher.publishEvent(event(orderId));
+            });
+            fail("A transação deveria ter falhado");
+        } catch (RuntimeException expected) {
+            // Esperado
+        }
+
+        assertEquals(before, recorder.getLastSequence());
+        assertFalse(recorder.findState(orderId).isPresent());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.remove(entityManager.find(Customer.class, firstId));
+            entityManager.remove(entityManager.find(Customer.class, secondId));
+        });
+    }
+
+    @Test
+    public void testCommitFailureAfterAppendIsCounted() {
+        Long orderId = ORDER_IDS.incrementAndGet();
+        double before = meterRegistry.counter("orders.journal.orphaned").count();
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                eventPublisher.publishEvent(event(orderId));
+                // Falha no commit depois que o evento já foi para o diário
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void beforeCommit(boolean readOnly) {
+                        throw new IllegalStateException("falha simulada no commit");
+                    }
+                });
+            });
+            fail("A transação deveria ter falhado");
+        } catch (IllegalStateException expected) {
+            // Esperado
+        }
+
+        assertEquals(before + 1, meterRegistry.counter("orders.journal.orphaned").count(), 0.0);
+    }
+
+    private Long persistCustomer(String email) {
+        Customer customer = new Customer();
+        customer.setName("Cliente Diário");
+        customer.setEmail(email);
+        entityManager.persist(customer);
+        return customer.getId();
+    }
+
+    private OrderEvent event(Long orderId) {
+        return new OrderEvent(OrderEvent.Type.CRIADO, orderId, "ORD-" + orderId, null, Status.PENDENTE,
+                BigDecimal.TEN, Instant.now(), Collections.emptyList());
+    }
+}
@@ -0,0 +1,193 @@
+package br.com.bluesoft.erp.testecandidatos.journal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes para o diário sequencial de eventos de pedido.
+ */
+public class OrderJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testConcurrentAppendsGetDistinctOrderedSequences() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("orders.journal");
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        List<Long> committed = Collections.synchronizedList(new ArrayList<>());
+
+        try (OrderJournal journal = new OrderJournal(file, 64, meterRegistry)) {
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        journal.appendAndWait(bytes("evento"), committed::add);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            executor.shutdown();
+
+            assertEquals(800L, journal.getLastSequence());
+        }
+
+        // O callback de commit é chamado em ordem de sequência
+        List<Long> expected = new ArrayList<>();
+        for (long i = 1; i <= 800; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, committed);
+        assertTrue("Commits em grupo não podem exceder a quantidade de registros",
+                meterRegistry.get("orders.journal.batch.size").summary().count() <= 800);
+    }
+
+    @Test
+    public void testReopenContinuesSequenceAndReplaysTail() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("orders.journal");
+        try (OrderJournal journal = new OrderJournal(file, 16, new SimpleMeterRegistry())) {
+            CompletableFuture<Long> first = journal.append(bytes("a"), null);
+            journal.append(bytes("b"), null);
+            assertEquals(Long.valueOf(3L), journal.append(bytes("c"), null).join());
+            assertEquals(Long.valueOf(1L), first.join());
+        }
+
+        try (OrderJournal journal = new OrderJournal(file, 16, new SimpleMeterRegistry())) {
+            assertEquals(3L, journal.getLastSequence());
+            assertEquals(4L, journal.appendAndWait(bytes("d"), null));
+
+            List<String> tail = new ArrayList<>();
+            journal.replay(2, (sequence, payload) -> tail.add(sequence + "=" + new String(payload, StandardCharsets.UTF_8)));
+            assertEquals(Arrays.asList("3=c", "4=d"), tail);
+        }
+    }
+
+    @Test
+    public void testTornTailIsDiscardedOnOpen() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("orders.journal");
+        try (OrderJournal journal = new OrderJournal(file, 16, new SimpleMeterRegistry())) {
+            journal.appendAndWait(bytes("primeiro"), null);
+            journal.appendAndWait(bytes("segundo"), null);
+        }
+
+        // Simula uma queda no meio da escrita do último registro
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(raf.length() - 3);
+        }
+
+        try (OrderJournal journal = new OrderJournal(file, 16, new SimpleMeterRegistry())) {
+            assertEquals(1L, journal.getLastSequence());
+            assertEquals(2L, journal.appendAndWait(bytes("terceiro"), null));
+
+            List<String> all = new ArrayList<>();
+            journal.replay(0, (sequence, payload) -> all.add(new String(payload, StandardCharsets.UTF_8)));
+            assertEquals(Arrays.asList("primeiro", "terceiro"), all);
+        }
+    }
+
+    @Test
+    public void testAppendAfterCloseIsRejected() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("orders.journal");
+        OrderJournal journal = new OrderJournal(file, 16, new SimpleMeterRegistry());
+        journal.close();
+
+        try {
+            journal.appendAndWait(bytes("tarde"), null);
+            fail("Diário fechado não pode aceitar registros");
+        } catch (IllegalStateException e) {
+            assertEquals("Diário de pedidos fechado", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testAppendAndWaitGivesUpAfterTimeout() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("orders.journal");
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (OrderJournal journal = new OrderJournal(file, 16, 100, new SimpleMeterRegistry())) {
+            // O callback do primeiro registro prende a thread escritora
+            CompletableFuture<Long> first = journal.append(bytes("lento"), sequence -> {
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+            try {
+                journal.appendAndWait(bytes("abandonado"), null);
+                fail("A espera deveria ter esgotado");
+            } catch (IllegalStateException e) {
+                assertEquals("Tempo esgotado aguardando o diário de pedidos", e.getMessage());
+            }
+
+            release.countDown();
+            assertEquals(Long.valueOf(1L), first.get(5, TimeUnit.SECONDS));
+            // O registro abandonado antes do commit não vai para o diário
+            assertEquals(2L, journal.appendAndWait(bytes("seguinte"), null));
+            List<String> all = new ArrayList<>();
+            journal.replay(0, (sequence, payload) -> all.add(new String(payload, StandardCharsets.UTF_8)));
+            assertEquals(Arrays.asList("lento", "seguinte"), all);
+        }
+    }
+
+    @Test
+    public void testCompactionKeepsTailAndSequence() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("orders.journal");
+        try (OrderJournal journal = new OrderJournal(file, 16, new SimpleMeterRegistry())) {
+            for (String value : Arrays.asList("a", "b", "c", "d", "e")) {
+                journal.appendAndWait(bytes(value), null);
+            }
+            long before = Files.size(file);
+
+            // Fotografia na sequência 3: ficam o próprio registro 3 e os seguintes
+            assertTrue(journal.compact(3).get(5, TimeUnit.SECONDS) > 0);
+            assertTrue(Files.size(file) < before);
+            assertEquals(6L, journal.appendAndWait(bytes("f"), null));
+        }
+
+        try (OrderJournal journal = new OrderJournal(file, 16, new SimpleMeterRegistry())) {
+            assertEquals(6L, journal.getLastSequence());
+            List<String> all = new ArrayList<>();
+            journal.replay(0, (sequence, payload) -> all.add(sequence + "=" + new String(payload, StandardCharsets.UTF_8)));
+            assertEquals(Arrays.asList("3=c", "4=d", "5=e", "6=f"), all);
+
+            // Compactar até o último registro ainda mantém a numeração
+            journal.compact(6).get(5, TimeUnit.SECONDS);
+        }
+
+        try (OrderJournal journal = new OrderJournal(file, 16, new SimpleMeterRegistry())) {
+            assertEquals(7L, journal.appendAndWait(bytes("g"), null));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package br.com.bluesoft.erp.testecandidatos.journal;
+
+import br.com.bluesoft.erp.testecandidatos.event.OrderEvent;
+import br.com.bluesoft.erp.testecandidatos.model.Status;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes para a reconstrução do estado dos pedidos a partir de eventos.
+ */
+public class OrderStateStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private static OrderEvent event(OrderEvent.Type type, Status status, OrderEvent.Item... items) {
+        return new OrderEvent(type, 1L, "ORD-1", 7L, status, new BigDecimal("30.00"), Instant.now(),
+                Arrays.asList(items));
+    }
+
+    private static OrderEvent.Item item(long itemId, int quantity) {
+        return new OrderEvent.Item(itemId, 100L + itemId, quantity, BigDecimal.TEN);
+    }
+
+    @Test
+    public void testEventsAreAppliedInOrder() {
+        OrderStateStore store = new OrderStateStore();
+
+        store.apply(1, event(OrderEvent.Type.CRIADO, Status.PENDENTE, item(1, 1)));
+        store.apply(2, event(OrderEvent.Type.ITEM_ADICIONADO, Status.PENDENTE, item(2, 2)));
+        store.apply(3, event(OrderEvent.Type.ITEM_ATUALIZADO, Status.PENDENTE, item(1, 5)));
+        store.apply(4, event(OrderEvent.Type.ITEM_REMOVIDO, Status.PENDENTE, item(2, 2)));
+
+        OrderState state = store.find(1L).get();
+        assertEquals(Collections.singleton(1L), state.getItems().keySet());
+        assertEquals(Integer.valueOf(5), state.getItems().get(1L).getQuantity());
+        assertEquals(4L, state.getLastSequence());
+
+        store.apply(5, event(OrderEvent.Type.FINALIZADO, Status.FINALIZADO, item(1, 5)));
+        assertEquals(Status.FINALIZADO, store.find(1L).get().getStatus());
+        assertEquals(5L, store.getLastSequence());
+    }
+
+    @Test
+    public void testSnapshotRoundTrip() throws IOException {
+        OrderStateStore store = new OrderStateStore();
+        store.apply(1, event(OrderEvent.Type.CRIADO, Status.PENDENTE, item(1, 1), item(2, 3)));
+        Path file = folder.getRoot().toPath().resolve("orders.snapshot.json");
+
+        assertEquals(1L, store.writeSnapshot(file, objectMapper));
+        OrderStateStore loaded = OrderStateStore.readSnapshot(file, objectMapper);
+
+        assertEquals(1L, loaded.getLastSequence());
+        OrderState state = loaded.find(1L).get();
+        assertEquals("ORD-1", state.getOrderNumber());
+        assertEquals(Long.valueOf(7L), state.getCustomerId());
+        assertEquals(2, state.getItems().size());
+        assertEquals(Integer.valueOf(3), state.getItems().get(2L).getQuantity());
+
+        // A cauda do diário continua a partir da fotografia
+        loaded.apply(2, event(OrderEvent.Type.CANCELADO, Status.CANCELADO));
+        assertEquals(Status.CANCELADO, loaded.find(1L).get().getStatus());
+        assertTrue(loaded.find(1L).get().getItems().isEmpty());
+    }
+}
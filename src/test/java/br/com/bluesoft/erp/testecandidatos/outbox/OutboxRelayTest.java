@@ -0,0 +1,136 @@
+package br.com.bluesoft.erp.testecandidatos.outbox;
+
+import br.com.bluesoft.erp.testecandidatos.model.OutboxEvent;
+import br.com.bluesoft.erp.testecandidatos.repository.OutboxEventRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes para o relay do outbox.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    private InMemoryOutboxSink sink;
+
+    @Before
+    public void setUp() {
+        sink = new InMemoryOutboxSink();
+    }
+
+    @Test
+    public void testRelayPublishesInOrderAndMarksPublished() {
+        when(outboxEventRepository.findUnpublished(anyInt())).thenReturn(Arrays.asList(
+                event(1L, 10L), event(2L, 20L), event(3L, 10L)));
+
+        OutboxRelay relay = new OutboxRelay(outboxEventRepository, sink, 100, 5);
+        int published = relay.relayBatch();
+
+        assertEquals("Deveria publicar os 3 eventos", 3, published);
+        assertEquals("Eventos deveriam ser publicados na ordem do outbox",
+                Arrays.asList(1L, 2L, 3L),
+                sink.getEvents().stream().map(OutboxEvent::getId).collect(Collectors.toList()));
+        verify(outboxEventRepository, times(1)).markPublished(Arrays.asList(1L, 2L, 3L));
+    }
+
+    @Test
+    public void testFailureHoldsBackLaterEventsOfSameOrder() {
+        when(outboxEventRepository.findUnpublished(anyInt())).thenReturn(Arrays.asList(
+                event(1L, 10L), event(2L, 20L), event(3L, 10L)));
+
+        // O primeiro evento do pedido 10 falha
+        OutboxSink failingSink = new OutboxSink() {
+            @Override
+            public void publish(OutboxEvent event) throws IOException {
+                if (event.getId() == 1L) {
+                    throw new IOException("sink indisponível");
+                }
+                sink.publish(event);
+            }
+        };
+
+        OutboxRelay relay = new OutboxRelay(outboxEventRepository, failingSink, 100, 5);
+        relay.relayBatch();
+
+        // O evento 3 (mesmo pedido do evento 1) não pode ser publicado antes do evento 1
+        assertEquals(Collections.singletonList(2L),
+                sink.getEvents().stream().map(OutboxEvent::getId).collect(Collectors.toList()));
+        verify(outboxEventRepository, times(1)).markPublished(Collections.singletonList(2L));
+        verify(outboxEventRepository, times(1)).incrementAttempts(Collections.singletonList(1L));
+    }
+
+    @Test
+    public void testEventIsParkedAfterMaxAttempts() {
+        OutboxEvent poison = event(1L, 10L);
+        poison.setAttempts(4);
+        when(outboxEventRepository.findUnpublished(anyInt())).thenReturn(Arrays.asList(
+                poison, event(2L, 20L), event(3L, 10L)));
+
+        OutboxSink failingSink = new OutboxSink() {
+            @Override
+            public void publish(OutboxEvent event) throws IOException {
+                if (event.getId() == 1L) {
+                    throw new IOException("evento inválido");
+                }
+                sink.publish(event);
+            }
+        };
+
+        OutboxRelay relay = new OutboxRelay(outboxEventRepository, failingSink, 100, 5);
+        relay.relayBatch();
+
+        // A quinta falha estaciona o evento; o evento seguinte do mesmo pedido continua retido
+        verify(outboxEventRepository, times(1)).park(Collections.singletonList(1L));
+        verify(outboxEventRepository, times(1)).incrementAttempts(Collections.emptyList());
+        verify(outboxEventRepository, times(1)).markPublished(Collections.singletonList(2L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMaxAttemptsMustBePositive() {
+        new OutboxRelay(outboxEventRepository, sink, 100, 0);
+    }
+
+    @Test
+    public void testFlushFailureDoesNotMarkPublished() {
+        when(outboxEventRepository.findUnpublished(anyInt())).thenReturn(Collections.singletonList(event(1L, 10L)));
+
+        OutboxSink unflushableSink = new OutboxSink() {
+            @Override
+            public void publish(OutboxEvent event) {
+            }
+
+            @Override
+            public void flush() throws IOException {
+                throw new IOException("disco cheio");
+            }
+        };
+
+        OutboxRelay relay = new OutboxRelay(outboxEventRepository, unflushableSink, 100, 5);
+        int published = relay.relayBatch();
+
+        assertEquals(0, published);
+        verify(outboxEventRepository, never()).markPublished(anyList());
+    }
+
+    private static OutboxEvent event(Long id, Long orderId) {
+        OutboxEvent event = new OutboxEvent(orderId, "CRIADO", "{}");
+        event.setId(id);
+        return event;
+    }
+}
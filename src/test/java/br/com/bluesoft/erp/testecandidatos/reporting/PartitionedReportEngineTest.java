@@ -0,0 +1,95 @@
+package br.com.bluesoft.erp.testecandidatos.reporting;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes para a divisão em faixas de id e a junção dos parciais dos relatórios.
+ */
+public class PartitionedReportEngineTest {
+
+    private EmbeddedDatabase database;
+    private PartitionedReportEngine engine;
+
+    @Before
+    public void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE numbers (id BIGINT PRIMARY KEY, amount BIGINT)");
+        for (long id = 1; id <= 100; id++) {
+            jdbcTemplate.update("INSERT INTO numbers (id, amount) VALUES (?, ?)", id, id * 2);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        if (engine != null) {
+            engine.close();
+        }
+        database.shutdown();
+    }
+
+    private Long sumAmounts() {
+        return engine.run("numbers", () -> 0L, (connection, fromId, toId) -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT COALESCE(SUM(amount), 0) FROM numbers WHERE id BETWEEN ? AND ?")) {
+                statement.setLong(1, fromId);
+                statement.setLong(2, toId);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    return resultSet.getLong(1);
+                }
+            }
+        }, Long::sum);
+    }
+
+    @Test
+    public void testPartialsAreMergedIntoTheSerialResult() {
+        engine = new PartitionedReportEngine(database, 4, 7);
+
+        assertEquals(Long.valueOf(100 * 101), sumAmounts());
+        // 100 ids divididos ao meio até faixas de no máximo 7 ids
+        assertEquals(16, engine.getPartitionCount());
+    }
+
+    @Test
+    public void testPartitionsRunOnSeveralThreads() {
+        engine = new PartitionedReportEngine(database, 4, 1);
+        Set<String> threads = Collections.synchronizedSet(new HashSet<>());
+
+        Integer rows = engine.run("numbers", () -> 0, (connection, fromId, toId) -> {
+            threads.add(Thread.currentThread().getName());
+            LockSupport.parkNanos(2_000_000);
+            return (int) (toId - fromId + 1);
+        }, Integer::sum);
+
+        assertEquals(Integer.valueOf(100), rows);
+        assertTrue("Partições deveriam ser executadas em paralelo", threads.size() > 1);
+    }
+
+    @Test
+    public void testEmptyTableReturnsEmptyResult() {
+        engine = new PartitionedReportEngine(database, 2, 10);
+        new JdbcTemplate(database).update("DELETE FROM numbers");
+
+        assertEquals(Long.valueOf(0L), sumAmounts());
+        assertEquals(0, engine.getPartitionCount());
+    }
+}
@@ -0,0 +1,131 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import br.com.bluesoft.erp.testecandidatos.TesteApplication;
+import br.com.bluesoft.erp.testecandidatos.config.TestConfig;
+import br.com.bluesoft.erp.testecandidatos.dto.BulkStockEntry;
+import br.com.bluesoft.erp.testecandidatos.dto.BulkStockResponse;
+import br.com.bluesoft.erp.testecandidatos.dto.BulkStockResult;
+import br.com.bluesoft.erp.testecandidatos.model.Product;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes de integração para o ajuste de estoque em lote.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = TesteApplication.class, properties = "products.stock-bulk.chunk-size=2")
+@ActiveProfiles("test")
+@Import(TestConfig.class)
+public class BulkStockServiceIntegrationTest {
+
+    @Autowired
+    private BulkStockService bulkStockService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+    private final List<Long> productIds = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @After
+    public void tearDown() {
+        for (Long id : productIds) {
+            jdbcTemplate.update("DELETE FROM products WHERE id = ?", id);
+        }
+    }
+
+    @Test
+    public void testEntriesOfSameProductApplyInRequestOrder() {
+        Product coffee = product("Café Lote", "BULK-001", 10);
+
+        // Blocos de duas entradas: a sequência atravessa três blocos
+        BulkStockResponse response = bulkStockService.applyStockChanges(Arrays.asList(
+                BulkStockEntry.delta(coffee.getId(), 5),
+                BulkStockEntry.absolute(coffee.getId(), 3),
+                new BulkStockEntry(null, "BULK-001", -2, null),
+                BulkStockEntry.delta(coffee.getId(), -2),
+                BulkStockEntry.delta(coffee.getId(), 7)));
+
+        assertEquals(4, response.getApplied());
+        assertEquals(BulkStockResult.Outcome.ESTOQUE_INSUFICIENTE, response.getResults().get(3).getOutcome());
+        assertEquals(Integer.valueOf(8), stock(coffee));
+    }
+
+    @Test
+    public void testInvalidEntriesAreRejectedIndividually() {
+        Product sugar = product("Açúcar Lote", "BULK-002", 10);
+
+        BulkStockResponse response = bulkStockService.applyStockChanges(Arrays.asList(
+                new BulkStockEntry(sugar.getId(), "BULK-002", 1, null),
+                new BulkStockEntry(sugar.getId(), null, 1, 5),
+                BulkStockEntry.absolute(sugar.getId(), -1),
+                BulkStockEntry.delta(-1L, 1),
+                BulkStockEntry.delta(sugar.getId(), 1)));
+
+        List<BulkStockResult> results = response.getResults();
+        assertEquals(BulkStockResult.Outcome.INVALIDO, results.get(0).getOutcome());
+        assertEquals(BulkStockResult.Outcome.INVALIDO, results.get(1).getOutcome());
+        assertEquals(BulkStockResult.Outcome.INVALIDO, results.get(2).getOutcome());
+        assertEquals(BulkStockResult.Outcome.NAO_ENCONTRADO, results.get(3).getOutcome());
+        assertEquals(BulkStockResult.Outcome.APLICADO, results.get(4).getOutcome());
+        assertEquals(4, results.get(4).getIndex());
+        assertEquals(4, response.getRejected());
+        assertEquals(Integer.valueOf(11), stock(sugar));
+    }
+
+    @Test
+    public void testBulkChangeMarksProductForIncrementalSync() {
+        Product salt = product("Sal Lote", "BULK-003", 10);
+        jdbcTemplate.update("UPDATE products SET change_seq = 1 WHERE id = ?", salt.getId());
+
+        bulkStockService.applyStockChanges(Arrays.asList(BulkStockEntry.delta(salt.getId(), 1)));
+
+        // Sem sequência, o produto volta a aparecer na sincronização incremental
+        assertNull(jdbcTemplate.queryForObject("SELECT change_seq FROM products WHERE id = ?", Long.class,
+                salt.getId()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyBatchIsRejected() {
+        bulkStockService.applyStockChanges(new ArrayList<>());
+    }
+
+    private Product product(String name, String sku, int stock) {
+        Product product = new Product();
+        product.setName(name);
+        product.setSku(sku);
+        product.setPrice(BigDecimal.TEN);
+        product.setStock(stock);
+        Product saved = productService.saveProduct(product);
+        productIds.add(saved.getId());
+        return saved;
+    }
+
+    private Integer stock(Product product) {
+        return jdbcTemplate.queryForObject("SELECT stock FROM products WHERE id = ?", Integer.class, product.getId());
+    }
+}
@@ -0,0 +1,143 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import br.com.bluesoft.erp.testecandidatos.model.Customer;
+import br.com.bluesoft.erp.testecandidatos.model.DistinctCustomerCount;
+import br.com.bluesoft.erp.testecandidatos.model.Order;
+import br.com.bluesoft.erp.testecandidatos.sharding.ShardedOrderStore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import javax.sql.DataSource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes para a contagem de clientes distintos por dia, comparada com a contagem exata.
+ */
+public class DistinctCustomerServiceTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2024, 3, 4);
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private DistinctCustomerServiceImpl service;
+
+    @Before
+    public void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:distinct-customers;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE daily_customer_sketches (sketch_date DATE PRIMARY KEY, sketch BLOB NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE orders (id BIGINT AUTO_INCREMENT PRIMARY KEY, customer_id BIGINT, "
+                + "order_date TIMESTAMP)");
+        service = newService();
+    }
+
+    @After
+    public void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    private DistinctCustomerServiceImpl newService() {
+        return new DistinctCustomerServiceImpl(dataSource, (ShardedOrderStore) null,
+                new DataSourceTransactionManager(dataSource), 14);
+    }
+
+    /**
+     * Registra o pedido na tabela, para a contagem exata, e no contador.
+     */
+    private void order(DistinctCustomerServiceImpl target, LocalDate day, long customerId) {
+        jdbcTemplate.update("INSERT INTO orders (customer_id, order_date) VALUES (?, ?)", customerId, day.atTime(10, 0));
+        target.record(day, customerId);
+    }
+
+    @Test
+    public void testEstimateMatchesExactCountPerDayAndWeek() {
+        // Cada dia tem 300 clientes, metade repetida do dia anterior; os três primeiros dias são gravados
+        for (int day = 0; day < 5; day++) {
+            for (long customer = day * 150L; customer < day * 150L + 300; customer++) {
+                order(service, MONDAY.plusDays(day), customer);
+                order(service, MONDAY.plusDays(day), customer);
+            }
+            if (day == 2) {
+                assertEquals(3, service.flush());
+            }
+        }
+
+        DistinctCustomerCount monday = service.estimate(MONDAY, MONDAY);
+        assertFalse(monday.isExact());
+        assertEquals(300, service.exact(MONDAY, MONDAY).getCustomers());
+        assertEquals(300, monday.getCustomers(), 300 * 0.03);
+
+        // A semana combina os dias gravados com os que ainda estão em memória
+        LocalDate friday = MONDAY.plusDays(4);
+        DistinctCustomerCount exactWeek = service.exact(MONDAY, friday);
+        assertTrue(exactWeek.isExact());
+        assertEquals(900, exactWeek.getCustomers());
+        assertEquals(900, service.estimate(MONDAY, friday).getCustomers(), 900 * 0.03);
+    }
+
+    @Test
+    public void testInstancesMergeIntoTheStoredSketch() {
+        DistinctCustomerServiceImpl otherNode = newService();
+        for (long customer = 0; customer < 2_000; customer++) {
+            order(customer < 1_200 ? service : otherNode, MONDAY, customer);
+        }
+        // Clientes atendidos pelas duas instâncias
+        for (long customer = 1_000; customer < 1_200; customer++) {
+            order(otherNode, MONDAY, customer);
+        }
+
+        assertEquals(1, service.flush());
+        assertEquals(1, otherNode.flush());
+        assertEquals(0, otherNode.flush());
+        assertEquals(1L, (long) jdbcTemplate.queryForObject("SELECT COUNT(*) FROM daily_customer_sketches", Long.class));
+
+        long estimate = newService().estimate(MONDAY, MONDAY).getCustomers();
+        assertEquals(2_000, service.exact(MONDAY, MONDAY).getCustomers());
+        assertEquals(2_000, estimate, 2_000 * 0.03);
+    }
+
+    @Test
+    public void testExactCountReadsEveryShard() throws Exception {
+        List<EmbeddedDatabase> shards = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            shards.add(new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build());
+        }
+        try (ShardedOrderStore store = new ShardedOrderStore(new ArrayList<DataSource>(shards))) {
+            // Dois pedidos por cliente, que caem sempre no mesmo shard
+            for (long customerId = 1; customerId <= 20; customerId++) {
+                for (int repeat = 0; repeat < 2; repeat++) {
+                    Customer customer = new Customer();
+                    customer.setId(customerId);
+                    Order order = new Order();
+                    order.setCustomer(customer);
+                    order.setOrderDate(MONDAY.atTime(10, 0));
+                    store.insertOrder(order);
+                }
+            }
+
+            DistinctCustomerServiceImpl sharded = new DistinctCustomerServiceImpl(dataSource, store,
+                    new DataSourceTransactionManager(dataSource), 14);
+            assertEquals(20, sharded.exact(MONDAY, MONDAY).getCustomers());
+            assertEquals(0, sharded.exact(MONDAY.plusDays(1), MONDAY.plusDays(1)).getCustomers());
+        } finally {
+            shards.forEach(EmbeddedDatabase::shutdown);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPeriod() {
+        service.estimate(MONDAY, MONDAY.minusDays(1));
+    }
+}
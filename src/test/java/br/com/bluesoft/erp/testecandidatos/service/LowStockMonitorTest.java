@@ -0,0 +1,118 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import br.com.bluesoft.erp.testecandidatos.event.ProductChangedEvent;
+import br.com.bluesoft.erp.testecandidatos.model.LowStockAlert;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Clock;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes para a lista em memória de produtos abaixo do limite de reposição.
+ */
+public class LowStockMonitorTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private LowStockMonitor monitor;
+
+    @Before
+    public void setUp() {
+        DriverManagerDataSource dataSource =
+                new DriverManagerDataSource("jdbc:h2:mem:low-stock;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, name VARCHAR(255), sku VARCHAR(255), "
+                + "stock INT, reorder_threshold INT)");
+        // Limite padrão 10: o produto 1 está abaixo, o 2 não; o 3 tem limite próprio de 100
+        jdbcTemplate.update("INSERT INTO products VALUES (1, 'Café', 'SKU001', 5, NULL), "
+                + "(2, 'Açúcar', 'SKU002', 50, NULL), (3, 'Arroz', 'SKU003', 20, 100), (4, 'Feijão', 'SKU004', 0, 5)");
+        monitor = new LowStockMonitor(dataSource, 10, 60000, Clock.systemUTC());
+        monitor.load();
+    }
+
+    @After
+    public void tearDown() {
+        monitor.close();
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    public void testLoadOrdersByUrgency() {
+        // Feijão 0/5, Arroz 20/100, Café 5/10
+        List<LowStockAlert> urgent = monitor.mostUrgent(10);
+        assertEquals(3, urgent.size());
+        assertEquals(Long.valueOf(4L), urgent.get(0).getProductId());
+        assertEquals(Long.valueOf(3L), urgent.get(1).getProductId());
+        assertEquals(Long.valueOf(1L), urgent.get(2).getProductId());
+        assertEquals(10, urgent.get(2).getReorderThreshold());
+
+        assertEquals(1, monitor.mostUrgent(1).size());
+    }
+
+    @Test
+    public void testStockChangesMoveProductsInAndOut() {
+        jdbcTemplate.update("UPDATE products SET stock = 3 WHERE id = 2");
+        monitor.onProductChanged(new ProductChangedEvent(ProductChangedEvent.Type.SALVO, 2L));
+        assertEquals(4, monitor.size());
+
+        jdbcTemplate.update("UPDATE products SET stock = 10 WHERE id = 1");
+        monitor.onProductChanged(new ProductChangedEvent(ProductChangedEvent.Type.SALVO, 1L));
+        assertEquals(3, monitor.size());
+        assertTrue(monitor.mostUrgent(10).stream().noneMatch(alert -> alert.getProductId() == 1L));
+    }
+
+    @Test
+    public void testStockChangeWithinThresholdReordersProduct() {
+        jdbcTemplate.update("UPDATE products SET stock = 1 WHERE id = 1");
+        monitor.onProductChanged(new ProductChangedEvent(ProductChangedEvent.Type.SALVO, 1L));
+
+        // Café 1/10 passa o Arroz 20/100, sem duplicar o produto
+        List<LowStockAlert> urgent = monitor.mostUrgent(10);
+        assertEquals(3, urgent.size());
+        assertEquals(Long.valueOf(1L), urgent.get(1).getProductId());
+        assertEquals(1, urgent.get(1).getStock());
+    }
+
+    @Test
+    public void testThresholdChangeAndDeletion() {
+        // Limite próprio abaixo do estoque tira o produto da lista
+        jdbcTemplate.update("UPDATE products SET reorder_threshold = 15 WHERE id = 3");
+        monitor.onProductChanged(new ProductChangedEvent(ProductChangedEvent.Type.SALVO, 3L));
+        assertEquals(2, monitor.size());
+
+        jdbcTemplate.update("DELETE FROM products WHERE id = 4");
+        monitor.onProductChanged(new ProductChangedEvent(ProductChangedEvent.Type.EXCLUIDO, 4L));
+        assertEquals(1, monitor.size());
+        assertEquals(Long.valueOf(1L), monitor.mostUrgent(10).get(0).getProductId());
+    }
+
+    @Test
+    public void testPriceOnlyChangeIsIgnored() {
+        // Mudança só de preço não relê o produto, mesmo que o estoque tenha mudado por fora
+        jdbcTemplate.update("UPDATE products SET stock = 500 WHERE id = 3");
+        monitor.onProductChanged(new ProductChangedEvent(ProductChangedEvent.Type.PRECO_ALTERADO, 3L));
+        assertEquals(3, monitor.size());
+    }
+
+    @Test
+    public void testNullStockIsNotTrackedOnRefresh() {
+        // A carga ignora estoque nulo; a releitura do produto deve fazer o mesmo
+        jdbcTemplate.update("INSERT INTO products VALUES (5, 'Sal', 'SKU005', NULL, NULL)");
+        monitor.onProductChanged(new ProductChangedEvent(ProductChangedEvent.Type.SALVO, 5L));
+        assertEquals(3, monitor.size());
+
+        jdbcTemplate.update("UPDATE products SET stock = NULL WHERE id = 1");
+        monitor.onProductChanged(new ProductChangedEvent(ProductChangedEvent.Type.SALVO, 1L));
+        assertEquals(2, monitor.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidLimitIsRejected() {
+        monitor.mostUrgent(0);
+    }
+}
@@ -0,0 +1,92 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import br.com.bluesoft.erp.testecandidatos.model.Order;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes para a finalização assíncrona de pedidos.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class OrderFinalizationServiceTest {
+
+    @Mock
+    private OrderService orderService;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private OrderFinalizationServiceImpl finalizationService;
+
+    @Before
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        when(orderService.findOrderById(anyLong())).thenReturn(Optional.of(new Order()));
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        if (finalizationService != null) {
+            finalizationService.stop();
+        }
+    }
+
+    @Test
+    public void testEnqueuedOrderIsFinalizedByWorker() throws InterruptedException {
+        finalizationService = new OrderFinalizationServiceImpl(orderService, meterRegistry, true, 10, 2, 5, 100);
+        finalizationService.start();
+
+        FinalizationStatus status = finalizationService.enqueue(1L);
+
+        // Aguarda o worker processar o pedido
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!status.isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals("Pedido deveria ter sido finalizado", FinalizationStatus.State.CONCLUIDO, status.getState());
+        assertNotNull("Tempo de fila deveria ser registrado", status.getQueueMillis());
+        assertNotNull("Tempo de processamento deveria ser registrado", status.getProcessingMillis());
+        verify(orderService, times(1)).finalizeOrder(1L);
+        assertEquals(1L, meterRegistry.get("orders.finalization.stage").tag("stage", "finalize").timer().count());
+    }
+
+    @Test
+    public void testDuplicateEnqueueReturnsPendingStatus() {
+        // Sem workers iniciados, os pedidos permanecem na fila
+        finalizationService = new OrderFinalizationServiceImpl(orderService, meterRegistry, true, 10, 1, 5, 100);
+
+        FinalizationStatus first = finalizationService.enqueue(1L);
+        FinalizationStatus second = finalizationService.enqueue(1L);
+
+        assertSame("Finalização pendente deveria ser reaproveitada", first, second);
+        assertEquals("Fila deveria conter um único pedido", 1, finalizationService.getQueueDepth());
+        assertEquals(1.0, meterRegistry.get("orders.finalization.queue.depth").gauge().value(), 0.0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testEnqueueRejectedWhenQueueIsFull() {
+        finalizationService = new OrderFinalizationServiceImpl(orderService, meterRegistry, true, 1, 1, 5, 100);
+
+        finalizationService.enqueue(1L);
+        finalizationService.enqueue(2L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEnqueueUnknownOrder() {
+        finalizationService = new OrderFinalizationServiceImpl(orderService, meterRegistry, true, 10, 1, 5, 100);
+        when(orderService.findOrderById(999L)).thenReturn(Optional.empty());
+
+        finalizationService.enqueue(999L);
+    }
+}
@@ -1,18 +1,22 @@
 package br.com.bluesoft.erp.testecandidatos.service;
 
+import br.com.bluesoft.erp.testecandidatos.event.OrderEvent;
 import br.com.bluesoft.erp.testecandidatos.model.Customer;
 import br.com.bluesoft.erp.testecandidatos.model.Order;
 import br.com.bluesoft.erp.testecandidatos.model.OrderItem;
 import br.com.bluesoft.erp.testecandidatos.model.Product;
+import br.com.bluesoft.erp.testecandidatos.model.Status;
 import br.com.bluesoft.erp.testecandidatos.repository.CustomerRepository;
 import br.com.bluesoft.erp.testecandidatos.repository.ProductRepository;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.context.ApplicationEventPublisher;
 import java.lang.reflect.Field;
 
 import javax.persistence.EntityManager;
@@ -46,6 +50,9 @@ public class OrderServiceTest {
     @Mock
     private ProductService productService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @Mock
     private EntityManager entityManager;
 
@@ -303,6 +310,14 @@ public class OrderServiceTest {
         // Verifica se os métodos foram chamados
         verify(entityManager, times(1)).find(Order.class, 1L);
 
+        // Pedido gravado e evento publicado carregam a situação cancelada
+        assertEquals(Status.CANCELADO, order.getStatus());
+        verify(entityManager).merge(order);
+        ArgumentCaptor<OrderEvent> event = ArgumentCaptor.forClass(OrderEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(OrderEvent.Type.CANCELADO, event.getValue().getType());
+        assertEquals(Status.CANCELADO, event.getValue().getStatus());
+
     }
 
     @Test(expected = IllegalArgumentException.class)
@@ -0,0 +1,193 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import br.com.bluesoft.erp.testecandidatos.event.OrderEvent;
+import br.com.bluesoft.erp.testecandidatos.model.OrderStatusChange;
+import br.com.bluesoft.erp.testecandidatos.model.Status;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes para a distribuição das mudanças de situação dos pedidos.
+ */
+public class OrderStatusStreamTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().findAndRegisterModules();
+
+    private OrderStatusStream stream;
+
+    @Before
+    public void setUp() {
+        stream = new OrderStatusStream(OBJECT_MAPPER, 4, 2, 60000);
+    }
+
+    @After
+    public void tearDown() {
+        stream.close();
+    }
+
+    @Test
+    public void testOrderSubscriberReceivesSnapshotThenChanges() throws InterruptedException {
+        RecordingSink sink = new RecordingSink(2);
+        assertTrue(stream.subscribeToOrder(1L, () -> Optional.of(change(null, 1L, 10L, Status.PENDENTE)), sink)
+                .isPresent());
+
+        // Alteração de item não muda a situação; pedido de outro cliente não interessa
+        stream.onOrderEvent(event(OrderEvent.Type.ITEM_ADICIONADO, 1L, 10L, Status.PENDENTE));
+        stream.onOrderEvent(event(OrderEvent.Type.FINALIZADO, 2L, 20L, Status.FINALIZADO));
+        stream.onOrderEvent(event(OrderEvent.Type.FINALIZADO, 1L, 10L, Status.FINALIZADO));
+
+        assertTrue(sink.await());
+        assertEquals(OrderStatusStream.SNAPSHOT, sink.names.get(0));
+        assertEquals(OrderStatusStream.CHANGE, sink.names.get(1));
+        assertEquals(Status.FINALIZADO, sink.changes.get(1).getStatus());
+        assertEquals(2, sink.changes.size());
+    }
+
+    @Test
+    public void testChangeDuringSnapshotReadIsSentAfterSnapshot() throws InterruptedException {
+        RecordingSink sink = new RecordingSink(2);
+        assertTrue(stream.subscribeToOrder(1L, () -> {
+            // Mudança confirmada depois da leitura, mas publicada antes de a situação lida entrar no buffer
+            stream.onOrderEvent(event(OrderEvent.Type.FINALIZADO, 1L, 10L, Status.FINALIZADO));
+            return Optional.of(change(null, 1L, 10L, Status.PENDENTE));
+        }, sink).isPresent());
+
+        assertTrue(sink.await());
+        assertEquals(OrderStatusStream.SNAPSHOT, sink.names.get(0));
+        assertEquals(Status.PENDENTE, sink.changes.get(0).getStatus());
+        assertEquals(OrderStatusStream.CHANGE, sink.names.get(1));
+        assertEquals(Status.FINALIZADO, sink.changes.get(1).getStatus());
+    }
+
+    @Test
+    public void testCustomerSubscriberReceivesAllOwnOrders() throws InterruptedException {
+        RecordingSink sink = new RecordingSink(2);
+        stream.subscribeToCustomer(10L, sink);
+
+        stream.onOrderEvent(event(OrderEvent.Type.CRIADO, 1L, 10L, Status.PENDENTE));
+        stream.onOrderEvent(event(OrderEvent.Type.CRIADO, 2L, 20L, Status.PENDENTE));
+        stream.onOrderEvent(event(OrderEvent.Type.CANCELADO, 3L, 10L, Status.CANCELADO));
+
+        assertTrue(sink.await());
+        assertEquals(Long.valueOf(1L), sink.changes.get(0).getOrderId());
+        assertEquals(Long.valueOf(3L), sink.changes.get(1).getOrderId());
+    }
+
+    @Test
+    public void testUnknownOrderLeavesNoSubscriber() {
+        assertFalse(stream.subscribeToOrder(99L, Optional::empty, new RecordingSink(0)).isPresent());
+        assertEquals(0, stream.getSubscriberCount());
+    }
+
+    @Test
+    public void testSlowSubscriberIsEvictedWithoutDelayingOthers() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSink slow = new RecordingSink(1) {
+            @Override
+            public void send(String name, String json) throws IOException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.send(name, json);
+            }
+        };
+        RecordingSink fast = new RecordingSink(10);
+        OrderStatusStream.Subscription slowSubscription = stream.subscribeToCustomer(10L, slow);
+        stream.subscribeToCustomer(10L, fast);
+
+        // O envio ao assinante lento fica preso no primeiro e o buffer dele enche; o rápido acompanha cada um
+        for (int orderId = 1; orderId <= 10; orderId++) {
+            stream.onOrderEvent(event(OrderEvent.Type.CRIADO, (long) orderId, 10L, Status.PENDENTE));
+            assertTrue(fast.awaitSize(orderId));
+        }
+
+        assertTrue(slowSubscription.isClosed());
+        for (int i = 0; i < 500 && !slow.completed; i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(slow.completed);
+        assertEquals(1, stream.getEvictedCount());
+        assertEquals(1, stream.getSubscriberCount());
+        release.countDown();
+    }
+
+    @Test
+    public void testFailingSubscriberIsRemoved() throws InterruptedException {
+        CountDownLatch failed = new CountDownLatch(1);
+        stream.subscribeToOrder(1L, () -> Optional.of(change(null, 1L, 10L, Status.PENDENTE)), new RecordingSink(0) {
+            @Override
+            public void send(String name, String json) throws IOException {
+                failed.countDown();
+                throw new IOException("conexão encerrada");
+            }
+        });
+
+        assertTrue(failed.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 50 && stream.getSubscriberCount() > 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, stream.getSubscriberCount());
+    }
+
+    private static OrderEvent event(OrderEvent.Type type, Long orderId, Long customerId, Status status) {
+        return new OrderEvent(type, orderId, "ORD-" + orderId, customerId, status, BigDecimal.TEN, Instant.now(),
+                new ArrayList<>());
+    }
+
+    private static OrderStatusChange change(OrderEvent.Type type, Long orderId, Long customerId, Status status) {
+        return new OrderStatusChange(type, orderId, "ORD-" + orderId, customerId, status, BigDecimal.TEN,
+                Instant.now());
+    }
+
+    private static class RecordingSink implements OrderStatusStream.Sink {
+
+        final List<String> names = Collections.synchronizedList(new ArrayList<>());
+        final List<OrderStatusChange> changes = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch received;
+        volatile boolean completed;
+
+        RecordingSink(int expected) {
+            this.received = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void send(String name, String json) throws IOException {
+            names.add(name);
+            changes.add(OBJECT_MAPPER.readValue(json, OrderStatusChange.class));
+            received.countDown();
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        boolean await() throws InterruptedException {
+            return received.await(5, TimeUnit.SECONDS);
+        }
+
+        boolean awaitSize(int size) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (changes.size() < size && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            return changes.size() >= size;
+        }
+    }
+}
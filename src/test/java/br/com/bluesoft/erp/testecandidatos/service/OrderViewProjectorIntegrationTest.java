@@ -0,0 +1,170 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import br.com.bluesoft.erp.testecandidatos.TesteApplication;
+import br.com.bluesoft.erp.testecandidatos.config.TestConfig;
+import br.com.bluesoft.erp.testecandidatos.model.Customer;
+import br.com.bluesoft.erp.testecandidatos.model.Order;
+import br.com.bluesoft.erp.testecandidatos.model.OrderItem;
+import br.com.bluesoft.erp.testecandidatos.model.OrderView;
+import br.com.bluesoft.erp.testecandidatos.model.Product;
+import br.com.bluesoft.erp.testecandidatos.model.Status;
+import br.com.bluesoft.erp.testecandidatos.repository.OrderViewRepository;
+import br.com.bluesoft.erp.testecandidatos.sharding.ShardedOrderStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes de integração para a projeção da visão de leitura de pedidos.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = TesteApplication.class)
+@ActiveProfiles("test")
+@Import(TestConfig.class)
+@Transactional
+public class OrderViewProjectorIntegrationTest {
+
+    @Autowired
+    private OrderViewProjector projector;
+
+    @Autowired
+    private OrderQueryService orderQueryService;
+
+    @Autowired
+    private OrderViewRepository orderViewRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Customer customer;
+    private Product product;
+    private Order order;
+
+    @Before
+    public void setUp() {
+        customer = new Customer();
+        customer.setName("Cliente Visão");
+        customer.setEmail("visao@example.com");
+        entityManager.persist(customer);
+
+        product = new Product();
+        product.setName("Produto Visão");
+        product.setPrice(new BigDecimal("10.00"));
+        product.setStock(10);
+        product.setSku("VIEW-001");
+        entityManager.persist(product);
+
+        order = new Order();
+        order.setOrderNumber("ORD-VIEW-1");
+        order.setOrderDate(LocalDateTime.now());
+        order.setCustomer(customer);
+        order.setItems(new ArrayList<>());
+        entityManager.persist(order);
+
+        OrderItem item = new OrderItem();
+        item.setOrder(order);
+        item.setProduct(product);
+        item.setQuantity(3);
+        item.setUnitPrice(new BigDecimal("10.00"));
+        entityManager.persist(item);
+        order.getItems().add(item);
+        entityManager.flush();
+    }
+
+    @Test
+    public void testProjectionDenormalizesOrder() {
+        projector.schedule(order.getId(), Instant.now().minusMillis(50));
+        projector.project(order.getId());
+
+        OrderView view = orderQueryService.findOrderView(order.getId()).get();
+        assertEquals("ORD-VIEW-1", view.getOrderNumber());
+        assertEquals("Cliente Visão", view.getCustomerName());
+        assertEquals(Status.PENDENTE, view.getStatus());
+        assertEquals(1, view.getItemCount());
+        assertEquals("VIEW-001", view.getItems().get(0).getProductSku());
+        // Subtotal ausente é calculado a partir de quantidade e preço
+        assertEquals(0, new BigDecimal("30.00").compareTo(view.getTotalAmount()));
+        assertEquals(0, new BigDecimal("30.00").compareTo(orderQueryService.calculateOrderTotal(order.getId())));
+
+        assertEquals(1, orderQueryService.findOrderViewsByCustomerId(customer.getId()).size());
+        assertEquals(0, projector.getPendingCount());
+        assertTrue("Atraso da projeção deveria ser registrado", projector.getLastLagMillis() >= 50);
+    }
+
+    @Test
+    public void testProjectionIsUpdatedAfterChange() {
+        projector.project(order.getId());
+
+        order.setStatus(Status.CANCELADO);
+        entityManager.flush();
+        projector.project(order.getId());
+
+        assertEquals(Status.CANCELADO, orderQueryService.findOrderView(order.getId()).get().getStatus());
+    }
+
+    @Test
+    public void testRenamesShowWithoutReprojection() {
+        projector.project(order.getId());
+
+        customer.setName("Cliente Renomeado");
+        product.setName("Produto Renomeado");
+        product.setSku("VIEW-002");
+        entityManager.flush();
+
+        OrderView view = orderQueryService.findOrderView(order.getId()).get();
+        assertEquals("Cliente Renomeado", view.getCustomerName());
+        assertEquals("Produto Renomeado", view.getItems().get(0).getProductName());
+        assertEquals("VIEW-002", view.getItems().get(0).getProductSku());
+        assertEquals("Cliente Renomeado", orderQueryService.findAllOrderViews().stream()
+                .filter(found -> found.getOrderId().equals(order.getId()))
+                .findFirst().get().getCustomerName());
+
+        // A visão gravada guarda só os ids
+        OrderView stored = orderViewRepository.findById(order.getId()).get();
+        assertNull(stored.getCustomerName());
+        assertNull(stored.getItems().get(0).getProductName());
+        assertEquals(product.getId(), stored.getItems().get(0).getProductId());
+    }
+
+    @Test
+    public void testFailedProjectionStaysPending() {
+        PlatformTransactionManager failing = mock(PlatformTransactionManager.class);
+        when(failing.getTransaction(any())).thenThrow(new CannotCreateTransactionException("banco indisponível"));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        OrderViewProjector failingProjector = new OrderViewProjector(orderViewRepository, (ShardedOrderStore) null,
+                failing, meterRegistry, false);
+
+        failingProjector.schedule(order.getId(), Instant.now());
+        failingProjector.project(order.getId());
+
+        // O pedido continua pendente para a próxima tentativa e a falha é contada
+        assertEquals(1, failingProjector.getPendingCount());
+        assertEquals(1.0, meterRegistry.counter("orders.read-model.failures").count(), 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTotalOfUnknownOrder() {
+        orderQueryService.calculateOrderTotal(-1L);
+    }
+}
@@ -0,0 +1,196 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import br.com.bluesoft.erp.testecandidatos.TesteApplication;
+import br.com.bluesoft.erp.testecandidatos.config.TestConfig;
+import br.com.bluesoft.erp.testecandidatos.dto.PriceChangeEntry;
+import br.com.bluesoft.erp.testecandidatos.dto.PriceChangeRequest;
+import br.com.bluesoft.erp.testecandidatos.model.PriceChangeBatch;
+import br.com.bluesoft.erp.testecandidatos.model.Product;
+import br.com.bluesoft.erp.testecandidatos.model.ProductPriceAudit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes de integração para as alterações de preço em lote.
+ * Sem transação no teste, para que a aplicação dos lotes veja os lotes confirmados.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = TesteApplication.class)
+@ActiveProfiles("test")
+@Import(TestConfig.class)
+public class PriceChangeServiceIntegrationTest {
+
+    @Autowired
+    private PriceChangeService priceChangeService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+    private final List<Long> productIds = new ArrayList<>();
+    private final List<Long> batchIds = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @After
+    public void tearDown() {
+        for (Long id : batchIds) {
+            jdbcTemplate.update("DELETE FROM product_price_audit WHERE batch_id = ?", id);
+            jdbcTemplate.update("DELETE FROM price_change_items WHERE batch_id = ?", id);
+            jdbcTemplate.update("DELETE FROM price_change_batches WHERE id = ?", id);
+        }
+        for (Long id : productIds) {
+            jdbcTemplate.update("DELETE FROM products WHERE id = ?", id);
+        }
+    }
+
+    @Test
+    public void testDueBatchAppliesAllPricesWithAuditTrail() {
+        Product coffee = product("Café Promoção", "PRICE-001", "10.00");
+        Product sugar = product("Açúcar Promoção", "PRICE-002", "5.00");
+
+        PriceChangeBatch batch = schedule(LocalDateTime.now().minusMinutes(1),
+                new PriceChangeEntry(coffee.getId(), null, new BigDecimal("8.90")),
+                new PriceChangeEntry(null, "PRICE-002", new BigDecimal("4.50")));
+        assertEquals(PriceChangeBatch.Status.AGENDADO, batch.getStatus());
+        assertEquals(2, batch.getItemCount());
+
+        priceChangeService.applyDueBatches();
+
+        assertEquals(0, new BigDecimal("8.90").compareTo(price(coffee)));
+        assertEquals(0, new BigDecimal("4.50").compareTo(price(sugar)));
+        PriceChangeBatch applied = priceChangeService.findBatch(batch.getId()).get();
+        assertEquals(PriceChangeBatch.Status.APLICADO, applied.getStatus());
+        assertNotNull(applied.getAppliedAt());
+
+        List<ProductPriceAudit> history = priceChangeService.findPriceHistory(coffee.getId());
+        assertEquals(1, history.size());
+        assertEquals(0, new BigDecimal("10.00").compareTo(history.get(0).getOldPrice()));
+        assertEquals(0, new BigDecimal("8.90").compareTo(history.get(0).getNewPrice()));
+        assertEquals(batch.getId(), history.get(0).getBatchId());
+        // Histórico e lote registram o mesmo instante, lido do relógio do banco
+        assertEquals(applied.getAppliedAt(), history.get(0).getChangedAt());
+
+        // Lote já aplicado não é aplicado de novo
+        assertEquals(0, priceChangeService.applyDueBatches());
+        assertEquals(1, priceChangeService.findPriceHistory(coffee.getId()).size());
+    }
+
+    @Test
+    public void testDefaultEffectiveAtComesFromDatabaseClock() {
+        Product flour = product("Farinha Promoção", "PRICE-005", "6.00");
+        LocalDateTime databaseNow = jdbcTemplate.queryForObject("SELECT LOCALTIMESTAMP", LocalDateTime.class);
+
+        PriceChangeBatch batch = schedule(null, new PriceChangeEntry(flour.getId(), null, new BigDecimal("5.50")));
+
+        // A resposta traz os valores gravados, que são os que a aplicação compara com o relógio do banco
+        PriceChangeBatch stored = priceChangeService.findBatch(batch.getId()).get();
+        assertEquals(stored.getEffectiveAt(), batch.getEffectiveAt());
+        assertEquals(stored.getCreatedAt(), batch.getCreatedAt());
+        assertEquals(batch.getCreatedAt(), batch.getEffectiveAt());
+        assertFalse(batch.getCreatedAt().isBefore(databaseNow));
+
+        assertEquals(1, priceChangeService.applyDueBatches());
+        assertEquals(0, new BigDecimal("5.50").compareTo(price(flour)));
+    }
+
+    @Test
+    public void testFutureAndCancelledBatchesAreNotApplied() {
+        Product salt = product("Sal Promoção", "PRICE-003", "3.00");
+
+        PriceChangeBatch future = schedule(LocalDateTime.now().plusHours(1),
+                new PriceChangeEntry(salt.getId(), null, new BigDecimal("2.00")));
+        PriceChangeBatch cancelled = schedule(LocalDateTime.now().minusMinutes(1),
+                new PriceChangeEntry(salt.getId(), null, new BigDecimal("1.00")));
+        priceChangeService.cancel(cancelled.getId());
+
+        priceChangeService.applyDueBatches();
+
+        assertEquals(0, new BigDecimal("3.00").compareTo(price(salt)));
+        assertEquals(PriceChangeBatch.Status.AGENDADO, priceChangeService.findBatch(future.getId()).get().getStatus());
+        assertEquals(PriceChangeBatch.Status.CANCELADO,
+                priceChangeService.findBatch(cancelled.getId()).get().getStatus());
+        assertTrue(priceChangeService.findPriceHistory(salt.getId()).isEmpty());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCancelAppliedBatchFails() {
+        Product oil = product("Óleo Promoção", "PRICE-004", "7.00");
+        PriceChangeBatch batch = schedule(LocalDateTime.now().minusMinutes(1),
+                new PriceChangeEntry(oil.getId(), null, new BigDecimal("6.50")));
+        priceChangeService.applyDueBatches();
+
+        priceChangeService.cancel(batch.getId());
+    }
+
+    @Test
+    public void testInvalidBatchIsRejectedWithoutStagingItems() {
+        Product rice = product("Arroz Promoção", "PRICE-005", "20.00");
+        long batchesBefore = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM price_change_batches", Long.class);
+
+        // Produto inexistente, preço zero e produto repetido recusam o lote inteiro
+        assertRejected(new PriceChangeEntry(rice.getId(), null, new BigDecimal("19.00")),
+                new PriceChangeEntry(null, "PRICE-999", new BigDecimal("1.00")));
+        assertRejected(new PriceChangeEntry(rice.getId(), null, BigDecimal.ZERO));
+        assertRejected(new PriceChangeEntry(rice.getId(), null, new BigDecimal("19.00")),
+                new PriceChangeEntry(null, "PRICE-005", new BigDecimal("18.00")));
+
+        assertEquals(batchesBefore,
+                (long) jdbcTemplate.queryForObject("SELECT COUNT(*) FROM price_change_batches", Long.class));
+    }
+
+    private void assertRejected(PriceChangeEntry... entries) {
+        try {
+            schedule(LocalDateTime.now(), entries);
+            fail("Lote inválido deveria ser recusado");
+        } catch (IllegalArgumentException e) {
+            // esperado
+        }
+    }
+
+    private PriceChangeBatch schedule(LocalDateTime effectiveAt, PriceChangeEntry... entries) {
+        PriceChangeBatch batch = priceChangeService.schedule(
+                new PriceChangeRequest("Promoção", effectiveAt, Arrays.asList(entries)));
+        batchIds.add(batch.getId());
+        return batch;
+    }
+
+    private Product product(String name, String sku, String price) {
+        Product product = new Product();
+        product.setName(name);
+        product.setSku(sku);
+        product.setPrice(new BigDecimal(price));
+        product.setStock(10);
+        Product saved = productService.saveProduct(product);
+        productIds.add(saved.getId());
+        return saved;
+    }
+
+    private BigDecimal price(Product product) {
+        return jdbcTemplate.queryForObject("SELECT price FROM products WHERE id = ?", BigDecimal.class,
+                product.getId());
+    }
+}
@@ -0,0 +1,191 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import br.com.bluesoft.erp.testecandidatos.TesteApplication;
+import br.com.bluesoft.erp.testecandidatos.config.TestConfig;
+import br.com.bluesoft.erp.testecandidatos.model.Product;
+import br.com.bluesoft.erp.testecandidatos.model.ProductChange;
+import br.com.bluesoft.erp.testecandidatos.model.ProductChanges;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes de integração para a sincronização incremental do catálogo.
+ * Sem transação no teste, para que a atribuição de sequências veja as gravações confirmadas.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = TesteApplication.class)
+@ActiveProfiles("test")
+@Import(TestConfig.class)
+public class ProductChangeServiceIntegrationTest {
+
+    @Autowired
+    private ProductChangeService productChangeService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+    private final List<Long> productIds = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @After
+    public void tearDown() {
+        for (Long id : productIds) {
+            jdbcTemplate.update("DELETE FROM products WHERE id = ?", id);
+            jdbcTemplate.update("DELETE FROM product_tombstones WHERE product_id = ?", id);
+        }
+    }
+
+    @Test
+    public void testUpsertsAndDeletionsSinceCursor() {
+        long start = cursor();
+        Product coffee = product("Café Delta", "DELTA-001");
+        Product sugar = product("Açúcar Delta", "DELTA-002");
+
+        productChangeService.assignSequences();
+        List<ProductChange> created = ownChanges(start);
+        assertEquals(2, created.size());
+        assertFalse(created.get(0).isDeleted());
+        assertTrue(created.get(0).getSequence() < created.get(1).getSequence());
+        assertNotNull(created.get(0).getLastModified());
+
+        long afterCreate = cursor();
+        productService.updateProductPrice(coffee.getId(), new BigDecimal("12.50"));
+        productService.deleteProduct(sugar.getId());
+        productChangeService.assignSequences();
+
+        List<ProductChange> changed = ownChanges(afterCreate);
+        assertEquals(2, changed.size());
+        ProductChange update = find(changed, coffee.getId());
+        assertFalse(update.isDeleted());
+        assertEquals(0, new BigDecimal("12.50").compareTo(update.getProduct().getPrice()));
+        ProductChange tombstone = find(changed, sugar.getId());
+        assertTrue(tombstone.isDeleted());
+        assertNull(tombstone.getProduct());
+
+        // Nada novo depois do último cursor
+        ProductChanges none = productChangeService.changesSince(cursor(), 10);
+        assertTrue(none.getChanges().isEmpty());
+        assertEquals(cursor(), none.getNextSince());
+    }
+
+    @Test
+    public void testUnsequencedChangesAreNotVisible() {
+        long start = cursor();
+        Product product = product("Produto Pendente", "DELTA-003");
+
+        // Enquanto não há sequência, a alteração não aparece; o cursor não avança além dela
+        jdbcTemplate.update("UPDATE products SET change_seq = NULL WHERE id = ?", product.getId());
+        assertNull(find(productChangeService.changesSince(start, 1000).getChanges(), product.getId()));
+
+        productChangeService.assignSequences();
+        assertNotNull(find(productChangeService.changesSince(start, 1000).getChanges(), product.getId()));
+    }
+
+    @Test
+    public void testChangesCarryReorderThreshold() {
+        long start = cursor();
+        Product product = product("Produto Limite", "DELTA-008");
+        productService.updateReorderThreshold(product.getId(), 25);
+        productChangeService.assignSequences();
+
+        ProductChange change = find(ownChanges(start), product.getId());
+        assertEquals(Integer.valueOf(25), change.getProduct().getReorderThreshold());
+    }
+
+    @Test
+    public void testPagingWithHasMore() {
+        long start = cursor();
+        product("Página 1", "DELTA-004");
+        product("Página 2", "DELTA-005");
+        product("Página 3", "DELTA-006");
+        productChangeService.assignSequences();
+
+        ProductChanges first = productChangeService.changesSince(start, 2);
+        assertEquals(2, first.getChanges().size());
+        assertTrue(first.isHasMore());
+        ProductChanges second = productChangeService.changesSince(first.getNextSince(), 2);
+        assertEquals(1, second.getChanges().size());
+        assertFalse(second.isHasMore());
+    }
+
+    @Test
+    public void testPrunedTombstonesRequireReset() {
+        Product product = product("Produto Descartado", "DELTA-007");
+        productChangeService.assignSequences();
+        long beforeDelete = cursor();
+        productService.deleteProduct(product.getId());
+        productChangeService.assignSequences();
+
+        jdbcTemplate.update("UPDATE product_tombstones SET deleted_at = DATEADD('DAY', -60, LOCALTIMESTAMP) "
+                + "WHERE product_id = ?", product.getId());
+        assertTrue(productChangeService.pruneTombstones() >= 1);
+
+        assertTrue(productChangeService.changesSince(beforeDelete, 10).isResetRequired());
+        assertFalse(productChangeService.changesSince(0, 10).isResetRequired());
+        assertFalse(productChangeService.changesSince(cursor(), 10).isResetRequired());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeCursorIsRejected() {
+        productChangeService.changesSince(-1, 10);
+    }
+
+    private long cursor() {
+        productChangeService.assignSequences();
+        List<Long> last = jdbcTemplate.queryForList(
+                "SELECT last_sequence FROM product_change_sequence WHERE id = 1", Long.class);
+        return last.isEmpty() ? 0 : last.get(0);
+    }
+
+    private List<ProductChange> ownChanges(long since) {
+        List<ProductChange> own = new ArrayList<>();
+        for (ProductChange change : productChangeService.changesSince(since, 1000).getChanges()) {
+            if (productIds.contains(change.getProductId())) {
+                own.add(change);
+            }
+        }
+        return own;
+    }
+
+    private static ProductChange find(List<ProductChange> changes, Long productId) {
+        Optional<ProductChange> change = changes.stream()
+                .filter(candidate -> candidate.getProductId().equals(productId))
+                .findFirst();
+        return change.orElse(null);
+    }
+
+    private Product product(String name, String sku) {
+        Product product = new Product();
+        product.setName(name);
+        product.setSku(sku);
+        product.setPrice(new BigDecimal("10.00"));
+        product.setStock(10);
+        Product saved = productService.saveProduct(product);
+        productIds.add(saved.getId());
+        return saved;
+    }
+}
@@ -0,0 +1,133 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import br.com.bluesoft.erp.testecandidatos.event.ProductChangedEvent;
+import br.com.bluesoft.erp.testecandidatos.model.CachedResponse;
+import br.com.bluesoft.erp.testecandidatos.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes para o cache de respostas do catálogo.
+ */
+public class ProductResponseCacheTest {
+
+    private ProductResponseCache cache;
+    private AtomicInteger loads;
+
+    @Before
+    public void setUp() {
+        cache = new ProductResponseCache(new ObjectMapper(), true, 256);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    public void testListIsSerializedOnceUntilProductChanges() {
+        List<Product> products = products(3);
+        CachedResponse first = cache.allProducts(ProductResponseCache.DATABASE, () -> load(products));
+        CachedResponse second = cache.allProducts(ProductResponseCache.DATABASE, () -> load(products));
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+
+        cache.onProductChanged(new ProductChangedEvent(ProductChangedEvent.Type.SALVO, 99L));
+        CachedResponse third = cache.allProducts(ProductResponseCache.DATABASE, () -> load(products));
+        assertEquals(2, loads.get());
+        // Conteúdo igual gera o mesmo ETag
+        assertEquals(first.getEtag(), third.getEtag());
+    }
+
+    @Test
+    public void testSourceVersionMismatchReloads() {
+        List<Product> products = products(1);
+        cache.allProducts(1, () -> load(products));
+        cache.allProducts(1, () -> load(products));
+        cache.allProducts(2, () -> load(products));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testProductChangeDropsOnlyItsSkuEntries() {
+        Product first = products(2).get(0);
+        Product other = products(2).get(1);
+        cache.productBySku(first.getSku(), ProductResponseCache.DATABASE, () -> Optional.of(load(first)));
+        cache.productBySku(other.getSku(), ProductResponseCache.DATABASE, () -> Optional.of(load(other)));
+        assertEquals(2, loads.get());
+
+        cache.onProductChanged(new ProductChangedEvent(ProductChangedEvent.Type.EXCLUIDO, first.getId()));
+        cache.productBySku(first.getSku(), ProductResponseCache.DATABASE, () -> Optional.of(load(first)));
+        cache.productBySku(other.getSku(), ProductResponseCache.DATABASE, () -> Optional.of(load(other)));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void testChangeDuringLoadIsNotCached() {
+        List<Product> products = products(1);
+        cache.allProducts(ProductResponseCache.DATABASE, () -> {
+            // Alteração confirmada enquanto a lista era lida
+            cache.onProductChanged(new ProductChangedEvent(ProductChangedEvent.Type.SALVO, 1L));
+            return load(products);
+        });
+        cache.allProducts(ProductResponseCache.DATABASE, () -> load(products));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testGzipBodyAndEtags() throws IOException {
+        CachedResponse small = cache.lowStockProducts(ProductResponseCache.DATABASE, Collections::emptyList);
+        assertNull(small.getGzipBody());
+
+        CachedResponse large = cache.lowStockProducts(2, () -> products(20));
+        assertNotNull(large.getGzipBody());
+        assertTrue(large.getGzipBody().length < large.getBody().length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(large.getGzipBody()))) {
+            assertArrayEquals(large.getBody(), in.readAllBytes());
+        }
+
+        assertTrue(large.matches(large.getEtag()));
+        assertTrue(large.matches("\"outro\", W/" + large.getGzipEtag()));
+        assertTrue(large.matches("*"));
+        assertFalse(large.matches("\"outro\""));
+        assertFalse(large.matches(null));
+    }
+
+    @Test
+    public void testDisabledCacheAlwaysLoads() {
+        cache = new ProductResponseCache(new ObjectMapper(), false, 256);
+        List<Product> products = products(20);
+        CachedResponse first = cache.allProducts(ProductResponseCache.DATABASE, () -> load(products));
+        cache.allProducts(ProductResponseCache.DATABASE, () -> load(products));
+        assertEquals(2, loads.get());
+        assertNull(first.getGzipBody());
+    }
+
+    private <T> T load(T value) {
+        loads.incrementAndGet();
+        return value;
+    }
+
+    private static List<Product> products(int count) {
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            Product product = new Product();
+            product.setId(id);
+            product.setName("Produto " + id);
+            product.setSku("SKU-" + id);
+            product.setPrice(new BigDecimal("10.00"));
+            product.setStock(5);
+            products.add(product);
+        }
+        return products;
+    }
+}
@@ -2,12 +2,16 @@ package br.com.bluesoft.erp.testecandidatos.service;
 
 import br.com.bluesoft.erp.testecandidatos.model.Product;
 import br.com.bluesoft.erp.testecandidatos.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
@@ -29,6 +33,21 @@ public class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private ProductLockManager productLockManager = new ProductLockManager(16, new SimpleMeterRegistry());
+
+    @Mock
+    private StockDeltaBuffer stockDeltaBuffer;
+
+    @Mock
+    private ProductChangeService productChangeService;
+
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -178,6 +197,31 @@ public class ProductServiceTest {
         verify(productRepository, times(1)).save(any(Product.class));
     }
 
+    @Test
+    public void testAdjustProductStock() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product1));
+
+        Integer newStock = productService.adjustProductStock(1L, -30);
+
+        assertEquals("Estoque deveria ser decrementado", Integer.valueOf(70), newStock);
+        assertEquals(Integer.valueOf(70), product1.getStock());
+        verify(productRepository, times(1)).save(product1);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAdjustProductStockInsufficient() {
+        when(productRepository.findById(2L)).thenReturn(Optional.of(product2));
+
+        productService.adjustProductStock(2L, -6);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAdjustProductStockUnknownProduct() {
+        when(productRepository.findById(99L)).thenReturn(Optional.empty());
+
+        productService.adjustProductStock(99L, 1);
+    }
+
     @Test
     public void testUpdateProductPrice() {
         // Configura o mock
@@ -204,6 +248,38 @@ public class ProductServiceTest {
         verify(productRepository, times(1)).deleteById(1L);
     }
 
+    @Test
+    public void testDeleteProductRecordsTombstoneOnlyWhenProductExisted() {
+        when(productRepository.existsById(1L)).thenReturn(true);
+        when(productRepository.existsById(2L)).thenReturn(false);
+
+        productService.deleteProduct(1L);
+        productService.deleteProduct(2L);
+
+        // Apenas a exclusão efetiva entra na sincronização incremental
+        verify(productChangeService, times(1)).recordDeletion(1L);
+        verify(productChangeService, never()).recordDeletion(2L);
+    }
+
+    @Test
+    public void testUpdateReorderThreshold() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product1));
+
+        productService.updateReorderThreshold(1L, 25);
+        assertEquals(Integer.valueOf(25), product1.getReorderThreshold());
+        assertEquals(25, product1.reorderThresholdOrDefault());
+
+        // Sem limite próprio o produto volta ao padrão
+        productService.updateReorderThreshold(1L, null);
+        assertEquals(Product.DEFAULT_REORDER_THRESHOLD, product1.reorderThresholdOrDefault());
+        verify(productRepository, times(2)).save(product1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUpdateReorderThresholdWithNegativeValue() {
+        productService.updateReorderThreshold(1L, -1);
+    }
+
     @Test
     public void testCalculateInventoryValue() {
         // Configura o mock
@@ -0,0 +1,161 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import br.com.bluesoft.erp.testecandidatos.model.Customer;
+import br.com.bluesoft.erp.testecandidatos.model.Order;
+import br.com.bluesoft.erp.testecandidatos.model.OrderItem;
+import br.com.bluesoft.erp.testecandidatos.model.Product;
+import br.com.bluesoft.erp.testecandidatos.model.ProductSales;
+import br.com.bluesoft.erp.testecandidatos.model.Status;
+import br.com.bluesoft.erp.testecandidatos.sharding.ShardedOrderStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import javax.sql.DataSource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes para os relatórios paralelos de estoque e vendas.
+ */
+public class ReportServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 10);
+
+    private JdbcTemplate jdbcTemplate;
+    private ReportServiceImpl reportService;
+
+    @Before
+    public void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:reports;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, name VARCHAR(255), sku VARCHAR(255), "
+                + "price DECIMAL(19, 2), stock INT)");
+        jdbcTemplate.execute("CREATE TABLE orders (id BIGINT PRIMARY KEY, order_date TIMESTAMP, status VARCHAR(20))");
+        jdbcTemplate.execute("CREATE TABLE order_items (id BIGINT PRIMARY KEY, order_id BIGINT, product_id BIGINT, "
+                + "quantity INT, unit_price DECIMAL(19, 2))");
+
+        jdbcTemplate.update("INSERT INTO products VALUES (1, 'Caneta', 'ABC-1', 2.00, 10), "
+                + "(2, 'Lápis', 'ABC-2', 1.00, 5), (3, 'Caderno', 'XYZ-1', 10.00, 3), (4, 'Avulso', NULL, 5.00, 1), "
+                + "(5, 'Sem estoque', 'XYZ-2', 7.00, NULL)");
+
+        jdbcTemplate.update("INSERT INTO orders VALUES (1, ?, 'PENDENTE'), (2, ?, 'FINALIZADO'), (3, ?, 'CANCELADO')",
+                DAY.atTime(9, 0), DAY.plusDays(1).atTime(18, 30), DAY.atTime(12, 0));
+        jdbcTemplate.update("INSERT INTO order_items VALUES (1, 1, 1, 3, 2.00), (2, 1, 3, 1, 10.00), "
+                + "(3, 2, 1, 5, 2.00), (4, 2, 2, 4, 1.00), (5, 3, 3, 50, 10.00)");
+
+        // Partições de dois ids para exercitar a divisão e a junção dos parciais
+        reportService = new ReportServiceImpl(dataSource, (ShardedOrderStore) null, new SimpleMeterRegistry(), 4, 2);
+    }
+
+    @After
+    public void tearDown() {
+        reportService.close();
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    public void testInventoryValueBySkuPrefix() {
+        Map<String, BigDecimal> value = reportService.inventoryValueBySkuPrefix(3);
+
+        assertEquals(0, new BigDecimal("25.00").compareTo(value.get("ABC")));
+        assertEquals(0, new BigDecimal("30.00").compareTo(value.get("XYZ")));
+        assertEquals(0, new BigDecimal("5.00").compareTo(value.get(ReportServiceImpl.NO_SKU)));
+        assertEquals(3, value.size());
+    }
+
+    @Test
+    public void testRevenueByDayIgnoresCancelledOrders() {
+        Map<LocalDate, BigDecimal> revenue = reportService.revenueByDay(DAY, DAY.plusDays(1));
+
+        assertEquals(0, new BigDecimal("16.00").compareTo(revenue.get(DAY)));
+        assertEquals(0, new BigDecimal("14.00").compareTo(revenue.get(DAY.plusDays(1))));
+        assertEquals(1, reportService.revenueByDay(DAY, DAY).size());
+        assertTrue(reportService.revenueByDay(DAY.minusDays(5), DAY.minusDays(1)).isEmpty());
+    }
+
+    @Test
+    public void testTopProductsByRevenue() {
+        List<ProductSales> top = reportService.topProducts(2);
+
+        assertEquals(2, top.size());
+        assertEquals(Long.valueOf(1L), top.get(0).getProductId());
+        assertEquals("Caneta", top.get(0).getProductName());
+        assertEquals(8L, top.get(0).getQuantity());
+        assertEquals(0, new BigDecimal("16.00").compareTo(top.get(0).getRevenue()));
+        // O pedido cancelado não conta para o caderno
+        assertEquals(Long.valueOf(3L), top.get(1).getProductId());
+        assertEquals("XYZ-1", top.get(1).getProductSku());
+    }
+
+    @Test
+    public void testOrderReportsReadEveryShard() throws Exception {
+        List<EmbeddedDatabase> shards = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            shards.add(new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build());
+        }
+        try (ShardedOrderStore store = new ShardedOrderStore(new ArrayList<DataSource>(shards))) {
+            // Os pedidos dos clientes se espalham pelos shards; o cancelado não conta
+            for (long customerId = 1; customerId <= 6; customerId++) {
+                shardedOrder(store, customerId, Status.PENDENTE, DAY, 1L, 2);
+            }
+            shardedOrder(store, 7L, Status.FINALIZADO, DAY.plusDays(1), 3L, 1);
+            shardedOrder(store, 8L, Status.CANCELADO, DAY, 3L, 50);
+
+            ReportServiceImpl sharded = new ReportServiceImpl(jdbcTemplate.getDataSource(), store,
+                    new SimpleMeterRegistry(), 4, 2);
+            try {
+                Map<LocalDate, BigDecimal> revenue = sharded.revenueByDay(DAY, DAY.plusDays(1));
+                assertEquals(0, new BigDecimal("24.00").compareTo(revenue.get(DAY)));
+                assertEquals(0, new BigDecimal("10.00").compareTo(revenue.get(DAY.plusDays(1))));
+
+                List<ProductSales> top = sharded.topProducts(2);
+                assertEquals(Long.valueOf(1L), top.get(0).getProductId());
+                assertEquals("Caneta", top.get(0).getProductName());
+                assertEquals(12L, top.get(0).getQuantity());
+                assertEquals(Long.valueOf(3L), top.get(1).getProductId());
+                assertEquals(1L, top.get(1).getQuantity());
+            } finally {
+                sharded.close();
+            }
+        } finally {
+            shards.forEach(EmbeddedDatabase::shutdown);
+        }
+    }
+
+    private static void shardedOrder(ShardedOrderStore store, long customerId, Status status, LocalDate day,
+                                     long productId, int quantity) {
+        Customer customer = new Customer();
+        customer.setId(customerId);
+        Product product = new Product();
+        product.setId(productId);
+        OrderItem item = new OrderItem();
+        item.setProduct(product);
+        item.setQuantity(quantity);
+        item.setUnitPrice(productId == 1L ? new BigDecimal("2.00") : new BigDecimal("10.00"));
+        Order order = new Order();
+        order.setCustomer(customer);
+        order.setStatus(status);
+        order.setOrderDate(day.atTime(10, 0));
+        order.getItems().add(item);
+        store.insertOrder(order);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPeriod() {
+        reportService.revenueByDay(DAY, DAY.minusDays(1));
+    }
+}
@@ -0,0 +1,203 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import br.com.bluesoft.erp.testecandidatos.TesteApplication;
+import br.com.bluesoft.erp.testecandidatos.config.TestConfig;
+import br.com.bluesoft.erp.testecandidatos.model.Customer;
+import br.com.bluesoft.erp.testecandidatos.model.DailySales;
+import br.com.bluesoft.erp.testecandidatos.model.Order;
+import br.com.bluesoft.erp.testecandidatos.model.OrderItem;
+import br.com.bluesoft.erp.testecandidatos.model.Product;
+import br.com.bluesoft.erp.testecandidatos.model.ProductSales;
+import br.com.bluesoft.erp.testecandidatos.model.RollupBackfillResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes de integração para os totais diários de vendas.
+ * Sem transação no teste, para que a manutenção antes do commit e a reconstrução em paralelo
+ * vejam os pedidos confirmados.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = TesteApplication.class)
+@ActiveProfiles("test")
+@Import(TestConfig.class)
+public class SalesRollupServiceIntegrationTest {
+
+    private static final LocalDate DAY = LocalDate.of(2020, 3, 2);
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private TransactionTemplate transactionTemplate;
+    private JdbcTemplate jdbcTemplate;
+    private Customer customer;
+    private Product coffee;
+    private Product sugar;
+    private final List<Long> orderIds = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate.executeWithoutResult(status -> {
+            customer = new Customer();
+            customer.setName("Cliente Totais");
+            customer.setEmail("totais@example.com");
+            entityManager.persist(customer);
+            coffee = product("Café Totais", "ROLL-001");
+            sugar = product("Açúcar Totais", "ROLL-002");
+        });
+    }
+
+    @After
+    public void tearDown() {
+        jdbcTemplate.update("DELETE FROM sales_rollup_orders");
+        jdbcTemplate.update("DELETE FROM daily_product_sales");
+        jdbcTemplate.update("DELETE FROM daily_sales");
+        for (Long orderId : orderIds) {
+            jdbcTemplate.update("DELETE FROM order_items WHERE order_id = ?", orderId);
+            jdbcTemplate.update("DELETE FROM orders WHERE id = ?", orderId);
+        }
+        jdbcTemplate.update("DELETE FROM products WHERE id IN (?, ?)", coffee.getId(), sugar.getId());
+        jdbcTemplate.update("DELETE FROM customers WHERE id = ?", customer.getId());
+    }
+
+    private Product product(String name, String sku) {
+        Product product = new Product();
+        product.setName(name);
+        product.setSku(sku);
+        product.setPrice(BigDecimal.TEN);
+        product.setStock(100);
+        entityManager.persist(product);
+        return product;
+    }
+
+    private Long newOrder(LocalDate day, Object... productQuantityPrice) {
+        Long orderId = transactionTemplate.execute(status -> {
+            Order order = new Order();
+            order.setOrderNumber("ORD-ROLL-" + (orderIds.size() + 1));
+            order.setOrderDate(day.atTime(10, 0));
+            order.setCustomer(customer);
+            order.setItems(new ArrayList<>());
+            entityManager.persist(order);
+            for (int i = 0; i < productQuantityPrice.length; i += 3) {
+                OrderItem item = new OrderItem();
+                item.setOrder(order);
+                item.setProduct(entityManager.find(Product.class, ((Product) productQuantityPrice[i]).getId()));
+                item.setQuantity((Integer) productQuantityPrice[i + 1]);
+                item.setUnitPrice(new BigDecimal((String) productQuantityPrice[i + 2]));
+                entityManager.persist(item);
+                order.getItems().add(item);
+            }
+            return order.getId();
+        });
+        orderIds.add(orderId);
+        return orderId;
+    }
+
+    @Test
+    public void testFinalizeAndCancelMaintainRollups() {
+        Long first = newOrder(DAY, coffee, 2, "10.00", sugar, 1, "5.00");
+        Long second = newOrder(DAY, coffee, 1, "10.00");
+
+        orderService.finalizeOrder(first);
+        orderService.finalizeOrder(second);
+        // Finalizar de novo não soma outra vez
+        orderService.finalizeOrder(second);
+
+        List<DailySales> daily = salesRollupService.dailySales(DAY, DAY);
+        assertEquals(1, daily.size());
+        assertEquals(2L, daily.get(0).getOrderCount());
+        assertEquals(0, new BigDecimal("35.00").compareTo(daily.get(0).getRevenue()));
+        assertEquals(0, new BigDecimal("17.50").compareTo(salesRollupService.averageOrderValue(DAY, DAY)));
+
+        List<ProductSales> products = salesRollupService.productSales(DAY, DAY);
+        assertEquals(2, products.size());
+        assertEquals(coffee.getId(), products.get(0).getProductId());
+        assertEquals("Café Totais", products.get(0).getProductName());
+        assertEquals(3L, products.get(0).getQuantity());
+        assertEquals(0, new BigDecimal("30.00").compareTo(products.get(0).getRevenue()));
+
+        orderService.cancelOrder(first);
+
+        daily = salesRollupService.dailySales(DAY, DAY);
+        assertEquals(1L, daily.get(0).getOrderCount());
+        assertEquals(0, new BigDecimal("10.00").compareTo(daily.get(0).getRevenue()));
+        products = salesRollupService.productSales(DAY, DAY);
+        assertEquals(1, products.size());
+        assertEquals(1L, products.get(0).getQuantity());
+    }
+
+    @Test
+    public void testBackfillAppliesHistoryOnce() {
+        Long live = newOrder(DAY, coffee, 1, "10.00");
+        orderService.finalizeOrder(live);
+        Long cancelled = newOrder(DAY, sugar, 4, "5.00");
+        orderService.cancelOrder(cancelled);
+
+        // Pedidos finalizados antes de existirem os totais
+        Long old = newOrder(DAY.minusDays(1), coffee, 3, "10.00", sugar, 2, "5.00");
+        Long older = newOrder(DAY.minusDays(2), sugar, 1, "5.00");
+        jdbcTemplate.update("UPDATE orders SET status = 'FINALIZADO' WHERE id IN (?, ?, ?)", old, older, cancelled);
+
+        RollupBackfillResult result = salesRollupService.backfill();
+        assertEquals(2L, result.getOrdersApplied());
+        assertEquals(0L, result.getFailedBatches());
+        assertEquals(0L, salesRollupService.backfill().getOrdersApplied());
+
+        List<DailySales> daily = salesRollupService.dailySales(DAY.minusDays(2), DAY);
+        assertEquals(3, daily.size());
+        assertEquals(0, new BigDecimal("5.00").compareTo(daily.get(0).getRevenue()));
+        assertEquals(0, new BigDecimal("40.00").compareTo(daily.get(1).getRevenue()));
+        assertEquals(0, new BigDecimal("10.00").compareTo(daily.get(2).getRevenue()));
+        assertEquals(0, new BigDecimal("18.33").compareTo(salesRollupService.averageOrderValue(DAY.minusDays(2), DAY)));
+
+        List<ProductSales> products = salesRollupService.productSales(DAY.minusDays(2), DAY);
+        assertEquals(4L, products.get(0).getQuantity());
+        assertEquals(3L, products.get(1).getQuantity());
+    }
+
+    @Test
+    public void testEmptyPeriodAndInvalidPeriod() {
+        assertTrue(salesRollupService.dailySales(DAY, DAY).isEmpty());
+        assertEquals(0, BigDecimal.ZERO.compareTo(salesRollupService.averageOrderValue(DAY, DAY)));
+        try {
+            salesRollupService.productSales(DAY, DAY.minusDays(1));
+            fail("Período invertido deveria ser rejeitado");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Data inicial posterior à data final", e.getMessage());
+        }
+    }
+}
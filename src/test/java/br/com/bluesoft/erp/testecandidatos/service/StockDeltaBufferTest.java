@@ -0,0 +1,172 @@
+package br.com.bluesoft.erp.testecandidatos.service;
+
+import br.com.bluesoft.erp.testecandidatos.model.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Testes para a escrita adiada de deltas de estoque.
+ */
+public class StockDeltaBufferTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private StockDeltaBuffer buffer;
+
+    @Before
+    public void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:stock-buffer;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, stock INT, change_seq BIGINT, "
+                + "last_modified TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE stock_journal_checkpoints "
+                + "(id BIGINT PRIMARY KEY, generation BIGINT NOT NULL, updated_at TIMESTAMP NOT NULL)");
+        jdbcTemplate.update("INSERT INTO products (id, stock) VALUES (1, 100), (2, NULL)");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (buffer != null) {
+            buffer.stop();
+        }
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    private StockDeltaBuffer newBuffer(int maxPendingDeltas) throws IOException {
+        StockDeltaBuffer created = new StockDeltaBuffer(dataSource, new DataSourceTransactionManager(dataSource),
+                mock(ApplicationEventPublisher.class), new SimpleMeterRegistry(), true, maxPendingDeltas,
+                folder.getRoot().toPath().resolve("stock.journal").toString(), false);
+        created.start();
+        return created;
+    }
+
+    private int stockInDatabase(long productId) {
+        Integer stock = jdbcTemplate.queryForObject("SELECT stock FROM products WHERE id = ?", Integer.class, productId);
+        return stock == null ? 0 : stock;
+    }
+
+    private Optional<Product> load(long productId) {
+        Product product = new Product();
+        product.setId(productId);
+        product.setStock(stockInDatabase(productId));
+        return Optional.of(product);
+    }
+
+    @Test
+    public void testDeltasAreBatchedAndVisibleBeforeFlush() throws IOException {
+        buffer = newBuffer(1000);
+
+        buffer.add(1L, -3);
+        buffer.add(1L, -2);
+        buffer.add(2L, 7);
+
+        // Banco ainda não foi alterado, mas a leitura já enxerga os deltas
+        assertEquals(100, stockInDatabase(1L));
+        assertEquals(Integer.valueOf(95), buffer.withPendingStock(() -> load(1L)).get().getStock());
+        assertEquals(3, buffer.getPendingDeltas());
+
+        assertEquals("Dois produtos deveriam ser atualizados", 2, buffer.flush());
+        assertEquals(95, stockInDatabase(1L));
+        assertEquals(7, stockInDatabase(2L));
+        assertEquals(0, buffer.getPendingDeltas());
+        assertEquals(Integer.valueOf(95), buffer.withPendingStock(() -> load(1L)).get().getStock());
+    }
+
+    @Test
+    public void testPendingStockCopyKeepsEveryField() throws IOException {
+        buffer = newBuffer(1000);
+        buffer.add(1L, -5);
+
+        Product loaded = load(1L).get();
+        loaded.setName("Caneta");
+        loaded.setDescription("Azul");
+        loaded.setPrice(new BigDecimal("2.50"));
+        loaded.setSku("CAN-001");
+        loaded.setReorderThreshold(10);
+        loaded.setChangeSequence(42L);
+        loaded.setLastModified(LocalDateTime.of(2024, 3, 10, 9, 0));
+
+        Product copy = buffer.withPendingStock(() -> Optional.of(loaded)).get();
+        assertNotSame(loaded, copy);
+        assertEquals(Integer.valueOf(95), copy.getStock());
+        // Todos os campos, exceto o estoque, são os do produto lido
+        copy.setStock(loaded.getStock());
+        assertEquals(loaded, copy);
+    }
+
+    @Test
+    public void testFlushProductBeforeAbsoluteWrite() throws IOException {
+        buffer = newBuffer(1000);
+
+        // Produto sem deltas não dispara descarga
+        buffer.add(2L, 4);
+        buffer.flushProduct(1L);
+        assertEquals(1, buffer.getPendingDeltas());
+
+        buffer.add(1L, -5);
+        buffer.flushProduct(1L);
+        assertEquals(95, stockInDatabase(1L));
+        assertEquals(0, buffer.getPendingDeltas());
+
+        // Gravação absoluta depois da descarga não recebe o delta de novo
+        jdbcTemplate.update("UPDATE products SET stock = 40 WHERE id = 1");
+        buffer.flush();
+        assertEquals(40, stockInDatabase(1L));
+    }
+
+    @Test
+    public void testFlushWhenMaxPendingDeltasIsReached() throws IOException {
+        buffer = newBuffer(3);
+
+        buffer.add(1L, -1);
+        buffer.add(1L, -1);
+        assertEquals(100, stockInDatabase(1L));
+        buffer.add(1L, -1);
+
+        assertEquals(97, stockInDatabase(1L));
+    }
+
+    @Test
+    public void testJournalIsReplayedAfterCrash() throws IOException {
+        StockDeltaBuffer crashed = newBuffer(1000);
+        crashed.add(1L, -10);
+        crashed.add(2L, 4);
+        // Sem descarga nem stop(): simula a queda do processo
+
+        buffer = newBuffer(1000);
+
+        assertEquals(90, stockInDatabase(1L));
+        assertEquals(4, stockInDatabase(2L));
+    }
+
+    @Test
+    public void testAppliedGenerationsAreNotReplayedTwice() throws IOException {
+        StockDeltaBuffer first = newBuffer(1000);
+        first.add(1L, -10);
+        first.flush();
+        first.stop();
+
+        buffer = newBuffer(1000);
+
+        assertEquals(90, stockInDatabase(1L));
+    }
+}
@@ -0,0 +1,189 @@
+package br.com.bluesoft.erp.testecandidatos.sharding;
+
+import br.com.bluesoft.erp.testecandidatos.model.Customer;
+import br.com.bluesoft.erp.testecandidatos.model.Order;
+import br.com.bluesoft.erp.testecandidatos.model.OrderItem;
+import br.com.bluesoft.erp.testecandidatos.model.Product;
+import br.com.bluesoft.erp.testecandidatos.model.Status;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes para a distribuição de pedidos em shards, com bancos H2 em memória como shards.
+ */
+public class ShardedOrderStoreTest {
+
+    private static final int SHARDS = 3;
+
+    private final List<EmbeddedDatabase> databases = new ArrayList<>();
+    private ShardedOrderStore store;
+
+    @Before
+    public void setUp() {
+        for (int i = 0; i < SHARDS; i++) {
+            databases.add(new EmbeddedDatabaseBuilder()
+                    .setType(EmbeddedDatabaseType.H2)
+                    .generateUniqueName(true)
+                    .build());
+        }
+        store = new ShardedOrderStore(new ArrayList<DataSource>(databases));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        store.close();
+        databases.forEach(EmbeddedDatabase::shutdown);
+    }
+
+    private Order newOrder(long customerId, int... quantities) {
+        Customer customer = new Customer();
+        customer.setId(customerId);
+        Order order = new Order();
+        order.setCustomer(customer);
+        order.setOrderDate(LocalDateTime.now());
+        for (int quantity : quantities) {
+            order.getItems().add(item(quantity));
+        }
+        return store.insertOrder(order);
+    }
+
+    private static OrderItem item(int quantity) {
+        Product product = new Product();
+        product.setId(10L + quantity);
+        OrderItem item = new OrderItem();
+        item.setProduct(product);
+        item.setQuantity(quantity);
+        item.setUnitPrice(BigDecimal.TEN);
+        return item;
+    }
+
+    private long rowsInShard(int shard, long customerId) {
+        return new JdbcTemplate(databases.get(shard)).queryForObject(
+                "SELECT COUNT(*) FROM orders WHERE customer_id = ?", Long.class, customerId);
+    }
+
+    @Test
+    public void testRouterEncodesShardInIdsAndNumbers() {
+        OrderShardRouter router = new OrderShardRouter(SHARDS);
+        long id = router.globalId(2, 41);
+
+        assertEquals(OptionalInt.of(2), router.shardOfId(id));
+        assertEquals("ORD-002-41", router.orderNumber(id));
+        assertEquals(OptionalInt.of(2), router.shardOfOrderNumber("ORD-002-41"));
+        assertFalse(router.shardOfOrderNumber("ORD-190000").isPresent());
+        assertFalse(router.shardOfOrderNumber("ORD-007-1").isPresent());
+
+        // Shards acima de 999 usam quatro dígitos no número do pedido
+        OrderShardRouter largest = new OrderShardRouter(OrderShardRouter.MAX_SHARDS);
+        String number = largest.orderNumber(largest.globalId(1023, 7));
+        assertEquals("ORD-1023-7", number);
+        assertEquals(OptionalInt.of(1023), largest.shardOfOrderNumber(number));
+
+        // Clientes sequenciais se espalham por todos os shards
+        Set<Integer> used = new HashSet<>();
+        for (long customerId = 1; customerId <= 30; customerId++) {
+            used.add(router.shardForCustomer(customerId));
+        }
+        assertEquals(SHARDS, used.size());
+    }
+
+    @Test
+    public void testOrdersOfACustomerLiveInItsShard() {
+        Order first = newOrder(7L, 1, 2);
+        Order second = newOrder(7L, 3);
+        newOrder(8L, 1);
+
+        int shard = store.getRouter().shardForCustomer(7L);
+        assertEquals(2L, rowsInShard(shard, 7L));
+        for (int other = 0; other < SHARDS; other++) {
+            if (other != shard) {
+                assertEquals(0L, rowsInShard(other, 7L));
+            }
+        }
+        assertEquals(OptionalInt.of(shard), store.getRouter().shardOfOrderNumber(first.getOrderNumber()));
+
+        List<Order> orders = store.findByCustomerId(7L);
+        assertEquals(Arrays.asList(first.getId(), second.getId()),
+                Arrays.asList(orders.get(0).getId(), orders.get(1).getId()));
+        assertEquals(2, orders.get(0).getItems().size());
+        assertEquals(Long.valueOf(7L), orders.get(0).getCustomer().getId());
+        assertEquals(Long.valueOf(12L), orders.get(0).getItems().get(1).getProduct().getId());
+    }
+
+    @Test
+    public void testLookupsByIdAndNumberGoToTheEncodedShard() {
+        Order order = newOrder(42L, 2);
+
+        Order byId = store.findById(order.getId()).get();
+        assertEquals(order.getOrderNumber(), byId.getOrderNumber());
+        assertEquals(0, new BigDecimal("20").compareTo(byId.calculateTotal()));
+        assertEquals(order.getId(), store.findByNumber(order.getOrderNumber()).get().getId());
+
+        assertFalse(store.findById(-1L).isPresent());
+        assertFalse(store.findByNumber("ORD-000-999999").isPresent());
+        // Números fora do formato dos shards ainda são procurados em todos os shards
+        assertFalse(store.findByNumber("ORD-190000").isPresent());
+    }
+
+    @Test
+    public void testFindAllGathersEveryShard() {
+        Set<Long> expected = new HashSet<>();
+        for (long customerId = 1; customerId <= 12; customerId++) {
+            expected.add(newOrder(customerId, 1).getId());
+        }
+
+        List<Order> all = store.findAll();
+        assertEquals(12, all.size());
+        Set<Long> ids = new HashSet<>();
+        for (Order order : all) {
+            ids.add(order.getId());
+            assertEquals(1, order.getItems().size());
+        }
+        assertEquals(expected, ids);
+        assertEquals(expected, new HashSet<>(store.findOrderIds()));
+        assertEquals(12, store.findCustomerIds().size());
+        assertEquals(SHARDS, store.getShards().size());
+    }
+
+    @Test
+    public void testItemChangesAndStatusUpdates() {
+        Order order = newOrder(5L, 1);
+        OrderItem added = item(4);
+        store.insertItem(order, added);
+        assertEquals(OptionalInt.of(store.getRouter().shardForCustomer(5L)),
+                store.getRouter().shardOfId(added.getId()));
+
+        added.setQuantity(6);
+        store.updateItem(order, added);
+        Long firstItemId = order.getItems().get(0).getId();
+        assertTrue(store.deleteItem(order.getId(), firstItemId));
+        assertFalse(store.deleteItem(order.getId(), firstItemId));
+
+        order.setStatus(Status.FINALIZADO);
+        order.setTotalAmount(new BigDecimal("60.00"));
+        store.updateOrder(order);
+
+        Order reloaded = store.findById(order.getId()).get();
+        assertEquals(1, reloaded.getItems().size());
+        assertEquals(Integer.valueOf(6), reloaded.getItems().get(0).getQuantity());
+        assertEquals(Status.FINALIZADO, reloaded.getStatus());
+        assertEquals(0, new BigDecimal("60.00").compareTo(reloaded.getTotalAmount()));
+    }
+}
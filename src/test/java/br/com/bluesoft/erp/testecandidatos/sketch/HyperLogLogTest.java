@@ -0,0 +1,90 @@
+package br.com.bluesoft.erp.testecandidatos.sketch;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes para a contagem aproximada de valores distintos.
+ */
+public class HyperLogLogTest {
+
+    private static void assertWithin(long expected, long actual, double tolerance) {
+        double error = Math.abs(actual - expected) / (double) expected;
+        assertTrue("esperado " + expected + ", estimado " + actual, error <= tolerance);
+    }
+
+    @Test
+    public void testEstimateIsCloseToExactCount() {
+        HyperLogLog sketch = new HyperLogLog(14);
+        assertEquals(0, sketch.estimate());
+
+        // Faixa pequena (contagem linear) e faixa grande, com ids sequenciais e repetidos
+        for (long id = 1; id <= 500; id++) {
+            sketch.add(id);
+            sketch.add(id);
+        }
+        assertWithin(500, sketch.estimate(), 0.02);
+
+        for (long id = 501; id <= 200_000; id++) {
+            sketch.add(id);
+        }
+        // Três desvios padrão do erro típico
+        assertWithin(200_000, sketch.estimate(), 3 * sketch.getRelativeError());
+    }
+
+    @Test
+    public void testMergeCountsTheUnion() {
+        HyperLogLog monday = new HyperLogLog(12);
+        HyperLogLog tuesday = new HyperLogLog(12);
+        HyperLogLog week = new HyperLogLog(12);
+        Random random = new Random(11);
+        for (int i = 0; i < 30_000; i++) {
+            long customer = random.nextInt(40_000);
+            monday.add(customer);
+            week.add(customer);
+        }
+        for (int i = 0; i < 30_000; i++) {
+            long customer = 20_000 + random.nextInt(40_000);
+            tuesday.add(customer);
+            week.add(customer);
+        }
+
+        HyperLogLog merged = HyperLogLog.fromBytes(monday.toBytes());
+        merged.merge(tuesday);
+        // Combinar de novo não altera o resultado
+        merged.merge(tuesday);
+        assertEquals(week.estimate(), merged.estimate());
+        assertArrayEquals(week.toBytes(), merged.toBytes());
+
+        try {
+            merged.merge(new HyperLogLog(10));
+            fail("Precisões diferentes não podem ser combinadas");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Precisões diferentes: 12 e 10", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testSerializationRoundTrip() {
+        HyperLogLog sketch = new HyperLogLog(10);
+        for (long id = 0; id < 5_000; id++) {
+            sketch.add(id * 31);
+        }
+
+        byte[] bytes = sketch.toBytes();
+        assertEquals(1 + 1024, bytes.length);
+        HyperLogLog restored = HyperLogLog.fromBytes(bytes);
+        assertEquals(10, restored.getPrecision());
+        assertEquals(sketch.estimate(), restored.estimate());
+
+        try {
+            HyperLogLog.fromBytes(new byte[]{10, 0, 0});
+            fail("Tamanho incompatível com a precisão");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().startsWith("Tamanho inválido"));
+        }
+    }
+}
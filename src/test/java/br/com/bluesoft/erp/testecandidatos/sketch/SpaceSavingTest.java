@@ -0,0 +1,151 @@
+package br.com.bluesoft.erp.testecandidatos.sketch;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes para a contagem aproximada dos itens mais frequentes, comparada com a contagem exata.
+ */
+public class SpaceSavingTest {
+
+    private static final int PRODUCTS = 5_000;
+
+    /**
+     * Fluxo com distribuição de Zipf (poucos produtos concentram a maior parte das vendas).
+     */
+    private static long[] zipfStream(int length, long seed) {
+        double[] cumulative = new double[PRODUCTS];
+        double sum = 0;
+        for (int rank = 1; rank <= PRODUCTS; rank++) {
+            sum += 1.0 / rank;
+            cumulative[rank - 1] = sum;
+        }
+        Random random = new Random(seed);
+        long[] stream = new long[length];
+        for (int i = 0; i < length; i++) {
+            double target = random.nextDouble() * sum;
+            int low = 0;
+            int high = PRODUCTS - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (cumulative[middle] < target) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            stream[i] = low + 1;
+        }
+        return stream;
+    }
+
+    private static List<Long> exactTop(Map<Long, Long> exact, int n) {
+        List<Map.Entry<Long, Long>> entries = new ArrayList<>(exact.entrySet());
+        entries.sort((a, b) -> b.getValue().equals(a.getValue())
+                ? Long.compare(a.getKey(), b.getKey())
+                : Long.compare(b.getValue(), a.getValue()));
+        List<Long> top = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            top.add(entries.get(i).getKey());
+        }
+        return top;
+    }
+
+    @Test
+    public void testTopItemsMatchExactCounts() {
+        SpaceSaving sketch = new SpaceSaving(200);
+        Map<Long, Long> exact = new HashMap<>();
+        Random quantities = new Random(7);
+        for (long product : zipfStream(200_000, 42)) {
+            int quantity = 1 + quantities.nextInt(3);
+            sketch.offer(product, quantity);
+            exact.merge(product, (long) quantity, Long::sum);
+        }
+
+        assertEquals(200, sketch.size());
+        List<SpaceSaving.Entry> top = sketch.top(10);
+        List<Long> expected = exactTop(exact, 10);
+        List<Long> actual = new ArrayList<>();
+        for (SpaceSaving.Entry entry : top) {
+            actual.add(entry.getItem());
+        }
+        assertEquals(expected, actual);
+
+        // A contagem real fica sempre entre count - error e count
+        for (SpaceSaving.Entry entry : sketch.entries()) {
+            long real = exact.getOrDefault(entry.getItem(), 0L);
+            assertTrue(entry + " real " + real, real <= entry.getCount());
+            assertTrue(entry + " real " + real, real >= entry.getCount() - entry.getError());
+        }
+
+        // Todo item acima de total / capacidade está entre os contadores
+        long threshold = sketch.getTotal() / sketch.getCapacity();
+        exact.forEach((product, count) -> {
+            if (count > threshold) {
+                assertNotNull("produto " + product, sketch.estimate(product));
+            }
+        });
+    }
+
+    @Test
+    public void testReplacementInheritsMinimumAsError() {
+        SpaceSaving sketch = new SpaceSaving(2);
+        sketch.offer(1, 5);
+        sketch.offer(2, 3);
+        sketch.offer(3, 1);
+
+        assertNull(sketch.estimate(2));
+        SpaceSaving.Entry replaced = sketch.estimate(3);
+        assertEquals(4, replaced.getCount());
+        assertEquals(3, replaced.getError());
+        assertEquals(4, sketch.minCount());
+        assertEquals(9, sketch.getTotal());
+    }
+
+    @Test
+    public void testSlidingWindowMatchesExactCountsAndExpiresOldBuckets() {
+        SlidingTopK window = new SlidingTopK(100, Duration.ofMinutes(5), 12);
+        long hour = Duration.ofHours(1).toMillis();
+        long start = 1_000 * hour;
+        long[] stream = zipfStream(60_000, 3);
+
+        // Duas horas de vendas; só a segunda hora entra na janela
+        Map<Long, Long> lastHour = new HashMap<>();
+        for (int i = 0; i < stream.length; i++) {
+            long timestamp = start + (2 * hour) * i / stream.length;
+            window.offer(stream[i], 1, timestamp);
+            if (timestamp >= start + hour) {
+                lastHour.merge(stream[i], 1L, Long::sum);
+            }
+        }
+        long now = start + 2 * hour - 1;
+
+        List<SpaceSaving.Entry> top = window.top(5, now);
+        Set<Long> actual = new HashSet<>();
+        for (SpaceSaving.Entry entry : top) {
+            actual.add(entry.getItem());
+            long real = lastHour.get(entry.getItem());
+            assertTrue(entry + " real " + real, real <= entry.getCount());
+            assertTrue(entry + " real " + real, real >= entry.getCount() - entry.getError());
+        }
+        assertEquals(new HashSet<>(exactTop(lastHour, 5)), actual);
+
+        // Consultas repetidas usam o resultado em cache
+        assertEquals(top.get(0).getCount(), window.top(1, now).get(0).getCount());
+
+        // Uma hora depois sem vendas a janela está vazia, e vendas antigas são descartadas
+        assertTrue(window.top(5, now + hour + 1).isEmpty());
+        window.offer(1, 10, start);
+        assertTrue(window.top(5, now + hour + 1).isEmpty());
+    }
+}
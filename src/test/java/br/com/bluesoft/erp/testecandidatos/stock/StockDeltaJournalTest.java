@@ -0,0 +1,87 @@
+package br.com.bluesoft.erp.testecandidatos.stock;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes para o diário de deltas de estoque.
+ */
+public class StockDeltaJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testAppendRotateAndReplay() throws IOException {
+        Path base = folder.getRoot().toPath().resolve("stock.journal");
+        List<String> replayed = new ArrayList<>();
+
+        try (StockDeltaJournal journal = new StockDeltaJournal(base, false)) {
+            journal.open(1);
+            journal.append(10L, -2);
+            journal.append(11L, 5);
+            assertEquals(1L, journal.rotate());
+            journal.append(10L, -1);
+
+            assertEquals(Arrays.asList(1L, 2L), journal.generations());
+            assertEquals(2, journal.replay(1, (id, delta) -> replayed.add(id + ":" + delta)));
+            assertEquals(Arrays.asList("10:-2", "11:5"), replayed);
+
+            // A geração corrente nunca é removida
+            journal.deleteUpTo(2);
+            assertEquals(Arrays.asList(2L), journal.generations());
+        }
+    }
+
+    @Test
+    public void testTornTrailingRecordIsIgnored() throws IOException {
+        Path base = folder.getRoot().toPath().resolve("stock.journal");
+        try (StockDeltaJournal journal = new StockDeltaJournal(base, false)) {
+            journal.open(1);
+            journal.append(1L, 3);
+            journal.append(2L, 4);
+        }
+
+        // Simula uma queda no meio da escrita do último registro
+        Path file = folder.getRoot().toPath().resolve("stock.journal.1");
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(StockDeltaJournal.RECORD_SIZE + 6);
+        }
+
+        try (StockDeltaJournal journal = new StockDeltaJournal(base, false)) {
+            List<Long> ids = new ArrayList<>();
+            assertEquals(1, journal.replay(1, (id, delta) -> ids.add(id)));
+            assertEquals(Arrays.asList(1L), ids);
+        }
+    }
+
+    @Test
+    public void testCorruptedRecordStopsReplay() throws IOException {
+        Path base = folder.getRoot().toPath().resolve("stock.journal");
+        try (StockDeltaJournal journal = new StockDeltaJournal(base, false)) {
+            journal.open(1);
+            journal.append(1L, 3);
+            journal.append(2L, 4);
+        }
+
+        Path file = folder.getRoot().toPath().resolve("stock.journal.1");
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(StockDeltaJournal.RECORD_SIZE + 9);
+            raf.write(0x7F);
+        }
+
+        try (StockDeltaJournal journal = new StockDeltaJournal(base, false)) {
+            assertEquals(1, journal.replay(1, (id, delta) -> { }));
+        }
+    }
+}